@@ -0,0 +1,28 @@
+package com.example.placesearch.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@ConfigurationProperties(prefix = "place.admission")
+public class AdmissionProperties {
+    private boolean enabled = true;
+    // 预估行数达到该值视为重请求，需要获取所在接口的重请求许可
+    private long heavyCostThreshold = 20_000;
+    // 预估行数超过该值直接拒绝
+    private long maxCost = 2_000_000;
+    // 每个接口同时执行的重请求数
+    private int heavyPermitsPerEndpoint = 4;
+    // 重请求排队等待许可的最长时间
+    private long heavyQueueTimeoutMs = 2_000;
+    // 单个客户端同时执行的请求数
+    private int permitsPerClient = 8;
+    // 只采信来自这些网关地址的 X-Client-Id，其余请求按对端地址识别客户端
+    private List<String> trustedProxies = new ArrayList<>();
+    // 没有统计数据时使用的 POI 密度（个/平方公里）与单城市 POI 数
+    private double defaultDensityPerKm2 = 2_000;
+    private long defaultCityRows = 500_000;
+}
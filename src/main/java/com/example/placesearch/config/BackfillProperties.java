@@ -0,0 +1,15 @@
+package com.example.placesearch.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "place.backfill.wgs84")
+public class BackfillProperties {
+    // 启动时是否回填缺失的 wgs84lon/wgs84lat
+    private boolean enabled = false;
+    // 每批读取/更新的行数
+    private int batchSize = 5000;
+    // 并行转换+写回的线程数
+    private int threads = 4;
+}
@@ -0,0 +1,15 @@
+package com.example.placesearch.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "place.boundary")
+public class BoundaryProperties {
+    // 启动时加载本地行政区边界，开启后 /place/city 的 adcode 检索支持 clip=true 按边界精筛
+    private boolean enabled = false;
+    // GeoJSON 文件或目录（目录下所有 .json/.geojson），Feature 的 properties.adcode 为行政区划编码
+    private String path = "data/boundaries";
+    // 每个边界预先栅格化的网格数（每个方向），只有边界网格内的点需要做射线法判断
+    private int gridSize = 128;
+}
@@ -0,0 +1,57 @@
+package com.example.placesearch.config;
+
+import java.util.function.Supplier;
+
+/**
+ * 标记当前线程上的读请求类型，决定只读事务使用轻量查询连接池还是扫描连接池；
+ * 设置了分片时，本线程的所有连接都取自该分片。
+ */
+public final class DataSourceRouting {
+    private static final ThreadLocal<Workload> WORKLOAD = new ThreadLocal<>();
+    private static final ThreadLocal<String> SHARD = new ThreadLocal<>();
+
+    private DataSourceRouting() {
+    }
+
+    public enum Workload {
+        LOOKUP,
+        SCAN
+    }
+
+    public static Workload currentWorkload() {
+        Workload workload = WORKLOAD.get();
+        return workload == null ? Workload.LOOKUP : workload;
+    }
+
+    public static <T> T with(Workload workload, Supplier<T> action) {
+        Workload previous = WORKLOAD.get();
+        WORKLOAD.set(workload);
+        try {
+            return action.get();
+        } finally {
+            if (previous == null) {
+                WORKLOAD.remove();
+            } else {
+                WORKLOAD.set(previous);
+            }
+        }
+    }
+
+    public static String currentShard() {
+        return SHARD.get();
+    }
+
+    public static <T> T withShard(String shard, Supplier<T> action) {
+        String previous = SHARD.get();
+        SHARD.set(shard);
+        try {
+            return action.get();
+        } finally {
+            if (previous == null) {
+                SHARD.remove();
+            } else {
+                SHARD.set(previous);
+            }
+        }
+    }
+}
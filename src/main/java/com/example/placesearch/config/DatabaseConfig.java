@@ -1,4 +1,108 @@
 package com.example.placesearch.config;
 
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.util.StringUtils;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 主库 + N 个只读副本。只读事务（Spring Data 的查询方法默认就是只读事务）路由到副本，
+ * 写入和非事务访问走主库；每个节点拆分轻量查询与范围扫描两个 Hikari 连接池，
+ * 避免大范围检索占满连接后 code 表点查也要排队。
+ */
+@Configuration
+@EnableConfigurationProperties({DataSourceProperties.class, DatabaseProperties.class, ShardingProperties.class})
 public class DatabaseConfig {
+
+    @Bean(destroyMethod = "close")
+    public ReadRoutingDataSource readRoutingDataSource(DataSourceProperties primary, DatabaseProperties properties,
+                                                       ShardingProperties sharding) {
+        String url = primary.determineUrl();
+        String username = primary.determineUsername();
+        String password = primary.determinePassword();
+
+        HikariDataSource writePool = pool("primary-write", url, username, password,
+                properties.getWritePool(), properties);
+        ReadRoutingDataSource.Node primaryRead = node("primary", url, username, password, properties);
+
+        List<ReadRoutingDataSource.Node> replicas = new ArrayList<>();
+        List<DatabaseProperties.Replica> configured = properties.getReplicas();
+        for (int i = 0; i < configured.size(); i++) {
+            DatabaseProperties.Replica replica = configured.get(i);
+            if (!StringUtils.hasText(replica.getUrl())) {
+                continue;
+            }
+            replicas.add(node(
+                    "replica" + i,
+                    replica.getUrl(),
+                    StringUtils.hasText(replica.getUsername()) ? replica.getUsername() : username,
+                    replica.getPassword() != null ? replica.getPassword() : password,
+                    properties
+            ));
+        }
+
+        // 分片只承载 regions 数据，按分片名路由
+        Map<String, ReadRoutingDataSource.Node> shards = new LinkedHashMap<>();
+        for (ShardingProperties.Shard shard : sharding.getShards()) {
+            if (!StringUtils.hasText(shard.getName()) || !StringUtils.hasText(shard.getUrl())) {
+                continue;
+            }
+            shards.put(shard.getName(), node(
+                    "shard-" + shard.getName(),
+                    shard.getUrl(),
+                    StringUtils.hasText(shard.getUsername()) ? shard.getUsername() : username,
+                    shard.getPassword() != null ? shard.getPassword() : password,
+                    properties
+            ));
+        }
+        return new ReadRoutingDataSource(writePool, primaryRead, replicas, shards,
+                properties.getHealthCheckIntervalMs());
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(ReadRoutingDataSource readRoutingDataSource) {
+        // 延迟到第一条语句才取物理连接，此时事务的只读标记已经确定
+        return new LazyConnectionDataSourceProxy(readRoutingDataSource);
+    }
+
+    private ReadRoutingDataSource.Node node(String name, String url, String username, String password,
+                                            DatabaseProperties properties) {
+        return new ReadRoutingDataSource.Node(
+                name,
+                pool(name + "-lookup", url, username, password, properties.getLookupPool(), properties),
+                pool(name + "-scan", url, username, password, properties.getScanPool(), properties)
+        );
+    }
+
+    private HikariDataSource pool(String poolName, String url, String username, String password,
+                                  DatabaseProperties.Pool pool, DatabaseProperties properties) {
+        HikariConfig config = new HikariConfig();
+        config.setPoolName(poolName);
+        config.setJdbcUrl(url);
+        config.setUsername(username);
+        config.setPassword(password);
+        config.setMaximumPoolSize(pool.getMaxPoolSize());
+        config.setConnectionTimeout(pool.getConnectionTimeoutMs());
+        // 与默认的懒加载行为一致：启动时不强制建立连接，副本不可用时不影响启动
+        config.setInitializationFailTimeout(-1);
+        config.addDataSourceProperty("cachePrepStmts", "true");
+        config.addDataSourceProperty("useServerPrepStmts", "true");
+        config.addDataSourceProperty("prepStmtCacheSize", String.valueOf(properties.getPrepStmtCacheSize()));
+        config.addDataSourceProperty("prepStmtCacheSqlLimit", String.valueOf(properties.getPrepStmtCacheSqlLimit()));
+        // 增量写入与回填用 JDBC batch，由驱动把一批改写成多行语句，减少往返
+        config.addDataSourceProperty("rewriteBatchedStatements", "true");
+        return new HikariDataSource(config);
+    }
 }
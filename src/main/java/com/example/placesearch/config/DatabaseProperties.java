@@ -0,0 +1,46 @@
+package com.example.placesearch.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@ConfigurationProperties(prefix = "place.datasource")
+public class DatabaseProperties {
+    // 只读副本，账号密码为空时沿用主库配置
+    private List<Replica> replicas = new ArrayList<>();
+    // 副本健康检查间隔
+    private long healthCheckIntervalMs = 5_000;
+    // 主库写连接池
+    private Pool writePool = new Pool(10, 5_000);
+    // 轻量查询（code 表等按主键/索引点查）连接池
+    private Pool lookupPool = new Pool(8, 2_000);
+    // 范围扫描（regions 检索、统计）连接池
+    private Pool scanPool = new Pool(16, 10_000);
+    // MySQL 驱动的预编译语句缓存
+    private int prepStmtCacheSize = 250;
+    private int prepStmtCacheSqlLimit = 2048;
+
+    @Data
+    public static class Replica {
+        private String url;
+        private String username;
+        private String password;
+    }
+
+    @Data
+    public static class Pool {
+        private int maxPoolSize;
+        private long connectionTimeoutMs;
+
+        public Pool() {
+        }
+
+        public Pool(int maxPoolSize, long connectionTimeoutMs) {
+            this.maxPoolSize = maxPoolSize;
+            this.connectionTimeoutMs = connectionTimeoutMs;
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.example.placesearch.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "place.diagnostics")
+public class DiagnosticsProperties {
+    // 检索耗时超过该值（毫秒）时记录请求参数、分阶段耗时和执行的 SQL，见 /actuator/slowqueries
+    private long slowQueryThresholdMs = 1000;
+    // 环形缓冲区容量，写满后覆盖最早的记录
+    private int slowQueryCapacity = 100;
+    // 记录时对执行过的 SQL 做 EXPLAIN（后台执行，会给数据库增加少量负载）
+    private boolean explain = false;
+    // /actuator/jfr 触发的录制文件目录
+    private String jfrDirectory = "data/jfr";
+    private int jfrDefaultDurationSeconds = 60;
+    private int jfrMaxDurationSeconds = 600;
+    // 目录中保留的录制文件数，开始新录制时删除更早的文件
+    private int jfrMaxFiles = 10;
+}
@@ -0,0 +1,14 @@
+package com.example.placesearch.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "place.geo-key")
+public class GeoKeyProperties {
+    // regions 已按 db/regions_geo_key.sql 迁移为 (geo_key, id) 聚簇主键后开启：
+    // 矩形范围查询附加 geo_key 区间条件，按主键区间连续读取。写入不受此开关影响，表中有 geo_key 列就写入
+    private boolean enabled = false;
+    // 单个查询附加的 geo_key 区间数上限，越多越贴合查询范围，但 SQL 越长
+    private int maxRanges = 32;
+}
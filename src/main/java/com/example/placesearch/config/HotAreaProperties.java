@@ -0,0 +1,19 @@
+package com.example.placesearch.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "place.hot-area")
+public class HotAreaProperties {
+    // 统计 around/polygon 的查询范围，高频范围在内存中保存候选列表，检索时只做年份/类型过滤和分页
+    private boolean enabled = false;
+    // 统计窗口（毫秒），窗口结束时清零计数
+    private long windowMs = 600_000;
+    // 同一范围在一个窗口内被查询多少次后预先计算候选列表
+    private int minHits = 20;
+    // 同时保存候选列表的范围数上限
+    private int maxAreas = 300;
+    // 单个范围的候选行数上限，超过时不缓存
+    private int maxCandidates = 20_000;
+}
@@ -0,0 +1,24 @@
+package com.example.placesearch.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "place.ingest")
+public class IngestProperties {
+    // 是否注册 POST /admin/ingest；默认关闭，开启时必须同时配置 httpToken
+    private boolean httpEnabled = false;
+    // 调用 /admin/ingest 时 X-Ingest-Token 请求头需携带的令牌
+    private String httpToken;
+    // /admin/ingest 单个请求体的上限
+    private long maxBodyBytes = 256L * 1024 * 1024;
+    // 每个事务写入的行数（同时也是 JDBC batch 大小）
+    private int batchSize = 1000;
+    // 定时轮询 region_changelog，把其它实例写入的变更同步到本机内存结构
+    private boolean pollEnabled = false;
+    private long pollIntervalMs = 5000;
+    // 单次轮询最多处理的变更条数
+    private int pollLimit = 5000;
+    // 变更日志版本出现缺口时等待其提交的最长时间，超过后视为回滚留下的空洞
+    private long gapTimeoutMs = 60_000;
+}
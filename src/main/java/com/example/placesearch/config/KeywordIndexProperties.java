@@ -0,0 +1,16 @@
+package com.example.placesearch.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "place.keyword-index")
+public class KeywordIndexProperties {
+    // 启动后在内存中为 name/address 建立二元组倒排索引（需全表扫描一次），开启后才支持 keywords 参数
+    private boolean enabled = false;
+    // 查询范围（矩形/城市/行政区/类型）内关键词命中的 POI 数上限，超过时要求调用方增加关键词或缩小范围；
+    // 命中集合以 id 条件下推到 SQL
+    private int maxMatches = 10_000;
+    // 增量更新留下的已删除文档号超过该比例时重新编号压缩倒排表
+    private double compactDeletedRatio = 0.2;
+}
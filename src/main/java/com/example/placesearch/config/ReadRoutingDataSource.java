@@ -0,0 +1,163 @@
+package com.example.placesearch.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.Closeable;
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 读写分离路由：只读事务轮询分发到健康的副本，没有可用副本时回落到主库的读连接池；
+ * 其余请求使用主库写连接池。每个节点的读连接池再按 {@link DataSourceRouting.Workload} 拆分。
+ * 当前线程指定了分片时直接使用该分片的连接池。
+ * <p>
+ * 需要配合 LazyConnectionDataSourceProxy 使用，保证获取连接时事务的只读标记已经生效。
+ */
+@Slf4j
+public class ReadRoutingDataSource extends AbstractRoutingDataSource implements Closeable {
+    static final String PRIMARY_KEY = "primary";
+
+    private final List<Node> readNodes;
+    private final Node primaryReadNode;
+    private final Map<String, Node> shardNodes;
+    private final List<HikariDataSource> allPools = new ArrayList<>();
+    private final AtomicInteger roundRobin = new AtomicInteger();
+    private final ScheduledExecutorService healthChecker;
+
+    public ReadRoutingDataSource(HikariDataSource writePool, Node primaryReadNode, List<Node> replicaNodes,
+                                 Map<String, Node> shardNodes, long healthCheckIntervalMs) {
+        this.primaryReadNode = primaryReadNode;
+        this.readNodes = List.copyOf(replicaNodes);
+        this.shardNodes = Map.copyOf(shardNodes);
+
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(PRIMARY_KEY, writePool);
+        allPools.add(writePool);
+        List<Node> nodes = concat(primaryReadNode, replicaNodes);
+        nodes.addAll(shardNodes.values());
+        for (Node node : nodes) {
+            targets.put(node.key(DataSourceRouting.Workload.LOOKUP), node.lookupPool());
+            targets.put(node.key(DataSourceRouting.Workload.SCAN), node.scanPool());
+            allPools.add(node.lookupPool());
+            allPools.add(node.scanPool());
+        }
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(writePool);
+        afterPropertiesSet();
+
+        if (readNodes.isEmpty()) {
+            this.healthChecker = null;
+        } else {
+            this.healthChecker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "replica-health-check");
+                thread.setDaemon(true);
+                return thread;
+            });
+            healthChecker.scheduleWithFixedDelay(this::checkReplicaHealth,
+                    healthCheckIntervalMs, healthCheckIntervalMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        String shard = DataSourceRouting.currentShard();
+        if (shard != null) {
+            Node node = shardNodes.get(shard);
+            if (node == null) {
+                throw new IllegalStateException("未配置的分片: " + shard);
+            }
+            return node.key(DataSourceRouting.currentWorkload());
+        }
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return PRIMARY_KEY;
+        }
+        return pickReadNode().key(DataSourceRouting.currentWorkload());
+    }
+
+    private Node pickReadNode() {
+        int size = readNodes.size();
+        if (size == 0) {
+            return primaryReadNode;
+        }
+        int start = Math.floorMod(roundRobin.getAndIncrement(), size);
+        for (int i = 0; i < size; i++) {
+            Node node = readNodes.get((start + i) % size);
+            if (node.healthy) {
+                return node;
+            }
+        }
+        return primaryReadNode;
+    }
+
+    /**
+     * 逐个副本校验连接，状态变化时记录日志。
+     */
+    public void checkReplicaHealth() {
+        for (Node node : readNodes) {
+            boolean healthy;
+            try (Connection connection = node.lookupPool().getConnection()) {
+                healthy = connection.isValid(2);
+            } catch (Exception e) {
+                healthy = false;
+            }
+            if (healthy != node.healthy) {
+                log.warn("只读副本 {} 状态变更: {}", node.name(), healthy ? "恢复" : "不可用");
+            }
+            node.healthy = healthy;
+        }
+    }
+
+    @Override
+    public void close() {
+        if (healthChecker != null) {
+            healthChecker.shutdownNow();
+        }
+        allPools.forEach(HikariDataSource::close);
+    }
+
+    private static List<Node> concat(Node first, List<Node> rest) {
+        List<Node> nodes = new ArrayList<>(rest.size() + 1);
+        nodes.add(first);
+        nodes.addAll(rest);
+        return nodes;
+    }
+
+    public static final class Node {
+        private final String name;
+        private final HikariDataSource lookupPool;
+        private final HikariDataSource scanPool;
+        private volatile boolean healthy = true;
+
+        public Node(String name, HikariDataSource lookupPool, HikariDataSource scanPool) {
+            this.name = name;
+            this.lookupPool = lookupPool;
+            this.scanPool = scanPool;
+        }
+
+        String name() {
+            return name;
+        }
+
+        HikariDataSource lookupPool() {
+            return lookupPool;
+        }
+
+        HikariDataSource scanPool() {
+            return scanPool;
+        }
+
+        String key(DataSourceRouting.Workload workload) {
+            return name + "-" + workload.name().toLowerCase();
+        }
+    }
+}
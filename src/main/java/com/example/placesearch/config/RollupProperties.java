@@ -0,0 +1,17 @@
+package com.example.placesearch.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "place.rollup")
+public class RollupProperties {
+    // 启动后在后台统计各网格/城市的 POI 数量（需全表扫描一次）
+    private boolean enabled = false;
+    // 网格边长（度），0.1 度约 11 公里
+    private double cellSizeDeg = 0.1;
+    // 启动后在后台按 (类型编码, 年份, 网格) 统计 POI 数量，供 /place/trend 直接汇总（需全表扫描一次）
+    private boolean trendEnabled = false;
+    // 趋势统计的网格边长（度），0.01 度约 1 公里；越小边界估算越准、占用内存越多
+    private double trendCellSizeDeg = 0.01;
+}
@@ -0,0 +1,46 @@
+package com.example.placesearch.config;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.ForkJoinPool;
+
+@Configuration
+@EnableConfigurationProperties({
+        SearchProperties.class,
+        BackfillProperties.class,
+        RollupProperties.class,
+        AdmissionProperties.class,
+        IngestProperties.class,
+        SnapshotProperties.class,
+        KeywordIndexProperties.class,
+        BoundaryProperties.class,
+        HotAreaProperties.class,
+        DiagnosticsProperties.class,
+        GeoKeyProperties.class
+})
+public class SearchConfig {
+
+    // 独立的 ForkJoinPool，避免与 commonPool 中的其它并行流争抢线程
+    @Bean(destroyMethod = "shutdown")
+    public ForkJoinPool searchForkJoinPool(SearchProperties properties) {
+        int parallelism = properties.getParallelism() > 0
+                ? properties.getParallelism()
+                : Runtime.getRuntime().availableProcessors();
+        return new ForkJoinPool(parallelism);
+    }
+
+    // 检索请求在该线程池中异步执行，Tomcat 线程在等待期间即被释放
+    @Bean
+    public ThreadPoolTaskExecutor searchRequestExecutor(SearchProperties properties) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(properties.getRequestThreads());
+        executor.setMaxPoolSize(properties.getRequestThreads());
+        executor.setQueueCapacity(properties.getRequestQueueCapacity());
+        executor.setThreadNamePrefix("place-search-");
+        executor.initialize();
+        return executor;
+    }
+}
@@ -0,0 +1,22 @@
+package com.example.placesearch.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "place.search")
+public class SearchProperties {
+    // 后处理（多边形精筛、去重）使用的并行度，<=0 时取 CPU 核数
+    private int parallelism = 0;
+    // 候选数低于该阈值时保持串行，避免小请求承担线程切换开销
+    private int parallelThreshold = 2000;
+    // 未传 timeout_ms 时的默认截止时间
+    private long defaultTimeoutMs = 10_000;
+    // timeout_ms 上限，防止调用方绕过截止时间
+    private long maxTimeoutMs = 60_000;
+    // 执行检索的请求线程数与排队上限，与 Tomcat 线程隔离
+    private int requestThreads = 32;
+    private int requestQueueCapacity = 200;
+    // 合并同时进行的相同检索（参数相同、clientId 不同），只执行一次
+    private boolean coalesceRequests = true;
+}
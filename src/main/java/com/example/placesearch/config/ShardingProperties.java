@@ -0,0 +1,35 @@
+package com.example.placesearch.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@ConfigurationProperties(prefix = "place.sharding")
+public class ShardingProperties {
+    // 为空时不分片，所有查询走主库/副本
+    private List<Shard> shards = new ArrayList<>();
+    // 并行扫描分片的线程数
+    private int fanOutThreads = 16;
+
+    @Data
+    public static class Shard {
+        private String name;
+        private String url;
+        private String username;
+        private String password;
+        // 该分片存放的省级 pcode，例如 320000
+        private List<String> pcodes = new ArrayList<>();
+        // 分片内数据的外接矩形（所含省份范围的并集），未配置时任何范围查询都会扫描该分片
+        private Double minLon;
+        private Double maxLon;
+        private Double minLat;
+        private Double maxLat;
+
+        public boolean hasBounds() {
+            return minLon != null && maxLon != null && minLat != null && maxLat != null;
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package com.example.placesearch.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "place.snapshot")
+public class SnapshotProperties {
+    // 启动时从快照恢复内存中的统计/索引，并在关闭时和定期写回
+    private boolean enabled = false;
+    private String path = "data/warm-start.snap";
+    // 定期写快照的间隔，缩短重启后需要回放的变更日志
+    private long intervalMs = 600_000;
+    // 预热时加载失败的结构的重试间隔，全部成功前 readiness 不就绪
+    private long retryIntervalMs = 30_000;
+}
@@ -0,0 +1,42 @@
+package com.example.placesearch.config;
+
+import com.example.placesearch.dto.response.ResponseFormat;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import org.msgpack.jackson.dataformat.MessagePackFactory;
+import org.springframework.boot.autoconfigure.jackson.Jackson2ObjectMapperBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.json.AbstractJackson2HttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+@Configuration
+public class WebConfig implements WebMvcConfigurer {
+
+    // PoiResponse 带有字段过滤器，未按请求指定过滤规则时输出全部字段
+    @Bean
+    public Jackson2ObjectMapperBuilderCustomizer poiFieldFilterCustomizer() {
+        return builder -> builder.filters(defaultFilters());
+    }
+
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        converters.add(new MessagePackHttpMessageConverter());
+    }
+
+    private static SimpleFilterProvider defaultFilters() {
+        return new SimpleFilterProvider().setFailOnUnknownId(false);
+    }
+
+    // 与 JSON 共用 Jackson 注解，只是换成 MessagePack 编码
+    private static final class MessagePackHttpMessageConverter extends AbstractJackson2HttpMessageConverter {
+        private MessagePackHttpMessageConverter() {
+            super(new ObjectMapper(new MessagePackFactory()).setFilterProvider(defaultFilters()),
+                    ResponseFormat.MSGPACK.mediaType(), new MediaType("application", "msgpack"));
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.example.placesearch.controller;
+
+import com.example.placesearch.config.AdmissionProperties;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.stereotype.Component;
+
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * 准入控制使用的客户端标识。X-Client-Id 可由调用方任意填写，只有请求来自配置的网关地址时才采信，
+ * 其余请求一律按连接的对端地址识别，避免通过伪造请求头绕过单客户端并发限制。
+ */
+@Component
+public class ClientIdResolver {
+    private static final String CLIENT_ID_HEADER = "X-Client-Id";
+
+    private final Set<String> trustedProxies;
+
+    public ClientIdResolver(AdmissionProperties properties) {
+        this.trustedProxies = properties.getTrustedProxies().stream()
+                .map(String::trim)
+                .filter(address -> !address.isEmpty())
+                .collect(Collectors.toUnmodifiableSet());
+    }
+
+    public String resolve(HttpServletRequest httpRequest) {
+        String remoteAddr = httpRequest.getRemoteAddr();
+        if (trustedProxies.contains(remoteAddr)) {
+            String clientId = httpRequest.getHeader(CLIENT_ID_HEADER);
+            if (clientId != null && !clientId.isBlank()) {
+                return clientId.trim();
+            }
+        }
+        return remoteAddr;
+    }
+}
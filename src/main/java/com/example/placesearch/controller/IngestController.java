@@ -0,0 +1,132 @@
+package com.example.placesearch.controller;
+
+import com.example.placesearch.config.IngestProperties;
+import com.example.placesearch.dto.response.IngestResponse;
+import com.example.placesearch.ingest.PoiFormat;
+import com.example.placesearch.ingest.RegionIngestService;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.util.StringUtils;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.BufferedReader;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+
+/**
+ * 增量写入接口，请求体为 CSV（首行表头）或 JSONL，按流读取。
+ * 只在 place.ingest.http-enabled=true 时注册，请求需在 X-Ingest-Token 中携带配置的令牌，请求体不超过 max-body-bytes。
+ */
+@RestController
+@RequestMapping("/admin")
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "place.ingest", name = "http-enabled", havingValue = "true")
+@Slf4j
+public class IngestController {
+    private static final String TOKEN_HEADER = "X-Ingest-Token";
+
+    private final RegionIngestService ingestService;
+    private final IngestProperties properties;
+
+    @PostMapping("/ingest")
+    public IngestResponse ingest(@RequestParam(required = false) String format, HttpServletRequest httpRequest) {
+        IngestResponse response = new IngestResponse();
+        if (!authorized(httpRequest)) {
+            log.warn("拒绝未授权的增量写入请求: {}", httpRequest.getRemoteAddr());
+            response.setError("40003", "未授权");
+            return response;
+        }
+        long maxBodyBytes = properties.getMaxBodyBytes();
+        if (httpRequest.getContentLengthLong() > maxBodyBytes) {
+            response.setError("40004", "请求体超过上限 " + maxBodyBytes + " 字节");
+            return response;
+        }
+        try {
+            PoiFormat poiFormat = PoiFormat.parse(format != null ? format : formatFromContentType(httpRequest));
+            BufferedReader reader = new BufferedReader(new InputStreamReader(
+                    new LimitedInputStream(httpRequest.getInputStream(), maxBodyBytes), StandardCharsets.UTF_8));
+            RegionIngestService.IngestResult result = ingestService.ingest(reader, poiFormat);
+            response.setInserted(result.inserted());
+            response.setUpdated(result.updated());
+            response.setVersion(result.version());
+            response.setElapsedMs(result.elapsedMs());
+        } catch (IllegalArgumentException | IOException e) {
+            response.setError("40001", e.getMessage());
+        } catch (Exception e) {
+            log.error("POI 增量写入失败", e);
+            response.setError("40002", "服务器内部错误");
+        }
+        return response;
+    }
+
+    // 未配置令牌时拒绝所有请求；按常量时间比较
+    private boolean authorized(HttpServletRequest httpRequest) {
+        String expected = properties.getHttpToken();
+        String actual = httpRequest.getHeader(TOKEN_HEADER);
+        if (!StringUtils.hasText(expected) || actual == null) {
+            return false;
+        }
+        return MessageDigest.isEqual(expected.getBytes(StandardCharsets.UTF_8), actual.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String formatFromContentType(HttpServletRequest request) {
+        String contentType = request.getContentType();
+        if (contentType == null) {
+            return null;
+        }
+        if (contentType.contains("csv") || contentType.contains("tab-separated")) {
+            return "csv";
+        }
+        if (contentType.contains("ndjson") || contentType.contains("jsonl") || contentType.contains("json")) {
+            return "jsonl";
+        }
+        return null;
+    }
+
+    /**
+     * 分块传输没有 Content-Length，读取超过上限时抛出 IOException；此前已提交的批次保留。
+     */
+    private static final class LimitedInputStream extends FilterInputStream {
+        private final long limit;
+        private long read;
+
+        private LimitedInputStream(InputStream in, long limit) {
+            super(in);
+            this.limit = limit;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                count(1);
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int n = super.read(buffer, offset, length);
+            if (n > 0) {
+                count(n);
+            }
+            return n;
+        }
+
+        private void count(long n) throws IOException {
+            read += n;
+            if (read > limit) {
+                throw new IOException("请求体超过上限 " + limit + " 字节");
+            }
+        }
+    }
+}
@@ -2,78 +2,297 @@ package com.example.placesearch.controller;
 
 import com.example.placesearch.dto.request.AroundSearchRequest;
 import com.example.placesearch.dto.request.CitySearchRequest;
+import com.example.placesearch.dto.request.CorridorSearchRequest;
 import com.example.placesearch.dto.request.PolygonSearchRequest;
+import com.example.placesearch.dto.response.PoiField;
+import com.example.placesearch.dto.response.ResponseFormat;
 import com.example.placesearch.dto.response.SearchResponse;
+import com.example.placesearch.service.AdmissionControl;
 import com.example.placesearch.service.PlaceService;
+import com.example.placesearch.service.SearchCoalescer;
+import com.example.placesearch.util.ConcurrencyUtils;
+import com.example.placesearch.util.Deadline;
+import com.fasterxml.jackson.databind.node.TextNode;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.json.MappingJacksonValue;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.web.bind.annotation.*;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/place")
 @RequiredArgsConstructor
 public class PlaceController {
+    // 服务内部按截止时间取消查询，这里只兜底连接池等待等无法中断的阻塞
+    private static final long TIMEOUT_GRACE_MS = 1_000;
+    private static final String CODE_UNSUPPORTED_FORMAT = "90004";
+
     private final PlaceService placeService;
+    private final ThreadPoolTaskExecutor searchRequestExecutor;
+    private final ClientIdResolver clientIdResolver;
+    private final SearchCoalescer searchCoalescer;
 
     @GetMapping("/around")
-    public SearchResponse aroundSearch(
+    public CompletableFuture<ResponseEntity<Object>> aroundSearch(
             @RequestParam String location,
             @RequestParam Double radius,
             @RequestParam(required = false) Integer year,
+            @RequestParam(name = "year_from", required = false) Integer yearFrom,
+            @RequestParam(name = "year_to", required = false) Integer yearTo,
             @RequestParam(required = false) String types,
             @RequestParam(name = "page_size", required = false) Integer pageSize,
-            @RequestParam(name = "page_num", required = false) Integer pageNum) {
+            @RequestParam(name = "page_num", required = false) Integer pageNum,
+            @RequestParam(required = false) Boolean dedupe,
+            @RequestParam(required = false) String coordsys,
+            @RequestParam(name = "timeout_ms", required = false) Long timeoutMs,
+            @RequestParam(required = false) String format,
+            @RequestParam(required = false) String fields,
+            @RequestParam(required = false) String count,
+            @RequestParam(required = false) String keywords,
+            HttpServletRequest httpRequest) {
 
         AroundSearchRequest request = new AroundSearchRequest();
         request.setLocation(location);
         request.setRadius(radius);
         request.setYear(year);
+        request.setYearFrom(yearFrom);
+        request.setYearTo(yearTo);
         request.setTypes(types);
         request.setPageSize(pageSize);
         request.setPageNum(pageNum);
+        request.setDedupe(dedupe);
+        request.setCoordsys(coordsys);
+        request.setTimeoutMs(timeoutMs);
+        request.setFields(fields);
+        request.setCount(count);
+        request.setKeywords(keywords);
+        request.setClientId(clientIdResolver.resolve(httpRequest));
 
-        return placeService.searchAround(request);
+        return submit("around", request, request.getTimeoutMs(), "10006", format, httpRequest,
+                deadline -> placeService.searchAround(request, deadline));
     }
 
     @GetMapping("/city")
-    public SearchResponse citySearch(
+    public CompletableFuture<ResponseEntity<Object>> citySearch(
             @RequestParam(required = false) String cityName,
             @RequestParam(required = false) String cityCode,
+            @RequestParam(required = false) String adcode,
+            @RequestParam(required = false) Boolean clip,
             @RequestParam(required = false) Integer year,
+            @RequestParam(name = "year_from", required = false) Integer yearFrom,
+            @RequestParam(name = "year_to", required = false) Integer yearTo,
             @RequestParam(required = false) String types,
             @RequestParam(name = "page_size", required = false) Integer pageSize,
-            @RequestParam(name = "page_num", required = false) Integer pageNum) {
+            @RequestParam(name = "page_num", required = false) Integer pageNum,
+            @RequestParam(required = false) Boolean dedupe,
+            @RequestParam(required = false) String coordsys,
+            @RequestParam(name = "timeout_ms", required = false) Long timeoutMs,
+            @RequestParam(required = false) String format,
+            @RequestParam(required = false) String fields,
+            @RequestParam(required = false) String count,
+            @RequestParam(required = false) String keywords,
+            HttpServletRequest httpRequest) {
 
         CitySearchRequest request = new CitySearchRequest();
         request.setCityName(cityName);
         request.setCityCode(cityCode);
+        request.setAdcode(adcode);
+        request.setClip(clip);
         request.setYear(year);
+        request.setYearFrom(yearFrom);
+        request.setYearTo(yearTo);
         request.setTypes(types);
         request.setPageSize(pageSize);
         request.setPageNum(pageNum);
+        request.setDedupe(dedupe);
+        request.setCoordsys(coordsys);
+        request.setTimeoutMs(timeoutMs);
+        request.setFields(fields);
+        request.setCount(count);
+        request.setKeywords(keywords);
+        request.setClientId(clientIdResolver.resolve(httpRequest));
 
-        return placeService.searchByCity(request);
+        return submit("city", request, request.getTimeoutMs(), "20005", format, httpRequest,
+                deadline -> placeService.searchByCity(request, deadline));
     }
 
     @GetMapping("/polygon")
-    public SearchResponse polygonSearch(
-            @RequestParam String polygon,
+    public CompletableFuture<ResponseEntity<Object>> polygonSearch(
+            @RequestParam(required = false) String polygon,
+            @RequestParam(required = false) String geometry,
+            @RequestParam(required = false) String exclude,
+            @RequestParam(required = false) Double simplify,
             @RequestParam(required = false) Integer year,
+            @RequestParam(name = "year_from", required = false) Integer yearFrom,
+            @RequestParam(name = "year_to", required = false) Integer yearTo,
             @RequestParam(required = false) String types,
             @RequestParam(name = "page_size", required = false) Integer pageSize,
-            @RequestParam(name = "page_num", required = false) Integer pageNum) {
+            @RequestParam(name = "page_num", required = false) Integer pageNum,
+            @RequestParam(required = false) String coordsys,
+            @RequestParam(name = "timeout_ms", required = false) Long timeoutMs,
+            @RequestParam(required = false) String format,
+            @RequestParam(required = false) String fields,
+            @RequestParam(required = false) String count,
+            @RequestParam(required = false) String keywords,
+            HttpServletRequest httpRequest) {
 
         PolygonSearchRequest request = new PolygonSearchRequest();
         request.setPolygon(polygon);
+        // GeoJSON 文本由 service 解析
+        request.setGeometry(geometry == null ? null : TextNode.valueOf(geometry));
+        request.setExclude(exclude == null ? null : TextNode.valueOf(exclude));
+        request.setSimplify(simplify);
         request.setYear(year);
+        request.setYearFrom(yearFrom);
+        request.setYearTo(yearTo);
         request.setTypes(types);
         request.setPageSize(pageSize);
         request.setPageNum(pageNum);
+        request.setCoordsys(coordsys);
+        request.setTimeoutMs(timeoutMs);
+        request.setFields(fields);
+        request.setCount(count);
+        request.setKeywords(keywords);
+        request.setClientId(clientIdResolver.resolve(httpRequest));
 
-        return placeService.searchByPolygon(request);
+        return submit("polygon", request, request.getTimeoutMs(), "30005", format, httpRequest,
+                deadline -> placeService.searchByPolygon(request, deadline));
     }
 
     @PostMapping("/polygon")
-    public SearchResponse polygonSearchPost(@RequestBody PolygonSearchRequest request) {
-        return placeService.searchByPolygon(request);
+    public CompletableFuture<ResponseEntity<Object>> polygonSearchPost(@RequestBody PolygonSearchRequest request,
+                                                                       @RequestParam(required = false) String format,
+                                                                       @RequestParam(required = false) String fields,
+                                                                       @RequestParam(required = false) String count,
+                                                                       @RequestParam(required = false) String keywords,
+                                                                       HttpServletRequest httpRequest) {
+        if (fields != null) {
+            request.setFields(fields);
+        }
+        if (count != null) {
+            request.setCount(count);
+        }
+        if (keywords != null) {
+            request.setKeywords(keywords);
+        }
+        request.setClientId(clientIdResolver.resolve(httpRequest));
+        return submit("polygon", request, request.getTimeoutMs(), "30005", format, httpRequest,
+                deadline -> placeService.searchByPolygon(request, deadline));
+    }
+
+    @GetMapping("/corridor")
+    public CompletableFuture<ResponseEntity<Object>> corridorSearch(
+            @RequestParam String polyline,
+            @RequestParam Double buffer,
+            @RequestParam(required = false) Integer year,
+            @RequestParam(name = "year_from", required = false) Integer yearFrom,
+            @RequestParam(name = "year_to", required = false) Integer yearTo,
+            @RequestParam(required = false) String types,
+            @RequestParam(name = "page_size", required = false) Integer pageSize,
+            @RequestParam(name = "page_num", required = false) Integer pageNum,
+            @RequestParam(required = false) String coordsys,
+            @RequestParam(name = "timeout_ms", required = false) Long timeoutMs,
+            @RequestParam(required = false) Boolean dedupe,
+            @RequestParam(required = false) String format,
+            @RequestParam(required = false) String fields,
+            HttpServletRequest httpRequest) {
+
+        CorridorSearchRequest request = new CorridorSearchRequest();
+        request.setPolyline(polyline);
+        request.setBuffer(buffer);
+        request.setYear(year);
+        request.setYearFrom(yearFrom);
+        request.setYearTo(yearTo);
+        request.setTypes(types);
+        request.setPageSize(pageSize);
+        request.setPageNum(pageNum);
+        request.setCoordsys(coordsys);
+        request.setTimeoutMs(timeoutMs);
+        request.setDedupe(dedupe);
+        request.setFields(fields);
+        request.setClientId(clientIdResolver.resolve(httpRequest));
+
+        return submit("corridor", request, request.getTimeoutMs(), "50005", format, httpRequest,
+                deadline -> placeService.searchCorridor(request, deadline));
+    }
+
+    @PostMapping("/corridor")
+    public CompletableFuture<ResponseEntity<Object>> corridorSearchPost(@RequestBody CorridorSearchRequest request,
+                                                                        @RequestParam(required = false) String format,
+                                                                        @RequestParam(required = false) String fields,
+                                                                        HttpServletRequest httpRequest) {
+        if (fields != null) {
+            request.setFields(fields);
+        }
+        request.setClientId(clientIdResolver.resolve(httpRequest));
+        return submit("corridor", request, request.getTimeoutMs(), "50005", format, httpRequest,
+                deadline -> placeService.searchCorridor(request, deadline));
+    }
+
+    private CompletableFuture<ResponseEntity<Object>> submit(String endpoint, Object request, Long timeoutMs,
+                                                             String timeoutCode, String format,
+                                                             HttpServletRequest httpRequest,
+                                                             Function<Deadline, SearchResponse> search) {
+        ResponseFormat responseFormat;
+        try {
+            responseFormat = ResponseFormat.resolve(format, httpRequest.getHeader(HttpHeaders.ACCEPT));
+        } catch (IllegalArgumentException e) {
+            return CompletableFuture.completedFuture(
+                    render(errorResponse(CODE_UNSUPPORTED_FORMAT, e.getMessage()), ResponseFormat.JSON));
+        }
+
+        long budgetMs = placeService.resolveTimeoutMs(timeoutMs);
+        // 截止时间从提交时开始计算，排队等待线程的时间也计入预算
+        Deadline deadline = Deadline.afterMillis(budgetMs);
+        SearchResponse timeoutResponse = errorResponse(timeoutCode, "查询超时: 超过 " + budgetMs + " ms");
+        try {
+            // 相同的并发请求共享一次执行，超时后取消这次执行
+            return searchCoalescer.execute(endpoint, request, budgetMs,
+                            () -> ConcurrencyUtils.supplyAsync(searchRequestExecutor, deadline,
+                                    budgetMs + TIMEOUT_GRACE_MS, timeoutResponse, search))
+                    .exceptionally(error -> {
+                        // 跟随的请求在发起请求提交失败时得到同样的异常
+                        if (error.getCause() instanceof RejectedExecutionException) {
+                            return errorResponse(AdmissionControl.CODE_BUSY, "服务繁忙，请稍后重试");
+                        }
+                        throw error instanceof CompletionException completion
+                                ? completion
+                                : new CompletionException(error);
+                    })
+                    .thenApply(response -> render(response, responseFormat));
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.completedFuture(
+                    render(errorResponse(AdmissionControl.CODE_BUSY, "服务繁忙，请稍后重试"), responseFormat));
+        }
+    }
+
+    // 列式结构自行省略未选中的列，行式结构通过 Jackson 过滤器省略未选中的 POI 字段
+    private static ResponseEntity<Object> render(SearchResponse response, ResponseFormat format) {
+        Object body = format.render(response);
+        if (body instanceof SearchResponse && response.getFields() != null) {
+            MappingJacksonValue filtered = new MappingJacksonValue(body);
+            filtered.setFilters(new SimpleFilterProvider().addFilter(PoiField.FILTER_ID,
+                    SimpleBeanPropertyFilter.filterOutAllExcept(response.getFields().stream()
+                            .map(PoiField::jsonName)
+                            .collect(Collectors.toSet()))));
+            body = filtered;
+        }
+        return ResponseEntity.ok().contentType(format.mediaType()).body(body);
+    }
+
+    private SearchResponse errorResponse(String code, String message) {
+        SearchResponse response = new SearchResponse();
+        response.setError(code, message);
+        return response;
     }
 }
@@ -0,0 +1,93 @@
+package com.example.placesearch.controller;
+
+import com.example.placesearch.dto.request.DiffRequest;
+import com.example.placesearch.dto.response.DiffResponse;
+import com.example.placesearch.service.AdmissionControl;
+import com.example.placesearch.service.PlaceDiffService;
+import com.example.placesearch.service.PlaceService;
+import com.example.placesearch.util.ConcurrencyUtils;
+import com.example.placesearch.util.Deadline;
+import com.fasterxml.jackson.databind.node.TextNode;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * 同一范围两个年份之间的 POI 变化：新增、消失、属性变化及按大类的净变化。
+ */
+@RestController
+@RequestMapping("/place")
+@RequiredArgsConstructor
+public class PlaceDiffController {
+    private static final long TIMEOUT_GRACE_MS = 1_000;
+    private static final String CODE_TIMEOUT = "60005";
+
+    private final PlaceDiffService placeDiffService;
+    private final PlaceService placeService;
+    private final ThreadPoolTaskExecutor searchRequestExecutor;
+    private final ClientIdResolver clientIdResolver;
+
+    @GetMapping("/diff")
+    public CompletableFuture<DiffResponse> diff(
+            @RequestParam(name = "from_year", required = false) Integer fromYear,
+            @RequestParam(name = "to_year", required = false) Integer toYear,
+            @RequestParam(required = false) String location,
+            @RequestParam(required = false) Double radius,
+            @RequestParam(required = false) String cityName,
+            @RequestParam(required = false) String cityCode,
+            @RequestParam(required = false) String polygon,
+            @RequestParam(required = false) String geometry,
+            @RequestParam(required = false) String types,
+            @RequestParam(required = false) String match,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String coordsys,
+            @RequestParam(name = "timeout_ms", required = false) Long timeoutMs,
+            HttpServletRequest httpRequest) {
+
+        DiffRequest request = new DiffRequest();
+        request.setFromYear(fromYear);
+        request.setToYear(toYear);
+        request.setLocation(location);
+        request.setRadius(radius);
+        request.setCityName(cityName);
+        request.setCityCode(cityCode);
+        request.setPolygon(polygon);
+        // 查询参数中的 GeoJSON 为字符串，交给服务层统一解析
+        request.setGeometry(geometry == null ? null : TextNode.valueOf(geometry));
+        request.setTypes(types);
+        request.setMatch(match);
+        request.setLimit(limit);
+        request.setCoordsys(coordsys);
+        request.setTimeoutMs(timeoutMs);
+        request.setClientId(clientIdResolver.resolve(httpRequest));
+
+        return submit(request);
+    }
+
+    @PostMapping("/diff")
+    public CompletableFuture<DiffResponse> diffPost(@RequestBody DiffRequest request, HttpServletRequest httpRequest) {
+        request.setClientId(clientIdResolver.resolve(httpRequest));
+        return submit(request);
+    }
+
+    private CompletableFuture<DiffResponse> submit(DiffRequest request) {
+        long budgetMs = placeService.resolveTimeoutMs(request.getTimeoutMs());
+        try {
+            return ConcurrencyUtils.supplyAsync(searchRequestExecutor, Deadline.afterMillis(budgetMs),
+                    budgetMs + TIMEOUT_GRACE_MS, errorResponse(CODE_TIMEOUT, "查询超时: 超过 " + budgetMs + " ms"),
+                    deadline -> placeDiffService.diff(request, deadline));
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.completedFuture(errorResponse(AdmissionControl.CODE_BUSY, "服务繁忙，请稍后重试"));
+        }
+    }
+
+    private static DiffResponse errorResponse(String code, String message) {
+        DiffResponse response = new DiffResponse();
+        response.setError(code, message);
+        return response;
+    }
+}
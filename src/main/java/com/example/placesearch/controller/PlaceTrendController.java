@@ -0,0 +1,91 @@
+package com.example.placesearch.controller;
+
+import com.example.placesearch.dto.request.TrendRequest;
+import com.example.placesearch.dto.response.TrendResponse;
+import com.example.placesearch.service.AdmissionControl;
+import com.example.placesearch.service.PlaceTrendService;
+import com.example.placesearch.service.PlaceService;
+import com.example.placesearch.util.ConcurrencyUtils;
+import com.example.placesearch.util.Deadline;
+import com.fasterxml.jackson.databind.node.TextNode;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * 范围内逐年按大类统计的 POI 数量。
+ */
+@RestController
+@RequestMapping("/place")
+@RequiredArgsConstructor
+public class PlaceTrendController {
+    private static final long TIMEOUT_GRACE_MS = 1_000;
+    private static final String CODE_TIMEOUT = "70005";
+
+    private final PlaceTrendService placeTrendService;
+    private final PlaceService placeService;
+    private final ThreadPoolTaskExecutor searchRequestExecutor;
+    private final ClientIdResolver clientIdResolver;
+
+    @GetMapping("/trend")
+    public CompletableFuture<TrendResponse> trend(
+            @RequestParam(name = "year_from", required = false) Integer yearFrom,
+            @RequestParam(name = "year_to", required = false) Integer yearTo,
+            @RequestParam(required = false) String location,
+            @RequestParam(required = false) Double radius,
+            @RequestParam(required = false) String cityName,
+            @RequestParam(required = false) String cityCode,
+            @RequestParam(required = false) String polygon,
+            @RequestParam(required = false) String geometry,
+            @RequestParam(required = false) String types,
+            @RequestParam(required = false) Boolean exact,
+            @RequestParam(required = false) String coordsys,
+            @RequestParam(name = "timeout_ms", required = false) Long timeoutMs,
+            HttpServletRequest httpRequest) {
+
+        TrendRequest request = new TrendRequest();
+        request.setYearFrom(yearFrom);
+        request.setYearTo(yearTo);
+        request.setLocation(location);
+        request.setRadius(radius);
+        request.setCityName(cityName);
+        request.setCityCode(cityCode);
+        request.setPolygon(polygon);
+        // 查询参数中的 GeoJSON 为字符串，交给服务层统一解析
+        request.setGeometry(geometry == null ? null : TextNode.valueOf(geometry));
+        request.setTypes(types);
+        request.setExact(exact);
+        request.setCoordsys(coordsys);
+        request.setTimeoutMs(timeoutMs);
+        request.setClientId(clientIdResolver.resolve(httpRequest));
+
+        return submit(request);
+    }
+
+    @PostMapping("/trend")
+    public CompletableFuture<TrendResponse> trendPost(@RequestBody TrendRequest request, HttpServletRequest httpRequest) {
+        request.setClientId(clientIdResolver.resolve(httpRequest));
+        return submit(request);
+    }
+
+    private CompletableFuture<TrendResponse> submit(TrendRequest request) {
+        long budgetMs = placeService.resolveTimeoutMs(request.getTimeoutMs());
+        try {
+            return ConcurrencyUtils.supplyAsync(searchRequestExecutor, Deadline.afterMillis(budgetMs),
+                    budgetMs + TIMEOUT_GRACE_MS, errorResponse(CODE_TIMEOUT, "查询超时: 超过 " + budgetMs + " ms"),
+                    deadline -> placeTrendService.trend(request, deadline));
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.completedFuture(errorResponse(AdmissionControl.CODE_BUSY, "服务繁忙，请稍后重试"));
+        }
+    }
+
+    private static TrendResponse errorResponse(String code, String message) {
+        TrendResponse response = new TrendResponse();
+        response.setError(code, message);
+        return response;
+    }
+}
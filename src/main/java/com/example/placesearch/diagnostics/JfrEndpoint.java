@@ -0,0 +1,179 @@
+package com.example.placesearch.diagnostics;
+
+import com.example.placesearch.config.DiagnosticsProperties;
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.text.ParseException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * /actuator/jfr：按需开启一段 JFR 录制，到时自动停止并写入 place.diagnostics.jfr-directory。
+ * POST 开始录制，JSON 请求体字段 durationSeconds、settings 均可选（Actuator 按方法参数名绑定），settings 为 default 或 profile；
+ * GET 查看当前录制与已有文件，DELETE 提前结束当前录制。同一时间只有一个录制。
+ */
+@Component
+@Endpoint(id = "jfr")
+@Slf4j
+public class JfrEndpoint {
+    private static final Set<String> SETTINGS = Set.of("default", "profile");
+    private static final DateTimeFormatter FILE_TIME = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+    private final DiagnosticsProperties properties;
+    private Recording recording;
+    private Path destination;
+
+    public JfrEndpoint(DiagnosticsProperties properties) {
+        this.properties = properties;
+    }
+
+    @ReadOperation
+    public synchronized Map<String, Object> status() {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("recording", describe());
+        body.put("files", listFiles());
+        return body;
+    }
+
+    @WriteOperation
+    public synchronized Map<String, Object> start(@Nullable Integer durationSeconds, @Nullable String settings) {
+        Map<String, Object> body = new LinkedHashMap<>();
+        if (isRunning()) {
+            body.put("started", false);
+            body.put("info", "已有录制进行中");
+            body.put("recording", describe());
+            return body;
+        }
+        String settingsName = settings == null ? "profile" : settings;
+        if (!SETTINGS.contains(settingsName)) {
+            body.put("started", false);
+            body.put("info", "settings 只支持 default 或 profile");
+            return body;
+        }
+        int seconds = durationSeconds == null || durationSeconds <= 0
+                ? properties.getJfrDefaultDurationSeconds()
+                : Math.min(durationSeconds, properties.getJfrMaxDurationSeconds());
+        try {
+            Path directory = Paths.get(properties.getJfrDirectory());
+            Files.createDirectories(directory);
+            pruneFiles(directory);
+            Path file = directory.resolve("place-search-" + LocalDateTime.now().format(FILE_TIME) + ".jfr");
+            Recording next = new Recording(Configuration.getConfiguration(settingsName));
+            next.setName(file.getFileName().toString());
+            next.setToDisk(true);
+            next.setDuration(Duration.ofSeconds(seconds));
+            next.setDestination(file);
+            next.start();
+            if (recording != null) {
+                recording.close();
+            }
+            recording = next;
+            destination = file;
+            log.info("开始 JFR 录制: {}, 时长 {} 秒, settings={}", file, seconds, settingsName);
+        } catch (IOException | ParseException | IllegalStateException e) {
+            log.error("JFR 录制启动失败", e);
+            body.put("started", false);
+            body.put("info", "JFR 录制启动失败: " + e.getMessage());
+            return body;
+        }
+        body.put("started", true);
+        body.put("recording", describe());
+        return body;
+    }
+
+    @DeleteOperation
+    public synchronized Map<String, Object> stop() {
+        Map<String, Object> body = new LinkedHashMap<>();
+        if (!isRunning()) {
+            body.put("stopped", false);
+            body.put("info", "没有进行中的录制");
+            return body;
+        }
+        // 设置了 destination，stop 时写入文件
+        recording.stop();
+        log.info("JFR 录制已提前结束: {}", destination);
+        body.put("stopped", true);
+        body.put("recording", describe());
+        return body;
+    }
+
+    private boolean isRunning() {
+        return recording != null && recording.getState() == RecordingState.RUNNING;
+    }
+
+    private Map<String, Object> describe() {
+        if (recording == null) {
+            return null;
+        }
+        Map<String, Object> info = new LinkedHashMap<>();
+        info.put("name", recording.getName());
+        info.put("state", recording.getState().name());
+        info.put("startTime", recording.getStartTime() == null ? null : recording.getStartTime().toString());
+        info.put("durationSeconds", recording.getDuration() == null ? null : recording.getDuration().toSeconds());
+        info.put("destination", destination.toAbsolutePath().toString());
+        return info;
+    }
+
+    private List<Map<String, Object>> listFiles() {
+        List<Map<String, Object>> files = new ArrayList<>();
+        for (Path file : jfrFiles(Paths.get(properties.getJfrDirectory()))) {
+            Map<String, Object> info = new LinkedHashMap<>();
+            info.put("path", file.toAbsolutePath().toString());
+            try {
+                info.put("bytes", Files.size(file));
+            } catch (IOException e) {
+                info.put("bytes", null);
+            }
+            files.add(info);
+        }
+        return files;
+    }
+
+    // 为即将开始的录制留出位置
+    private void pruneFiles(Path directory) {
+        List<Path> files = jfrFiles(directory);
+        int excess = files.size() - Math.max(0, properties.getJfrMaxFiles() - 1);
+        for (int i = 0; i < excess; i++) {
+            try {
+                Files.deleteIfExists(files.get(i));
+            } catch (IOException e) {
+                log.warn("删除旧 JFR 文件失败: {}", files.get(i), e);
+            }
+        }
+    }
+
+    // 文件名含时间，按名称排序即从旧到新
+    private static List<Path> jfrFiles(Path directory) {
+        if (!Files.isDirectory(directory)) {
+            return new ArrayList<>();
+        }
+        try (Stream<Path> stream = Files.list(directory)) {
+            return stream.filter(path -> path.getFileName().toString().endsWith(".jfr"))
+                    .sorted(Comparator.comparing(path -> path.getFileName().toString()))
+                    .toList();
+        } catch (IOException e) {
+            return new ArrayList<>();
+        }
+    }
+}
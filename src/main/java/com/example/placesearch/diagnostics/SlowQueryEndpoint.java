@@ -0,0 +1,34 @@
+package com.example.placesearch.diagnostics;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * /actuator/slowqueries：最近的慢检索，按时间倒序；DELETE 清空缓冲区。
+ */
+@Component
+@Endpoint(id = "slowqueries")
+@RequiredArgsConstructor
+public class SlowQueryEndpoint {
+    private final SlowQueryRecorder recorder;
+
+    @ReadOperation
+    public Map<String, Object> slowQueries() {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("thresholdMs", recorder.thresholdMs());
+        body.put("recorded", recorder.recorded());
+        body.put("entries", recorder.snapshot());
+        return body;
+    }
+
+    @DeleteOperation
+    public void clear() {
+        recorder.clear();
+    }
+}
@@ -0,0 +1,227 @@
+package com.example.placesearch.diagnostics;
+
+import com.example.placesearch.config.DiagnosticsProperties;
+import com.example.placesearch.dto.response.SearchResponse;
+import com.example.placesearch.repository.QueryTrace;
+import com.example.placesearch.repository.RegionRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 慢检索记录。检索开始时调用 {@link #begin}，结束时调用 {@link #finish}；期间 {@link #mark} 把距上一次标记的
+ * 耗时记到对应阶段，{@link QueryTrace} 记录执行过的 SQL。总耗时超过阈值的请求写入环形缓冲区。
+ */
+@Component
+@Slf4j
+public class SlowQueryRecorder {
+    private static final ThreadLocal<Capture> CURRENT = new ThreadLocal<>();
+    private static final int MAX_TEXT_LENGTH = 4000;
+    private static final int MAX_LIST_ITEMS = 20;
+    // 排队等待 EXPLAIN 的慢检索上限，数据库变慢导致慢检索激增时多出的记录不带执行计划
+    private static final int MAX_PENDING_EXPLAINS = 16;
+
+    private final DiagnosticsProperties properties;
+    private final RegionRepository regionRepository;
+    private final ObjectMapper objectMapper;
+    private final ExecutorService explainer;
+
+    private final SlowQuery[] ring;
+    private int next;
+    private long recorded;
+
+    public SlowQueryRecorder(DiagnosticsProperties properties, RegionRepository regionRepository,
+                             ObjectMapper objectMapper) {
+        this.properties = properties;
+        this.regionRepository = regionRepository;
+        this.objectMapper = objectMapper;
+        this.ring = new SlowQuery[Math.max(1, properties.getSlowQueryCapacity())];
+        this.explainer = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(MAX_PENDING_EXPLAINS), runnable -> {
+                    Thread thread = new Thread(runnable, "slow-query-explain");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    public Capture begin(String endpoint, Object request) {
+        Capture capture = new Capture(endpoint, request, QueryTrace.begin());
+        CURRENT.set(capture);
+        return capture;
+    }
+
+    /**
+     * 把距上一次标记的耗时记到 stage，同名阶段累加；当前线程没有进行中的记录时忽略。
+     */
+    public void mark(String stage) {
+        Capture capture = CURRENT.get();
+        if (capture != null) {
+            capture.mark(stage);
+        }
+    }
+
+    public void finish(Capture capture, SearchResponse response) {
+        CURRENT.remove();
+        QueryTrace.end();
+        long elapsedMs = (System.nanoTime() - capture.startNanos) / 1_000_000;
+        if (elapsedMs < properties.getSlowQueryThresholdMs()) {
+            return;
+        }
+        capture.mark("other");
+        QueryTrace trace = capture.trace;
+        int returned = response.getPois() == null ? 0 : response.getPois().size();
+        log.warn("慢检索 {}: 耗时 {} ms, 数据库返回 {} 行, 响应 {} 条, 阶段 {}",
+                capture.endpoint, elapsedMs, trace.rowsFetched(), returned, capture.stages);
+
+        List<QueryTrace.Statement> statements = trace.statements();
+        List<StatementInfo> infos = new ArrayList<>(statements.size());
+        for (QueryTrace.Statement statement : statements) {
+            infos.add(StatementInfo.of(statement, describeParams(statement.params()), null));
+        }
+        SlowQuery entry = new SlowQuery(Instant.now(), capture.endpoint, elapsedMs, response.getInfocode(),
+                describeRequest(capture.request), capture.stages, trace.rowsFetched(), returned, infos);
+        if (!properties.isExplain() || statements.isEmpty()) {
+            add(entry);
+            return;
+        }
+        try {
+            explainer.execute(() -> add(withPlans(entry, statements)));
+        } catch (RejectedExecutionException e) {
+            // 队列已满或正在关闭
+            add(entry);
+        }
+    }
+
+    public synchronized List<SlowQuery> snapshot() {
+        List<SlowQuery> entries = new ArrayList<>(ring.length);
+        // 从最新的记录开始
+        for (int i = 1; i <= ring.length; i++) {
+            SlowQuery entry = ring[Math.floorMod(next - i, ring.length)];
+            if (entry != null) {
+                entries.add(entry);
+            }
+        }
+        return entries;
+    }
+
+    public synchronized long recorded() {
+        return recorded;
+    }
+
+    public synchronized void clear() {
+        Arrays.fill(ring, null);
+        next = 0;
+    }
+
+    public long thresholdMs() {
+        return properties.getSlowQueryThresholdMs();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        explainer.shutdownNow();
+    }
+
+    private synchronized void add(SlowQuery entry) {
+        ring[next] = entry;
+        next = (next + 1) % ring.length;
+        recorded++;
+    }
+
+    private SlowQuery withPlans(SlowQuery entry, List<QueryTrace.Statement> statements) {
+        List<StatementInfo> infos = new ArrayList<>(statements.size());
+        for (int i = 0; i < statements.size(); i++) {
+            List<Map<String, Object>> plan;
+            try {
+                plan = regionRepository.explain(statements.get(i));
+            } catch (RuntimeException e) {
+                log.warn("慢检索 EXPLAIN 失败: {}", e.getMessage());
+                plan = null;
+            }
+            StatementInfo info = entry.statements().get(i);
+            infos.add(new StatementInfo(info.shard(), info.sql(), info.params(), info.offset(), info.limit(),
+                    info.rows(), info.elapsedMs(), info.error(), plan));
+        }
+        return new SlowQuery(entry.time(), entry.endpoint(), entry.elapsedMs(), entry.infocode(), entry.request(),
+                entry.stagesMs(), entry.rowsFetched(), entry.rowsReturned(), infos);
+    }
+
+    private String describeRequest(Object request) {
+        try {
+            return truncate(objectMapper.writeValueAsString(request));
+        } catch (JsonProcessingException e) {
+            return truncate(String.valueOf(request));
+        }
+    }
+
+    // id 列表等参数可能很长，只保留前几项
+    private static Map<String, String> describeParams(Map<String, Object> params) {
+        Map<String, String> described = new LinkedHashMap<>();
+        params.forEach((name, value) -> {
+            if (value instanceof Collection<?> values && values.size() > MAX_LIST_ITEMS) {
+                described.put(name, values.stream().limit(MAX_LIST_ITEMS).toList()
+                        + " ...(" + values.size() + ")");
+            } else {
+                described.put(name, truncate(String.valueOf(value)));
+            }
+        });
+        return described;
+    }
+
+    private static String truncate(String text) {
+        return text.length() <= MAX_TEXT_LENGTH ? text : text.substring(0, MAX_TEXT_LENGTH) + "...";
+    }
+
+    /**
+     * 一次检索的阶段耗时，只在请求线程上使用。
+     */
+    public static final class Capture {
+        private final String endpoint;
+        private final Object request;
+        private final QueryTrace trace;
+        private final long startNanos = System.nanoTime();
+        private final Map<String, Long> stages = new LinkedHashMap<>();
+        private long lastMark = startNanos;
+
+        private Capture(String endpoint, Object request, QueryTrace trace) {
+            this.endpoint = endpoint;
+            this.request = request;
+            this.trace = trace;
+        }
+
+        private void mark(String stage) {
+            long now = System.nanoTime();
+            stages.merge(stage, (now - lastMark) / 1_000_000, Long::sum);
+            lastMark = now;
+        }
+    }
+
+    public record SlowQuery(Instant time, String endpoint, long elapsedMs, String infocode, String request,
+                            Map<String, Long> stagesMs, long rowsFetched, int rowsReturned,
+                            List<StatementInfo> statements) {
+    }
+
+    public record StatementInfo(String shard, String sql, Map<String, String> params, Long offset, Integer limit,
+                                long rows, long elapsedMs, String error, List<Map<String, Object>> plan) {
+        static StatementInfo of(QueryTrace.Statement statement, Map<String, String> params,
+                                List<Map<String, Object>> plan) {
+            return new StatementInfo(statement.shard(), statement.sql(), params, statement.offset(),
+                    statement.limit(), statement.rows(), statement.elapsedMs(), statement.error(), plan);
+        }
+    }
+}
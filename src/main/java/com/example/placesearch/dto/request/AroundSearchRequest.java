@@ -7,7 +7,16 @@ public class AroundSearchRequest {
     private String location; // 经度,纬度
     private Double radius;   // 搜索半径(米)
     private Integer year;    // 搜索年份
+    private Integer yearFrom; // 起始年份（含），与 yearTo 组成年份区间，不能与 year 同时使用
+    private Integer yearTo;   // 截止年份（含）
     private String types;    // 类型编码，支持"|"分隔多个类型
     private Integer pageSize; // 每页条数
     private Integer pageNum;  // 页码，从1开始
+    private String coordsys;  // 坐标系: gcj02(默认) | wgs84，同时作用于入参与返回坐标
+    private Long timeoutMs;   // 截止时间(毫秒)，为空时使用默认值
+    private String clientId;  // 调用方标识，取自可信网关转发的 X-Client-Id 请求头或客户端地址，用于并发限制
+    private Boolean dedupe;   // 是否去重（同 id 及同名停车场出入口），默认不去重
+    private String fields;    // 逗号分隔的输出字段，如 id,name,location；为空时输出全部字段
+    private String keywords;  // 名称/地址关键词，空格分隔多个词（需同时命中），每个词至少2个字符
+    private String count;     // 总数统计方式: none(默认) | estimate | exact | auto
 }
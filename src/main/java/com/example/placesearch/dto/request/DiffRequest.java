@@ -0,0 +1,23 @@
+package com.example.placesearch.dto.request;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import lombok.Data;
+
+@Data
+public class DiffRequest {
+    private Integer fromYear;  // 对比的起始年份
+    private Integer toYear;    // 对比的目标年份
+    // 范围三选一：location+radius | cityName/cityCode | polygon/geometry
+    private String location;   // 经度,纬度
+    private Double radius;     // 搜索半径(米)
+    private String cityName;
+    private String cityCode;
+    private String polygon;    // 格式同 /place/polygon
+    private JsonNode geometry; // GeoJSON 几何，格式同 /place/polygon
+    private String types;      // 类型编码，支持 "/" 分隔多个类型
+    private String match;      // 两年 POI 的对应方式: name（名称+位置，默认且唯一）；id 是主键，不会跨年份重复
+    private Integer limit;     // 新增/消失/变化明细各自最多返回的条数，默认 50
+    private String coordsys;   // 坐标系: gcj02(默认) | wgs84，同时作用于入参与返回坐标
+    private Long timeoutMs;    // 截止时间(毫秒)，为空时使用默认值
+    private String clientId;   // 调用方标识，取自可信网关转发的 X-Client-Id 请求头或客户端地址，用于并发限制
+}
@@ -0,0 +1,22 @@
+package com.example.placesearch.dto.request;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import lombok.Data;
+
+@Data
+public class TrendRequest {
+    private Integer yearFrom;  // 起始年份（含），为空时不限
+    private Integer yearTo;    // 截止年份（含），为空时不限
+    // 范围三选一：location+radius | cityName/cityCode | polygon/geometry
+    private String location;   // 经度,纬度
+    private Double radius;     // 搜索半径(米)
+    private String cityName;
+    private String cityCode;
+    private String polygon;    // 格式同 /place/polygon
+    private JsonNode geometry; // GeoJSON 几何，格式同 /place/polygon
+    private String types;      // 类型编码，支持 "/" 分隔多个类型
+    private Boolean exact;     // true 时不使用预汇总统计，直接按条件分组计数
+    private String coordsys;   // 坐标系: gcj02(默认) | wgs84，作用于入参坐标
+    private Long timeoutMs;    // 截止时间(毫秒)，为空时使用默认值
+    private String clientId;   // 调用方标识，取自可信网关转发的 X-Client-Id 请求头或客户端地址，用于并发限制
+}
@@ -0,0 +1,111 @@
+package com.example.placesearch.dto.response;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 列式结果：每个字段一个数组，下标相同的元素属于同一个 POI；坐标、距离和年份为数值。
+ * 同一份结构既可输出 JSON，也可输出 MessagePack。未选中或不适用的列（如非周边检索的 distance）整列省略。
+ */
+@Data
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ColumnarSearchResponse {
+    private String infocode;
+    private String status;
+    private String info;
+    private Boolean partial;
+    private Long count;
+    @JsonProperty("count_estimated")
+    private Boolean countEstimated;
+    @JsonProperty("has_more")
+    private Boolean hasMore;
+    // 本页条数，即每列数组的长度
+    private int size;
+
+    private List<String> id;
+    private List<String> name;
+    private List<Double> lon;
+    private List<Double> lat;
+    private List<Double> distance;
+    @JsonProperty("route_distance")
+    private List<Double> routeDistance;
+    private List<String> typecode;
+    private List<String> type;
+    private List<String> address;
+    private List<String> pname;
+    private List<String> cityname;
+    private List<String> adname;
+    private List<String> adcode;
+    private List<Integer> year;
+
+    public static ColumnarSearchResponse from(SearchResponse response) {
+        ColumnarSearchResponse columnar = new ColumnarSearchResponse();
+        columnar.infocode = response.getInfocode();
+        columnar.status = response.getStatus();
+        columnar.info = response.getInfo();
+        columnar.partial = response.getPartial();
+        columnar.count = response.getCount();
+        columnar.countEstimated = response.getCountEstimated();
+        columnar.hasMore = response.getHasMore();
+        List<PoiResponse> pois = response.getPois();
+        if (pois == null) {
+            return columnar;
+        }
+        int size = pois.size();
+        Set<PoiField> fields = response.getFields();
+        columnar.size = size;
+        columnar.id = column(fields, PoiField.ID, size);
+        columnar.name = column(fields, PoiField.NAME, size);
+        columnar.lon = column(fields, PoiField.LOCATION, size);
+        columnar.lat = column(fields, PoiField.LOCATION, size);
+        columnar.typecode = column(fields, PoiField.TYPECODE, size);
+        columnar.type = column(fields, PoiField.TYPE, size);
+        columnar.address = column(fields, PoiField.ADDRESS, size);
+        columnar.pname = column(fields, PoiField.PNAME, size);
+        columnar.cityname = column(fields, PoiField.CITYNAME, size);
+        columnar.adname = column(fields, PoiField.ADNAME, size);
+        columnar.adcode = column(fields, PoiField.ADCODE, size);
+        columnar.year = column(fields, PoiField.YEAR, size);
+        boolean hasDistance = pois.stream().anyMatch(poi -> poi.getDistanceMeters() != null);
+        if (hasDistance) {
+            columnar.distance = column(fields, PoiField.DISTANCE, size);
+        }
+        boolean hasRouteDistance = pois.stream().anyMatch(poi -> poi.getRouteDistanceMeters() != null);
+        if (hasRouteDistance) {
+            columnar.routeDistance = column(fields, PoiField.ROUTE_DISTANCE, size);
+        }
+        for (PoiResponse poi : pois) {
+            add(columnar.id, poi.getId());
+            add(columnar.name, poi.getName());
+            add(columnar.lon, poi.getLon());
+            add(columnar.lat, poi.getLat());
+            add(columnar.distance, poi.getDistanceMeters());
+            add(columnar.routeDistance, poi.getRouteDistanceMeters());
+            add(columnar.typecode, poi.getTypecode());
+            add(columnar.type, poi.getType());
+            add(columnar.address, poi.getAddress());
+            add(columnar.pname, poi.getPname());
+            add(columnar.cityname, poi.getCityname());
+            add(columnar.adname, poi.getAdname());
+            add(columnar.adcode, poi.getAdcode());
+            add(columnar.year, poi.getYear() == null ? null : Integer.valueOf(poi.getYear()));
+        }
+        return columnar;
+    }
+
+    // 未选中的字段整列为 null，序列化时省略
+    private static <T> List<T> column(Set<PoiField> fields, PoiField field, int size) {
+        return fields == null || fields.contains(field) ? new ArrayList<>(size) : null;
+    }
+
+    private static <T> void add(List<T> column, T value) {
+        if (column != null) {
+            column.add(value);
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.placesearch.dto.response;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * 两个年份之间的 POI 变化。计数为全量结果，明细列表按 limit 截断。
+ */
+@Data
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class DiffResponse {
+    private String infocode = "10000";
+    private String status = "1";
+    private String info = "OK";
+    @JsonProperty("from_year")
+    private Integer fromYear;
+    @JsonProperty("to_year")
+    private Integer toYear;
+    private Long opened;
+    private Long closed;
+    private Long changed;
+    private Long unchanged;
+    @JsonProperty("opened_pois")
+    private List<PoiResponse> openedPois;
+    @JsonProperty("closed_pois")
+    private List<PoiResponse> closedPois;
+    @JsonProperty("changed_pois")
+    private List<ChangedPoi> changedPois;
+    // 按大类统计的净变化（新增 - 消失），按净变化绝对值降序
+    private List<CategoryChange> categories;
+
+    @Data
+    public static class ChangedPoi {
+        private PoiResponse before;
+        private PoiResponse after;
+        // 发生变化的字段: name | typecode | address | location
+        private List<String> fields;
+    }
+
+    @Data
+    public static class CategoryChange {
+        private String category;
+        private long opened;
+        private long closed;
+        private long net;
+    }
+
+    public void setError(String errorCode, String errorMessage) {
+        this.infocode = errorCode;
+        this.status = "0";
+        this.info = errorMessage;
+    }
+}
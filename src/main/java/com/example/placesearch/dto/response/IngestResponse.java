@@ -0,0 +1,25 @@
+package com.example.placesearch.dto.response;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.Data;
+
+@Data
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class IngestResponse {
+    private String infocode = "10000";
+    private String status = "1";
+    private String info = "OK";
+    private Integer inserted;
+    private Integer updated;
+    // 写入完成后 region_changelog 的最新版本
+    private Long version;
+    @JsonProperty("elapsed_ms")
+    private Long elapsedMs;
+
+    public void setError(String errorCode, String errorMessage) {
+        this.infocode = errorCode;
+        this.status = "0";
+        this.info = errorMessage;
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.placesearch.dto.response;
+
+import com.example.placesearch.repository.RegionColumn;
+
+import java.util.EnumSet;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * fields 参数可选的输出字段，名称与 {@link PoiResponse} 的 JSON 字段一致。
+ * location 与 distance 依赖的坐标列由调用方按坐标系决定。
+ */
+public enum PoiField {
+    ID(RegionColumn.ID),
+    NAME(RegionColumn.NAME),
+    LOCATION,
+    DISTANCE,
+    TYPECODE(RegionColumn.TYPECODE),
+    TYPE(RegionColumn.CATEGORY_LARGE, RegionColumn.CATEGORY_MEDIUM, RegionColumn.CATEGORY_SMALL),
+    ADDRESS(RegionColumn.ADDRESS),
+    PNAME(RegionColumn.PNAME),
+    CITYNAME(RegionColumn.CITYNAME),
+    ADNAME(RegionColumn.ADNAME),
+    ADCODE(RegionColumn.ADCODE),
+    YEAR(RegionColumn.TIMESTAMP),
+    ROUTE_DISTANCE;
+
+    public static final String FILTER_ID = "poiFields";
+
+    private final Set<RegionColumn> columns;
+
+    PoiField(RegionColumn... columns) {
+        this.columns = columns.length == 0 ? EnumSet.noneOf(RegionColumn.class) : EnumSet.of(columns[0], columns);
+    }
+
+    public Set<RegionColumn> columns() {
+        return columns;
+    }
+
+    public String jsonName() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * 解析逗号分隔的字段列表，为空时返回 null（表示全部字段）。
+     */
+    public static Set<PoiField> parse(String raw) {
+        if (raw == null || raw.isBlank()) {
+            return null;
+        }
+        EnumSet<PoiField> fields = EnumSet.noneOf(PoiField.class);
+        for (String part : raw.split(",")) {
+            String name = part.trim();
+            if (name.isEmpty()) {
+                continue;
+            }
+            try {
+                fields.add(PoiField.valueOf(name.toUpperCase(Locale.ROOT)));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("fields 包含未知字段: " + name);
+            }
+        }
+        return fields.isEmpty() ? null : fields;
+    }
+}
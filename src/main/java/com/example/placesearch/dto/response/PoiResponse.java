@@ -1,8 +1,13 @@
 package com.example.placesearch.dto.response;
 
+import com.fasterxml.jackson.annotation.JsonFilter;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import lombok.Data;
 
 @Data
+@JsonFilter(PoiField.FILTER_ID)
 public class PoiResponse {
     private String address;
     private String distance;
@@ -16,4 +21,18 @@ public class PoiResponse {
     private String name;
     private String location;
     private String id;
+    // 走廊检索时，垂足沿路线到起点的距离（米，取整）
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    @JsonProperty("route_distance")
+    private String routeDistance;
+
+    // 数值坐标/距离，只用于列式与二进制格式，默认 JSON 中不输出
+    @JsonIgnore
+    private Double lon;
+    @JsonIgnore
+    private Double lat;
+    @JsonIgnore
+    private Double distanceMeters;
+    @JsonIgnore
+    private Double routeDistanceMeters;
 }
\ No newline at end of file
@@ -0,0 +1,59 @@
+package com.example.placesearch.dto.response;
+
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+
+import java.util.Locale;
+
+/**
+ * 检索结果的输出格式：format 参数优先，其次看 Accept 头是否要求 MessagePack。
+ */
+public enum ResponseFormat {
+    JSON(MediaType.APPLICATION_JSON),
+    COLUMNAR(MediaType.APPLICATION_JSON),
+    MSGPACK(new MediaType("application", "x-msgpack"));
+
+    private static final MediaType MSGPACK_ALT_MEDIA_TYPE = new MediaType("application", "msgpack");
+
+    private final MediaType mediaType;
+
+    ResponseFormat(MediaType mediaType) {
+        this.mediaType = mediaType;
+    }
+
+    public MediaType mediaType() {
+        return mediaType;
+    }
+
+    /**
+     * 把检索结果转换为该格式的响应体；MSGPACK 使用列式结构。
+     */
+    public Object render(SearchResponse response) {
+        return this == JSON ? response : ColumnarSearchResponse.from(response);
+    }
+
+    public static ResponseFormat resolve(String format, String accept) {
+        if (format != null && !format.isBlank()) {
+            return switch (format.trim().toLowerCase(Locale.ROOT)) {
+                case "json" -> JSON;
+                case "columnar" -> COLUMNAR;
+                case "msgpack" -> MSGPACK;
+                default -> throw new IllegalArgumentException("format 仅支持 json、columnar 或 msgpack");
+            };
+        }
+        if (accept == null) {
+            return JSON;
+        }
+        try {
+            for (MediaType type : MediaType.parseMediaTypes(accept)) {
+                if (!type.isWildcardSubtype()
+                        && (type.isCompatibleWith(MSGPACK.mediaType) || type.isCompatibleWith(MSGPACK_ALT_MEDIA_TYPE))) {
+                    return MSGPACK;
+                }
+            }
+        } catch (InvalidMediaTypeException e) {
+            // 无法解析的 Accept 按默认 JSON 处理
+        }
+        return JSON;
+    }
+}
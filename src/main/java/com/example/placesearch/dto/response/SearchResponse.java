@@ -1,8 +1,12 @@
 package com.example.placesearch.dto.response;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import lombok.Data;
 
 import java.util.List;
+import java.util.Set;
 
 @Data
 public class SearchResponse {
@@ -10,11 +14,30 @@ public class SearchResponse {
     private List<PoiResponse> pois;
     private String status = "1";
     private String info = "OK";
+    // 截止时间到达时已停止后续筛选，pois 只是部分结果
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Boolean partial;
+    // 命中总数（去重前），仅在 count 参数要求时返回；估算值会同时返回 count_estimated=true
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Long count;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    @JsonProperty("count_estimated")
+    private Boolean countEstimated;
+    // 是否还有下一页（查询时多取一行判断），不分页时为 false
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    @JsonProperty("has_more")
+    private Boolean hasMore;
+    // 请求的 fields，序列化时只输出这些 POI 字段；null 表示全部
+    @JsonIgnore
+    private Set<PoiField> fields;
 
     public void setError(String errorCode, String errorMessage) {
         this.infocode = errorCode;
         this.status = "0";
         this.info = errorMessage;
         this.pois = null;
+        this.count = null;
+        this.countEstimated = null;
+        this.hasMore = null;
     }
 }
\ No newline at end of file
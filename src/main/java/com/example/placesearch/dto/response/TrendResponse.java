@@ -0,0 +1,48 @@
+package com.example.placesearch.dto.response;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * 范围内逐年、按大类统计的 POI 数量，years 按年份升序。
+ */
+@Data
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class TrendResponse {
+    private String infocode = "10000";
+    private String status = "1";
+    private String info = "OK";
+    @JsonProperty("year_from")
+    private Integer yearFrom;
+    @JsonProperty("year_to")
+    private Integer yearTo;
+    // 数据来源: rollup（预汇总网格）| scan（按条件分组计数）
+    private String source;
+    // 范围边界按网格覆盖比例估算时为 true
+    private Boolean estimated;
+    private Long total;
+    private List<YearCount> years;
+
+    @Data
+    public static class YearCount {
+        private int year;
+        private long total;
+        // 按数量降序
+        private List<CategoryCount> categories;
+    }
+
+    @Data
+    public static class CategoryCount {
+        private String category;
+        private long count;
+    }
+
+    public void setError(String errorCode, String errorMessage) {
+        this.infocode = errorCode;
+        this.status = "0";
+        this.info = errorMessage;
+    }
+}
@@ -1,5 +1,6 @@
 package com.example.placesearch.entity;
 
+import com.example.placesearch.util.PoiNameUtils;
 import jakarta.persistence.*;
 import lombok.Data;
 import java.time.LocalDateTime;
@@ -9,7 +10,9 @@ import java.time.LocalDateTime;
 @Table(
     name = "regions",
     indexes = {
-        @Index(name = "idx_regions_cityname", columnList = "cityname")
+        @Index(name = "idx_regions_cityname", columnList = "cityname"),
+        @Index(name = "idx_regions_pcode", columnList = "pcode"),
+        @Index(name = "idx_regions_adcode", columnList = "adcode")
     }
 )
 public class Region {
@@ -106,4 +109,17 @@ public class Region {
 
     @Column(name = "小类", length = 100, nullable = true)
     private String categorySmall;
+
+    /* ================= 派生字段（不落库） ================= */
+    // 停车场去重用的规范化名称，非停车场为 null；加载时计算一次，避免每次去重都跑正则。
+    // 不落库：名称规则调整后不需要回填全表，且 fields= 投影查询出来的行也能拿到一致的值
+    @Transient
+    private String parkingDedupName;
+
+    @PostLoad
+    @PostPersist
+    @PostUpdate
+    public void computeDerivedFields() {
+        this.parkingDedupName = PoiNameUtils.parkingDedupName(typecode, name);
+    }
 }
@@ -0,0 +1,17 @@
+package com.example.placesearch.exception;
+
+/**
+ * 准入控制拒绝了请求，code 直接作为 SearchResponse 的 infocode 返回。
+ */
+public class AdmissionRejectedException extends RuntimeException {
+    private final String code;
+
+    public AdmissionRejectedException(String code, String message) {
+        super(message);
+        this.code = code;
+    }
+
+    public String getCode() {
+        return code;
+    }
+}
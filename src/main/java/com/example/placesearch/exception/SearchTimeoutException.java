@@ -0,0 +1,10 @@
+package com.example.placesearch.exception;
+
+/**
+ * 请求截止时间在数据库查询开始前就已耗尽。
+ */
+public class SearchTimeoutException extends RuntimeException {
+    public SearchTimeoutException(String message) {
+        super(message);
+    }
+}
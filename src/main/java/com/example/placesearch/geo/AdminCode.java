@@ -0,0 +1,39 @@
+package com.example.placesearch.geo;
+
+/**
+ * 六位行政区划编码（adcode）：后四位为 0 是省级，后两位为 0 是地级，其余为区县级。
+ */
+public record AdminCode(String code, Level level) {
+
+    public enum Level {
+        PROVINCE,
+        CITY,
+        DISTRICT
+    }
+
+    public static AdminCode parse(String raw) {
+        String code = raw == null ? "" : raw.trim();
+        if (code.length() != 6 || !code.chars().allMatch(ch -> ch >= '0' && ch <= '9')
+                || code.startsWith("00")) {
+            throw new IllegalArgumentException("adcode 必须是 6 位行政区划编码: " + raw);
+        }
+        Level level = code.endsWith("0000") ? Level.PROVINCE
+                : code.endsWith("00") ? Level.CITY
+                : Level.DISTRICT;
+        return new AdminCode(code, level);
+    }
+
+    /**
+     * 所属省份编码，与 regions.pcode 一致。
+     */
+    public String provinceCode() {
+        return code.substring(0, 2) + "0000";
+    }
+
+    /**
+     * 地级编码前缀，该市下所有区县的 adcode 都以此开头。
+     */
+    public String cityPrefix() {
+        return code.substring(0, 4);
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.placesearch.geo;
+
+import com.example.placesearch.util.LocalDistance;
+import com.example.placesearch.util.LocationUtils;
+
+
+/**
+ * 圆形区域（半径单位为米），点是否在圆内用局部平面近似距离判断。
+ */
+public final class CircleArea implements GeoArea {
+    // WKT 近似圆时使用的顶点数
+    private static final int WKT_SEGMENTS = 64;
+
+    private final double lon;
+    private final double lat;
+    private final double radiusMeters;
+    private final LocalDistance center;
+    private final double radiusSquared;
+    private final Bounds bounds;
+
+    public CircleArea(double lon, double lat, double radiusMeters) {
+        if (!(radiusMeters > 0)) {
+            throw new IllegalArgumentException("circle 半径必须大于0");
+        }
+        this.lon = lon;
+        this.lat = lat;
+        this.radiusMeters = radiusMeters;
+        this.center = LocalDistance.at(lon, lat);
+        this.radiusSquared = LocalDistance.squared(radiusMeters);
+        double[] bbox = LocationUtils.boundingBox(lon, lat, radiusMeters);
+        this.bounds = new Bounds(bbox[0], bbox[1], bbox[2], bbox[3]);
+    }
+
+    @Override
+    public boolean contains(double lon, double lat) {
+        return center.isWithin(lon, lat, radiusSquared);
+    }
+
+    @Override
+    public Bounds bounds() {
+        return bounds;
+    }
+
+    @Override
+    public double area() {
+        double rx = radiusMeters / LocationUtils.metersPerDegreeLon(lat);
+        double ry = radiusMeters / LocationUtils.METERS_PER_DEGREE_LAT;
+        return Math.PI * rx * ry;
+    }
+
+    @Override
+    public String wkt() {
+        double rx = radiusMeters / LocationUtils.metersPerDegreeLon(lat);
+        double ry = radiusMeters / LocationUtils.METERS_PER_DEGREE_LAT;
+        StringBuilder wkt = new StringBuilder("POLYGON((");
+        for (int i = 0; i <= WKT_SEGMENTS; i++) {
+            double angle = 2 * Math.PI * (i % WKT_SEGMENTS) / WKT_SEGMENTS;
+            if (i > 0) {
+                wkt.append(',');
+            }
+            PolygonArea.appendFixed(wkt, lon + rx * Math.cos(angle));
+            wkt.append(' ');
+            PolygonArea.appendFixed(wkt, lat + ry * Math.sin(angle));
+        }
+        return wkt.append("))").toString();
+    }
+}
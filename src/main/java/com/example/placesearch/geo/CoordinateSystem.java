@@ -0,0 +1,53 @@
+package com.example.placesearch.geo;
+
+import com.example.placesearch.entity.Region;
+import org.springframework.util.StringUtils;
+
+import java.util.Locale;
+
+/**
+ * 请求/响应使用的坐标系。regions 表同时存有 GCJ-02（marlon/marlat）与 WGS84（wgs84lon/wgs84lat）两套坐标，
+ * 查询直接命中对应列，避免逐点做迭代反算。
+ */
+public enum CoordinateSystem {
+    GCJ02("marlon", "marlat"),
+    WGS84("wgs84lon", "wgs84lat");
+
+    private final String lonColumn;
+    private final String latColumn;
+
+    CoordinateSystem(String lonColumn, String latColumn) {
+        this.lonColumn = lonColumn;
+        this.latColumn = latColumn;
+    }
+
+    /**
+     * 解析 coordsys 参数，为空时默认 GCJ-02；无法识别时抛出 IllegalArgumentException。
+     */
+    public static CoordinateSystem parse(String raw) {
+        if (!StringUtils.hasText(raw)) {
+            return GCJ02;
+        }
+        return switch (raw.trim().toLowerCase(Locale.ROOT)) {
+            case "gcj02", "gcj-02" -> GCJ02;
+            case "wgs84", "wgs-84" -> WGS84;
+            default -> throw new IllegalArgumentException("coordsys 仅支持 gcj02 或 wgs84");
+        };
+    }
+
+    public String lonColumn() {
+        return lonColumn;
+    }
+
+    public String latColumn() {
+        return latColumn;
+    }
+
+    public Double lon(Region region) {
+        return this == WGS84 ? region.getWgs84lon() : region.getMarlon();
+    }
+
+    public Double lat(Region region) {
+        return this == WGS84 ? region.getWgs84lat() : region.getMarlat();
+    }
+}
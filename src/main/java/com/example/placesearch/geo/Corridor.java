@@ -0,0 +1,224 @@
+package com.example.placesearch.geo;
+
+import com.example.placesearch.util.LocationUtils;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 折线两侧 buffer 米以内的走廊区域。点到折线的距离按各线段的局部平面近似计算，
+ * 同时给出垂足沿折线到起点的距离（route distance）。
+ */
+public final class Corridor {
+    public static final int MAX_VERTICES = 5000;
+    public static final double MAX_BUFFER_METERS = 5000;
+
+    private static final ObjectMapper JSON = new ObjectMapper();
+
+    private final double[] lons;
+    private final double[] lats;
+    // 每条线段的经度米数、长度与起点的累计里程
+    private final double[] metersPerDegreeLon;
+    private final double[] segmentMeters;
+    private final double[] startMeters;
+    // 每条线段外扩 buffer 后的外接矩形，用于跳过明显不相交的线段
+    private final GeoArea.Bounds[] segmentBounds;
+    private final double buffer;
+    private final double bufferSquared;
+    private final GeoArea.Bounds bounds;
+    private final List<GeoArea.Bounds> parts;
+    // 每个覆盖矩形所含折线片段终点的沿线里程，随矩形顺序递增
+    private final double[] partEndMeters;
+
+    public Corridor(List<double[]> vertices, double bufferMeters) {
+        if (vertices.size() < 2) {
+            throw new IllegalArgumentException("polyline点数不足，至少需要2个点");
+        }
+        if (vertices.size() > MAX_VERTICES) {
+            throw new IllegalArgumentException("polyline最多支持 " + MAX_VERTICES + " 个点");
+        }
+        if (!(bufferMeters > 0) || bufferMeters > MAX_BUFFER_METERS) {
+            throw new IllegalArgumentException("buffer 需大于0且不超过 " + (int) MAX_BUFFER_METERS + " 米");
+        }
+        int size = vertices.size();
+        this.lons = new double[size];
+        this.lats = new double[size];
+        for (int i = 0; i < size; i++) {
+            lons[i] = vertices.get(i)[0];
+            lats[i] = vertices.get(i)[1];
+        }
+        this.buffer = bufferMeters;
+        this.bufferSquared = bufferMeters * bufferMeters;
+
+        int segments = size - 1;
+        this.metersPerDegreeLon = new double[segments];
+        this.segmentMeters = new double[segments];
+        this.startMeters = new double[segments];
+        this.segmentBounds = new GeoArea.Bounds[segments];
+        double total = 0;
+        GeoArea.Bounds all = null;
+        for (int i = 0; i < segments; i++) {
+            metersPerDegreeLon[i] = LocationUtils.metersPerDegreeLon((lats[i] + lats[i + 1]) / 2);
+            double dx = (lons[i + 1] - lons[i]) * metersPerDegreeLon[i];
+            double dy = (lats[i + 1] - lats[i]) * LocationUtils.METERS_PER_DEGREE_LAT;
+            segmentMeters[i] = Math.sqrt(dx * dx + dy * dy);
+            startMeters[i] = total;
+            total += segmentMeters[i];
+            segmentBounds[i] = buffered(lons[i], lats[i], lons[i + 1], lats[i + 1]);
+            all = all == null ? segmentBounds[i] : all.union(segmentBounds[i]);
+        }
+        this.bounds = all;
+        List<Double> partEnds = new ArrayList<>();
+        this.parts = coveringBoxes(total, partEnds);
+        this.partEndMeters = partEnds.stream().mapToDouble(Double::doubleValue).toArray();
+    }
+
+    /**
+     * 解析 "lng,lat;lng,lat;..." 或 JSON 数组 [[lng,lat],...]。
+     */
+    public static List<double[]> parsePolyline(String raw) {
+        String text = raw == null ? "" : raw.trim();
+        List<double[]> points = new ArrayList<>();
+        if (text.startsWith("[")) {
+            JsonNode root;
+            try {
+                root = JSON.readTree(text);
+            } catch (JsonProcessingException e) {
+                throw new IllegalArgumentException("polyline格式不正确，应为 lng,lat;... 或 [[lng,lat],...]");
+            }
+            for (JsonNode item : root) {
+                if (!item.isArray() || item.size() < 2 || !item.get(0).isNumber() || !item.get(1).isNumber()) {
+                    throw new IllegalArgumentException("polyline JSON 元素必须是 [lng,lat]");
+                }
+                points.add(point(item.get(0).asDouble(), item.get(1).asDouble()));
+            }
+            return points;
+        }
+        for (String pair : text.split(";")) {
+            String item = pair.trim();
+            if (item.isEmpty()) {
+                continue;
+            }
+            String[] coords = item.split(",");
+            if (coords.length != 2) {
+                throw new IllegalArgumentException("polyline格式不正确，应为: lng,lat;lng,lat;...");
+            }
+            try {
+                points.add(point(Double.parseDouble(coords[0].trim()), Double.parseDouble(coords[1].trim())));
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("polyline包含非法坐标");
+            }
+        }
+        return points;
+    }
+
+    private static double[] point(double lon, double lat) {
+        if (!Double.isFinite(lon) || !Double.isFinite(lat)) {
+            throw new IllegalArgumentException("polyline包含非法坐标");
+        }
+        return new double[]{lon, lat};
+    }
+
+    /**
+     * 点在走廊内时返回到折线的最短距离与对应的沿线里程，否则返回 null。
+     */
+    public Match locate(double lon, double lat) {
+        double bestSquared = Double.POSITIVE_INFINITY;
+        double bestRoute = 0;
+        for (int i = 0; i < segmentMeters.length; i++) {
+            GeoArea.Bounds box = segmentBounds[i];
+            if (lon < box.minLon() || lon > box.maxLon() || lat < box.minLat() || lat > box.maxLat()) {
+                continue;
+            }
+            double mx = metersPerDegreeLon[i];
+            double bx = (lons[i + 1] - lons[i]) * mx;
+            double by = (lats[i + 1] - lats[i]) * LocationUtils.METERS_PER_DEGREE_LAT;
+            double px = (lon - lons[i]) * mx;
+            double py = (lat - lats[i]) * LocationUtils.METERS_PER_DEGREE_LAT;
+            double lengthSquared = bx * bx + by * by;
+            double t = lengthSquared == 0 ? 0 : Math.max(0, Math.min(1, (px * bx + py * by) / lengthSquared));
+            double dx = px - t * bx;
+            double dy = py - t * by;
+            double squared = dx * dx + dy * dy;
+            if (squared < bestSquared) {
+                bestSquared = squared;
+                bestRoute = startMeters[i] + t * segmentMeters[i];
+            }
+        }
+        if (bestSquared > bufferSquared) {
+            return null;
+        }
+        return new Match(Math.sqrt(bestSquared), bestRoute);
+    }
+
+    public record Match(double offsetMeters, double routeMeters) { }
+
+    public GeoArea.Bounds bounds() {
+        return bounds;
+    }
+
+    /**
+     * 沿线覆盖走廊的矩形，候选查询按这些矩形 OR 合并，数量不超过 {@link GeoJsonAreas#MAX_PARTS}。
+     */
+    public List<GeoArea.Bounds> parts() {
+        return parts;
+    }
+
+    /**
+     * 第 index 个覆盖矩形终点的沿线里程。沿线里程不超过该值的走廊内的点都落在前 index + 1 个矩形内
+     * （命中点到垂足不超过 buffer，垂足所在片段外扩 buffer 的矩形包含该点），按顺序读取矩形时可据此提前结束。
+     */
+    public double partEndMeters(int index) {
+        return partEndMeters[index];
+    }
+
+    public double buffer() {
+        return buffer;
+    }
+
+    // 长线段按 pieceMeters 切段，使斜向线段的矩形不至于覆盖大片无关区域；段数过多时合并相邻段。
+    // 矩形按沿线顺序排列，partEnds 依次收到每个矩形终点的沿线里程
+    private List<GeoArea.Bounds> coveringBoxes(double totalMeters, List<Double> partEnds) {
+        double pieceMeters = Math.max(4 * buffer, totalMeters / GeoJsonAreas.MAX_PARTS);
+        List<GeoArea.Bounds> pieces = new ArrayList<>();
+        List<Double> pieceEnds = new ArrayList<>();
+        for (int i = 0; i < segmentMeters.length; i++) {
+            int count = Math.max(1, (int) Math.ceil(segmentMeters[i] / pieceMeters));
+            for (int k = 0; k < count; k++) {
+                double t0 = (double) k / count;
+                double t1 = (double) (k + 1) / count;
+                pieces.add(buffered(
+                        lons[i] + (lons[i + 1] - lons[i]) * t0, lats[i] + (lats[i + 1] - lats[i]) * t0,
+                        lons[i] + (lons[i + 1] - lons[i]) * t1, lats[i] + (lats[i + 1] - lats[i]) * t1));
+                // 最后一片取线段终点的累计里程，避免浮点误差使其略小于下一段起点
+                pieceEnds.add(k + 1 == count ? startMeters[i] + segmentMeters[i] : startMeters[i] + segmentMeters[i] * t1);
+            }
+        }
+        int group = (pieces.size() + GeoJsonAreas.MAX_PARTS - 1) / GeoJsonAreas.MAX_PARTS;
+        if (group <= 1) {
+            partEnds.addAll(pieceEnds);
+            return List.copyOf(pieces);
+        }
+        List<GeoArea.Bounds> merged = new ArrayList<>(GeoJsonAreas.MAX_PARTS);
+        for (int start = 0; start < pieces.size(); start += group) {
+            int end = Math.min(pieces.size(), start + group);
+            GeoArea.Bounds box = pieces.get(start);
+            for (int k = start + 1; k < end; k++) {
+                box = box.union(pieces.get(k));
+            }
+            merged.add(box);
+            partEnds.add(pieceEnds.get(end - 1));
+        }
+        return List.copyOf(merged);
+    }
+
+    private GeoArea.Bounds buffered(double lon1, double lat1, double lon2, double lat2) {
+        double[] a = LocationUtils.boundingBox(lon1, lat1, buffer);
+        double[] b = LocationUtils.boundingBox(lon2, lat2, buffer);
+        return new GeoArea.Bounds(Math.min(a[0], b[0]), Math.max(a[1], b[1]),
+                Math.min(a[2], b[2]), Math.max(a[3], b[3]));
+    }
+}
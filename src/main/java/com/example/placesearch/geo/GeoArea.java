@@ -0,0 +1,45 @@
+package com.example.placesearch.geo;
+
+import java.util.List;
+
+/**
+ * 多边形检索使用的平面区域，坐标为请求坐标系下的经纬度。
+ */
+public interface GeoArea {
+
+    boolean contains(double lon, double lat);
+
+    Bounds bounds();
+
+    /**
+     * 组成区域的各部分的外接矩形，候选查询按这些矩形 OR 合并，避免用一个大矩形覆盖相距较远的多个部分。
+     */
+    default List<Bounds> parts() {
+        return List.of(bounds());
+    }
+
+    /**
+     * 经纬度平面上的面积（平方度），只用于与外接矩形求面积比做估算。
+     */
+    double area();
+
+    /**
+     * MySQL ST_GeomFromText 可用的 WKT，圆以内接多边形近似。
+     */
+    String wkt();
+
+    record Bounds(double minLon, double maxLon, double minLat, double maxLat) {
+
+        public Bounds union(Bounds other) {
+            return new Bounds(
+                    Math.min(minLon, other.minLon),
+                    Math.max(maxLon, other.maxLon),
+                    Math.min(minLat, other.minLat),
+                    Math.max(maxLat, other.maxLat));
+        }
+
+        public double area() {
+            return (maxLon - minLon) * (maxLat - minLat);
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package com.example.placesearch.geo;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * 把 GeoJSON 几何解析为 {@link GeoArea}。支持 Polygon（含洞）、MultiPolygon、GeometryCollection、
+ * Feature/FeatureCollection，以及扩展的圆形：{"type":"Circle","coordinates":[lng,lat],"radius":米}，
+ * 带 radius 的 Point 同样视为圆。多个几何取并集。
+ */
+public final class GeoJsonAreas {
+    // 并集的部分数上限，每个部分在候选查询中对应一个 OR 条件
+    public static final int MAX_PARTS = 64;
+
+    private static final ObjectMapper JSON = new ObjectMapper();
+
+    private GeoJsonAreas() {
+    }
+
+    /**
+     * node 可以是 GeoJSON 对象，也可以是 GeoJSON 文本（GET 参数）；格式错误时抛出 IllegalArgumentException。
+     */
+    public static GeoArea parse(JsonNode node) {
+        return parse(node, MAX_PARTS);
+    }
+
+    /**
+     * 同 {@link #parse(JsonNode)}，部分数上限由调用方指定（如本地行政区边界）。
+     */
+    public static GeoArea parse(JsonNode node, int maxParts) {
+        if (node != null && node.isTextual()) {
+            try {
+                node = JSON.readTree(node.asText());
+            } catch (JsonProcessingException e) {
+                throw new IllegalArgumentException("geometry 不是合法的 GeoJSON");
+            }
+        }
+        if (node == null || !node.isObject()) {
+            throw new IllegalArgumentException("geometry 必须是 GeoJSON 对象");
+        }
+        GeoArea area = parseObject(node);
+        if (area.parts().size() > maxParts) {
+            throw new IllegalArgumentException("geometry 最多包含 " + maxParts + " 个多边形或圆");
+        }
+        return area;
+    }
+
+    private static GeoArea parseObject(JsonNode node) {
+        String type = node.path("type").asText("");
+        switch (type.toLowerCase(Locale.ROOT)) {
+            case "polygon":
+                return polygon(node.path("coordinates"));
+            case "multipolygon": {
+                List<GeoArea> polygons = new ArrayList<>();
+                for (JsonNode polygon : array(node.path("coordinates"), "MultiPolygon coordinates")) {
+                    polygons.add(polygon(polygon));
+                }
+                return union(polygons);
+            }
+            case "circle":
+                return circle(node, node.path("radius"));
+            case "point":
+                if (!node.has("radius")) {
+                    throw new IllegalArgumentException("Point 需要 radius（米）才能作为圆形区域");
+                }
+                return circle(node, node.path("radius"));
+            case "geometrycollection":
+                return collection(node.path("geometries"), "GeometryCollection geometries");
+            case "feature": {
+                JsonNode geometry = node.path("geometry");
+                JsonNode radius = node.path("properties").path("radius");
+                if (geometry.path("type").asText("").equalsIgnoreCase("point") && !radius.isMissingNode()) {
+                    return circle(geometry, radius);
+                }
+                return parseObject(geometry);
+            }
+            case "featurecollection":
+                return collection(node.path("features"), "FeatureCollection features");
+            default:
+                throw new IllegalArgumentException("不支持的 geometry 类型: " + type);
+        }
+    }
+
+    private static GeoArea collection(JsonNode items, String name) {
+        List<GeoArea> members = new ArrayList<>();
+        for (JsonNode item : array(items, name)) {
+            members.add(parseObject(item));
+        }
+        return union(members);
+    }
+
+    private static GeoArea union(List<GeoArea> members) {
+        if (members.isEmpty()) {
+            throw new IllegalArgumentException("geometry 不能为空");
+        }
+        return UnionArea.of(members);
+    }
+
+    private static PolygonArea polygon(JsonNode coordinates) {
+        List<List<double[]>> rings = new ArrayList<>();
+        for (JsonNode ringNode : array(coordinates, "Polygon coordinates")) {
+            List<double[]> ring = new ArrayList<>();
+            for (JsonNode position : array(ringNode, "Polygon ring")) {
+                ring.add(position(position));
+            }
+            double[] first = ring.isEmpty() ? null : ring.get(0);
+            double[] last = ring.isEmpty() ? null : ring.get(ring.size() - 1);
+            if (first != null && (first[0] != last[0] || first[1] != last[1])) {
+                ring.add(new double[]{first[0], first[1]});
+            }
+            rings.add(ring);
+        }
+        return new PolygonArea(rings);
+    }
+
+    private static CircleArea circle(JsonNode node, JsonNode radius) {
+        double[] center = position(node.path("coordinates"));
+        if (!radius.isNumber()) {
+            throw new IllegalArgumentException("circle 的 radius 必须是数字（米）");
+        }
+        return new CircleArea(center[0], center[1], radius.asDouble());
+    }
+
+    private static double[] position(JsonNode node) {
+        if (!node.isArray() || node.size() < 2 || !node.get(0).isNumber() || !node.get(1).isNumber()) {
+            throw new IllegalArgumentException("geometry 坐标必须是 [lng,lat]");
+        }
+        double lng = node.get(0).asDouble();
+        double lat = node.get(1).asDouble();
+        if (!Double.isFinite(lng) || !Double.isFinite(lat)) {
+            throw new IllegalArgumentException("geometry 包含非法坐标");
+        }
+        return new double[]{lng, lat};
+    }
+
+    private static JsonNode array(JsonNode node, String name) {
+        if (!node.isArray()) {
+            throw new IllegalArgumentException(name + " 必须是数组");
+        }
+        return node;
+    }
+}
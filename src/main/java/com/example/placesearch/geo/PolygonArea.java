@@ -0,0 +1,348 @@
+package com.example.placesearch.geo;
+
+import com.example.placesearch.util.LocationUtils;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 带洞多边形：第一个环为外环，其余为洞。环首尾闭合，坐标按环拆成 x/y 两个数组以减少点面判断时的间接访问。
+ */
+public final class PolygonArea implements GeoArea {
+    private static final ObjectMapper JSON = new ObjectMapper();
+    private static final int WKT_DECIMALS = 8;
+    private static final long WKT_SCALE = 100_000_000L;
+
+    private final double[][] xs;
+    private final double[][] ys;
+    private final Bounds bounds;
+    private volatile String wkt;
+
+    public PolygonArea(List<List<double[]>> rings) {
+        this(ringLons(rings), ringLats(rings));
+    }
+
+    // xs/ys 的每一行是一个闭合环，构造后不再修改
+    private PolygonArea(double[][] xs, double[][] ys) {
+        if (xs.length == 0) {
+            throw new IllegalArgumentException("polygon 至少需要一个外环");
+        }
+        for (double[] ring : xs) {
+            if (ring.length < 4) {
+                throw new IllegalArgumentException("polygon点数不足，至少需要3个点");
+            }
+        }
+        this.xs = xs;
+        this.ys = ys;
+        double minLon = Double.POSITIVE_INFINITY;
+        double maxLon = Double.NEGATIVE_INFINITY;
+        double minLat = Double.POSITIVE_INFINITY;
+        double maxLat = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < xs[0].length; i++) {
+            minLon = Math.min(minLon, xs[0][i]);
+            maxLon = Math.max(maxLon, xs[0][i]);
+            minLat = Math.min(minLat, ys[0][i]);
+            maxLat = Math.max(maxLat, ys[0][i]);
+        }
+        this.bounds = new Bounds(minLon, maxLon, minLat, maxLat);
+    }
+
+    private static double[][] ringLons(List<List<double[]>> rings) {
+        double[][] lons = new double[rings.size()][];
+        for (int r = 0; r < rings.size(); r++) {
+            List<double[]> ring = rings.get(r);
+            lons[r] = new double[ring.size()];
+            for (int i = 0; i < ring.size(); i++) {
+                lons[r][i] = ring.get(i)[0];
+            }
+        }
+        return lons;
+    }
+
+    private static double[][] ringLats(List<List<double[]>> rings) {
+        double[][] lats = new double[rings.size()][];
+        for (int r = 0; r < rings.size(); r++) {
+            List<double[]> ring = rings.get(r);
+            lats[r] = new double[ring.size()];
+            for (int i = 0; i < ring.size(); i++) {
+                lats[r][i] = ring.get(i)[1];
+            }
+        }
+        return lats;
+    }
+
+    /**
+     * 解析 "lng,lat;lng,lat;..." 或 JSON 数组 [[lng,lat],...] 形式的单环多边形，未闭合时自动闭合。
+     */
+    public static PolygonArea parse(String polygonRaw) {
+        String raw = polygonRaw == null ? "" : polygonRaw.trim();
+        if (raw.isEmpty()) {
+            throw new IllegalArgumentException("polygon不能为空");
+        }
+
+        double[][] points;
+        if (raw.startsWith("[")) {
+            points = PolygonTextParser.parseJsonArray(raw);
+            if (points == null) {
+                points = parsePolygonJsonArray(raw);
+            }
+        } else {
+            points = PolygonTextParser.parseSemicolon(raw);
+        }
+        double[] lons = points[0];
+        double[] lats = points[1];
+        int size = lons.length;
+
+        if (size < 3) {
+            throw new IllegalArgumentException("polygon点数不足，至少需要3个点");
+        }
+        for (int i = 0; i < size; i++) {
+            if (!Double.isFinite(lons[i]) || !Double.isFinite(lats[i])) {
+                throw new IllegalArgumentException("polygon包含非法坐标");
+            }
+        }
+
+        if (!samePoint(lons[0], lats[0], lons[size - 1], lats[size - 1])) {
+            lons = Arrays.copyOf(lons, size + 1);
+            lats = Arrays.copyOf(lats, size + 1);
+            lons[size] = lons[0];
+            lats[size] = lats[0];
+        }
+        return new PolygonArea(new double[][]{lons}, new double[][]{lats});
+    }
+
+    // 扫描器不支持的 JSON 写法（如字符串形式的数字）按原方式用 Jackson 解析
+    private static double[][] parsePolygonJsonArray(String polygonRaw) {
+        try {
+            JsonNode root = JSON.readTree(polygonRaw);
+            if (!root.isArray()) {
+                throw new IllegalArgumentException("polygon JSON 必须是数组");
+            }
+            double[] lons = new double[root.size()];
+            double[] lats = new double[root.size()];
+            int i = 0;
+            for (JsonNode item : root) {
+                if (!item.isArray() || item.size() < 2) {
+                    throw new IllegalArgumentException("polygon JSON 元素必须是 [lng,lat]");
+                }
+                double lng = item.get(0).asDouble(Double.NaN);
+                double lat = item.get(1).asDouble(Double.NaN);
+                if (!Double.isFinite(lng) || !Double.isFinite(lat)) {
+                    throw new IllegalArgumentException("polygon JSON 包含非法坐标");
+                }
+                lons[i] = lng;
+                lats[i] = lat;
+                i++;
+            }
+            return new double[][]{lons, lats};
+        } catch (IOException ex) {
+            throw new IllegalArgumentException("polygon格式不正确，应为 lng,lat;... 或 [[lng,lat],...]");
+        }
+    }
+
+    private static boolean samePoint(double x1, double y1, double x2, double y2) {
+        final double eps = 1e-9;
+        return Math.abs(x1 - x2) <= eps && Math.abs(y1 - y2) <= eps;
+    }
+
+    @Override
+    public boolean contains(double lon, double lat) {
+        if (lon < bounds.minLon() || lon > bounds.maxLon() || lat < bounds.minLat() || lat > bounds.maxLat()) {
+            return false;
+        }
+        if (!ringContains(0, lon, lat)) {
+            return false;
+        }
+        for (int r = 1; r < xs.length; r++) {
+            if (ringContains(r, lon, lat)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // 射线法，环首尾闭合，最后一个点与第一个点相同
+    private boolean ringContains(int ring, double x, double y) {
+        double[] rx = xs[ring];
+        double[] ry = ys[ring];
+        int size = rx.length - 1;
+        boolean inside = false;
+        for (int i = 0, j = size - 1; i < size; j = i++) {
+            boolean intersects = ((ry[i] > y) != (ry[j] > y))
+                    && (x < (rx[j] - rx[i]) * (y - ry[i]) / ((ry[j] - ry[i]) + 1e-15) + rx[i]);
+            if (intersects) {
+                inside = !inside;
+            }
+        }
+        return inside;
+    }
+
+    /**
+     * 依次访问各环（外环和洞）的每条边，供栅格化等预处理使用。
+     */
+    public void forEachEdge(EdgeVisitor visitor) {
+        for (int r = 0; r < xs.length; r++) {
+            for (int i = 0; i + 1 < xs[r].length; i++) {
+                visitor.edge(xs[r][i], ys[r][i], xs[r][i + 1], ys[r][i + 1]);
+            }
+        }
+    }
+
+    @FunctionalInterface
+    public interface EdgeVisitor {
+        void edge(double x1, double y1, double x2, double y2);
+    }
+
+    @Override
+    public Bounds bounds() {
+        return bounds;
+    }
+
+    @Override
+    public double area() {
+        double area = ringArea(0);
+        for (int r = 1; r < xs.length; r++) {
+            area -= ringArea(r);
+        }
+        return Math.max(0, area);
+    }
+
+    // 鞋带公式
+    private double ringArea(int ring) {
+        double[] rx = xs[ring];
+        double[] ry = ys[ring];
+        double twiceArea = 0;
+        for (int i = 0; i + 1 < rx.length; i++) {
+            twiceArea += rx[i] * ry[i + 1] - rx[i + 1] * ry[i];
+        }
+        return Math.abs(twiceArea) / 2;
+    }
+
+    /**
+     * 只在需要交给 MySQL 做 ST_Intersects 时生成，生成后缓存。
+     */
+    @Override
+    public String wkt() {
+        String cached = wkt;
+        if (cached != null) {
+            return cached;
+        }
+        StringBuilder builder = new StringBuilder(16 + 40 * Arrays.stream(xs).mapToInt(ring -> ring.length).sum());
+        builder.append("POLYGON(");
+        for (int r = 0; r < xs.length; r++) {
+            if (r > 0) {
+                builder.append(',');
+            }
+            builder.append('(');
+            for (int i = 0; i < xs[r].length; i++) {
+                if (i > 0) {
+                    builder.append(',');
+                }
+                appendFixed(builder, xs[r][i]);
+                builder.append(' ');
+                appendFixed(builder, ys[r][i]);
+            }
+            builder.append(')');
+        }
+        cached = builder.append(')').toString();
+        wkt = cached;
+        return cached;
+    }
+
+    // 等价于 String.format("%.8f")，不经过 Formatter；CircleArea 生成 WKT 时同样使用
+    static void appendFixed(StringBuilder builder, double value) {
+        long scaled = Math.round(Math.abs(value) * WKT_SCALE);
+        if (value < 0 && scaled != 0) {
+            builder.append('-');
+        }
+        builder.append(scaled / WKT_SCALE).append('.');
+        String fraction = Long.toString(scaled % WKT_SCALE);
+        for (int i = fraction.length(); i < WKT_DECIMALS; i++) {
+            builder.append('0');
+        }
+        builder.append(fraction);
+    }
+
+    /**
+     * Douglas-Peucker 抽稀：各环上偏离保留折线不超过 toleranceMeters 的顶点被去掉。
+     * 抽稀后不足 3 个点的环保持原样；没有顶点被去掉时返回自身。
+     */
+    public PolygonArea simplify(double toleranceMeters) {
+        double[][] lons = new double[xs.length][];
+        double[][] lats = new double[xs.length][];
+        boolean changed = false;
+        for (int r = 0; r < xs.length; r++) {
+            boolean[] keep = douglasPeucker(xs[r], ys[r], toleranceMeters);
+            int kept = 0;
+            for (boolean k : keep) {
+                if (k) {
+                    kept++;
+                }
+            }
+            if (kept == xs[r].length || kept < 4) {
+                lons[r] = xs[r];
+                lats[r] = ys[r];
+                continue;
+            }
+            lons[r] = new double[kept];
+            lats[r] = new double[kept];
+            for (int i = 0, j = 0; i < keep.length; i++) {
+                if (keep[i]) {
+                    lons[r][j] = xs[r][i];
+                    lats[r][j] = ys[r][i];
+                    j++;
+                }
+            }
+            changed = true;
+        }
+        return changed ? new PolygonArea(lons, lats) : this;
+    }
+
+    // 在环中心处把经纬度换算为米后计算点到线段距离；用显式栈代替递归，顶点很多时不会栈溢出
+    private static boolean[] douglasPeucker(double[] rx, double[] ry, double toleranceMeters) {
+        int n = rx.length;
+        boolean[] keep = new boolean[n];
+        keep[0] = true;
+        keep[n - 1] = true;
+        double midLat = (Arrays.stream(ry).min().orElse(0) + Arrays.stream(ry).max().orElse(0)) / 2;
+        double kx = LocationUtils.metersPerDegreeLon(midLat);
+        double ky = LocationUtils.METERS_PER_DEGREE_LAT;
+        double toleranceSquared = toleranceMeters * toleranceMeters;
+        ArrayDeque<int[]> ranges = new ArrayDeque<>();
+        ranges.push(new int[]{0, n - 1});
+        while (!ranges.isEmpty()) {
+            int[] range = ranges.pop();
+            int first = range[0];
+            int last = range[1];
+            double ax = rx[first] * kx;
+            double ay = ry[first] * ky;
+            double dx = rx[last] * kx - ax;
+            double dy = ry[last] * ky - ay;
+            double lengthSquared = dx * dx + dy * dy;
+            int farthest = -1;
+            double maxDistance = toleranceSquared;
+            for (int i = first + 1; i < last; i++) {
+                double px = rx[i] * kx - ax;
+                double py = ry[i] * ky - ay;
+                double t = lengthSquared > 0 ? Math.max(0, Math.min(1, (px * dx + py * dy) / lengthSquared)) : 0;
+                double ex = px - t * dx;
+                double ey = py - t * dy;
+                double distance = ex * ex + ey * ey;
+                if (distance > maxDistance) {
+                    maxDistance = distance;
+                    farthest = i;
+                }
+            }
+            if (farthest >= 0) {
+                keep[farthest] = true;
+                ranges.push(new int[]{first, farthest});
+                ranges.push(new int[]{farthest, last});
+            }
+        }
+        return keep;
+    }
+}
@@ -0,0 +1,228 @@
+package com.example.placesearch.geo;
+
+import java.util.Arrays;
+
+/**
+ * 逐字符扫描 "lng,lat;lng,lat;..." 与 [[lng,lat],...] 两种多边形文本，坐标直接写入 double 数组，
+ * 不切分字符串、不构造 JSON 树。普通十进制小数在扫描时直接换算，指数形式等少见写法交给 Double.parseDouble。
+ * JSON 中出现扫描器不支持的写法（如字符串形式的数字）时返回 null，由调用方回退到 Jackson 解析。
+ */
+final class PolygonTextParser {
+    // 10^0 ~ 10^22 都能被 double 精确表示
+    private static final double[] POWERS_OF_TEN = new double[23];
+    // 尾数不超过 2^53 时整数部分可精确表示，再除以精确的 10 的幂，结果与 Double.parseDouble 一致
+    private static final long MAX_EXACT_MANTISSA = 1L << 53;
+
+    static {
+        POWERS_OF_TEN[0] = 1;
+        for (int i = 1; i < POWERS_OF_TEN.length; i++) {
+            POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10;
+        }
+    }
+
+    private final String text;
+    private int pos;
+    private double[] xs = new double[16];
+    private double[] ys = new double[16];
+    private int size;
+
+    private PolygonTextParser(String text) {
+        this.text = text;
+    }
+
+    /**
+     * 解析 "lng,lat;lng,lat;..."，空项被忽略，格式错误时抛出 IllegalArgumentException。
+     */
+    static double[][] parseSemicolon(String text) {
+        PolygonTextParser parser = new PolygonTextParser(text);
+        int length = text.length();
+        int start = 0;
+        while (start <= length) {
+            int end = text.indexOf(';', start);
+            if (end < 0) {
+                end = length;
+            }
+            int comma = -1;
+            boolean blank = true;
+            for (int i = start; i < end; i++) {
+                char ch = text.charAt(i);
+                if (ch == ',') {
+                    if (comma >= 0) {
+                        throw new IllegalArgumentException("polygon格式不正确，应为: lng,lat;lng,lat;...");
+                    }
+                    comma = i;
+                } else if (!Character.isWhitespace(ch)) {
+                    blank = false;
+                }
+            }
+            if (comma >= 0 || !blank) {
+                if (comma < 0) {
+                    throw new IllegalArgumentException("polygon格式不正确，应为: lng,lat;lng,lat;...");
+                }
+                parser.add(parser.number(start, comma), parser.number(comma + 1, end));
+            }
+            start = end + 1;
+        }
+        return parser.result();
+    }
+
+    /**
+     * 解析 [[lng,lat],...]，每个元素至少两个数字，多余的维度（如高程）被忽略。
+     * 结构错误时抛出 IllegalArgumentException；含扫描器不支持的写法时返回 null。
+     */
+    static double[][] parseJsonArray(String text) {
+        PolygonTextParser parser = new PolygonTextParser(text);
+        try {
+            parser.expect('[');
+            if (parser.peek() == ']') {
+                parser.pos++;
+            } else {
+                do {
+                    parser.parseJsonPoint();
+                } while (parser.consume(','));
+                parser.expect(']');
+            }
+            if (parser.peek() != -1) {
+                throw new IllegalArgumentException("polygon JSON 必须是数组");
+            }
+        } catch (UnsupportedSyntax e) {
+            return null;
+        }
+        return parser.result();
+    }
+
+    private void parseJsonPoint() {
+        if (peek() != '[') {
+            throw new IllegalArgumentException("polygon JSON 元素必须是 [lng,lat]");
+        }
+        pos++;
+        double lng = jsonNumber();
+        if (!consume(',')) {
+            throw new IllegalArgumentException("polygon JSON 元素必须是 [lng,lat]");
+        }
+        double lat = jsonNumber();
+        while (consume(',')) {
+            jsonNumber();
+        }
+        expect(']');
+        if (!Double.isFinite(lng) || !Double.isFinite(lat)) {
+            throw new IllegalArgumentException("polygon JSON 包含非法坐标");
+        }
+        add(lng, lat);
+    }
+
+    private double jsonNumber() {
+        skipWhitespace();
+        int start = pos;
+        while (pos < text.length() && "+-.0123456789eE".indexOf(text.charAt(pos)) >= 0) {
+            pos++;
+        }
+        if (start == pos) {
+            // 字符串形式的数字、null 等交给 Jackson 处理
+            throw new UnsupportedSyntax();
+        }
+        try {
+            return number(start, pos);
+        } catch (IllegalArgumentException e) {
+            throw new UnsupportedSyntax();
+        }
+    }
+
+    // 解析 [start, end) 内去掉首尾空白后的数字
+    private double number(int start, int end) {
+        while (start < end && Character.isWhitespace(text.charAt(start))) {
+            start++;
+        }
+        while (end > start && Character.isWhitespace(text.charAt(end - 1))) {
+            end--;
+        }
+        int i = start;
+        boolean negative = false;
+        if (i < end && (text.charAt(i) == '-' || text.charAt(i) == '+')) {
+            negative = text.charAt(i) == '-';
+            i++;
+        }
+        long mantissa = 0;
+        int digits = 0;
+        int fractionDigits = 0;
+        boolean fraction = false;
+        for (; i < end; i++) {
+            char ch = text.charAt(i);
+            if (ch >= '0' && ch <= '9') {
+                mantissa = mantissa * 10 + (ch - '0');
+                digits++;
+                if (fraction) {
+                    fractionDigits++;
+                }
+                if (mantissa >= MAX_EXACT_MANTISSA) {
+                    return slowNumber(start, end);
+                }
+            } else if (ch == '.' && !fraction) {
+                fraction = true;
+            } else {
+                return slowNumber(start, end);
+            }
+        }
+        if (digits == 0 || fractionDigits >= POWERS_OF_TEN.length) {
+            return slowNumber(start, end);
+        }
+        double value = mantissa / POWERS_OF_TEN[fractionDigits];
+        return negative ? -value : value;
+    }
+
+    private double slowNumber(int start, int end) {
+        try {
+            return Double.parseDouble(text.substring(start, end));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("polygon包含非法坐标");
+        }
+    }
+
+    private void add(double lng, double lat) {
+        if (size == xs.length) {
+            xs = Arrays.copyOf(xs, size * 2);
+            ys = Arrays.copyOf(ys, size * 2);
+        }
+        xs[size] = lng;
+        ys[size] = lat;
+        size++;
+    }
+
+    private double[][] result() {
+        return new double[][]{Arrays.copyOf(xs, size), Arrays.copyOf(ys, size)};
+    }
+
+    private int peek() {
+        skipWhitespace();
+        return pos < text.length() ? text.charAt(pos) : -1;
+    }
+
+    private boolean consume(char ch) {
+        if (peek() == ch) {
+            pos++;
+            return true;
+        }
+        return false;
+    }
+
+    private void expect(char ch) {
+        if (!consume(ch)) {
+            throw new IllegalArgumentException(ch == '[' && pos == 0
+                    ? "polygon JSON 必须是数组"
+                    : "polygon格式不正确，应为 lng,lat;... 或 [[lng,lat],...]");
+        }
+    }
+
+    private void skipWhitespace() {
+        while (pos < text.length() && Character.isWhitespace(text.charAt(pos))) {
+            pos++;
+        }
+    }
+
+    // 扫描器不支持的 JSON 写法，回退到 Jackson
+    private static final class UnsupportedSyntax extends RuntimeException {
+        UnsupportedSyntax() {
+            super(null, null, false, false);
+        }
+    }
+}
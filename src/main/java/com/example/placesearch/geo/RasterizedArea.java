@@ -0,0 +1,116 @@
+package com.example.placesearch.geo;
+
+import java.util.List;
+
+/**
+ * 预先栅格化的多边形区域：外接矩形划分为网格，边经过的网格标记为边界，其余网格整体在内或在外。
+ * 点落在内部/外部网格时直接得出结果，只有边界网格才做射线法判断，适合顶点很多、反复使用的行政区边界。
+ */
+public final class RasterizedArea implements GeoArea {
+    private static final byte OUTSIDE = 0;
+    private static final byte INSIDE = 1;
+    private static final byte BOUNDARY = 2;
+
+    private final GeoArea area;
+    private final Bounds bounds;
+    private final int columns;
+    private final int rows;
+    private final double cellWidth;
+    private final double cellHeight;
+    private final byte[] cells;
+    // WKT 只在需要交给 MySQL 时生成一次
+    private volatile String wkt;
+
+    private RasterizedArea(GeoArea area, List<PolygonArea> polygons, int gridSize) {
+        this.area = area;
+        this.bounds = area.bounds();
+        this.columns = gridSize;
+        this.rows = gridSize;
+        this.cellWidth = Math.max((bounds.maxLon() - bounds.minLon()) / columns, 1e-12);
+        this.cellHeight = Math.max((bounds.maxLat() - bounds.minLat()) / rows, 1e-12);
+        this.cells = new byte[columns * rows];
+        // 边的外接矩形覆盖的网格都标为边界，偏保守但不会误判
+        for (PolygonArea polygon : polygons) {
+            polygon.forEachEdge((x1, y1, x2, y2) -> {
+                int minCol = column(Math.min(x1, x2));
+                int maxCol = column(Math.max(x1, x2));
+                int minRow = row(Math.min(y1, y2));
+                int maxRow = row(Math.max(y1, y2));
+                for (int r = minRow; r <= maxRow; r++) {
+                    for (int c = minCol; c <= maxCol; c++) {
+                        cells[r * columns + c] = BOUNDARY;
+                    }
+                }
+            });
+        }
+        // 没有边经过的网格整体在内或在外，取中心点判断一次
+        for (int r = 0; r < rows; r++) {
+            for (int c = 0; c < columns; c++) {
+                int index = r * columns + c;
+                if (cells[index] != BOUNDARY) {
+                    double lon = bounds.minLon() + (c + 0.5) * cellWidth;
+                    double lat = bounds.minLat() + (r + 0.5) * cellHeight;
+                    cells[index] = area.contains(lon, lat) ? INSIDE : OUTSIDE;
+                }
+            }
+        }
+    }
+
+    /**
+     * 区域由多边形组成时返回栅格化后的区域，含圆等其他形状时原样返回。
+     */
+    public static GeoArea of(GeoArea area, int gridSize) {
+        List<PolygonArea> polygons;
+        if (area instanceof PolygonArea polygon) {
+            polygons = List.of(polygon);
+        } else if (area instanceof UnionArea union
+                && union.members().stream().allMatch(member -> member instanceof PolygonArea)) {
+            polygons = union.members().stream().map(member -> (PolygonArea) member).toList();
+        } else {
+            return area;
+        }
+        return new RasterizedArea(area, polygons, Math.max(1, gridSize));
+    }
+
+    @Override
+    public boolean contains(double lon, double lat) {
+        if (lon < bounds.minLon() || lon > bounds.maxLon() || lat < bounds.minLat() || lat > bounds.maxLat()) {
+            return false;
+        }
+        byte cell = cells[row(lat) * columns + column(lon)];
+        return cell == BOUNDARY ? area.contains(lon, lat) : cell == INSIDE;
+    }
+
+    private int column(double lon) {
+        return Math.min(columns - 1, Math.max(0, (int) ((lon - bounds.minLon()) / cellWidth)));
+    }
+
+    private int row(double lat) {
+        return Math.min(rows - 1, Math.max(0, (int) ((lat - bounds.minLat()) / cellHeight)));
+    }
+
+    @Override
+    public Bounds bounds() {
+        return bounds;
+    }
+
+    @Override
+    public List<Bounds> parts() {
+        return area.parts();
+    }
+
+    @Override
+    public double area() {
+        return area.area();
+    }
+
+    @Override
+    public String wkt() {
+        String cached = wkt;
+        if (cached == null) {
+            cached = area.wkt();
+            wkt = cached;
+        }
+        return cached;
+    }
+}
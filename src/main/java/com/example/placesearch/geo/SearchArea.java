@@ -0,0 +1,81 @@
+package com.example.placesearch.geo;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 多边形检索的目标区域：包含区域减去排除区域，exclude 为空时不排除。
+ */
+public record SearchArea(GeoArea include, GeoArea exclude) {
+
+    /**
+     * polygon 与 geometry 取并集作为包含区域，exclude 为排除区域。
+     */
+    public static SearchArea parse(String polygon, JsonNode geometry, JsonNode exclude) {
+        List<GeoArea> include = new ArrayList<>(2);
+        if (polygon != null && !polygon.isBlank()) {
+            include.add(PolygonArea.parse(polygon));
+        }
+        if (!isBlank(geometry)) {
+            include.add(GeoJsonAreas.parse(geometry));
+        }
+        GeoArea excluded = null;
+        if (!isBlank(exclude)) {
+            try {
+                excluded = GeoJsonAreas.parse(exclude);
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("exclude 无效: " + e.getMessage());
+            }
+        }
+        return new SearchArea(UnionArea.of(include), excluded);
+    }
+
+    public static boolean isBlank(JsonNode node) {
+        return node == null || node.isNull() || node.isMissingNode()
+                || (node.isTextual() && node.asText().isBlank());
+    }
+
+    /**
+     * 对包含区域和排除区域中的多边形做 Douglas-Peucker 抽稀，圆保持不变。
+     */
+    public SearchArea simplify(double toleranceMeters) {
+        return new SearchArea(simplify(include, toleranceMeters),
+                exclude == null ? null : simplify(exclude, toleranceMeters));
+    }
+
+    private static GeoArea simplify(GeoArea area, double toleranceMeters) {
+        if (area instanceof PolygonArea polygon) {
+            return polygon.simplify(toleranceMeters);
+        }
+        if (area instanceof UnionArea union) {
+            List<GeoArea> members = new ArrayList<>(union.members().size());
+            for (GeoArea member : union.members()) {
+                members.add(simplify(member, toleranceMeters));
+            }
+            return new UnionArea(members);
+        }
+        return area;
+    }
+
+    public boolean contains(double lon, double lat) {
+        return include.contains(lon, lat) && (exclude == null || !exclude.contains(lon, lat));
+    }
+
+    public GeoArea.Bounds bounds() {
+        return include.bounds();
+    }
+
+    public List<GeoArea.Bounds> parts() {
+        return include.parts();
+    }
+
+    /**
+     * 目标区域占外接矩形的面积比例，排除区域不参与估算。
+     */
+    public double coverage() {
+        double bboxArea = bounds().area();
+        return bboxArea > 0 ? Math.min(1, include.area() / bboxArea) : 0;
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.placesearch.geo;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * 多个区域的并集，嵌套的并集在构造时展开。
+ */
+public final class UnionArea implements GeoArea {
+    private final List<GeoArea> members;
+    private final Bounds bounds;
+
+    public UnionArea(List<GeoArea> members) {
+        if (members.isEmpty()) {
+            throw new IllegalArgumentException("geometry 不能为空");
+        }
+        List<GeoArea> flattened = new ArrayList<>(members.size());
+        for (GeoArea member : members) {
+            if (member instanceof UnionArea union) {
+                flattened.addAll(union.members);
+            } else {
+                flattened.add(member);
+            }
+        }
+        this.members = List.copyOf(flattened);
+        Bounds union = this.members.get(0).bounds();
+        for (GeoArea member : this.members) {
+            union = union.union(member.bounds());
+        }
+        this.bounds = union;
+    }
+
+    /**
+     * 只有一个成员时直接返回该成员。
+     */
+    public static GeoArea of(List<GeoArea> members) {
+        return members.size() == 1 ? members.get(0) : new UnionArea(members);
+    }
+
+    public List<GeoArea> members() {
+        return members;
+    }
+
+    @Override
+    public boolean contains(double lon, double lat) {
+        for (GeoArea member : members) {
+            if (member.contains(lon, lat)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public Bounds bounds() {
+        return bounds;
+    }
+
+    @Override
+    public List<Bounds> parts() {
+        return members.stream().map(GeoArea::bounds).toList();
+    }
+
+    // 成员重叠部分会重复计入，估算时偏大
+    @Override
+    public double area() {
+        return members.stream().mapToDouble(GeoArea::area).sum();
+    }
+
+    @Override
+    public String wkt() {
+        return members.stream()
+                .map(GeoArea::wkt)
+                .collect(Collectors.joining(",", "GEOMETRYCOLLECTION(", ")"));
+    }
+}
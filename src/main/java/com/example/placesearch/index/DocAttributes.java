@@ -0,0 +1,228 @@
+package com.example.placesearch.index;
+
+import com.example.placesearch.entity.Region;
+import com.example.placesearch.geo.CoordinateSystem;
+import com.example.placesearch.geo.GeoArea;
+import com.example.placesearch.repository.RegionQuery;
+import com.example.placesearch.repository.RegionRepositoryImpl;
+import com.example.placesearch.warmup.WarmStartSnapshot;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntPredicate;
+
+/**
+ * 每个文档的 GCJ-02 坐标、行政区和类型，用于把关键词命中先限定到查询范围内，再按上限判断。
+ * 坐标按 float 存储；行政区（cityname、pcode、adcode 的组合）和 typecode 各自编码为字典下标，
+ * 每个文档共 16 字节，字典只增不减。过滤结果是 SQL 条件的超集，最终仍由 MySQL 校验。
+ * 非线程安全，由 {@link KeywordIndex} 的读写锁保护。
+ */
+final class DocAttributes {
+    // float 的舍入误差在 1e-5 度以内，比较时外扩，保证不漏掉边界上的点
+    private static final double FLOAT_MARGIN_DEG = 1e-4;
+
+    private float[] lons;
+    private float[] lats;
+    private int[] admins;
+    private int[] types;
+
+    private final List<Admin> adminValues;
+    private final Map<Admin, Integer> adminCodes;
+    private final List<String> typeValues;
+    private final Map<String, Integer> typeCodes;
+
+    private record Admin(String cityname, String pcode, String adcode) { }
+
+    DocAttributes(int capacity) {
+        this(capacity, new ArrayList<>(), new ArrayList<>());
+    }
+
+    private DocAttributes(int capacity, List<Admin> adminValues, List<String> typeValues) {
+        this.lons = new float[capacity];
+        this.lats = new float[capacity];
+        this.admins = new int[capacity];
+        this.types = new int[capacity];
+        this.adminValues = adminValues;
+        this.adminCodes = new HashMap<>();
+        for (int i = 0; i < adminValues.size(); i++) {
+            adminCodes.put(adminValues.get(i), i);
+        }
+        this.typeValues = typeValues;
+        this.typeCodes = new HashMap<>();
+        for (int i = 0; i < typeValues.size(); i++) {
+            typeCodes.put(typeValues.get(i), i);
+        }
+    }
+
+    void set(int doc, Region region) {
+        if (doc >= lons.length) {
+            int capacity = Math.max(Math.max(16, lons.length * 2), doc + 1);
+            lons = Arrays.copyOf(lons, capacity);
+            lats = Arrays.copyOf(lats, capacity);
+            admins = Arrays.copyOf(admins, capacity);
+            types = Arrays.copyOf(types, capacity);
+        }
+        lons[doc] = region.getMarlon() == null ? Float.NaN : region.getMarlon().floatValue();
+        lats[doc] = region.getMarlat() == null ? Float.NaN : region.getMarlat().floatValue();
+        Admin admin = new Admin(region.getCityname(), region.getPcode(), region.getAdcode());
+        admins[doc] = adminCodes.computeIfAbsent(admin, key -> {
+            adminValues.add(key);
+            return adminValues.size() - 1;
+        });
+        types[doc] = typeCodes.computeIfAbsent(region.getTypecode(), key -> {
+            typeValues.add(key);
+            return typeValues.size() - 1;
+        });
+    }
+
+    /**
+     * 按查询的矩形、城市、行政区和类型条件过滤文档号；查询没有这些条件时返回 null。
+     * 圆形和多边形只按外接矩形过滤，年份不参与。
+     */
+    IntPredicate filter(RegionQuery query) {
+        List<GeoArea.Bounds> boxes = query.getBoundingBoxes();
+        if (boxes == null || boxes.isEmpty()) {
+            boxes = query.hasBoundingBox()
+                    ? List.of(new GeoArea.Bounds(query.getMinLon(), query.getMaxLon(), query.getMinLat(), query.getMaxLat()))
+                    : List.of();
+        }
+        boolean[] adminAllowed = allowedAdmins(query);
+        boolean[] typeAllowed = allowedTypes(query.getTypeCodes());
+        if (boxes.isEmpty() && adminAllowed == null && typeAllowed == null) {
+            return null;
+        }
+        // 坐标按 GCJ-02 存储，WGS-84 查询与 SQL 中未回填行的复核一样外扩
+        double margin = FLOAT_MARGIN_DEG
+                + (query.getCoordinateSystem() == CoordinateSystem.WGS84 ? RegionRepositoryImpl.WGS84_MARGIN_DEG : 0);
+        List<GeoArea.Bounds> areas = boxes;
+        float[] docLons = lons;
+        float[] docLats = lats;
+        int[] docAdmins = admins;
+        int[] docTypes = types;
+        return doc -> {
+            if (adminAllowed != null && !adminAllowed[docAdmins[doc]]) {
+                return false;
+            }
+            if (typeAllowed != null && !typeAllowed[docTypes[doc]]) {
+                return false;
+            }
+            if (areas.isEmpty()) {
+                return true;
+            }
+            float lon = docLons[doc];
+            float lat = docLats[doc];
+            if (Float.isNaN(lon) || Float.isNaN(lat)) {
+                return false;
+            }
+            for (GeoArea.Bounds box : areas) {
+                if (lon >= box.minLon() - margin && lon <= box.maxLon() + margin
+                        && lat >= box.minLat() - margin && lat <= box.maxLat() + margin) {
+                    return true;
+                }
+            }
+            return false;
+        };
+    }
+
+    private boolean[] allowedAdmins(RegionQuery query) {
+        if (query.getCityname() == null && query.getPcode() == null
+                && query.getAdcodePrefix() == null && query.getAdcode() == null) {
+            return null;
+        }
+        boolean[] allowed = new boolean[adminValues.size()];
+        for (int i = 0; i < allowed.length; i++) {
+            Admin admin = adminValues.get(i);
+            allowed[i] = (query.getCityname() == null || sameText(admin.cityname(), query.getCityname()))
+                    && (query.getPcode() == null || sameText(admin.pcode(), query.getPcode()))
+                    && (query.getAdcodePrefix() == null || (admin.adcode() != null && admin.adcode()
+                            .regionMatches(true, 0, query.getAdcodePrefix(), 0, query.getAdcodePrefix().length())))
+                    && (query.getAdcode() == null || sameText(admin.adcode(), query.getAdcode()));
+        }
+        return allowed;
+    }
+
+    private boolean[] allowedTypes(List<String> codes) {
+        if (codes == null || codes.isEmpty()) {
+            return null;
+        }
+        boolean[] allowed = new boolean[typeValues.size()];
+        for (int i = 0; i < allowed.length; i++) {
+            for (String code : codes) {
+                if (sameText(typeValues.get(i), code)) {
+                    allowed[i] = true;
+                    break;
+                }
+            }
+        }
+        return allowed;
+    }
+
+    // 与 MySQL 默认排序规则的等值比较一致：忽略大小写和末尾空格
+    private static boolean sameText(String value, String expected) {
+        return value != null && value.stripTrailing().equalsIgnoreCase(expected.stripTrailing());
+    }
+
+    /**
+     * 按 mapping 重新编号（-1 表示删除），字典沿用。
+     */
+    DocAttributes compact(int[] mapping, int liveCount) {
+        DocAttributes compacted = new DocAttributes(Math.max(16, liveCount), adminValues, typeValues);
+        for (int doc = 0; doc < mapping.length; doc++) {
+            int mapped = mapping[doc];
+            if (mapped >= 0) {
+                compacted.lons[mapped] = lons[doc];
+                compacted.lats[mapped] = lats[doc];
+                compacted.admins[mapped] = admins[doc];
+                compacted.types[mapped] = types[doc];
+            }
+        }
+        return compacted;
+    }
+
+    void write(DataOutputStream out, int docCount) throws IOException {
+        out.writeInt(adminValues.size());
+        for (Admin admin : adminValues) {
+            WarmStartSnapshot.writeString(out, admin.cityname());
+            WarmStartSnapshot.writeString(out, admin.pcode());
+            WarmStartSnapshot.writeString(out, admin.adcode());
+        }
+        out.writeInt(typeValues.size());
+        for (String type : typeValues) {
+            WarmStartSnapshot.writeString(out, type);
+        }
+        for (int doc = 0; doc < docCount; doc++) {
+            out.writeFloat(lons[doc]);
+            out.writeFloat(lats[doc]);
+            out.writeInt(admins[doc]);
+            out.writeInt(types[doc]);
+        }
+    }
+
+    static DocAttributes read(ByteBuffer in, int docCount) {
+        List<Admin> adminValues = new ArrayList<>();
+        int adminCount = in.getInt();
+        for (int i = 0; i < adminCount; i++) {
+            adminValues.add(new Admin(WarmStartSnapshot.readString(in), WarmStartSnapshot.readString(in),
+                    WarmStartSnapshot.readString(in)));
+        }
+        List<String> typeValues = new ArrayList<>();
+        int typeCount = in.getInt();
+        for (int i = 0; i < typeCount; i++) {
+            typeValues.add(WarmStartSnapshot.readString(in));
+        }
+        DocAttributes attributes = new DocAttributes(Math.max(16, docCount), adminValues, typeValues);
+        for (int doc = 0; doc < docCount; doc++) {
+            attributes.lons[doc] = in.getFloat();
+            attributes.lats[doc] = in.getFloat();
+            attributes.admins[doc] = in.getInt();
+            attributes.types[doc] = in.getInt();
+        }
+        return attributes;
+    }
+}
@@ -0,0 +1,113 @@
+package com.example.placesearch.index;
+
+/**
+ * POI id 到文档号的开放寻址哈希表（线性探测），每个条目只占一个引用和一个 int，
+ * 没有 HashMap 的 Node 对象和 Integer 装箱。非线程安全，由 {@link KeywordIndex} 的读写锁保护。
+ */
+final class DocIdTable {
+    private static final int MIN_CAPACITY = 16;
+
+    private String[] keys;
+    private int[] docs;
+    private int size;
+
+    DocIdTable(int expected) {
+        int capacity = capacityFor(expected);
+        this.keys = new String[capacity];
+        this.docs = new int[capacity];
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * 不存在时返回 -1。
+     */
+    int get(String id) {
+        int mask = keys.length - 1;
+        for (int i = slot(id, mask); keys[i] != null; i = (i + 1) & mask) {
+            if (keys[i].equals(id)) {
+                return docs[i];
+            }
+        }
+        return -1;
+    }
+
+    void put(String id, int doc) {
+        // 负载因子不超过 2/3，线性探测的链保持较短
+        if ((size + 1) * 3 > keys.length * 2) {
+            resize(keys.length * 2);
+        }
+        int mask = keys.length - 1;
+        int i = slot(id, mask);
+        while (keys[i] != null) {
+            if (keys[i].equals(id)) {
+                docs[i] = doc;
+                return;
+            }
+            i = (i + 1) & mask;
+        }
+        keys[i] = id;
+        docs[i] = doc;
+        size++;
+    }
+
+    /**
+     * 返回被移除的文档号，不存在时返回 -1。
+     */
+    int remove(String id) {
+        int mask = keys.length - 1;
+        for (int i = slot(id, mask); keys[i] != null; i = (i + 1) & mask) {
+            if (!keys[i].equals(id)) {
+                continue;
+            }
+            int doc = docs[i];
+            keys[i] = null;
+            size--;
+            // 后移删除：探测链上后面的条目如果可以放进空位就前移，保证查找不会在空位提前结束
+            int hole = i;
+            for (int j = (i + 1) & mask; keys[j] != null; j = (j + 1) & mask) {
+                int home = slot(keys[j], mask);
+                if (((j - home) & mask) >= ((j - hole) & mask)) {
+                    keys[hole] = keys[j];
+                    docs[hole] = docs[j];
+                    keys[j] = null;
+                    hole = j;
+                }
+            }
+            return doc;
+        }
+        return -1;
+    }
+
+    private void resize(int capacity) {
+        String[] oldKeys = keys;
+        int[] oldDocs = docs;
+        keys = new String[capacity];
+        docs = new int[capacity];
+        int mask = capacity - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] == null) {
+                continue;
+            }
+            int j = slot(oldKeys[i], mask);
+            while (keys[j] != null) {
+                j = (j + 1) & mask;
+            }
+            keys[j] = oldKeys[i];
+            docs[j] = oldDocs[i];
+        }
+    }
+
+    private static int slot(String id, int mask) {
+        int h = id.hashCode() * 0x9E3779B9;
+        return (h ^ (h >>> 16)) & mask;
+    }
+
+    private static int capacityFor(int expected) {
+        long needed = Math.max(MIN_CAPACITY, (long) expected * 3 / 2 + 1);
+        int capacity = Integer.highestOneBit((int) Math.min(needed, 1 << 30));
+        return capacity < needed ? capacity << 1 : capacity;
+    }
+}
@@ -0,0 +1,412 @@
+package com.example.placesearch.index;
+
+import com.example.placesearch.config.KeywordIndexProperties;
+import com.example.placesearch.entity.Region;
+import com.example.placesearch.ingest.RegionChange;
+import com.example.placesearch.ingest.RegionChangeEvent;
+import com.example.placesearch.repository.RegionQuery;
+import com.example.placesearch.repository.ShardFanOut;
+import com.example.placesearch.warmup.WarmStartParticipant;
+import com.example.placesearch.warmup.WarmStartSnapshot;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.IntPredicate;
+
+/**
+ * name/address 的内存倒排索引。文本按相邻两个字符切成二元组（空白处断开），每个二元组对应一个压缩倒排表；
+ * 查询词的所有二元组求交集，再按每个文档的坐标、行政区和类型限定到查询范围内（见 {@link DocAttributes}），
+ * 即为候选，由调用方以 id 条件下推到 SQL，再与空间/类型/年份条件一起在 MySQL 中校验。
+ * <p>
+ * 文档号按加入顺序递增；POI 更新时旧文档号标记删除、以新文档号重新加入。已删除的文档号超过
+ * compact-deleted-ratio 时重新编号压缩，全量重建时同样回收。
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class KeywordIndex implements WarmStartParticipant {
+    public static final int MIN_TERM_LENGTH = 2;
+    public static final int MAX_TERMS = 8;
+    // 已删除文档号少于该数量时不压缩，避免小索引频繁重建
+    private static final int MIN_COMPACT_DELETED = 1024;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final KeywordIndexProperties properties;
+    private final ShardFanOut shardFanOut;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private volatile Segment segment;
+    // 全量加载期间到达的变更，加载完成后重放；非空表示正在加载
+    private List<RegionChangeEvent> pending;
+
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    public boolean isLoaded() {
+        return segment != null;
+    }
+
+    /**
+     * 按空白和常见分隔符拆分关键词，多个词之间为“且”关系。
+     */
+    public static List<String> parseTerms(String raw) {
+        List<String> terms = new ArrayList<>();
+        for (String part : raw.trim().split("[\\s,，;；|]+")) {
+            if (part.isEmpty()) {
+                continue;
+            }
+            if (part.length() < MIN_TERM_LENGTH) {
+                throw new IllegalArgumentException("keywords 每个词至少需要 " + MIN_TERM_LENGTH + " 个字符: " + part);
+            }
+            terms.add(part.toLowerCase(Locale.ROOT));
+        }
+        if (terms.isEmpty()) {
+            throw new IllegalArgumentException("keywords 不能为空");
+        }
+        if (terms.size() > MAX_TERMS) {
+            throw new IllegalArgumentException("keywords 最多支持 " + MAX_TERMS + " 个词");
+        }
+        return terms;
+    }
+
+    /**
+     * 返回包含全部关键词二元组、且落在 query 的矩形/城市/行政区/类型范围内的 POI id（升序文档号顺序）。
+     * 索引未就绪时抛出 IllegalStateException，范围内的命中数超过 limit 时抛出 IllegalArgumentException。
+     */
+    public List<String> match(List<String> terms, RegionQuery query, int limit) {
+        if (segment == null) {
+            throw new IllegalStateException(properties.isEnabled() ? "关键词索引尚未加载完成，请稍后重试" : "未开启关键词检索");
+        }
+        lock.readLock().lock();
+        try {
+            // 在读锁内取当前段：增量更新可能在压缩后替换段
+            Segment current = segment;
+            List<PostingList> lists = new ArrayList<>();
+            for (String term : terms) {
+                for (int i = 0; i + 1 < term.length(); i++) {
+                    PostingList list = current.postings.get(bigram(term.charAt(i), term.charAt(i + 1)));
+                    if (list == null) {
+                        return List.of();
+                    }
+                    lists.add(list);
+                }
+            }
+            // 从最短的倒排表开始求交，中间结果只会越来越小
+            lists.sort(Comparator.comparingInt(PostingList::size));
+            int[] docs = lists.get(0).toArray();
+            for (int i = 1; i < lists.size() && docs.length > 0; i++) {
+                docs = lists.get(i).intersect(docs);
+            }
+            IntPredicate inScope = current.attributes.filter(query);
+            int live = 0;
+            for (int doc : docs) {
+                if (!current.deleted.get(doc) && (inScope == null || inScope.test(doc))) {
+                    docs[live++] = doc;
+                }
+            }
+            if (live > limit) {
+                throw new IllegalArgumentException("keywords 在查询范围内命中 " + live + " 条，超过上限 " + limit
+                        + "，请增加关键词或缩小范围");
+            }
+            List<String> ids = new ArrayList<>(live);
+            for (int i = 0; i < live; i++) {
+                ids.add(current.ids[docs[i]]);
+            }
+            return ids;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public String snapshotSection() {
+        return properties.isEnabled() ? "keyword-index.v2" : null;
+    }
+
+    @Override
+    public boolean isSnapshotReady() {
+        return properties.isEnabled() && segment != null;
+    }
+
+    @Override
+    public void writeSnapshot(DataOutputStream out) throws IOException {
+        lock.readLock().lock();
+        try {
+            Segment current = segment;
+            out.writeInt(current.docCount);
+            // 已删除文档的 id 为 null
+            for (int doc = 0; doc < current.docCount; doc++) {
+                WarmStartSnapshot.writeString(out, current.ids[doc]);
+            }
+            long[] deleted = current.deleted.toLongArray();
+            out.writeInt(deleted.length);
+            for (long word : deleted) {
+                out.writeLong(word);
+            }
+            current.attributes.write(out, current.docCount);
+            out.writeInt(current.postings.size());
+            for (Map.Entry<Integer, PostingList> entry : current.postings.entrySet()) {
+                out.writeInt(entry.getKey());
+                entry.getValue().write(out);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void readSnapshot(ByteBuffer in) {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        String[] ids = new String[in.getInt()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = WarmStartSnapshot.readString(in);
+        }
+        long[] deleted = new long[in.getInt()];
+        for (int i = 0; i < deleted.length; i++) {
+            deleted[i] = in.getLong();
+        }
+        Segment restored = new Segment(ids, BitSet.valueOf(deleted), DocAttributes.read(in, ids.length));
+        int listCount = in.getInt();
+        for (int i = 0; i < listCount; i++) {
+            restored.postings.put(in.getInt(), PostingList.read(in));
+        }
+        restored = compactIfNeeded(restored);
+        this.segment = restored;
+        log.info("关键词索引从快照恢复: {} 个文档, {} 个二元组", restored.docIds.size(), restored.postings.size());
+    }
+
+    @Override
+    public void loadFull() {
+        if (properties.isEnabled()) {
+            reload();
+        }
+    }
+
+    public void reload() {
+        synchronized (this) {
+            pending = new ArrayList<>();
+        }
+        long start = System.currentTimeMillis();
+        Segment built = new Segment(0);
+        // 全表流式读取（MySQL 驱动在 fetchSize 为 Integer.MIN_VALUE 时逐行返回），放在只读事务中走副本的扫描连接池；
+        // 分片时依次读取每个分片
+        JdbcTemplate streaming = new JdbcTemplate(jdbcTemplate.getDataSource());
+        streaming.setFetchSize(Integer.MIN_VALUE);
+        try {
+            shardFanOut.scanEach(shard ->
+                    streaming.query("SELECT id, name, address, marlon, marlat, cityname, pcode, adcode, typecode "
+                                    + "FROM regions",
+                            rs -> {
+                                Region region = new Region();
+                                region.setId(rs.getString(1));
+                                region.setName(rs.getString(2));
+                                region.setAddress(rs.getString(3));
+                                region.setMarlon(rs.getObject(4, Double.class));
+                                region.setMarlat(rs.getObject(5, Double.class));
+                                region.setCityname(rs.getString(6));
+                                region.setPcode(rs.getString(7));
+                                region.setAdcode(rs.getString(8));
+                                region.setTypecode(rs.getString(9));
+                                built.add(region);
+                            }));
+        } catch (RuntimeException e) {
+            synchronized (this) {
+                pending = null;
+            }
+            throw e;
+        }
+        synchronized (this) {
+            lock.writeLock().lock();
+            try {
+                for (RegionChangeEvent event : pending) {
+                    built.apply(event);
+                }
+                this.segment = compactIfNeeded(built);
+            } finally {
+                lock.writeLock().unlock();
+            }
+            pending = null;
+        }
+        log.info("关键词索引加载完成: {} 个文档, {} 个二元组, 耗时 {} ms",
+                built.docIds.size(), built.postings.size(), System.currentTimeMillis() - start);
+    }
+
+    @EventListener
+    public synchronized void onRegionChange(RegionChangeEvent event) {
+        if (pending != null) {
+            pending.add(event);
+            return;
+        }
+        Segment current = segment;
+        if (current == null) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            current.apply(event);
+            segment = compactIfNeeded(current);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 已删除的文档号超过比例时按原顺序重新编号，倒排表随之重写，返回新段；否则返回原段。
+     */
+    private Segment compactIfNeeded(Segment current) {
+        if (current.deletedCount < MIN_COMPACT_DELETED
+                || current.deletedCount <= current.docCount * properties.getCompactDeletedRatio()) {
+            return current;
+        }
+        long start = System.currentTimeMillis();
+        Segment compacted = current.compact();
+        log.info("关键词索引压缩完成: 回收 {} 个文档号, 剩余 {} 个文档, 耗时 {} ms",
+                current.deletedCount, compacted.docCount, System.currentTimeMillis() - start);
+        return compacted;
+    }
+
+    private static int bigram(char first, char second) {
+        return (first << 16) | second;
+    }
+
+    private static final class Segment {
+        private final Map<Integer, PostingList> postings = new HashMap<>();
+        private final DocIdTable docIds;
+        private final BitSet deleted;
+        private final DocAttributes attributes;
+        // 文档号到 POI id，已删除的位置为 null
+        private String[] ids;
+        private int docCount;
+        private int deletedCount;
+
+        Segment(int expectedDocs) {
+            this.docIds = new DocIdTable(expectedDocs);
+            this.deleted = new BitSet();
+            this.ids = new String[Math.max(16, expectedDocs)];
+            this.attributes = new DocAttributes(ids.length);
+        }
+
+        Segment(String[] ids, BitSet deleted, DocAttributes attributes) {
+            this.docIds = new DocIdTable(ids.length - deleted.cardinality());
+            this.deleted = deleted;
+            this.attributes = attributes;
+            this.ids = ids;
+            this.docCount = ids.length;
+            for (int doc = 0; doc < docCount; doc++) {
+                if (deleted.get(doc)) {
+                    ids[doc] = null;
+                    deletedCount++;
+                } else {
+                    docIds.put(ids[doc], doc);
+                }
+            }
+        }
+
+        void apply(RegionChangeEvent event) {
+            for (RegionChange change : event.getChanges()) {
+                remove(change.id());
+                Region after = change.after();
+                if (after != null) {
+                    add(after);
+                }
+            }
+        }
+
+        void add(Region region) {
+            String id = region.getId();
+            if (id == null) {
+                return;
+            }
+            remove(id);
+            int doc = append(id);
+            attributes.set(doc, region);
+            int[] keys = bigrams(region.getName(), region.getAddress());
+            for (int key : keys) {
+                postings.computeIfAbsent(key, k -> new PostingList()).add(doc);
+            }
+        }
+
+        void remove(String id) {
+            int doc = docIds.remove(id);
+            if (doc >= 0) {
+                deleted.set(doc);
+                ids[doc] = null;
+                deletedCount++;
+            }
+        }
+
+        private int append(String id) {
+            if (docCount == ids.length) {
+                ids = Arrays.copyOf(ids, Math.max(16, ids.length * 2));
+            }
+            int doc = docCount++;
+            ids[doc] = id;
+            docIds.put(id, doc);
+            return doc;
+        }
+
+        /**
+         * 去掉已删除的文档号：存活文档按原顺序重新编号，倒排表中的文档号仍保持升序。
+         */
+        Segment compact() {
+            int[] mapping = new int[docCount];
+            String[] liveIds = new String[docIds.size()];
+            int live = 0;
+            for (int doc = 0; doc < docCount; doc++) {
+                if (deleted.get(doc)) {
+                    mapping[doc] = -1;
+                } else {
+                    liveIds[live] = ids[doc];
+                    mapping[doc] = live++;
+                }
+            }
+            Segment compacted = new Segment(liveIds, new BitSet(), attributes.compact(mapping, live));
+            for (Map.Entry<Integer, PostingList> entry : postings.entrySet()) {
+                PostingList remapped = entry.getValue().remap(mapping);
+                if (remapped != null) {
+                    compacted.postings.put(entry.getKey(), remapped);
+                }
+            }
+            return compacted;
+        }
+
+        private static int[] bigrams(String name, String address) {
+            String lowerName = name == null ? "" : name.toLowerCase(Locale.ROOT);
+            String lowerAddress = address == null ? "" : address.toLowerCase(Locale.ROOT);
+            int[] keys = new int[lowerName.length() + lowerAddress.length()];
+            int count = collect(lowerName, keys, 0);
+            count = collect(lowerAddress, keys, count);
+            Arrays.sort(keys, 0, count);
+            return Arrays.stream(keys, 0, count).distinct().toArray();
+        }
+
+        private static int collect(String text, int[] keys, int count) {
+            for (int i = 0; i + 1 < text.length(); i++) {
+                char first = text.charAt(i);
+                char second = text.charAt(i + 1);
+                if (!Character.isWhitespace(first) && !Character.isWhitespace(second)) {
+                    keys[count++] = bigram(first, second);
+                }
+            }
+            return count;
+        }
+    }
+}
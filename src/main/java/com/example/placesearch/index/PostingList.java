@@ -0,0 +1,138 @@
+package com.example.placesearch.index;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * 升序文档号的倒排表，按与前一个文档号的差值做变长整数编码。文档号只增不减，新增文档直接追加到末尾。
+ * 非线程安全，由 {@link KeywordIndex} 的读写锁保护。
+ */
+final class PostingList {
+    private byte[] data;
+    private int length;
+    private int size;
+    private int last = -1;
+
+    PostingList() {
+        this.data = new byte[4];
+    }
+
+    private PostingList(byte[] data, int size, int last) {
+        this.data = data;
+        this.length = data.length;
+        this.size = size;
+        this.last = last;
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * docId 必须大于已有的文档号；与最后一个相同时忽略（同一文档中重复出现的二元组）。
+     */
+    void add(int docId) {
+        if (docId == last) {
+            return;
+        }
+        if (docId < last) {
+            throw new IllegalArgumentException("文档号必须递增: " + docId + " < " + last);
+        }
+        int delta = docId - last;
+        if (length + 5 > data.length) {
+            data = Arrays.copyOf(data, Math.max(data.length * 2, length + 5));
+        }
+        while ((delta & ~0x7F) != 0) {
+            data[length++] = (byte) ((delta & 0x7F) | 0x80);
+            delta >>>= 7;
+        }
+        data[length++] = (byte) delta;
+        last = docId;
+        size++;
+    }
+
+    int[] toArray() {
+        int[] docs = new int[size];
+        int pos = 0;
+        int doc = -1;
+        for (int i = 0; i < size; i++) {
+            int delta = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = data[pos++];
+                delta |= (b & 0x7F) << shift;
+                shift += 7;
+            } while (b < 0);
+            doc += delta;
+            docs[i] = doc;
+        }
+        return docs;
+    }
+
+    /**
+     * 与升序数组求交集，边解码边归并，不展开本表。
+     */
+    int[] intersect(int[] sorted) {
+        int count = sorted.length;
+        int[] out = new int[Math.min(count, size)];
+        int matched = 0;
+        int pos = 0;
+        int doc = -1;
+        int j = 0;
+        for (int i = 0; i < size && j < count; i++) {
+            int delta = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = data[pos++];
+                delta |= (b & 0x7F) << shift;
+                shift += 7;
+            } while (b < 0);
+            doc += delta;
+            while (j < count && sorted[j] < doc) {
+                j++;
+            }
+            if (j < count && sorted[j] == doc) {
+                out[matched++] = doc;
+                j++;
+            }
+        }
+        return matched == out.length ? out : Arrays.copyOf(out, matched);
+    }
+
+    /**
+     * 按 mapping 重新编号（-1 表示删除，其余映射须保持升序），结果不留扩容余量；全部删除时返回 null。
+     */
+    PostingList remap(int[] mapping) {
+        PostingList remapped = new PostingList();
+        for (int doc : toArray()) {
+            int mapped = mapping[doc];
+            if (mapped >= 0) {
+                remapped.add(mapped);
+            }
+        }
+        if (remapped.size == 0) {
+            return null;
+        }
+        remapped.data = Arrays.copyOf(remapped.data, remapped.length);
+        return remapped;
+    }
+
+    void write(DataOutputStream out) throws IOException {
+        out.writeInt(size);
+        out.writeInt(last);
+        out.writeInt(length);
+        out.write(data, 0, length);
+    }
+
+    static PostingList read(ByteBuffer in) {
+        int size = in.getInt();
+        int last = in.getInt();
+        byte[] data = new byte[in.getInt()];
+        in.get(data);
+        return new PostingList(data, size, last);
+    }
+}
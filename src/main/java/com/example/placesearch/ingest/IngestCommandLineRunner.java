@@ -0,0 +1,51 @@
+package com.example.placesearch.ingest;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * 命令行增量写入：
+ * java -jar place-search.jar --spring.main.web-application-type=none --ingest.file=poi.jsonl [--ingest.format=jsonl]
+ * 写入完成后退出进程，退出码非 0 表示失败。
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class IngestCommandLineRunner implements ApplicationRunner {
+    private static final String FILE_OPTION = "ingest.file";
+    private static final String FORMAT_OPTION = "ingest.format";
+
+    private final RegionIngestService ingestService;
+    private final ConfigurableApplicationContext context;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!args.containsOption(FILE_OPTION)) {
+            return;
+        }
+        Path file = Path.of(args.getOptionValues(FILE_OPTION).get(0));
+        String format = args.containsOption(FORMAT_OPTION)
+                ? args.getOptionValues(FORMAT_OPTION).get(0)
+                : file.getFileName().toString();
+        int exitCode = 0;
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            RegionIngestService.IngestResult result = ingestService.ingest(reader, PoiFormat.parse(format));
+            log.info("{}: 新增 {} 行, 更新 {} 行, 版本 {}", file, result.inserted(), result.updated(), result.version());
+        } catch (Exception e) {
+            log.error("写入 {} 失败", file, e);
+            exitCode = 1;
+        }
+        int code = exitCode;
+        System.exit(SpringApplication.exit(context, () -> code));
+    }
+}
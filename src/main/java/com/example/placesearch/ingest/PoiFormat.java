@@ -0,0 +1,27 @@
+package com.example.placesearch.ingest;
+
+import java.util.Locale;
+
+public enum PoiFormat {
+    CSV,
+    JSONL;
+
+    /**
+     * 按参数或文件扩展名识别格式，.tsv 也按 CSV 处理（分隔符由表头自动识别）。
+     */
+    public static PoiFormat parse(String raw) {
+        if (raw == null || raw.isBlank()) {
+            throw new IllegalArgumentException("缺少数据格式，应为 csv 或 jsonl");
+        }
+        String value = raw.trim().toLowerCase(Locale.ROOT);
+        int dot = value.lastIndexOf('.');
+        if (dot >= 0) {
+            value = value.substring(dot + 1);
+        }
+        return switch (value) {
+            case "csv", "tsv" -> CSV;
+            case "jsonl", "ndjson", "json" -> JSONL;
+            default -> throw new IllegalArgumentException("不支持的数据格式: " + raw);
+        };
+    }
+}
@@ -0,0 +1,120 @@
+package com.example.placesearch.ingest;
+
+import com.example.placesearch.entity.Region;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * 把一条原始记录（列名 -> 文本）转换为 {@link Region}，并做规范化：
+ * typecode 补零到 6 位、只有年份时取当年 1 月 1 日、坐标必须成对且在合法范围内。
+ * 列名兼容库表列名、实体字段名和中文分类列名。
+ */
+public final class PoiRecordMapper {
+    private static final DateTimeFormatter DATE_TIME = DateTimeFormatter.ofPattern("yyyy-MM-dd[ HH:mm[:ss]]");
+
+    private PoiRecordMapper() {
+    }
+
+    public static Region toRegion(Map<String, String> fields) {
+        Region region = new Region();
+        String id = text(fields, "id");
+        if (id == null) {
+            throw new IllegalArgumentException("缺少 id");
+        }
+        region.setId(id);
+        region.setTag(text(fields, "tag"));
+        region.setName(text(fields, "name"));
+        region.setDtype(text(fields, "dtype"));
+        region.setTypecode(normalizeTypecode(text(fields, "typecode")));
+        region.setAddress(text(fields, "address"));
+        region.setTel(text(fields, "tel"));
+        region.setPcode(text(fields, "pcode"));
+        region.setPname(text(fields, "pname"));
+        region.setCitycode(text(fields, "citycode"));
+        region.setCityname(text(fields, "cityname"));
+        region.setAdcode(text(fields, "adcode"));
+        region.setAdname(text(fields, "adname"));
+        region.setBusinessArea(text(fields, "business_area", "businessArea"));
+
+        Double[] gcj = coordinates(fields, "marlon", "marlat");
+        region.setMarlon(gcj[0]);
+        region.setMarlat(gcj[1]);
+        Double[] wgs = coordinates(fields, "wgs84lon", "wgs84lat");
+        region.setWgs84lon(wgs[0]);
+        region.setWgs84lat(wgs[1]);
+
+        region.setTimestamp(timestamp(text(fields, "timestamp"), text(fields, "year")));
+        region.setCategoryLarge(text(fields, "大类", "category_large", "categoryLarge"));
+        region.setCategoryMedium(text(fields, "中类", "category_medium", "categoryMedium"));
+        region.setCategorySmall(text(fields, "小类", "category_small", "categorySmall"));
+        return region;
+    }
+
+    static String normalizeTypecode(String typecode) {
+        if (typecode == null) {
+            return null;
+        }
+        if (typecode.length() < 6 && typecode.chars().allMatch(Character::isDigit)) {
+            return "0".repeat(6 - typecode.length()) + typecode;
+        }
+        return typecode;
+    }
+
+    private static LocalDateTime timestamp(String timestamp, String year) {
+        if (timestamp != null) {
+            String value = timestamp.replace('T', ' ');
+            try {
+                if (value.length() <= 10) {
+                    return LocalDate.parse(value).atStartOfDay();
+                }
+                return LocalDateTime.parse(value.length() > 19 ? value.substring(0, 19) : value, DATE_TIME);
+            } catch (DateTimeParseException e) {
+                throw new IllegalArgumentException("timestamp 格式不正确: " + timestamp);
+            }
+        }
+        if (year != null) {
+            try {
+                return LocalDateTime.of(Integer.parseInt(year), 1, 1, 0, 0);
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("year 格式不正确: " + year);
+            }
+        }
+        return null;
+    }
+
+    private static Double[] coordinates(Map<String, String> fields, String lonKey, String latKey) {
+        String lonText = text(fields, lonKey);
+        String latText = text(fields, latKey);
+        if (lonText == null || latText == null) {
+            return new Double[]{null, null};
+        }
+        try {
+            double lon = Double.parseDouble(lonText);
+            double lat = Double.parseDouble(latText);
+            if (!Double.isFinite(lon) || !Double.isFinite(lat) || Math.abs(lon) > 180 || Math.abs(lat) > 90) {
+                throw new IllegalArgumentException(String.format(Locale.ROOT, "坐标越界: %s,%s", lonText, latText));
+            }
+            return new Double[]{lon, lat};
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("坐标格式不正确: " + lonText + "," + latText);
+        }
+    }
+
+    private static String text(Map<String, String> fields, String... keys) {
+        for (String key : keys) {
+            String value = fields.get(key);
+            if (value != null) {
+                value = value.trim();
+                if (!value.isEmpty() && !"null".equalsIgnoreCase(value)) {
+                    return value;
+                }
+            }
+        }
+        return null;
+    }
+}
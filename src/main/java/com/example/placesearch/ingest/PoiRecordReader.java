@@ -0,0 +1,187 @@
+package com.example.placesearch.ingest;
+
+import com.example.placesearch.entity.Region;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 逐条读取 CSV（首行为表头，逗号或制表符分隔）或 JSONL 格式的 POI 数据，输出规范化后的 {@link Region}。
+ * 只持有当前一条记录，可处理任意大小的文件。
+ */
+public class PoiRecordReader implements Closeable {
+    private static final ObjectMapper JSON = new ObjectMapper();
+
+    private final BufferedReader reader;
+    private final PoiFormat format;
+    private final char delimiter;
+    private final List<String> header;
+    private long lineNumber;
+
+    public PoiRecordReader(BufferedReader reader, PoiFormat format) throws IOException {
+        this.reader = reader;
+        this.format = format;
+        if (format == PoiFormat.CSV) {
+            String headerLine = reader.readLine();
+            if (headerLine == null) {
+                throw new IOException("CSV 缺少表头");
+            }
+            lineNumber++;
+            if (!headerLine.isEmpty() && headerLine.charAt(0) == '\uFEFF') {
+                headerLine = headerLine.substring(1);
+            }
+            this.delimiter = headerLine.indexOf('\t') >= 0 ? '\t' : ',';
+            this.header = parseCsvLine(headerLine, delimiter);
+        } else {
+            this.delimiter = ',';
+            this.header = List.of();
+        }
+    }
+
+    /**
+     * 读取下一条记录，文件结束时返回 null；跳过空行。
+     */
+    public Region next() throws IOException {
+        String raw = nextRaw();
+        if (raw == null) {
+            return null;
+        }
+        try {
+            return parse(raw);
+        } catch (IllegalArgumentException e) {
+            throw new IOException("第 " + lineNumber + " 行数据无效: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 只切分出下一条记录的原始文本，不解析；配合 {@link #parse(String)} 可以把解析放到其它线程。
+     */
+    public String nextRaw() throws IOException {
+        while (true) {
+            String line = format == PoiFormat.CSV ? readCsvRecord() : reader.readLine();
+            if (line == null) {
+                return null;
+            }
+            lineNumber++;
+            if (!line.isBlank()) {
+                return line;
+            }
+        }
+    }
+
+    /**
+     * 解析 {@link #nextRaw()} 返回的记录，线程安全；数据无效时抛出 IllegalArgumentException。
+     */
+    public Region parse(String raw) {
+        Map<String, String> fields = format == PoiFormat.CSV ? toMap(parseCsvLine(raw, delimiter)) : parseJson(raw);
+        return PoiRecordMapper.toRegion(fields);
+    }
+
+    public long lineNumber() {
+        return lineNumber;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    private Map<String, String> toMap(List<String> values) {
+        Map<String, String> fields = new HashMap<>(header.size() * 2);
+        for (int i = 0; i < header.size() && i < values.size(); i++) {
+            fields.put(header.get(i), values.get(i));
+        }
+        return fields;
+    }
+
+    private static Map<String, String> parseJson(String line) {
+        JsonNode node;
+        try {
+            node = JSON.readTree(line);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("JSON 格式不正确");
+        }
+        if (node == null || !node.isObject()) {
+            throw new IllegalArgumentException("不是 JSON 对象");
+        }
+        Map<String, String> fields = new HashMap<>();
+        Iterator<Map.Entry<String, JsonNode>> it = node.fields();
+        while (it.hasNext()) {
+            Map.Entry<String, JsonNode> entry = it.next();
+            JsonNode value = entry.getValue();
+            fields.put(entry.getKey(), value == null || value.isNull() ? null : value.asText());
+        }
+        return fields;
+    }
+
+    // 引号内可以包含换行，此时需要继续读取后续行拼成一条记录
+    private String readCsvRecord() throws IOException {
+        String line = reader.readLine();
+        if (line == null) {
+            return null;
+        }
+        if (countQuotes(line) % 2 == 0) {
+            return line;
+        }
+        StringBuilder record = new StringBuilder(line);
+        int quotes = countQuotes(line);
+        while (quotes % 2 != 0) {
+            String next = reader.readLine();
+            if (next == null) {
+                break;
+            }
+            lineNumber++;
+            record.append('\n').append(next);
+            quotes += countQuotes(next);
+        }
+        return record.toString();
+    }
+
+    private static int countQuotes(String line) {
+        int count = 0;
+        for (int i = 0; i < line.length(); i++) {
+            if (line.charAt(i) == '"') {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    static List<String> parseCsvLine(String line, char delimiter) {
+        List<String> values = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"') {
+                    if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                        current.append('"');
+                        i++;
+                    } else {
+                        quoted = false;
+                    }
+                } else {
+                    current.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == delimiter) {
+                values.add(current.toString());
+                current.setLength(0);
+            } else {
+                current.append(c);
+            }
+        }
+        values.add(current.toString());
+        return values;
+    }
+}
@@ -0,0 +1,11 @@
+package com.example.placesearch.ingest;
+
+import com.example.placesearch.entity.Region;
+
+/**
+ * 单个 POI 的一次变更。before 只包含 changelog 中记录的字段（坐标、城市、typecode、时间），
+ * 新插入时为 null；after 为变更后的行，删除时为 null。同一 id 在本批次之后还有变更时，
+ * after 的坐标、城市、typecode、时间取自下一条变更的 before，名称等其余字段取当前行。
+ */
+public record RegionChange(String id, Region before, Region after) {
+}
@@ -0,0 +1,34 @@
+package com.example.placesearch.ingest;
+
+import org.springframework.context.ApplicationEvent;
+
+import java.util.List;
+
+/**
+ * region_changelog 中 (fromVersion, toVersion] 区间的变更，同一 id 的多次变更已合并为一条。
+ * 内存中的索引、统计和缓存监听该事件增量更新。
+ */
+public class RegionChangeEvent extends ApplicationEvent {
+    private final long fromVersion;
+    private final long toVersion;
+    private final List<RegionChange> changes;
+
+    public RegionChangeEvent(Object source, long fromVersion, long toVersion, List<RegionChange> changes) {
+        super(source);
+        this.fromVersion = fromVersion;
+        this.toVersion = toVersion;
+        this.changes = changes;
+    }
+
+    public long getFromVersion() {
+        return fromVersion;
+    }
+
+    public long getToVersion() {
+        return toVersion;
+    }
+
+    public List<RegionChange> getChanges() {
+        return changes;
+    }
+}
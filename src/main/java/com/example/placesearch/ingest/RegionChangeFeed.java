@@ -0,0 +1,247 @@
+package com.example.placesearch.ingest;
+
+import com.example.placesearch.config.IngestProperties;
+import com.example.placesearch.entity.Region;
+import com.example.placesearch.repository.RegionRepository;
+import com.example.placesearch.repository.ShardFanOut;
+import com.example.placesearch.repository.ShardRouter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 读取 region_changelog 中尚未处理的变更，合并后以 {@link RegionChangeEvent} 发布。
+ * 本机写入后立即调用 {@link #poll()}；开启 place.ingest.poll-enabled 后还会定时轮询，
+ * 用于同步其它实例或离线任务写入的变更。起始版本由预热流程决定：从快照恢复时接着快照的版本，
+ * 否则从全量加载前的最大版本开始。
+ * <p>
+ * version 由 AUTO_INCREMENT 在插入时分配，但按提交顺序才可见：并发事务可能先提交较大的版本。
+ * 因此只按连续的版本推进，遇到缺口时等待，超过 place.ingest.gap-timeout-ms 仍未出现才视为回滚留下的空洞跳过。
+ * 已处理的版本始终是一个连续前缀，快照记录的版本号与内存状态一致。
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class RegionChangeFeed {
+    private static final String SELECT_CHANGES_SQL = "SELECT version, region_id, op, old_marlon, old_marlat, "
+            + "old_cityname, old_typecode, old_timestamp FROM region_changelog WHERE version > ? "
+            + "ORDER BY version LIMIT ?";
+    // 每个 id 在批次之后的第一条变更：它的 before 就是该行在批次结束时的状态
+    private static final String SELECT_NEXT_CHANGES_SQL = "SELECT c.region_id, c.op, c.old_marlon, c.old_marlat, "
+            + "c.old_cityname, c.old_typecode, c.old_timestamp FROM region_changelog c JOIN ("
+            + "SELECT region_id, MIN(version) AS version FROM region_changelog "
+            + "WHERE version > ? AND region_id IN (%s) GROUP BY region_id) n ON c.version = n.version";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final RegionRepository regionRepository;
+    private final ShardRouter shardRouter;
+    private final ShardFanOut shardFanOut;
+    private final IngestProperties properties;
+    private final PlatformTransactionManager transactionManager;
+    private final ApplicationEventPublisher eventPublisher;
+
+    private long lastVersion = -1;
+    // 当前阻塞推进的缺口版本及首次发现的时间
+    private long gapVersion = -1;
+    private long gapSinceMillis;
+
+    public synchronized long ensureInitialized() {
+        if (lastVersion < 0) {
+            Long max = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(version), 0) FROM region_changelog", Long.class);
+            lastVersion = max == null ? 0 : max;
+            log.info("变更日志起始版本: {}", lastVersion);
+        }
+        return lastVersion;
+    }
+
+    public synchronized long currentVersion() {
+        return lastVersion;
+    }
+
+    /**
+     * 从指定版本之后开始处理（内存状态已从该版本的快照恢复）。
+     */
+    public synchronized void startFrom(long version) {
+        lastVersion = version;
+        log.info("变更日志从快照版本 {} 继续", version);
+    }
+
+    /**
+     * 在不处理新变更的前提下执行 action，保证读取的内存状态与版本号一致。
+     */
+    public synchronized void atCurrentVersion(VersionedAction action) throws IOException {
+        action.run(lastVersion);
+    }
+
+    @Scheduled(fixedDelayString = "${place.ingest.poll-interval-ms:5000}",
+            initialDelayString = "${place.ingest.poll-interval-ms:5000}")
+    public void pollScheduled() {
+        if (!properties.isPollEnabled()) {
+            return;
+        }
+        try {
+            poll();
+        } catch (DataAccessException e) {
+            log.warn("轮询变更日志失败: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 处理所有新变更，返回处理后的版本号。遇到尚未提交的版本时停在缺口之前，下次轮询再继续。
+     */
+    public synchronized long poll() {
+        ensureInitialized();
+        int limit = Math.max(1, properties.getPollLimit());
+        // 走主库：副本可能尚未追上刚提交的变更
+        TransactionTemplate primary = new TransactionTemplate(transactionManager);
+        while (true) {
+            long from = lastVersion;
+            Batch batch = primary.execute(status -> readBatch(from, limit));
+            if (batch == null) {
+                return lastVersion;
+            }
+            if (batch.toVersion > from) {
+                lastVersion = batch.toVersion;
+                eventPublisher.publishEvent(new RegionChangeEvent(this, from, batch.toVersion, batch.changes));
+            }
+            if (batch.blocked || batch.rows < limit) {
+                return lastVersion;
+            }
+        }
+    }
+
+    /**
+     * 在同一个事务（InnoDB 一致性快照）内读取变更、后续变更和当前行，三者对应同一时刻的数据。
+     */
+    private Batch readBatch(long afterVersion, int limit) {
+        List<ChangeRow> rows = new ArrayList<>();
+        jdbcTemplate.query(SELECT_CHANGES_SQL, rs -> {
+            rows.add(new ChangeRow(rs.getLong(1), rs.getString(2), readBefore(rs, rs.getString(2), 3)));
+        }, afterVersion, limit);
+
+        long toVersion = afterVersion;
+        boolean blocked = false;
+        // 同一 id 多次变更时保留最早的 before
+        Map<String, Region> before = new LinkedHashMap<>();
+        for (ChangeRow row : rows) {
+            if (row.version() != toVersion + 1 && !skipGap(toVersion + 1, row.version())) {
+                blocked = true;
+                break;
+            }
+            toVersion = row.version();
+            // 新插入的 before 为 null，不能用 putIfAbsent
+            if (!before.containsKey(row.id())) {
+                before.put(row.id(), row.before());
+            }
+        }
+        if (!blocked) {
+            gapVersion = -1;
+        }
+        if (before.isEmpty()) {
+            return new Batch(rows.size(), toVersion, blocked, List.of());
+        }
+
+        Map<String, Region> current = new HashMap<>();
+        for (Region region : findCurrent(before.keySet())) {
+            current.put(region.getId(), region);
+        }
+        Map<String, Region> after = new HashMap<>(current);
+        // 批次之后同一 id 还有变更（例如批次在该 id 的两次变更之间截断）时，after 不能取当前行，
+        // 否则下一批次以下一条变更的 before 扣减时会重复计入；改用下一条变更的 before 作为本批次的 after
+        String placeholders = String.join(", ", Collections.nCopies(before.size(), "?"));
+        List<Object> args = new ArrayList<>(before.size() + 1);
+        args.add(toVersion);
+        args.addAll(before.keySet());
+        jdbcTemplate.query(String.format(SELECT_NEXT_CHANGES_SQL, placeholders), rs -> {
+            String id = rs.getString(1);
+            Region state = readBefore(rs, id, 2);
+            after.put(id, state == null ? null : withCurrentDetails(state, current.get(id)));
+        }, args.toArray());
+
+        List<RegionChange> changes = new ArrayList<>(before.size());
+        before.forEach((id, old) -> changes.add(new RegionChange(id, old, after.get(id))));
+        return new Batch(rows.size(), toVersion, blocked, changes);
+    }
+
+    // 分片时 regions 行在 pcode 所在的分片上（changelog 仍在主库），不知道行在哪个分片，逐个分片查找
+    private List<Region> findCurrent(Collection<String> ids) {
+        if (!shardRouter.isEnabled()) {
+            return regionRepository.findAllById(ids);
+        }
+        List<Region> rows = new ArrayList<>(ids.size());
+        shardFanOut.execute(shardRouter.shardNames(), () -> regionRepository.findAllById(ids)).forEach(rows::addAll);
+        return rows;
+    }
+
+    // 缺口可能是尚未提交的事务，也可能是回滚留下的空洞：先等待，超过 gap-timeout-ms 仍未出现才跳过
+    private boolean skipGap(long missing, long next) {
+        long now = System.currentTimeMillis();
+        if (gapVersion != missing) {
+            gapVersion = missing;
+            gapSinceMillis = now;
+        }
+        if (now - gapSinceMillis < properties.getGapTimeoutMs()) {
+            return false;
+        }
+        log.warn("变更日志版本 {}~{} 超过 {} ms 仍未出现，视为回滚跳过", missing, next - 1, properties.getGapTimeoutMs());
+        gapVersion = -1;
+        return true;
+    }
+
+    /**
+     * 从 changelog 行的 op 与 old_* 列（自 firstColumn 起）还原变更前的行；INSERT 时为 null。
+     */
+    private static Region readBefore(ResultSet rs, String id, int firstColumn) throws SQLException {
+        if (RegionIngestService.OP_INSERT.equals(rs.getString(firstColumn))) {
+            return null;
+        }
+        Region old = new Region();
+        old.setId(id);
+        double oldLon = rs.getDouble(firstColumn + 1);
+        old.setMarlon(rs.wasNull() ? null : oldLon);
+        double oldLat = rs.getDouble(firstColumn + 2);
+        old.setMarlat(rs.wasNull() ? null : oldLat);
+        old.setCityname(rs.getString(firstColumn + 3));
+        old.setTypecode(rs.getString(firstColumn + 4));
+        Timestamp oldTime = rs.getTimestamp(firstColumn + 5);
+        old.setTimestamp(oldTime == null ? null : oldTime.toLocalDateTime());
+        return old;
+    }
+
+    // changelog 不记录名称、地址和大类，这些字段取当前行
+    private static Region withCurrentDetails(Region state, Region current) {
+        if (current != null) {
+            state.setName(current.getName());
+            state.setAddress(current.getAddress());
+            state.setCategoryLarge(current.getCategoryLarge());
+        }
+        return state;
+    }
+
+    @FunctionalInterface
+    public interface VersionedAction {
+        void run(long version) throws IOException;
+    }
+
+    private record ChangeRow(long version, String id, Region before) { }
+
+    private record Batch(int rows, long toVersion, boolean blocked, List<RegionChange> changes) { }
+}
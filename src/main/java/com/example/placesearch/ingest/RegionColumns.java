@@ -0,0 +1,87 @@
+package com.example.placesearch.ingest;
+
+import com.example.placesearch.entity.Region;
+import com.example.placesearch.util.GeoKey;
+import com.example.placesearch.util.LocationUtils;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * regions 表的写入列顺序与对应的取值，增量写入和全量导入共用。
+ */
+public final class RegionColumns {
+    private static final String[] COLUMNS = {
+            "id", "tag", "name", "dtype", "typecode", "address", "tel", "pcode", "pname", "citycode",
+            "cityname", "adcode", "adname", "business_area", "marlon", "marlat", "wgs84lon", "wgs84lat",
+            "`timestamp`", "`大类`", "`中类`", "`小类`"
+    };
+    // regions 迁移为 (geo_key, id) 聚簇主键后（db/regions_geo_key.sql）才有此列，写入方检测到列即写入
+    public static final String GEO_KEY = "geo_key";
+
+    private RegionColumns() {
+    }
+
+    /**
+     * 写入列；geoKey 为 true 时末尾追加 geo_key。
+     */
+    public static String[] columns(boolean geoKey) {
+        if (!geoKey) {
+            return COLUMNS.clone();
+        }
+        String[] columns = Arrays.copyOf(COLUMNS, COLUMNS.length + 1);
+        columns[COLUMNS.length] = GEO_KEY;
+        return columns;
+    }
+
+    public static String columnList(boolean geoKey) {
+        return String.join(", ", columns(geoKey));
+    }
+
+    public static Object[] values(Region region, boolean geoKey) {
+        LocalDateTime timestamp = region.getTimestamp();
+        Object[] values = new Object[]{
+                region.getId(), region.getTag(), region.getName(), region.getDtype(), region.getTypecode(),
+                region.getAddress(), region.getTel(), region.getPcode(), region.getPname(), region.getCitycode(),
+                region.getCityname(), region.getAdcode(), region.getAdname(), region.getBusinessArea(),
+                region.getMarlon(), region.getMarlat(), region.getWgs84lon(), region.getWgs84lat(),
+                timestamp == null ? null : Timestamp.valueOf(timestamp),
+                region.getCategoryLarge(), region.getCategoryMedium(), region.getCategorySmall()
+        };
+        if (!geoKey) {
+            return values;
+        }
+        Object[] withKey = Arrays.copyOf(values, COLUMNS.length + 1);
+        withKey[COLUMNS.length] = GeoKey.of(region.getMarlon(), region.getMarlat());
+        return withKey;
+    }
+
+    /**
+     * 只有 GCJ02 坐标的行批量换算出 WGS84 坐标。
+     */
+    public static void fillMissingWgs84(List<Region> regions) {
+        List<Region> missing = new ArrayList<>();
+        for (Region region : regions) {
+            if (region.getWgs84lon() == null && region.getMarlon() != null && region.getMarlat() != null) {
+                missing.add(region);
+            }
+        }
+        if (missing.isEmpty()) {
+            return;
+        }
+        double[] lons = new double[missing.size()];
+        double[] lats = new double[missing.size()];
+        for (int i = 0; i < lons.length; i++) {
+            lons[i] = missing.get(i).getMarlon();
+            lats[i] = missing.get(i).getMarlat();
+        }
+        LocationUtils.gcj02ToWgs84(lons, lats, lons.length);
+        for (int i = 0; i < lons.length; i++) {
+            missing.get(i).setWgs84lon(lons[i]);
+            missing.get(i).setWgs84lat(lats[i]);
+        }
+    }
+}
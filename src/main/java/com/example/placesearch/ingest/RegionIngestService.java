@@ -0,0 +1,226 @@
+package com.example.placesearch.ingest;
+
+import com.example.placesearch.config.DataSourceRouting;
+import com.example.placesearch.config.IngestProperties;
+import com.example.placesearch.entity.Region;
+import com.example.placesearch.repository.ShardRouter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * 增量写入 POI：按批 upsert 到 regions，并在同一事务内追加 region_changelog。
+ * 写入用 JDBC batch（写连接池开启了 rewriteBatchedStatements，一批合并成多行 INSERT），
+ * 提交后立即通过 {@link RegionChangeFeed} 把变更发布给内存中的统计和索引。
+ * 配置了分片时 regions 行写入 pcode 所在的分片，changelog 仍写在主库，见 {@link #writeBatchToShards}。
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class RegionIngestService {
+    static final String OP_INSERT = "INSERT";
+    static final String OP_UPDATE = "UPDATE";
+
+    private static final String INSERT_CHANGELOG_SQL = "INSERT INTO region_changelog "
+            + "(region_id, op, old_marlon, old_marlat, old_cityname, old_typecode, old_timestamp) "
+            + "VALUES (?, ?, ?, ?, ?, ?, ?)";
+    private static final String DELETE_SQL = "DELETE FROM regions WHERE id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final IngestProperties properties;
+    private final PlatformTransactionManager transactionManager;
+    private final RegionChangeFeed changeFeed;
+    private final ShardRouter shardRouter;
+
+    // 各写入目标（主库为 ""，其余为分片名）的 regions 已有 geo_key 列；只缓存检测到列的结果，
+    // 运行期间执行完迁移后，下一批写入即开始维护 geo_key
+    private final Set<String> geoKeyTargets = ConcurrentHashMap.newKeySet();
+
+    public IngestResult ingest(BufferedReader input, PoiFormat format) throws IOException {
+        int batchSize = Math.max(1, properties.getBatchSize());
+        long startNanos = System.nanoTime();
+        changeFeed.ensureInitialized();
+
+        int inserted = 0;
+        int updated = 0;
+        try (PoiRecordReader reader = new PoiRecordReader(input, format)) {
+            // 同一批内重复的 id 只保留最后一条，否则 changelog 的 before 会记成批内前一条
+            Map<String, Region> batch = new LinkedHashMap<>();
+            Region region;
+            while ((region = reader.next()) != null) {
+                batch.put(region.getId(), region);
+                if (batch.size() >= batchSize) {
+                    int[] counts = writeBatch(new ArrayList<>(batch.values()));
+                    inserted += counts[0];
+                    updated += counts[1];
+                    batch.clear();
+                }
+            }
+            if (!batch.isEmpty()) {
+                int[] counts = writeBatch(new ArrayList<>(batch.values()));
+                inserted += counts[0];
+                updated += counts[1];
+            }
+        }
+
+        long version = changeFeed.poll();
+        long elapsedMs = Math.max(1, (System.nanoTime() - startNanos) / 1_000_000);
+        log.info("POI 增量写入完成: 新增 {} 行, 更新 {} 行, 版本 {}, 耗时 {} ms", inserted, updated, version, elapsedMs);
+        return new IngestResult(inserted, updated, version, elapsedMs);
+    }
+
+    /**
+     * 返回 {新增行数, 更新行数}。
+     */
+    private int[] writeBatch(List<Region> regions) {
+        RegionColumns.fillMissingWgs84(regions);
+        if (shardRouter.isEnabled()) {
+            return writeBatchToShards(regions);
+        }
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        int[] counts = transaction.execute(status -> {
+            Map<String, Object[]> existing = loadExisting(regions);
+            boolean geoKey = hasGeoKeyColumn(null);
+            jdbcTemplate.batchUpdate(buildUpsertSql(geoKey), upsertArgs(regions, geoKey));
+            return appendChangelog(regions, existing);
+        });
+        return counts == null ? new int[2] : counts;
+    }
+
+    /**
+     * 分片时逐个分片在各自的事务中锁定本批所有 id 的旧行，写入归属该分片的行，并删除 pcode 已改到
+     * 其他分片的旧行；所有分片提交后再在主库追加 changelog（变更流从主库读取）。分片与主库不在同一事务中，
+     * 追加 changelog 失败时本批需要重新导入，内存中的统计和索引才会收到这些变更。
+     */
+    private int[] writeBatchToShards(List<Region> regions) {
+        // 先确定所有行的分片，有行无法路由时整批拒绝，不写入任何分片
+        Map<String, List<Region>> byShard = new HashMap<>();
+        for (Region region : regions) {
+            String shard = shardRouter.shardOfPcode(region.getPcode()).orElseThrow(() ->
+                    new IllegalArgumentException("POI " + region.getId() + " 的 pcode " + region.getPcode()
+                            + " 没有对应的分片"));
+            byShard.computeIfAbsent(shard, key -> new ArrayList<>()).add(region);
+        }
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        Map<String, Object[]> existing = new HashMap<>();
+        for (String shard : shardRouter.shardNames()) {
+            List<Region> targeted = byShard.getOrDefault(shard, List.of());
+            Set<String> targetedIds = targeted.stream().map(Region::getId).collect(Collectors.toSet());
+            DataSourceRouting.withShard(shard, () -> transaction.execute(status -> {
+                Map<String, Object[]> found = loadExisting(regions);
+                if (!targeted.isEmpty()) {
+                    boolean geoKey = hasGeoKeyColumn(shard);
+                    jdbcTemplate.batchUpdate(buildUpsertSql(geoKey), upsertArgs(targeted, geoKey));
+                }
+                List<Object[]> moved = new ArrayList<>();
+                for (String id : found.keySet()) {
+                    if (!targetedIds.contains(id)) {
+                        moved.add(new Object[]{id});
+                    }
+                }
+                if (!moved.isEmpty()) {
+                    jdbcTemplate.batchUpdate(DELETE_SQL, moved);
+                }
+                found.forEach(existing::putIfAbsent);
+                return null;
+            }));
+        }
+        int[] counts = transaction.execute(status -> appendChangelog(regions, existing));
+        return counts == null ? new int[2] : counts;
+    }
+
+    private static List<Object[]> upsertArgs(List<Region> regions, boolean geoKey) {
+        List<Object[]> args = new ArrayList<>(regions.size());
+        for (Region region : regions) {
+            args.add(RegionColumns.values(region, geoKey));
+        }
+        return args;
+    }
+
+    /**
+     * 当前写入目标（主库或 shard 所指分片，须在对应的路由上下文中调用）的 regions 是否已有 geo_key 列，
+     * 与 BulkLoader 的检测方式相同。有列就写入 geo_key，与 place.geo-key.enabled 无关：
+     * 该开关只控制查询是否附加 geo_key 区间，开启前写入的行也必须已经带上正确的 geo_key。
+     */
+    private boolean hasGeoKeyColumn(String shard) {
+        String target = shard == null ? "" : shard;
+        if (geoKeyTargets.contains(target)) {
+            return true;
+        }
+        boolean present = !jdbcTemplate.queryForList(
+                "SHOW COLUMNS FROM regions LIKE '" + RegionColumns.GEO_KEY + "'").isEmpty();
+        if (present) {
+            geoKeyTargets.add(target);
+        }
+        return present;
+    }
+
+    /**
+     * 按写入前的旧值追加 changelog，返回 {新增行数, 更新行数}。
+     */
+    private int[] appendChangelog(List<Region> regions, Map<String, Object[]> existing) {
+        List<Object[]> changelogArgs = new ArrayList<>(regions.size());
+        int inserted = 0;
+        for (Region region : regions) {
+            Object[] old = existing.get(region.getId());
+            if (old == null) {
+                inserted++;
+                changelogArgs.add(new Object[]{region.getId(), OP_INSERT, null, null, null, null, null});
+            } else {
+                changelogArgs.add(new Object[]{region.getId(), OP_UPDATE, old[0], old[1], old[2], old[3], old[4]});
+            }
+        }
+        jdbcTemplate.batchUpdate(INSERT_CHANGELOG_SQL, changelogArgs);
+        return new int[]{inserted, regions.size() - inserted};
+    }
+
+    // 在写事务内读取旧值（走主库或当前分片），FOR UPDATE 防止并发写入的 before 记录错乱
+    private Map<String, Object[]> loadExisting(List<Region> regions) {
+        String placeholders = String.join(",", Collections.nCopies(regions.size(), "?"));
+        Object[] ids = regions.stream().map(Region::getId).toArray();
+        Map<String, Object[]> existing = new HashMap<>();
+        jdbcTemplate.query(
+                "SELECT id, marlon, marlat, cityname, typecode, `timestamp` FROM regions WHERE id IN ("
+                        + placeholders + ") FOR UPDATE",
+                rs -> {
+                    existing.put(rs.getString(1), new Object[]{
+                            rs.getObject(2), rs.getObject(3), rs.getString(4), rs.getString(5), rs.getTimestamp(6)
+                    });
+                },
+                ids
+        );
+        return existing;
+    }
+
+    // 坐标变化时 geo_key 随之更新，行在聚簇索引中移到新位置
+    private static String buildUpsertSql(boolean geoKey) {
+        String[] columns = RegionColumns.columns(geoKey);
+        StringBuilder sql = new StringBuilder("INSERT INTO regions (");
+        sql.append(String.join(", ", columns)).append(") VALUES (");
+        sql.append(String.join(", ", Collections.nCopies(columns.length, "?"))).append(") ON DUPLICATE KEY UPDATE ");
+        for (int i = 1; i < columns.length; i++) {
+            if (i > 1) {
+                sql.append(", ");
+            }
+            sql.append(columns[i]).append(" = VALUES(").append(columns[i]).append(')');
+        }
+        return sql.toString();
+    }
+
+    public record IngestResult(int inserted, int updated, long version, long elapsedMs) { }
+}
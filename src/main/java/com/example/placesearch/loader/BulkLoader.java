@@ -0,0 +1,216 @@
+package com.example.placesearch.loader;
+
+import com.example.placesearch.entity.Region;
+import com.example.placesearch.ingest.PoiRecordReader;
+import com.example.placesearch.ingest.RegionColumns;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedReader;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * 全量导入 POI 数据，不启动 Spring 容器，直接用 JDBC：
+ * <pre>
+ * mvn -Ploader package
+ * java -jar target/my-database-api-0.0.1-SNAPSHOT-loader.jar --file=poi.jsonl \
+ *     [--url=jdbc:mysql://...] [--username=...] [--password=...] [--mode=insert|infile] \
+ *     [--threads=8] [--batch-size=5000] [--swap=true] [--keep-old=false]
+ * </pre>
+ * 读取线程只负责切分记录，解析、规范化和写入按批并行；在途批次数受线程数限制，内存占用恒定。
+ * 数据先写入影子表，全部成功后才替换正式表，失败时正式表不受影响。
+ */
+@Slf4j
+public class BulkLoader {
+    private static final int READ_BUFFER_CHARS = 1 << 20;
+    private static final int MAX_LOGGED_REJECTS = 20;
+
+    private final LoaderOptions options;
+    private final AtomicLong parsed = new AtomicLong();
+    private final AtomicLong written = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicReference<Exception> failure = new AtomicReference<>();
+
+    public BulkLoader(LoaderOptions options) {
+        this.options = options;
+    }
+
+    public static void main(String[] args) {
+        LoaderOptions options;
+        try {
+            options = LoaderOptions.parse(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println("用法: --file=<csv|jsonl> [--format=csv|jsonl] [--url=] [--username=] [--password=] "
+                    + "[--table=regions] [--mode=insert|infile] [--threads=] [--batch-size=] [--swap=] [--keep-old=]");
+            System.exit(2);
+            return;
+        }
+        try {
+            new BulkLoader(options).run();
+        } catch (Exception e) {
+            log.error("导入失败", e);
+            System.exit(1);
+        }
+    }
+
+    public void run() throws Exception {
+        log.info("===== 开始导入 {}: mode={}, threads={}, batchSize={} =====",
+                options.getFile(), options.getMode(), options.getThreads(), options.getBatchSize());
+        long startNanos = System.nanoTime();
+        StagingTable staging = new StagingTable(options.getTable());
+
+        BlockingQueue<Connection> connections = new ArrayBlockingQueue<>(options.getThreads());
+        ExecutorService workers = Executors.newFixedThreadPool(options.getThreads());
+        ScheduledExecutorService progress = Executors.newSingleThreadScheduledExecutor();
+        try (Connection control = connect()) {
+            staging.create(control);
+            // 正式表已迁移为地理聚簇主键时写入 geo_key
+            boolean geoKey = staging.hasColumn(control, RegionColumns.GEO_KEY);
+            StagingWriter writer = new StagingWriter(staging.name(), options.getMode(), geoKey);
+            log.info("geo_key 列{}", geoKey ? "存在，按 GCJ-02 坐标计算写入" : "不存在，跳过");
+            for (int i = 0; i < options.getThreads(); i++) {
+                Connection connection = connect();
+                connection.setAutoCommit(false);
+                connections.add(connection);
+            }
+            progress.scheduleAtFixedRate(() -> logProgress(startNanos), 10, 10, TimeUnit.SECONDS);
+
+            load(writer, connections, workers);
+            if (failure.get() != null) {
+                staging.drop(control);
+                throw failure.get();
+            }
+            staging.rebuildIndexes(control);
+            if (options.isSwap()) {
+                staging.swap(control, options.isKeepOld());
+            }
+        } finally {
+            progress.shutdownNow();
+            workers.shutdownNow();
+            for (Connection connection : connections) {
+                closeQuietly(connection);
+            }
+        }
+
+        long elapsedMs = Math.max(1, (System.nanoTime() - startNanos) / 1_000_000);
+        log.info("===== 导入完成: 解析 {} 行, 写入 {} 行, 无效 {} 行, 重复 id {} 行, 耗时 {} s, {} 行/秒 =====",
+                parsed.get(), written.get(), rejected.get(), parsed.get() - rejected.get() - written.get(),
+                elapsedMs / 1000, written.get() * 1000 / elapsedMs);
+    }
+
+    private void load(StagingWriter writer, BlockingQueue<Connection> connections, ExecutorService workers)
+            throws Exception {
+        Semaphore inFlight = new Semaphore(options.getThreads() * 2);
+        List<Future<?>> futures = new ArrayList<>();
+        try (FileChannel channel = FileChannel.open(options.getFile(), StandardOpenOption.READ);
+             PoiRecordReader reader = new PoiRecordReader(new BufferedReader(
+                     Channels.newReader(channel, StandardCharsets.UTF_8.newDecoder(), -1), READ_BUFFER_CHARS),
+                     options.getFormat())) {
+            List<String> chunk = new ArrayList<>(options.getBatchSize());
+            String raw;
+            while (failure.get() == null && (raw = reader.nextRaw()) != null) {
+                chunk.add(raw);
+                if (chunk.size() >= options.getBatchSize()) {
+                    futures.add(submit(reader, chunk, writer, connections, workers, inFlight));
+                    chunk = new ArrayList<>(options.getBatchSize());
+                }
+            }
+            if (!chunk.isEmpty() && failure.get() == null) {
+                futures.add(submit(reader, chunk, writer, connections, workers, inFlight));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        }
+    }
+
+    private Future<?> submit(PoiRecordReader reader, List<String> chunk, StagingWriter writer,
+                             BlockingQueue<Connection> connections, ExecutorService workers,
+                             Semaphore inFlight) throws InterruptedException {
+        inFlight.acquire();
+        return workers.submit(() -> {
+            try {
+                List<Region> regions = parse(reader, chunk);
+                RegionColumns.fillMissingWgs84(regions);
+                Connection connection = connections.take();
+                try {
+                    written.addAndGet(writer.write(connection, regions));
+                } finally {
+                    connections.add(connection);
+                }
+            } catch (Exception e) {
+                failure.compareAndSet(null, e);
+            } finally {
+                inFlight.release();
+            }
+        });
+    }
+
+    private List<Region> parse(PoiRecordReader reader, List<String> chunk) {
+        List<Region> regions = new ArrayList<>(chunk.size());
+        for (String raw : chunk) {
+            try {
+                regions.add(reader.parse(raw));
+            } catch (IllegalArgumentException e) {
+                if (rejected.incrementAndGet() <= MAX_LOGGED_REJECTS) {
+                    log.warn("跳过无效记录: {} ({})", e.getMessage(), abbreviate(raw));
+                }
+            }
+        }
+        parsed.addAndGet(chunk.size());
+        return regions;
+    }
+
+    private void logProgress(long startNanos) {
+        long elapsedMs = Math.max(1, (System.nanoTime() - startNanos) / 1_000_000);
+        log.info("已解析 {} 行, 已写入 {} 行, {} 行/秒", parsed.get(), written.get(), written.get() * 1000 / elapsedMs);
+    }
+
+    private Connection connect() throws SQLException {
+        Properties properties = new Properties();
+        if (options.getUsername() != null) {
+            properties.setProperty("user", options.getUsername());
+        }
+        if (options.getPassword() != null) {
+            properties.setProperty("password", options.getPassword());
+        }
+        // 客户端预处理语句才能被改写为多行 INSERT
+        properties.setProperty("rewriteBatchedStatements", "true");
+        properties.setProperty("useServerPrepStmts", "false");
+        if (options.getMode() == LoaderOptions.Mode.INFILE) {
+            properties.setProperty("allowLoadLocalInfile", "true");
+        }
+        return DriverManager.getConnection(options.getUrl(), properties);
+    }
+
+    private static void closeQuietly(Connection connection) {
+        try {
+            connection.close();
+        } catch (SQLException e) {
+            log.debug("关闭连接失败", e);
+        }
+    }
+
+    private static String abbreviate(String raw) {
+        return raw.length() <= 200 ? raw : raw.substring(0, 200) + "...";
+    }
+}
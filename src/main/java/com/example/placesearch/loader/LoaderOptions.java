@@ -0,0 +1,83 @@
+package com.example.placesearch.loader;
+
+import com.example.placesearch.ingest.PoiFormat;
+import lombok.Data;
+
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * 命令行参数（--key=value），数据库连接缺省时取与服务相同的环境变量。
+ */
+@Data
+public class LoaderOptions {
+    public enum Mode { INSERT, INFILE }
+
+    private Path file;
+    private PoiFormat format;
+    private String url;
+    private String username;
+    private String password;
+    private String table = "regions";
+    private Mode mode = Mode.INSERT;
+    private int threads = Runtime.getRuntime().availableProcessors();
+    private int batchSize = 5000;
+    // 导入后是否用 RENAME 原子替换正式表，以及替换后是否保留旧表
+    private boolean swap = true;
+    private boolean keepOld = false;
+
+    public static LoaderOptions parse(String[] args) {
+        Map<String, String> values = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--")) {
+                throw new IllegalArgumentException("无法识别的参数: " + arg);
+            }
+            int eq = arg.indexOf('=');
+            if (eq < 0) {
+                values.put(arg.substring(2), "true");
+            } else {
+                values.put(arg.substring(2, eq), arg.substring(eq + 1));
+            }
+        }
+
+        LoaderOptions options = new LoaderOptions();
+        String file = values.get("file");
+        if (file == null) {
+            throw new IllegalArgumentException("缺少 --file");
+        }
+        options.file = Path.of(file);
+        options.format = PoiFormat.parse(values.getOrDefault("format", options.file.getFileName().toString()));
+        options.url = valueOrEnv(values, "url", "SPRING_DATASOURCE_URL");
+        options.username = valueOrEnv(values, "username", "SPRING_DATASOURCE_USERNAME");
+        options.password = valueOrEnv(values, "password", "SPRING_DATASOURCE_PASSWORD");
+        if (options.url == null) {
+            throw new IllegalArgumentException("缺少 --url 或环境变量 SPRING_DATASOURCE_URL");
+        }
+        if (values.containsKey("table")) {
+            options.table = values.get("table");
+        }
+        if (values.containsKey("mode")) {
+            options.mode = Mode.valueOf(values.get("mode").toUpperCase(Locale.ROOT));
+        }
+        if (values.containsKey("threads")) {
+            options.threads = Math.max(1, Integer.parseInt(values.get("threads")));
+        }
+        if (values.containsKey("batch-size")) {
+            options.batchSize = Math.max(1, Integer.parseInt(values.get("batch-size")));
+        }
+        if (values.containsKey("swap")) {
+            options.swap = Boolean.parseBoolean(values.get("swap"));
+        }
+        if (values.containsKey("keep-old")) {
+            options.keepOld = Boolean.parseBoolean(values.get("keep-old"));
+        }
+        return options;
+    }
+
+    private static String valueOrEnv(Map<String, String> values, String key, String env) {
+        String value = values.get(key);
+        return value != null ? value : System.getenv(env);
+    }
+}
@@ -0,0 +1,126 @@
+package com.example.placesearch.loader;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 影子表：按正式表结构建表，导入期间去掉非唯一二级索引，导入完再一次性建回，最后用 RENAME 原子替换。
+ */
+@Slf4j
+class StagingTable {
+    private final String table;
+    private final String staging;
+    private final String old;
+    private final Map<String, IndexDefinition> secondaryIndexes = new LinkedHashMap<>();
+
+    StagingTable(String table) {
+        this.table = table;
+        this.staging = table + "_staging";
+        this.old = table + "_old";
+    }
+
+    String name() {
+        return staging;
+    }
+
+    void create(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("DROP TABLE IF EXISTS " + staging);
+            statement.execute("CREATE TABLE " + staging + " LIKE " + table);
+        }
+        readSecondaryIndexes(connection);
+        if (secondaryIndexes.isEmpty()) {
+            return;
+        }
+        List<String> drops = new ArrayList<>();
+        for (String index : secondaryIndexes.keySet()) {
+            drops.add("DROP INDEX `" + index + "`");
+        }
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("ALTER TABLE " + staging + " " + String.join(", ", drops));
+        }
+        log.info("已创建 {}，导入期间去掉二级索引: {}", staging, secondaryIndexes.keySet());
+    }
+
+    void rebuildIndexes(Connection connection) throws SQLException {
+        if (secondaryIndexes.isEmpty()) {
+            return;
+        }
+        List<String> adds = new ArrayList<>();
+        for (IndexDefinition index : secondaryIndexes.values()) {
+            adds.add(index.addClause());
+        }
+        long start = System.currentTimeMillis();
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("ALTER TABLE " + staging + " " + String.join(", ", adds));
+        }
+        log.info("二级索引重建完成，耗时 {} ms", System.currentTimeMillis() - start);
+    }
+
+    void swap(Connection connection, boolean keepOld) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("DROP TABLE IF EXISTS " + old);
+            // 一条 RENAME 同时改两张表名是原子的，查询不会看到表不存在的中间状态
+            statement.execute("RENAME TABLE " + table + " TO " + old + ", " + staging + " TO " + table);
+            if (!keepOld) {
+                statement.execute("DROP TABLE " + old);
+            }
+        }
+        log.info("已用 {} 替换 {}{}", staging, table, keepOld ? "，旧数据保留在 " + old : "");
+    }
+
+    boolean hasColumn(Connection connection, String column) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("SHOW COLUMNS FROM " + staging + " LIKE '" + column + "'")) {
+            return rs.next();
+        }
+    }
+
+    void drop(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("DROP TABLE IF EXISTS " + staging);
+        }
+    }
+
+    private void readSecondaryIndexes(Connection connection) throws SQLException {
+        secondaryIndexes.clear();
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("SHOW INDEX FROM " + staging)) {
+            while (rs.next()) {
+                String name = rs.getString("Key_name");
+                // 唯一索引导入期间保留：主键为 (geo_key, id) 时，INSERT IGNORE 依靠 id 上的唯一索引去重
+                if ("PRIMARY".equals(name) || rs.getInt("Non_unique") == 0) {
+                    continue;
+                }
+                IndexDefinition index = secondaryIndexes.computeIfAbsent(name,
+                        key -> new IndexDefinition(key, new ArrayList<>()));
+                String column = "`" + rs.getString("Column_name") + "`";
+                int subPart = rs.getInt("Sub_part");
+                index.columns.add(rs.wasNull() ? column : column + "(" + subPart + ")");
+            }
+        }
+    }
+
+    // SHOW INDEX 按 Seq_in_index 顺序返回列
+    private static final class IndexDefinition {
+        private final String name;
+        private final List<String> columns;
+
+        private IndexDefinition(String name, List<String> columns) {
+            this.name = name;
+            this.columns = columns;
+        }
+
+        private String addClause() {
+            return "ADD INDEX `" + name + "` (" + String.join(", ", columns) + ")";
+        }
+    }
+}
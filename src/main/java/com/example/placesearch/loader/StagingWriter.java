@@ -0,0 +1,112 @@
+package com.example.placesearch.loader;
+
+import com.example.placesearch.entity.Region;
+import com.example.placesearch.ingest.RegionColumns;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 把一批记录写入影子表：INSERT 模式用 JDBC batch（驱动改写为多行 INSERT），
+ * INFILE 模式先写成制表符分隔的临时文件再 LOAD DATA LOCAL INFILE。重复 id 以先写入的为准。
+ * 正式表已迁移为 (geo_key, id) 聚簇主键时同时写入 geo_key。
+ */
+class StagingWriter {
+    private final String insertSql;
+    private final String loadSqlTemplate;
+    private final LoaderOptions.Mode mode;
+    private final boolean geoKey;
+
+    StagingWriter(String stagingTable, LoaderOptions.Mode mode, boolean geoKey) {
+        this.mode = mode;
+        this.geoKey = geoKey;
+        String[] columnNames = RegionColumns.columns(geoKey);
+        String columns = String.join(", ", columnNames);
+        this.insertSql = "INSERT IGNORE INTO " + stagingTable + " (" + columns + ") VALUES ("
+                + String.join(", ", Collections.nCopies(columnNames.length, "?")) + ")";
+        this.loadSqlTemplate = "LOAD DATA LOCAL INFILE '%s' IGNORE INTO TABLE " + stagingTable
+                + " CHARACTER SET utf8mb4 FIELDS TERMINATED BY '\\t' ESCAPED BY '\\\\' LINES TERMINATED BY '\\n' ("
+                + columns + ")";
+    }
+
+    /**
+     * 写入一批并提交，返回实际写入的行数。
+     */
+    long write(Connection connection, List<Region> regions) throws SQLException, IOException {
+        long written = mode == LoaderOptions.Mode.INFILE ? loadInfile(connection, regions) : insert(connection, regions);
+        connection.commit();
+        return written;
+    }
+
+    private long insert(Connection connection, List<Region> regions) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(insertSql)) {
+            for (Region region : regions) {
+                Object[] values = RegionColumns.values(region, geoKey);
+                for (int i = 0; i < values.length; i++) {
+                    statement.setObject(i + 1, values[i]);
+                }
+                statement.addBatch();
+            }
+            long written = 0;
+            for (int count : statement.executeBatch()) {
+                // 改写为多行语句后驱动只能返回 SUCCESS_NO_INFO
+                written += count == Statement.SUCCESS_NO_INFO ? 1 : count;
+            }
+            return written;
+        }
+    }
+
+    private long loadInfile(Connection connection, List<Region> regions) throws SQLException, IOException {
+        Path file = Files.createTempFile("regions-", ".tsv");
+        try {
+            try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+                for (Region region : regions) {
+                    Object[] values = RegionColumns.values(region, geoKey);
+                    for (int i = 0; i < values.length; i++) {
+                        if (i > 0) {
+                            writer.write('\t');
+                        }
+                        writeField(writer, values[i]);
+                    }
+                    writer.write('\n');
+                }
+            }
+            String path = file.toAbsolutePath().toString().replace("\\", "\\\\").replace("'", "\\'");
+            try (Statement statement = connection.createStatement()) {
+                return statement.executeLargeUpdate(String.format(loadSqlTemplate, path));
+            }
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    private static void writeField(BufferedWriter writer, Object value) throws IOException {
+        if (value == null) {
+            writer.write("\\N");
+            return;
+        }
+        String text = value instanceof Timestamp timestamp
+                ? timestamp.toLocalDateTime().toString().replace('T', ' ')
+                : value.toString();
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case '\\' -> writer.write("\\\\");
+                case '\t' -> writer.write("\\t");
+                case '\n' -> writer.write("\\n");
+                case '\r' -> writer.write("\\r");
+                default -> writer.write(c);
+            }
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package com.example.placesearch.repository;
+
+import com.example.placesearch.entity.Code;
+import com.example.placesearch.warmup.WarmStartParticipant;
+import com.example.placesearch.warmup.WarmStartSnapshot;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * code 表（几千行）的内存副本，城市编码/名称查找不再访问数据库。
+ * 预热完成前回退到 {@link CodeRepository}。同一 citycode/cityname 对应多个区县时取 adcode 最小的一行。
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class CodeDirectory implements WarmStartParticipant {
+    private final CodeRepository codeRepository;
+
+    private volatile Directory directory;
+
+    public Optional<Code> findByCitycode(String citycode) {
+        Directory current = directory;
+        if (current == null) {
+            return codeRepository.findFirstByCitycode(citycode);
+        }
+        return Optional.ofNullable(current.byCitycode.get(citycode));
+    }
+
+    public Optional<Code> findByCityname(String cityname) {
+        Directory current = directory;
+        if (current == null) {
+            return codeRepository.findFirstByCityname(cityname);
+        }
+        return Optional.ofNullable(current.byCityname.get(cityname));
+    }
+
+    /**
+     * adcode 以 prefix 开头的第一行（按 adcode 排序），用于由省/市/区县编码找到所属城市。
+     */
+    public Optional<Code> findByAdcodePrefix(String prefix) {
+        Directory current = directory;
+        if (current == null) {
+            return codeRepository.findFirstByAdcodeStartingWithOrderByAdcodeAsc(prefix);
+        }
+        for (Code code : current.codes) {
+            if (code.getAdcode() != null && code.getAdcode().startsWith(prefix)) {
+                return Optional.of(code);
+            }
+        }
+        return Optional.empty();
+    }
+
+    @Override
+    public String snapshotSection() {
+        return "code-directory.v1";
+    }
+
+    @Override
+    public boolean isSnapshotReady() {
+        return directory != null;
+    }
+
+    @Override
+    public void writeSnapshot(DataOutputStream out) throws IOException {
+        List<Code> codes = directory.codes;
+        out.writeInt(codes.size());
+        for (Code code : codes) {
+            WarmStartSnapshot.writeString(out, code.getAdcode());
+            WarmStartSnapshot.writeString(out, code.getCityname());
+            WarmStartSnapshot.writeString(out, code.getCitycode());
+        }
+    }
+
+    @Override
+    public void readSnapshot(ByteBuffer in) {
+        int count = in.getInt();
+        List<Code> codes = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Code code = new Code();
+            code.setAdcode(WarmStartSnapshot.readString(in));
+            code.setCityname(WarmStartSnapshot.readString(in));
+            code.setCitycode(WarmStartSnapshot.readString(in));
+            codes.add(code);
+        }
+        this.directory = new Directory(codes);
+        log.info("城市编码从快照恢复: {} 行", count);
+    }
+
+    @Override
+    public void loadFull() {
+        List<Code> codes = codeRepository.findAll(Sort.by("adcode"));
+        this.directory = new Directory(codes);
+        log.info("城市编码加载完成: {} 行", codes.size());
+    }
+
+    private static final class Directory {
+        private final List<Code> codes;
+        private final Map<String, Code> byCitycode = new HashMap<>();
+        private final Map<String, Code> byCityname = new HashMap<>();
+
+        private Directory(List<Code> codes) {
+            this.codes = codes;
+            for (Code code : codes) {
+                if (code.getCitycode() != null) {
+                    byCitycode.putIfAbsent(code.getCitycode(), code);
+                }
+                if (code.getCityname() != null) {
+                    byCityname.putIfAbsent(code.getCityname(), code);
+                }
+            }
+        }
+    }
+}
@@ -26,4 +26,8 @@ public interface CodeRepository extends JpaRepository<Code, String> {
 //             );
 
     Optional<Code> findFirstByCitycode(String citycode);
+
+    Optional<Code> findFirstByCityname(String cityname);
+
+    Optional<Code> findFirstByAdcodeStartingWithOrderByAdcodeAsc(String prefix);
 }
@@ -0,0 +1,107 @@
+package com.example.placesearch.repository;
+
+import com.example.placesearch.config.DataSourceRouting;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
+
+/**
+ * 记录一次请求执行过的 regions 查询（SQL、参数、返回行数、耗时），供慢查询记录使用。
+ * 请求线程上开启后才会记录；分片并行查询由 {@link ShardFanOut} 把同一个 trace 带到工作线程。
+ */
+public final class QueryTrace {
+    private static final ThreadLocal<QueryTrace> CURRENT = new ThreadLocal<>();
+    // 单个请求最多保留的语句数，超出后只累计行数
+    private static final int MAX_STATEMENTS = 32;
+
+    private final List<Statement> statements = new ArrayList<>();
+    private final AtomicLong rowsFetched = new AtomicLong();
+
+    public static QueryTrace begin() {
+        QueryTrace trace = new QueryTrace();
+        CURRENT.set(trace);
+        return trace;
+    }
+
+    public static void end() {
+        CURRENT.remove();
+    }
+
+    public static QueryTrace current() {
+        return CURRENT.get();
+    }
+
+    public static <T> T with(QueryTrace trace, Supplier<T> action) {
+        if (trace == null) {
+            return action.get();
+        }
+        QueryTrace previous = CURRENT.get();
+        CURRENT.set(trace);
+        try {
+            return action.get();
+        } finally {
+            if (previous == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+        }
+    }
+
+    /**
+     * 执行并记录一条语句；失败（含超时）的语句同样记录，行数为 0 并附带异常信息。
+     */
+    static <T> T run(String sql, Map<String, Object> params, Long offset, Integer limit, Supplier<T> action,
+                     ToIntFunction<T> rowCount) {
+        long start = System.nanoTime();
+        T result;
+        try {
+            result = action.get();
+        } catch (RuntimeException e) {
+            record(sql, params, offset, limit, 0, e.getClass().getSimpleName() + ": " + e.getMessage(), start);
+            throw e;
+        }
+        record(sql, params, offset, limit, rowCount.applyAsInt(result), null, start);
+        return result;
+    }
+
+    private static void record(String sql, Map<String, Object> params, Long offset, Integer limit, long rows,
+                               String error, long startNanos) {
+        QueryTrace trace = CURRENT.get();
+        if (trace == null) {
+            return;
+        }
+        long elapsedMs = (System.nanoTime() - startNanos) / 1_000_000;
+        trace.rowsFetched.addAndGet(rows);
+        synchronized (trace.statements) {
+            if (trace.statements.size() < MAX_STATEMENTS) {
+                trace.statements.add(new Statement(DataSourceRouting.currentShard(), sql, params, offset, limit,
+                        rows, elapsedMs, error));
+            }
+        }
+    }
+
+    /**
+     * 数据库返回给应用的总行数（含 COUNT 等聚合查询的结果行）。
+     */
+    public long rowsFetched() {
+        return rowsFetched.get();
+    }
+
+    public List<Statement> statements() {
+        synchronized (statements) {
+            return new ArrayList<>(statements);
+        }
+    }
+
+    /**
+     * offset/limit 不在 SQL 文本中（由 JPA 分页追加），单独记录。
+     */
+    public record Statement(String shard, String sql, Map<String, Object> params, Long offset, Integer limit,
+                            long rows, long elapsedMs, String error) {
+    }
+}
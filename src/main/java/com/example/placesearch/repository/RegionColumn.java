@@ -0,0 +1,56 @@
+package com.example.placesearch.repository;
+
+import com.example.placesearch.entity.Region;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.function.BiConsumer;
+
+/**
+ * 可按需投影的 regions 列，{@link RegionQuery#getColumns()} 指定时只查询这些列。
+ */
+public enum RegionColumn {
+    ID("id", (region, value) -> region.setId((String) value)),
+    NAME("name", (region, value) -> region.setName((String) value)),
+    TYPECODE("typecode", (region, value) -> region.setTypecode((String) value)),
+    ADDRESS("address", (region, value) -> region.setAddress((String) value)),
+    PNAME("pname", (region, value) -> region.setPname((String) value)),
+    CITYNAME("cityname", (region, value) -> region.setCityname((String) value)),
+    ADCODE("adcode", (region, value) -> region.setAdcode((String) value)),
+    ADNAME("adname", (region, value) -> region.setAdname((String) value)),
+    MARLON("marlon", (region, value) -> region.setMarlon(toDouble(value))),
+    MARLAT("marlat", (region, value) -> region.setMarlat(toDouble(value))),
+    WGS84LON("wgs84lon", (region, value) -> region.setWgs84lon(toDouble(value))),
+    WGS84LAT("wgs84lat", (region, value) -> region.setWgs84lat(toDouble(value))),
+    TIMESTAMP("`timestamp`", (region, value) -> region.setTimestamp(toDateTime(value))),
+    CATEGORY_LARGE("`大类`", (region, value) -> region.setCategoryLarge((String) value)),
+    CATEGORY_MEDIUM("`中类`", (region, value) -> region.setCategoryMedium((String) value)),
+    CATEGORY_SMALL("`小类`", (region, value) -> region.setCategorySmall((String) value));
+
+    private final String sql;
+    private final BiConsumer<Region, Object> setter;
+
+    RegionColumn(String sql, BiConsumer<Region, Object> setter) {
+        this.sql = sql;
+        this.setter = setter;
+    }
+
+    public String sql() {
+        return sql;
+    }
+
+    void apply(Region region, Object value) {
+        setter.accept(region, value);
+    }
+
+    private static Double toDouble(Object value) {
+        return value == null ? null : ((Number) value).doubleValue();
+    }
+
+    private static LocalDateTime toDateTime(Object value) {
+        if (value instanceof Timestamp timestamp) {
+            return timestamp.toLocalDateTime();
+        }
+        return (LocalDateTime) value;
+    }
+}
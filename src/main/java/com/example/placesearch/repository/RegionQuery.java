@@ -0,0 +1,96 @@
+package com.example.placesearch.repository;
+
+import com.example.placesearch.geo.AdminCode;
+import com.example.placesearch.geo.CoordinateSystem;
+import com.example.placesearch.geo.GeoArea;
+import lombok.Data;
+import org.springframework.data.domain.Pageable;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * regions 检索条件，未设置的条件不会出现在 SQL 中。
+ */
+@Data
+public class RegionQuery {
+    private CoordinateSystem coordinateSystem = CoordinateSystem.GCJ02;
+
+    // 城市过滤
+    private String cityname;
+
+    // 行政区过滤：省级按 pcode，地级按 adcode 前缀，区县级按 adcode
+    private String pcode;
+    private String adcodePrefix;
+    private String adcode;
+
+    // 圆形范围（米）
+    private Double centerLon;
+    private Double centerLat;
+    private Double radius;
+
+    // 矩形范围
+    private Double minLon;
+    private Double maxLon;
+    private Double minLat;
+    private Double maxLat;
+    // 多个矩形（OR），在外接矩形之内进一步限定候选行，用于相距较远的多个区域
+    private List<GeoArea.Bounds> boundingBoxes;
+
+    // 多边形 WKT，设置后由 MySQL 做 ST_Intersects 精筛
+    private String polygonWkt;
+    // 排除区域 WKT，设置后排除与之相交的点
+    private String excludeWkt;
+
+    // 时间范围 [yearStart, yearEnd)，两端可分别为空
+    private LocalDateTime yearStart;
+    private LocalDateTime yearEnd;
+    private List<String> typeCodes;
+
+    // 关键词索引命中的 id（空列表表示无命中），与 keywordTerms 一起设置；
+    // SQL 在这些 id 内用 LIKE 校验关键词是否连续出现在 name/address 中
+    private List<String> ids;
+    private List<String> keywordTerms;
+
+    private Pageable pageable = Pageable.unpaged();
+    // 按 id 排序；配合 afterId 做键集分页（只取 id 大于 afterId 的行），用于按 id 顺序流式读取大范围
+    private boolean orderById;
+    private String afterId;
+    // 分页时多取一行，用于判断是否还有下一页
+    private boolean fetchExtraRow;
+
+    // 只查询这些列（返回的 Region 不受持久化上下文管理），为空时查询整行
+    private Set<RegionColumn> columns;
+
+    // JDBC 查询超时（毫秒），为空时不限制
+    private Long timeoutMs;
+
+    public RegionQuery around(double lon, double lat, double radiusMeters) {
+        this.centerLon = lon;
+        this.centerLat = lat;
+        this.radius = radiusMeters;
+        return this;
+    }
+
+    public RegionQuery boundingBox(double minLon, double maxLon, double minLat, double maxLat) {
+        this.minLon = minLon;
+        this.maxLon = maxLon;
+        this.minLat = minLat;
+        this.maxLat = maxLat;
+        return this;
+    }
+
+    public RegionQuery adminArea(AdminCode code) {
+        switch (code.level()) {
+            case PROVINCE -> this.pcode = code.code();
+            case CITY -> this.adcodePrefix = code.cityPrefix();
+            case DISTRICT -> this.adcode = code.code();
+        }
+        return this;
+    }
+
+    public boolean hasBoundingBox() {
+        return minLon != null && maxLon != null && minLat != null && maxLat != null;
+    }
+}
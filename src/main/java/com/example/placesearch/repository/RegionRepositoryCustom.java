@@ -0,0 +1,26 @@
+package com.example.placesearch.repository;
+
+import com.example.placesearch.entity.Region;
+
+import java.util.List;
+import java.util.Map;
+
+public interface RegionRepositoryCustom {
+
+    List<Region> search(RegionQuery query);
+
+    /**
+     * 满足条件的总行数，忽略分页与列投影。
+     */
+    long count(RegionQuery query);
+
+    /**
+     * 按年份、类型编码分组计数，忽略分页与列投影；时间为空的行不计入。
+     */
+    List<YearTypeCount> countByYearAndType(RegionQuery query);
+
+    /**
+     * 对 {@link QueryTrace} 记录的语句执行 EXPLAIN，每行计划为列名到值的映射；分片上执行的语句在原分片上解释。
+     */
+    List<Map<String, Object>> explain(QueryTrace.Statement statement);
+}
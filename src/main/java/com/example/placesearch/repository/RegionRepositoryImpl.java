@@ -0,0 +1,530 @@
+package com.example.placesearch.repository;
+
+import com.example.placesearch.config.DataSourceRouting;
+import com.example.placesearch.config.GeoKeyProperties;
+import com.example.placesearch.entity.Region;
+import com.example.placesearch.geo.CoordinateSystem;
+import com.example.placesearch.geo.GeoArea;
+import com.example.placesearch.util.GeoKey;
+import com.example.placesearch.util.LocationUtils;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.TupleElement;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * 按 {@link RegionQuery} 动态拼接原生 SQL。坐标列随坐标系切换，未设置的条件直接省略，
+ * 不再使用 “:param IS NULL OR ...” 的写法，便于 MySQL 选择索引。
+ */
+public class RegionRepositoryImpl implements RegionRepositoryCustom {
+    // Hibernate 的超时提示以秒为单位，JDBC Statement#setQueryTimeout 也只支持秒
+    private static final String QUERY_TIMEOUT_HINT = "org.hibernate.timeout";
+    // GCJ-02 与 WGS-84 在国内的偏移不超过约 0.01 度
+    public static final double WGS84_MARGIN_DEG = 0.01;
+    private static final List<RegionColumn> WGS84_FALLBACK_COLUMNS = List.of(
+            RegionColumn.MARLON, RegionColumn.MARLAT, RegionColumn.WGS84LON, RegionColumn.WGS84LAT);
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final ShardRouter shardRouter;
+    private final ShardFanOut shardFanOut;
+    private final GeoKeyProperties geoKeyProperties;
+
+    public RegionRepositoryImpl(ShardRouter shardRouter, ShardFanOut shardFanOut, GeoKeyProperties geoKeyProperties) {
+        this.shardRouter = shardRouter;
+        this.shardFanOut = shardFanOut;
+        this.geoKeyProperties = geoKeyProperties;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<Region> search(RegionQuery query) {
+        if (shardRouter.isEnabled()) {
+            return searchShards(query);
+        }
+        // 物理连接在第一条语句时才获取，此处标记即可让本次查询走扫描连接池
+        return DataSourceRouting.with(DataSourceRouting.Workload.SCAN,
+                () -> doSearch(query, query.getPageable(), query.isOrderById()));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public long count(RegionQuery query) {
+        if (shardRouter.isEnabled()) {
+            List<String> shards = shardRouter.route(query);
+            if (shards.isEmpty()) {
+                return 0;
+            }
+            return shardFanOut.execute(shards, () -> List.of(doCount(query))).stream()
+                    .mapToLong(counts -> counts.get(0))
+                    .sum();
+        }
+        return DataSourceRouting.with(DataSourceRouting.Workload.SCAN, () -> doCount(query));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<YearTypeCount> countByYearAndType(RegionQuery query) {
+        if (!shardRouter.isEnabled()) {
+            return DataSourceRouting.with(DataSourceRouting.Workload.SCAN, () -> doCountByYearAndType(query));
+        }
+        List<String> shards = shardRouter.route(query);
+        if (shards.isEmpty()) {
+            return new ArrayList<>();
+        }
+        // 同一年份、类型可能分布在多个分片上，合并时累加
+        Map<String, YearTypeCount> merged = new LinkedHashMap<>();
+        for (List<YearTypeCount> rows : shardFanOut.execute(shards, () -> doCountByYearAndType(query))) {
+            for (YearTypeCount row : rows) {
+                merged.merge(row.year() + "|" + row.typecode(), row, (a, b) -> new YearTypeCount(
+                        a.year(), a.typecode(), a.category() != null ? a.category() : b.category(),
+                        a.count() + b.count()));
+            }
+        }
+        return new ArrayList<>(merged.values());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<Map<String, Object>> explain(QueryTrace.Statement statement) {
+        if (statement.shard() != null && shardRouter.isEnabled()) {
+            return shardFanOut.execute(List.of(statement.shard()), () -> doExplain(statement)).get(0);
+        }
+        return DataSourceRouting.with(DataSourceRouting.Workload.SCAN, () -> doExplain(statement));
+    }
+
+    /**
+     * 并行查询命中的分片后合并。分页查询时每个分片按 id 排序取前 offset + pageSize 行，
+     * 归并后再截取目标页，结果与单库按 id 排序分页一致。
+     */
+    private List<Region> searchShards(RegionQuery query) {
+        List<String> shards = shardRouter.route(query);
+        if (shards.isEmpty()) {
+            return new ArrayList<>();
+        }
+        Pageable pageable = query.getPageable();
+        boolean paged = pageable != null && pageable.isPaged();
+        int limit = paged ? pageable.getPageSize() + (query.isFetchExtraRow() ? 1 : 0) : 0;
+        Pageable shardPageable = paged
+                ? PageRequest.of(0, (int) Math.min(Integer.MAX_VALUE, pageable.getOffset() + limit))
+                : Pageable.unpaged();
+
+        List<List<Region>> perShard = shardFanOut.execute(shards, () -> doSearch(query, shardPageable, paged));
+        if (!paged) {
+            List<Region> merged = new ArrayList<>();
+            perShard.forEach(merged::addAll);
+            return merged;
+        }
+        return mergeById(perShard, pageable.getOffset(), limit);
+    }
+
+    // id 为大写字母和数字，按不区分大小写比较与 MySQL 默认的 *_ci 排序规则一致
+    private static List<Region> mergeById(List<List<Region>> sortedLists, long offset, int limit) {
+        PriorityQueue<int[]> heads = new PriorityQueue<>((a, b) -> String.CASE_INSENSITIVE_ORDER.compare(
+                sortedLists.get(a[0]).get(a[1]).getId(),
+                sortedLists.get(b[0]).get(b[1]).getId()));
+        for (int i = 0; i < sortedLists.size(); i++) {
+            if (!sortedLists.get(i).isEmpty()) {
+                heads.add(new int[]{i, 0});
+            }
+        }
+        List<Region> page = new ArrayList<>(limit);
+        long skipped = 0;
+        while (!heads.isEmpty() && page.size() < limit) {
+            int[] head = heads.poll();
+            List<Region> list = sortedLists.get(head[0]);
+            if (skipped < offset) {
+                skipped++;
+            } else {
+                page.add(list.get(head[1]));
+            }
+            if (head[1] + 1 < list.size()) {
+                heads.add(new int[]{head[0], head[1] + 1});
+            }
+        }
+        return page;
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Region> doSearch(RegionQuery query, Pageable pageable, boolean orderById) {
+        Map<String, Object> params = new LinkedHashMap<>();
+        boolean wgs84Fallback = query.getCoordinateSystem() == CoordinateSystem.WGS84 && hasSpatialFilter(query);
+        List<RegionColumn> columns = query.getColumns() == null ? null : new ArrayList<>(query.getColumns());
+        if (columns != null && wgs84Fallback) {
+            // 复核未回填的行需要两套坐标
+            for (RegionColumn column : WGS84_FALLBACK_COLUMNS) {
+                if (!columns.contains(column)) {
+                    columns.add(column);
+                }
+            }
+        }
+        String select = columns == null
+                ? "r.*"
+                : columns.stream().map(column -> "r." + column.sql()).collect(Collectors.joining(", "));
+        String sql = "SELECT " + select + " FROM regions r WHERE " + buildWhere(query, params);
+        if (orderById) {
+            sql += " ORDER BY r.id";
+        }
+
+        Query nativeQuery = columns == null
+                ? entityManager.createNativeQuery(sql, Region.class)
+                : entityManager.createNativeQuery(sql, Tuple.class);
+        params.forEach(nativeQuery::setParameter);
+        setTimeout(nativeQuery, query);
+        Long offset = null;
+        Integer limit = null;
+        if (pageable != null && pageable.isPaged()) {
+            offset = pageable.getOffset();
+            limit = pageable.getPageSize() + (query.isFetchExtraRow() ? 1 : 0);
+            nativeQuery.setFirstResult(offset.intValue());
+            nativeQuery.setMaxResults(limit);
+        }
+        List<?> result = QueryTrace.run(sql, params, offset, limit, nativeQuery::getResultList, List::size);
+        if (columns == null) {
+            List<Region> regions = (List<Region>) result;
+            return wgs84Fallback ? resolveMissingWgs84(regions, query) : regions;
+        }
+        List<Tuple> rows = (List<Tuple>) result;
+        List<Region> regions = new ArrayList<>(rows.size());
+        for (Tuple row : rows) {
+            Region region = new Region();
+            for (int i = 0; i < columns.size(); i++) {
+                columns.get(i).apply(region, row.get(i));
+            }
+            region.computeDerivedFields();
+            regions.add(region);
+        }
+        return wgs84Fallback ? resolveMissingWgs84(regions, query) : regions;
+    }
+
+    private long doCount(RegionQuery query) {
+        Map<String, Object> params = new LinkedHashMap<>();
+        String sql = "SELECT COUNT(*) FROM regions r WHERE " + buildWhere(query, params);
+        Query nativeQuery = entityManager.createNativeQuery(sql);
+        params.forEach(nativeQuery::setParameter);
+        setTimeout(nativeQuery, query);
+        return QueryTrace.run(sql, params, null, null,
+                () -> ((Number) nativeQuery.getSingleResult()).longValue(), count -> 1);
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<YearTypeCount> doCountByYearAndType(RegionQuery query) {
+        Map<String, Object> params = new LinkedHashMap<>();
+        String sql = "SELECT YEAR(r.`timestamp`) AS y, r.typecode, MAX(r.`大类`), COUNT(*) FROM regions r WHERE "
+                + buildWhere(query, params) + " AND r.`timestamp` IS NOT NULL GROUP BY y, r.typecode";
+        Query nativeQuery = entityManager.createNativeQuery(sql);
+        params.forEach(nativeQuery::setParameter);
+        setTimeout(nativeQuery, query);
+        List<Object[]> rows = QueryTrace.run(sql, params, null, null, nativeQuery::getResultList, List::size);
+        List<YearTypeCount> counts = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            counts.add(new YearTypeCount(((Number) row[0]).intValue(), (String) row[1], (String) row[2],
+                    ((Number) row[3]).longValue()));
+        }
+        return counts;
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Map<String, Object>> doExplain(QueryTrace.Statement statement) {
+        String sql = "EXPLAIN " + statement.sql();
+        if (statement.limit() != null) {
+            sql += " LIMIT " + statement.offset() + ", " + statement.limit();
+        }
+        Query nativeQuery = entityManager.createNativeQuery(sql, Tuple.class);
+        statement.params().forEach(nativeQuery::setParameter);
+        List<Tuple> rows = nativeQuery.getResultList();
+        List<Map<String, Object>> plan = new ArrayList<>(rows.size());
+        for (Tuple row : rows) {
+            Map<String, Object> columns = new LinkedHashMap<>();
+            List<TupleElement<?>> elements = row.getElements();
+            for (int i = 0; i < elements.size(); i++) {
+                columns.put(elements.get(i).getAlias(), row.get(i));
+            }
+            plan.add(columns);
+        }
+        return plan;
+    }
+
+    /**
+     * 用 geo_key 区间限定矩形范围，使 InnoDB 沿 (geo_key, id) 主键连续读取；区间是矩形的超集，坐标条件仍然保留。
+     * geo_key 按 GCJ-02 坐标计算，WGS-84 查询外扩后再取区间。
+     */
+    private void appendGeoKeyRanges(StringBuilder where, Map<String, Object> params, RegionQuery query,
+                                    CoordinateSystem coordsys) {
+        List<GeoArea.Bounds> boxes = query.getBoundingBoxes();
+        if (boxes == null || boxes.isEmpty()) {
+            boxes = List.of(new GeoArea.Bounds(query.getMinLon(), query.getMaxLon(),
+                    query.getMinLat(), query.getMaxLat()));
+        }
+        double margin = coordsys == CoordinateSystem.WGS84 ? WGS84_MARGIN_DEG : 0;
+        int perBox = Math.max(4, geoKeyProperties.getMaxRanges() / boxes.size());
+        List<long[]> ranges = new ArrayList<>();
+        for (GeoArea.Bounds box : boxes) {
+            ranges.addAll(GeoKey.cover(box.minLon() - margin, box.maxLon() + margin,
+                    box.minLat() - margin, box.maxLat() + margin, perBox));
+        }
+        ranges = GeoKey.merge(ranges);
+        if (ranges.isEmpty()) {
+            return;
+        }
+        where.append(" AND (");
+        for (int i = 0; i < ranges.size(); i++) {
+            if (i > 0) {
+                where.append(" OR ");
+            }
+            where.append("r.geo_key BETWEEN :geoKeyFrom").append(i).append(" AND :geoKeyTo").append(i);
+            params.put("geoKeyFrom" + i, ranges.get(i)[0]);
+            params.put("geoKeyTo" + i, ranges.get(i)[1]);
+        }
+        where.append(')');
+    }
+
+    private static boolean hasSpatialFilter(RegionQuery query) {
+        return query.getRadius() != null || query.hasBoundingBox()
+                || (query.getBoundingBoxes() != null && !query.getBoundingBoxes().isEmpty())
+                || query.getPolygonWkt() != null || query.getExcludeWkt() != null;
+    }
+
+    /**
+     * 追加半径、矩形与多边形条件。margin 大于 0 时各条件按该度数放宽（排除区收缩），
+     * 参数名加 suffix 区分，用于 wgs84 缺失时按 GCJ-02 坐标取超集。
+     */
+    private static void appendSpatial(StringBuilder where, Map<String, Object> params, RegionQuery query,
+                                      String lon, String lat, double margin, String suffix) {
+        if (query.getRadius() != null) {
+            // 使用了mysql原生计算距离函数
+            String a = "POWER(SIN(RADIANS(" + lat + " - :lat) / 2), 2) + "
+                    + "COS(RADIANS(:lat)) * COS(RADIANS(" + lat + ")) * "
+                    + "POWER(SIN(RADIANS(" + lon + " - :lon) / 2), 2)";
+            where.append(" AND (6371000 * 2 * ATAN2(SQRT(").append(a).append("), SQRT(1 - (")
+                    .append(a).append(")))) <= :radius").append(suffix);
+            params.put("lon", query.getCenterLon());
+            params.put("lat", query.getCenterLat());
+            // 经纬度各偏移 margin 度时的最大位移
+            params.put("radius" + suffix, query.getRadius()
+                    + margin * LocationUtils.METERS_PER_DEGREE_LAT * Math.sqrt(2));
+        }
+        if (query.hasBoundingBox()) {
+            where.append(" AND ").append(lon).append(" IS NOT NULL AND ").append(lat).append(" IS NOT NULL")
+                    .append(" AND ").append(lon).append(" BETWEEN :minLon").append(suffix)
+                    .append(" AND :maxLon").append(suffix)
+                    .append(" AND ").append(lat).append(" BETWEEN :minLat").append(suffix)
+                    .append(" AND :maxLat").append(suffix);
+            params.put("minLon" + suffix, query.getMinLon() - margin);
+            params.put("maxLon" + suffix, query.getMaxLon() + margin);
+            params.put("minLat" + suffix, query.getMinLat() - margin);
+            params.put("maxLat" + suffix, query.getMaxLat() + margin);
+        }
+        List<GeoArea.Bounds> boxes = query.getBoundingBoxes();
+        if (boxes != null && !boxes.isEmpty()) {
+            String prefix = "box" + suffix;
+            where.append(" AND (");
+            for (int i = 0; i < boxes.size(); i++) {
+                GeoArea.Bounds box = boxes.get(i);
+                if (i > 0) {
+                    where.append(" OR ");
+                }
+                where.append('(').append(lon).append(" BETWEEN :").append(prefix).append("MinLon").append(i)
+                        .append(" AND :").append(prefix).append("MaxLon").append(i)
+                        .append(" AND ").append(lat).append(" BETWEEN :").append(prefix).append("MinLat").append(i)
+                        .append(" AND :").append(prefix).append("MaxLat").append(i)
+                        .append(')');
+                params.put(prefix + "MinLon" + i, box.minLon() - margin);
+                params.put(prefix + "MaxLon" + i, box.maxLon() + margin);
+                params.put(prefix + "MinLat" + i, box.minLat() - margin);
+                params.put(prefix + "MaxLat" + i, box.maxLat() + margin);
+            }
+            where.append(')');
+        }
+        if (query.getPolygonWkt() != null) {
+            where.append(" AND ST_Intersects(").append(wktGeometry(":polygonWkt", margin, suffix, params))
+                    .append(", ST_GeomFromText(CONCAT('POINT(', ").append(lon).append(", ' ', ").append(lat)
+                    .append(", ')')))");
+            params.put("polygonWkt", query.getPolygonWkt());
+        }
+        if (query.getExcludeWkt() != null) {
+            where.append(" AND NOT ST_Intersects(").append(wktGeometry(":excludeWkt", -margin, suffix, params))
+                    .append(", ST_GeomFromText(CONCAT('POINT(', ").append(lon).append(", ' ', ").append(lat)
+                    .append(", ')')))");
+            params.put("excludeWkt", query.getExcludeWkt());
+        }
+    }
+
+    private static String wktGeometry(String param, double buffer, String suffix, Map<String, Object> params) {
+        if (buffer == 0) {
+            return "ST_GeomFromText(" + param + ")";
+        }
+        String bufferParam = (buffer > 0 ? "grow" : "shrink") + suffix;
+        params.put(bufferParam, buffer);
+        return "ST_Buffer(ST_GeomFromText(" + param + "), :" + bufferParam + ")";
+    }
+
+    /**
+     * wgs84 尚未回填的行是按 GCJ-02 坐标外扩取回的超集：批量换算成 wgs84 写回实体，
+     * 再按原始半径与矩形条件复核，剔除换算后落在范围外的行。多边形条件只出现在统计语句中，统计对这部分行是近似值。
+     */
+    private static List<Region> resolveMissingWgs84(List<Region> regions, RegionQuery query) {
+        int[] missing = new int[regions.size()];
+        int missingCount = 0;
+        for (int i = 0; i < regions.size(); i++) {
+            Region region = regions.get(i);
+            if ((region.getWgs84lon() == null || region.getWgs84lat() == null)
+                    && region.getMarlon() != null && region.getMarlat() != null) {
+                missing[missingCount++] = i;
+            }
+        }
+        if (missingCount == 0) {
+            return regions;
+        }
+        double[] lons = new double[missingCount];
+        double[] lats = new double[missingCount];
+        for (int i = 0; i < missingCount; i++) {
+            lons[i] = regions.get(missing[i]).getMarlon();
+            lats[i] = regions.get(missing[i]).getMarlat();
+        }
+        LocationUtils.gcj02ToWgs84(lons, lats, missingCount);
+
+        Set<Region> outside = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (int i = 0; i < missingCount; i++) {
+            Region region = regions.get(missing[i]);
+            region.setWgs84lon(lons[i]);
+            region.setWgs84lat(lats[i]);
+            if (!matchesSpatial(query, lons[i], lats[i])) {
+                outside.add(region);
+            }
+        }
+        if (outside.isEmpty()) {
+            return regions;
+        }
+        List<Region> kept = new ArrayList<>(regions.size() - outside.size());
+        for (Region region : regions) {
+            if (!outside.contains(region)) {
+                kept.add(region);
+            }
+        }
+        return kept;
+    }
+
+    private static boolean matchesSpatial(RegionQuery query, double lon, double lat) {
+        if (query.getRadius() != null && LocationUtils.haversineMeters(
+                query.getCenterLon(), query.getCenterLat(), lon, lat) > query.getRadius()) {
+            return false;
+        }
+        if (query.hasBoundingBox() && (lon < query.getMinLon() || lon > query.getMaxLon()
+                || lat < query.getMinLat() || lat > query.getMaxLat())) {
+            return false;
+        }
+        List<GeoArea.Bounds> boxes = query.getBoundingBoxes();
+        if (boxes == null || boxes.isEmpty()) {
+            return true;
+        }
+        for (GeoArea.Bounds box : boxes) {
+            if (lon >= box.minLon() && lon <= box.maxLon() && lat >= box.minLat() && lat <= box.maxLat()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static void setTimeout(Query nativeQuery, RegionQuery query) {
+        if (query.getTimeoutMs() != null) {
+            // 向上取整到秒，MySQL 驱动超时后通过 KILL QUERY 取消语句
+            int seconds = (int) Math.max(1L, (query.getTimeoutMs() + 999) / 1000);
+            nativeQuery.setHint(QUERY_TIMEOUT_HINT, seconds);
+        }
+    }
+
+    private String buildWhere(RegionQuery query, Map<String, Object> params) {
+        CoordinateSystem coordsys = query.getCoordinateSystem() == null
+                ? CoordinateSystem.GCJ02
+                : query.getCoordinateSystem();
+        String lon = "r." + coordsys.lonColumn();
+        String lat = "r." + coordsys.latColumn();
+
+        StringBuilder where = new StringBuilder("1 = 1");
+        if (query.getCityname() != null) {
+            where.append(" AND r.cityname = :cityname");
+            params.put("cityname", query.getCityname());
+        }
+        if (query.getPcode() != null) {
+            where.append(" AND r.pcode = :pcode");
+            params.put("pcode", query.getPcode());
+        }
+        if (query.getAdcodePrefix() != null) {
+            // 前缀匹配可以使用 adcode 索引做范围扫描
+            where.append(" AND r.adcode LIKE :adcodePrefix");
+            params.put("adcodePrefix", query.getAdcodePrefix() + "%");
+        }
+        if (query.getAdcode() != null) {
+            where.append(" AND r.adcode = :adcode");
+            params.put("adcode", query.getAdcode());
+        }
+        if (hasSpatialFilter(query)) {
+            if (coordsys == CoordinateSystem.WGS84) {
+                // 回填尚未覆盖的行 wgs84 列为 NULL，按 GCJ-02 列外扩后取回，查询后换算复核（见 resolveMissingWgs84）
+                StringBuilder exact = new StringBuilder(lon + " IS NOT NULL AND " + lat + " IS NOT NULL");
+                appendSpatial(exact, params, query, lon, lat, 0, "");
+                StringBuilder fallback = new StringBuilder(
+                        "(" + lon + " IS NULL OR " + lat + " IS NULL) AND r.marlon IS NOT NULL AND r.marlat IS NOT NULL");
+                appendSpatial(fallback, params, query, "r.marlon", "r.marlat", WGS84_MARGIN_DEG, "Gcj");
+                where.append(" AND ((").append(exact).append(") OR (").append(fallback).append("))");
+            } else {
+                appendSpatial(where, params, query, lon, lat, 0, "");
+            }
+        }
+        if (geoKeyProperties.isEnabled() && query.hasBoundingBox()) {
+            appendGeoKeyRanges(where, params, query, coordsys);
+        }
+        if (query.getYearStart() != null) {
+            where.append(" AND r.timestamp >= :yearStart");
+            params.put("yearStart", query.getYearStart());
+        }
+        if (query.getYearEnd() != null) {
+            where.append(" AND r.timestamp < :yearEnd");
+            params.put("yearEnd", query.getYearEnd());
+        }
+        if (query.getTypeCodes() != null && !query.getTypeCodes().isEmpty()) {
+            where.append(" AND r.typecode IN (:typeCodes)");
+            params.put("typeCodes", query.getTypeCodes());
+        }
+        if (query.getAfterId() != null) {
+            where.append(" AND r.id > :afterId");
+            params.put("afterId", query.getAfterId());
+        }
+        if (query.getIds() != null) {
+            if (query.getIds().isEmpty()) {
+                where.append(" AND 1 = 0");
+            } else {
+                where.append(" AND r.id IN (:ids)");
+                params.put("ids", query.getIds());
+            }
+        }
+        if (query.getKeywordTerms() != null) {
+            for (int i = 0; i < query.getKeywordTerms().size(); i++) {
+                where.append(" AND (r.name LIKE :keyword").append(i).append(" ESCAPE '!' OR r.address LIKE :keyword")
+                        .append(i).append(" ESCAPE '!')");
+                String escaped = query.getKeywordTerms().get(i)
+                        .replace("!", "!!")
+                        .replace("%", "!%")
+                        .replace("_", "!_");
+                params.put("keyword" + i, "%" + escaped + "%");
+            }
+        }
+        return where.toString();
+    }
+}
@@ -0,0 +1,93 @@
+package com.example.placesearch.repository;
+
+import com.example.placesearch.config.DataSourceRouting;
+import com.example.placesearch.config.ShardingProperties;
+import jakarta.annotation.PreDestroy;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * 在各分片上并行执行同一个只读查询。每个分片在独立线程、独立只读事务中执行，
+ * 线程上标记了分片名，连接由 ReadRoutingDataSource 取自对应分片的连接池。
+ * 全表扫描类任务（统计、索引构建）用 {@link #scanEach} 依次覆盖所有分片。
+ */
+@Component
+public class ShardFanOut {
+    private final ExecutorService executor;
+    private final TransactionTemplate readOnlyTransaction;
+    private final ShardRouter shardRouter;
+
+    public ShardFanOut(ShardingProperties properties, PlatformTransactionManager transactionManager,
+                       ShardRouter shardRouter) {
+        this.executor = Executors.newFixedThreadPool(Math.max(1, properties.getFanOutThreads()), runnable -> {
+            Thread thread = new Thread(runnable, "shard-fan-out");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.readOnlyTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.shardRouter = shardRouter;
+    }
+
+    /**
+     * 在当前线程上依次对每个分片执行 scan（未分片时执行一次，走副本的扫描连接池），
+     * 每次都在独立的只读事务中。scan 的参数为分片名，未分片时为 null；调用方负责合并各分片的结果。
+     */
+    public void scanEach(Consumer<String> scan) {
+        List<String> shards = shardRouter.isEnabled() ? shardRouter.shardNames() : Collections.singletonList(null);
+        for (String shard : shards) {
+            DataSourceRouting.withShard(shard, () ->
+                    readOnlyTransaction.execute(status ->
+                            DataSourceRouting.with(DataSourceRouting.Workload.SCAN, () -> {
+                                scan.accept(shard);
+                                return null;
+                            })));
+        }
+    }
+
+    /**
+     * 返回值与 shards 一一对应；任一分片失败则整体失败。
+     */
+    public <T> List<List<T>> execute(List<String> shards, Supplier<List<T>> query) {
+        List<CompletableFuture<List<T>>> futures = new ArrayList<>(shards.size());
+        QueryTrace trace = QueryTrace.current();
+        for (String shard : shards) {
+            futures.add(CompletableFuture.supplyAsync(() -> QueryTrace.with(trace, () ->
+                    DataSourceRouting.withShard(shard, () ->
+                            readOnlyTransaction.execute(status ->
+                                    DataSourceRouting.with(DataSourceRouting.Workload.SCAN, query)
+                            ))), executor));
+        }
+        List<List<T>> results = new ArrayList<>(shards.size());
+        try {
+            for (CompletableFuture<List<T>> future : futures) {
+                results.add(future.join());
+            }
+        } catch (CompletionException e) {
+            futures.forEach(future -> future.cancel(true));
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw e;
+        }
+        return results;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
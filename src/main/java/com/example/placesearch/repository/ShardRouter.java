@@ -0,0 +1,108 @@
+package com.example.placesearch.repository;
+
+import com.example.placesearch.config.ShardingProperties;
+import com.example.placesearch.entity.Code;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * regions 按省份（pcode）拆分到多个 MySQL 实例时，决定一次查询需要访问哪些分片：
+ * 城市查询只访问该城市所在省份的分片，范围查询访问外接矩形与查询范围相交的分片。
+ */
+@Component
+@Slf4j
+public class ShardRouter {
+    private static final String UNKNOWN_PROVINCE = "";
+
+    private final List<ShardingProperties.Shard> shards;
+    private final CodeDirectory codeDirectory;
+    private final Map<String, String> provinceByCity = new ConcurrentHashMap<>();
+
+    public ShardRouter(ShardingProperties properties, CodeDirectory codeDirectory) {
+        this.shards = properties.getShards().stream()
+                .filter(shard -> StringUtils.hasText(shard.getName()) && StringUtils.hasText(shard.getUrl()))
+                .toList();
+        this.codeDirectory = codeDirectory;
+    }
+
+    public boolean isEnabled() {
+        return !shards.isEmpty();
+    }
+
+    public List<String> shardNames() {
+        return shards.stream().map(ShardingProperties.Shard::getName).toList();
+    }
+
+    /**
+     * 写入时按省级 pcode 确定行所在的分片；pcode 为空或没有分片存放该省份时返回空。
+     */
+    public Optional<String> shardOfPcode(String pcode) {
+        if (pcode == null || pcode.length() < 2) {
+            return Optional.empty();
+        }
+        List<String> matched = shardsOfProvince(pcode.substring(0, 2) + "0000");
+        return matched.isEmpty() ? Optional.empty() : Optional.of(matched.get(0));
+    }
+
+    public List<String> route(RegionQuery query) {
+        String adminCode = query.getPcode() != null ? query.getPcode()
+                : query.getAdcodePrefix() != null ? query.getAdcodePrefix()
+                : query.getAdcode();
+        if (adminCode != null && adminCode.length() >= 2) {
+            List<String> matched = shardsOfProvince(adminCode.substring(0, 2) + "0000");
+            if (!matched.isEmpty()) {
+                return matched;
+            }
+            log.warn("无法确定行政区 {} 所在分片，查询全部分片", adminCode);
+        } else if (query.getCityname() != null) {
+            String province = provinceOfCity(query.getCityname());
+            if (!province.isEmpty()) {
+                List<String> matched = shardsOfProvince(province);
+                if (!matched.isEmpty()) {
+                    return matched;
+                }
+            }
+            log.warn("无法确定城市 {} 所在分片，查询全部分片", query.getCityname());
+        }
+
+        List<String> targets = new ArrayList<>();
+        for (ShardingProperties.Shard shard : shards) {
+            if (!query.hasBoundingBox() || !shard.hasBounds() || intersects(shard, query)) {
+                targets.add(shard.getName());
+            }
+        }
+        return targets;
+    }
+
+    private List<String> shardsOfProvince(String province) {
+        return shards.stream()
+                .filter(shard -> shard.getPcodes().contains(province))
+                .map(ShardingProperties.Shard::getName)
+                .toList();
+    }
+
+    // code 表的 adcode 为区县编码，前两位即省份
+    private String provinceOfCity(String cityname) {
+        return provinceByCity.computeIfAbsent(cityname, name -> {
+            Optional<Code> code = codeDirectory.findByCityname(name);
+            return code.map(Code::getAdcode)
+                    .filter(adcode -> adcode != null && adcode.length() >= 2)
+                    .map(adcode -> adcode.substring(0, 2) + "0000")
+                    .orElse(UNKNOWN_PROVINCE);
+        });
+    }
+
+    private static boolean intersects(ShardingProperties.Shard shard, RegionQuery query) {
+        return shard.getMinLon() <= query.getMaxLon()
+                && shard.getMaxLon() >= query.getMinLon()
+                && shard.getMinLat() <= query.getMaxLat()
+                && shard.getMaxLat() >= query.getMinLat();
+    }
+}
@@ -0,0 +1,7 @@
+package com.example.placesearch.repository;
+
+/**
+ * 按年份和类型编码分组的 POI 数量，category 为该类型编码对应的大类。
+ */
+public record YearTypeCount(int year, String typecode, String category, long count) {
+}
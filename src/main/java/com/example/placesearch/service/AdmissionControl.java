@@ -0,0 +1,128 @@
+package com.example.placesearch.service;
+
+import com.example.placesearch.config.AdmissionProperties;
+import com.example.placesearch.exception.AdmissionRejectedException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 基于预估代价的准入控制：
+ * <ul>
+ *     <li>预估行数超过 maxCost 的请求直接拒绝；</li>
+ *     <li>每个客户端的并发请求数受限，避免单个调用方占满连接池；</li>
+ *     <li>重请求需获取所在接口的许可，许可耗尽时短暂排队，超时后拒绝。</li>
+ * </ul>
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class AdmissionControl {
+    public static final String CODE_BUSY = "90001";
+    public static final String CODE_TOO_EXPENSIVE = "90002";
+    public static final String CODE_CLIENT_LIMIT = "90003";
+
+    private static final Permit NO_OP = () -> { };
+
+    private final AdmissionProperties properties;
+    private final DensityRollup densityRollup;
+
+    private final Map<String, Semaphore> heavyPermits = new ConcurrentHashMap<>();
+    // 每个客户端正在执行的请求数；归零时移除，条目数不超过同时在途的客户端数
+    private final Map<String, Integer> clientInFlight = new ConcurrentHashMap<>();
+
+    /**
+     * 矩形范围查询的预估行数；分页查询最多读取 offset + pageSize 行。
+     */
+    public long estimateAreaCost(double minLon, double maxLon, double minLat, double maxLat, Pageable pageable) {
+        double rows = densityRollup.estimateCount(minLon, maxLon, minLat, maxLat)
+                .orElseGet(() -> DensityRollup.areaKm2(minLon, maxLon, minLat, maxLat)
+                        * properties.getDefaultDensityPerKm2());
+        return capByPage((long) Math.ceil(rows), pageable);
+    }
+
+    public long estimateCityCost(String cityname, Pageable pageable) {
+        long rows = densityRollup.cityCount(cityname).orElse(properties.getDefaultCityRows());
+        return capByPage(rows, pageable);
+    }
+
+    /**
+     * 申请执行许可，被拒绝时抛出 {@link AdmissionRejectedException}。返回的许可必须在请求结束时关闭。
+     */
+    public Permit admit(String endpoint, String clientId, long estimatedCost) {
+        if (!properties.isEnabled()) {
+            return NO_OP;
+        }
+        if (estimatedCost > properties.getMaxCost()) {
+            log.warn("拒绝请求: endpoint={}, client={}, 预估 {} 行超过上限 {}",
+                    endpoint, clientId, estimatedCost, properties.getMaxCost());
+            throw new AdmissionRejectedException(CODE_TOO_EXPENSIVE,
+                    "请求范围过大（预估 " + estimatedCost + " 行），请缩小范围或使用分页");
+        }
+
+        String client = clientId == null ? "anonymous" : clientId;
+        if (!acquireClient(client)) {
+            log.warn("拒绝请求: client={} 并发请求数超过 {}", client, properties.getPermitsPerClient());
+            throw new AdmissionRejectedException(CODE_CLIENT_LIMIT, "并发请求过多，请稍后重试");
+        }
+
+        if (estimatedCost < properties.getHeavyCostThreshold()) {
+            return () -> releaseClient(client);
+        }
+
+        Semaphore endpointSemaphore = heavyPermits.computeIfAbsent(endpoint,
+                key -> new Semaphore(properties.getHeavyPermitsPerEndpoint(), true));
+        boolean acquired = false;
+        try {
+            acquired = endpointSemaphore.tryAcquire(properties.getHeavyQueueTimeoutMs(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (!acquired) {
+            releaseClient(client);
+            log.warn("拒绝请求: endpoint={} 重请求排队超时, 预估 {} 行", endpoint, estimatedCost);
+            throw new AdmissionRejectedException(CODE_BUSY, "服务繁忙，请稍后重试");
+        }
+        log.info("重请求获准执行: endpoint={}, client={}, 预估 {} 行", endpoint, client, estimatedCost);
+        return () -> {
+            endpointSemaphore.release();
+            releaseClient(client);
+        };
+    }
+
+    private boolean acquireClient(String client) {
+        boolean[] acquired = new boolean[1];
+        clientInFlight.compute(client, (key, inFlight) -> {
+            int current = inFlight == null ? 0 : inFlight;
+            if (current >= properties.getPermitsPerClient()) {
+                return inFlight;
+            }
+            acquired[0] = true;
+            return current + 1;
+        });
+        return acquired[0];
+    }
+
+    private void releaseClient(String client) {
+        clientInFlight.computeIfPresent(client, (key, inFlight) -> inFlight > 1 ? inFlight - 1 : null);
+    }
+
+    private static long capByPage(long rows, Pageable pageable) {
+        if (pageable == null || pageable.isUnpaged()) {
+            return rows;
+        }
+        return Math.min(rows, pageable.getOffset() + pageable.getPageSize());
+    }
+
+    @FunctionalInterface
+    public interface Permit extends AutoCloseable {
+        @Override
+        void close();
+    }
+}
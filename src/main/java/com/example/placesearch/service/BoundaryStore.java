@@ -0,0 +1,113 @@
+package com.example.placesearch.service;
+
+import com.example.placesearch.config.BoundaryProperties;
+import com.example.placesearch.geo.GeoArea;
+import com.example.placesearch.geo.GeoJsonAreas;
+import com.example.placesearch.geo.RasterizedArea;
+import com.example.placesearch.warmup.WarmStartParticipant;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * 本地行政区边界（GCJ-02 坐标），启动时解析并栅格化后常驻内存，按 adcode 直接取用，
+ * 检索时不再解析多边形，绝大多数点也不需要做射线法判断。边界来自本地文件，不写入预热快照。
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class BoundaryStore implements WarmStartParticipant {
+    private static final ObjectMapper JSON = new ObjectMapper();
+
+    private final BoundaryProperties properties;
+
+    private volatile Map<String, GeoArea> boundaries;
+
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    public boolean isLoaded() {
+        return boundaries != null;
+    }
+
+    /**
+     * 未启用、未加载或没有该行政区时返回空。
+     */
+    public Optional<GeoArea> find(String adcode) {
+        Map<String, GeoArea> current = boundaries;
+        return current == null ? Optional.empty() : Optional.ofNullable(current.get(adcode));
+    }
+
+    @Override
+    public void loadFull() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        long start = System.currentTimeMillis();
+        Path path = Path.of(properties.getPath());
+        List<Path> files;
+        try {
+            files = Files.isDirectory(path) ? listGeoJson(path) : List.of(path);
+        } catch (IOException e) {
+            throw new UncheckedIOException("无法读取行政区边界目录 " + path, e);
+        }
+        Map<String, GeoArea> loaded = new HashMap<>();
+        for (Path file : files) {
+            try {
+                load(JSON.readTree(file.toFile()), loaded);
+            } catch (IOException | IllegalArgumentException e) {
+                log.warn("行政区边界文件 {} 无法解析，已跳过: {}", file, e.getMessage());
+            }
+        }
+        this.boundaries = Map.copyOf(loaded);
+        log.info("行政区边界加载完成: {} 个文件, {} 个行政区, 耗时 {} ms",
+                files.size(), loaded.size(), System.currentTimeMillis() - start);
+    }
+
+    private static List<Path> listGeoJson(Path directory) throws IOException {
+        try (Stream<Path> entries = Files.list(directory)) {
+            return entries
+                    .filter(Files::isRegularFile)
+                    .filter(file -> {
+                        String name = file.getFileName().toString().toLowerCase(Locale.ROOT);
+                        return name.endsWith(".json") || name.endsWith(".geojson");
+                    })
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    // FeatureCollection 逐个 Feature 处理，单个 Feature 也可以直接作为文件内容
+    private void load(JsonNode node, Map<String, GeoArea> loaded) {
+        if ("FeatureCollection".equalsIgnoreCase(node.path("type").asText())) {
+            for (JsonNode feature : node.path("features")) {
+                load(feature, loaded);
+            }
+            return;
+        }
+        String adcode = node.path("properties").path("adcode").asText("");
+        if (adcode.isEmpty() || node.path("geometry").isMissingNode() || node.path("geometry").isNull()) {
+            return;
+        }
+        try {
+            GeoArea area = GeoJsonAreas.parse(node.path("geometry"), Integer.MAX_VALUE);
+            loaded.put(adcode, RasterizedArea.of(area, properties.getGridSize()));
+        } catch (IllegalArgumentException e) {
+            log.warn("行政区 {} 的边界无效，已跳过: {}", adcode, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.example.placesearch.service;
+
+import java.util.Locale;
+
+/**
+ * count 参数：是否返回命中总数以及统计方式。
+ * exact 总是执行 COUNT；auto 对城市查询精确统计（无类型/年份过滤时取城市汇总，标记为估算），
+ * 对周边/多边形查询按网格密度估算。
+ */
+public enum CountMode {
+    NONE,
+    ESTIMATE,
+    EXACT,
+    AUTO;
+
+    public static CountMode parse(String raw) {
+        if (raw == null || raw.isBlank()) {
+            return NONE;
+        }
+        try {
+            return valueOf(raw.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("count 仅支持 none、estimate、exact 或 auto");
+        }
+    }
+}
@@ -0,0 +1,235 @@
+package com.example.placesearch.service;
+
+import com.example.placesearch.config.RollupProperties;
+import com.example.placesearch.entity.Region;
+import com.example.placesearch.ingest.RegionChange;
+import com.example.placesearch.ingest.RegionChangeEvent;
+import com.example.placesearch.repository.ShardFanOut;
+import com.example.placesearch.util.LocationUtils;
+import com.example.placesearch.warmup.WarmStartParticipant;
+import com.example.placesearch.warmup.WarmStartSnapshot;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.OptionalDouble;
+import java.util.OptionalLong;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 按经纬度网格和城市汇总的 POI 数量，用于在执行查询前估算代价。
+ * 启动预热时从快照恢复或全量统计，加载完成前所有估算返回空；之后按 {@link RegionChangeEvent} 增量更新。
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class DensityRollup implements WarmStartParticipant {
+    private final JdbcTemplate jdbcTemplate;
+    private final RollupProperties properties;
+    private final ShardFanOut shardFanOut;
+
+    private volatile Snapshot snapshot;
+
+    @Override
+    public String snapshotSection() {
+        return properties.isEnabled() ? "density-rollup.v1" : null;
+    }
+
+    @Override
+    public boolean isSnapshotReady() {
+        return properties.isEnabled() && snapshot != null;
+    }
+
+    @Override
+    public void writeSnapshot(DataOutputStream out) throws IOException {
+        Snapshot current = snapshot;
+        out.writeDouble(current.cellSize);
+        // 先复制再写，避免与增量更新并发时条数和内容不一致
+        Map<Long, Long> cells = new HashMap<>(current.cellCounts);
+        out.writeInt(cells.size());
+        for (Map.Entry<Long, Long> entry : cells.entrySet()) {
+            out.writeLong(entry.getKey());
+            out.writeLong(entry.getValue());
+        }
+        Map<String, Long> cities = new HashMap<>(current.cityCounts);
+        out.writeInt(cities.size());
+        for (Map.Entry<String, Long> entry : cities.entrySet()) {
+            WarmStartSnapshot.writeString(out, entry.getKey());
+            out.writeLong(entry.getValue());
+        }
+    }
+
+    @Override
+    public void readSnapshot(ByteBuffer in) {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        double cellSize = in.getDouble();
+        if (cellSize != properties.getCellSizeDeg()) {
+            throw new IllegalStateException("网格边长已从 " + cellSize + " 改为 " + properties.getCellSizeDeg());
+        }
+        int cellCount = in.getInt();
+        Map<Long, Long> cellCounts = new ConcurrentHashMap<>(cellCount * 2);
+        for (int i = 0; i < cellCount; i++) {
+            cellCounts.put(in.getLong(), in.getLong());
+        }
+        int cityCount = in.getInt();
+        Map<String, Long> cityCounts = new ConcurrentHashMap<>(cityCount * 2);
+        for (int i = 0; i < cityCount; i++) {
+            cityCounts.put(WarmStartSnapshot.readString(in), in.getLong());
+        }
+        this.snapshot = new Snapshot(cellSize, cellCounts, cityCounts);
+        log.info("密度统计从快照恢复: {} 个网格, {} 个城市", cellCount, cityCount);
+    }
+
+    @Override
+    public void loadFull() {
+        if (properties.isEnabled()) {
+            reload();
+        }
+    }
+
+    /**
+     * 聚合需要扫描整张表，放在只读事务中走副本的扫描连接池；分片时逐个分片聚合后合并，
+     * 分片边界上的网格在多个分片中都有计数。
+     */
+    public void reload() {
+        long start = System.currentTimeMillis();
+        double cellSize = properties.getCellSizeDeg();
+        Map<Long, Long> cellCounts = new ConcurrentHashMap<>();
+        Map<String, Long> cityCounts = new ConcurrentHashMap<>();
+        shardFanOut.scanEach(shard -> loadShard(cellSize, cellCounts, cityCounts));
+        this.snapshot = new Snapshot(cellSize, cellCounts, cityCounts);
+        log.info("密度统计加载完成: {} 个网格, {} 个城市, 耗时 {} ms",
+                cellCounts.size(), cityCounts.size(), System.currentTimeMillis() - start);
+    }
+
+    private void loadShard(double cellSize, Map<Long, Long> cellCounts, Map<String, Long> cityCounts) {
+        jdbcTemplate.query(
+                "SELECT FLOOR(marlon / ?) AS cx, FLOOR(marlat / ?) AS cy, COUNT(*) AS cnt FROM regions "
+                        + "WHERE marlon IS NOT NULL AND marlat IS NOT NULL GROUP BY cx, cy",
+                rs -> {
+                    cellCounts.merge(cellKey(rs.getLong(1), rs.getLong(2)), rs.getLong(3), Long::sum);
+                },
+                cellSize,
+                cellSize
+        );
+        jdbcTemplate.query(
+                "SELECT cityname, COUNT(*) FROM regions WHERE cityname IS NOT NULL GROUP BY cityname",
+                rs -> {
+                    cityCounts.merge(rs.getString(1), rs.getLong(2), Long::sum);
+                }
+        );
+    }
+
+    /**
+     * 旧值所在网格/城市减一，新值加一。加载过程中到达的变更可能重复或遗漏计数，对代价估算没有影响。
+     */
+    @EventListener
+    public void onRegionChange(RegionChangeEvent event) {
+        Snapshot current = snapshot;
+        if (current == null) {
+            return;
+        }
+        for (RegionChange change : event.getChanges()) {
+            if (change.before() != null) {
+                current.add(change.before(), -1);
+            }
+            if (change.after() != null) {
+                current.add(change.after(), 1);
+            }
+        }
+    }
+
+    public boolean isLoaded() {
+        return snapshot != null;
+    }
+
+    /**
+     * 估算矩形范围内的 POI 数量，部分覆盖的网格按面积比例计入。
+     */
+    public OptionalDouble estimateCount(double minLon, double maxLon, double minLat, double maxLat) {
+        Snapshot current = snapshot;
+        if (current == null) {
+            return OptionalDouble.empty();
+        }
+        double size = current.cellSize;
+        long minX = (long) Math.floor(minLon / size);
+        long maxX = (long) Math.floor(maxLon / size);
+        long minY = (long) Math.floor(minLat / size);
+        long maxY = (long) Math.floor(maxLat / size);
+        double total = 0;
+        for (long x = minX; x <= maxX; x++) {
+            double overlapX = overlap(x * size, (x + 1) * size, minLon, maxLon) / size;
+            for (long y = minY; y <= maxY; y++) {
+                Long count = current.cellCounts.get(cellKey(x, y));
+                if (count == null) {
+                    continue;
+                }
+                double overlapY = overlap(y * size, (y + 1) * size, minLat, maxLat) / size;
+                total += count * overlapX * overlapY;
+            }
+        }
+        return OptionalDouble.of(total);
+    }
+
+    public OptionalLong cityCount(String cityname) {
+        Snapshot current = snapshot;
+        if (current == null || cityname == null) {
+            return OptionalLong.empty();
+        }
+        Long count = current.cityCounts.get(cityname);
+        return count == null ? OptionalLong.of(0) : OptionalLong.of(count);
+    }
+
+    /**
+     * 矩形面积（平方公里），用于无统计数据时按默认密度估算。
+     */
+    public static double areaKm2(double minLon, double maxLon, double minLat, double maxLat) {
+        double midLat = (minLat + maxLat) / 2;
+        double width = (maxLon - minLon) * LocationUtils.metersPerDegreeLon(midLat);
+        double height = (maxLat - minLat) * LocationUtils.METERS_PER_DEGREE_LAT;
+        return Math.max(0, width) * Math.max(0, height) / 1_000_000.0;
+    }
+
+    private static double overlap(double cellMin, double cellMax, double min, double max) {
+        return Math.max(0, Math.min(cellMax, max) - Math.max(cellMin, min));
+    }
+
+    private static long cellKey(long cellX, long cellY) {
+        return (cellX << 32) ^ (cellY & 0xffffffffL);
+    }
+
+    private record Snapshot(
+            double cellSize,
+            Map<Long, Long> cellCounts,
+            Map<String, Long> cityCounts
+    ) {
+        void add(Region region, long delta) {
+            if (region.getMarlon() != null && region.getMarlat() != null) {
+                long key = cellKey((long) Math.floor(region.getMarlon() / cellSize),
+                        (long) Math.floor(region.getMarlat() / cellSize));
+                adjust(cellCounts, key, delta);
+            }
+            if (region.getCityname() != null) {
+                adjust(cityCounts, region.getCityname(), delta);
+            }
+        }
+
+        // 减量只作用于已有的键，计数归零时移除；快照之外的行被删除时不会留下负数
+        private static <K> void adjust(Map<K, Long> counts, K key, long delta) {
+            if (delta > 0) {
+                counts.merge(key, delta, Long::sum);
+            } else {
+                counts.computeIfPresent(key, (k, count) -> count + delta > 0 ? count + delta : null);
+            }
+        }
+    }
+}
@@ -0,0 +1,338 @@
+package com.example.placesearch.service;
+
+import com.example.placesearch.config.DataSourceRouting;
+import com.example.placesearch.config.HotAreaProperties;
+import com.example.placesearch.entity.Region;
+import com.example.placesearch.geo.CoordinateSystem;
+import com.example.placesearch.geo.GeoArea;
+import com.example.placesearch.geo.SearchArea;
+import com.example.placesearch.ingest.RegionChange;
+import com.example.placesearch.ingest.RegionChangeEvent;
+import com.example.placesearch.repository.RegionColumn;
+import com.example.placesearch.repository.RegionQuery;
+import com.example.placesearch.repository.RegionRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * 高频查询范围的候选列表。按范围统计查询次数，一个窗口内达到阈值的范围在后台一次取回范围内所有行的
+ * id、年份和类型编码（多边形同时记录是否在区域内），之后同一范围的检索只在内存中过滤和分页，
+ * 再按 id 取回本页的行。范围内的 POI 发生变更时候选列表失效并在后台重建，重建完成前走正常查询。
+ */
+@Component
+@Slf4j
+public class HotAreaCache {
+    // 计数表中最多跟踪的范围数，超过后本窗口内的新范围不再计数
+    private static final int MAX_TRACKED = 10_000;
+    // 变更判断时外扩的边距（度），覆盖 GCJ-02 与 WGS-84 之间的偏移
+    private static final double CHANGE_MARGIN_DEG = 0.01;
+    private static final long BUILD_TIMEOUT_MS = 30_000;
+
+    private final HotAreaProperties properties;
+    private final RegionRepository regionRepository;
+    private final ExecutorService builder;
+
+    private final Map<String, AtomicInteger> hits = new ConcurrentHashMap<>();
+    private final Map<String, HotArea> areas = new ConcurrentHashMap<>();
+    // 候选行过多的范围，本窗口内不再尝试
+    private final Set<String> rejected = ConcurrentHashMap.newKeySet();
+    private volatile long windowStart = System.currentTimeMillis();
+
+    public HotAreaCache(HotAreaProperties properties, RegionRepository regionRepository) {
+        this.properties = properties;
+        this.regionRepository = regionRepository;
+        this.builder = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "hot-area-builder");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    public static String aroundKey(CoordinateSystem coordsys, double lon, double lat, double radius) {
+        return String.format(Locale.US, "around:%s:%.6f,%.6f,%.1f", coordsys, lon, lat, radius);
+    }
+
+    // 多边形 WKT 可能很长，用摘要作为键
+    public static String polygonKey(CoordinateSystem coordsys, SearchArea area) {
+        String wkt = area.include().wkt() + "|" + (area.exclude() == null ? "" : area.exclude().wkt());
+        return "polygon:" + coordsys + ":" + UUID.nameUUIDFromBytes(wkt.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * 记录一次对该范围的查询，候选列表已就绪时返回。未开启时不计算键（多边形键需要生成 WKT 并求摘要），
+     * footprint 只在范围首次变为热点时调用。
+     */
+    public Optional<Candidates> lookup(Supplier<String> keySupplier, Supplier<Footprint> footprint) {
+        if (!properties.isEnabled()) {
+            return Optional.empty();
+        }
+        String key = keySupplier.get();
+        long now = System.currentTimeMillis();
+        rollWindow(now);
+        HotArea area = areas.get(key);
+        if (area != null) {
+            area.lastHit = now;
+            Candidates candidates = area.candidates;
+            return area.stale || candidates == null ? Optional.empty() : Optional.of(candidates);
+        }
+        if (countHit(key) >= properties.getMinHits() && !rejected.contains(key)) {
+            promote(key, footprint.get(), now);
+        }
+        return Optional.empty();
+    }
+
+    public int size() {
+        return areas.size();
+    }
+
+    private synchronized void rollWindow(long now) {
+        if (now - windowStart >= properties.getWindowMs()) {
+            hits.clear();
+            rejected.clear();
+            windowStart = now;
+        }
+    }
+
+    private int countHit(String key) {
+        AtomicInteger counter = hits.get(key);
+        if (counter == null) {
+            if (hits.size() >= MAX_TRACKED) {
+                return 0;
+            }
+            counter = hits.computeIfAbsent(key, k -> new AtomicInteger());
+        }
+        return counter.incrementAndGet();
+    }
+
+    // 已满时淘汰一个本窗口内未被查询的范围，没有可淘汰的则暂不缓存
+    private synchronized void promote(String key, Footprint footprint, long now) {
+        if (areas.containsKey(key)) {
+            return;
+        }
+        if (areas.size() >= properties.getMaxAreas()) {
+            Optional<Map.Entry<String, HotArea>> idlest = areas.entrySet().stream()
+                    .min((a, b) -> Long.compare(a.getValue().lastHit, b.getValue().lastHit));
+            if (idlest.isEmpty() || now - idlest.get().getValue().lastHit < properties.getWindowMs()) {
+                return;
+            }
+            areas.remove(idlest.get().getKey());
+        }
+        HotArea area = new HotArea(footprint, now);
+        areas.put(key, area);
+        log.info("范围 {} 成为热点，开始预先计算候选列表", key);
+        scheduleBuild(key, area);
+    }
+
+    private void scheduleBuild(String key, HotArea area) {
+        if (area.building.compareAndSet(0, 1)) {
+            builder.execute(() -> build(key, area));
+        }
+    }
+
+    private void build(String key, HotArea area) {
+        long version = area.version.get();
+        long start = System.currentTimeMillis();
+        try {
+            Footprint footprint = area.footprint;
+            RegionQuery query = footprint.query().get();
+            EnumSet<RegionColumn> columns = EnumSet.of(RegionColumn.ID, RegionColumn.TIMESTAMP, RegionColumn.TYPECODE,
+                    RegionColumn.MARLON, RegionColumn.MARLAT);
+            if (footprint.coordsys() == CoordinateSystem.WGS84) {
+                columns.add(RegionColumn.WGS84LON);
+                columns.add(RegionColumn.WGS84LAT);
+            }
+            query.setCoordinateSystem(footprint.coordsys());
+            query.setColumns(columns);
+            query.setOrderById(true);
+            query.setPageable(PageRequest.of(0, properties.getMaxCandidates() + 1));
+            query.setTimeoutMs(BUILD_TIMEOUT_MS);
+            // 后台计算走扫描连接池，不占用在线查询的连接
+            List<Region> rows = DataSourceRouting.with(DataSourceRouting.Workload.SCAN, () -> regionRepository.search(query));
+            if (rows.size() > properties.getMaxCandidates()) {
+                log.info("热点范围 {} 候选超过 {} 行，不缓存", key, properties.getMaxCandidates());
+                areas.remove(key, area);
+                rejected.add(key);
+                return;
+            }
+            area.candidates = new Candidates(rows, footprint.area(), footprint.coordsys());
+            log.info("热点范围 {} 候选列表就绪: {} 行, 耗时 {} ms", key, rows.size(), System.currentTimeMillis() - start);
+        } catch (RuntimeException e) {
+            log.warn("热点范围 {} 候选列表计算失败: {}", key, e.getMessage());
+            areas.remove(key, area);
+            return;
+        } finally {
+            area.building.set(0);
+        }
+        // 计算期间范围内有变更时结果可能缺少这些变更，重新计算
+        if (area.version.get() != version) {
+            scheduleBuild(key, area);
+        } else {
+            area.stale = false;
+        }
+    }
+
+    @EventListener
+    public void onRegionChange(RegionChangeEvent event) {
+        if (areas.isEmpty()) {
+            return;
+        }
+        areas.forEach((key, area) -> {
+            for (RegionChange change : event.getChanges()) {
+                if (area.touches(change.before()) || area.touches(change.after())) {
+                    area.version.incrementAndGet();
+                    area.stale = true;
+                    scheduleBuild(key, area);
+                    return;
+                }
+            }
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        builder.shutdownNow();
+    }
+
+    /**
+     * 范围的候选查询（只含空间条件）；area 为多边形区域，around 为空。
+     */
+    public record Footprint(Supplier<RegionQuery> query, SearchArea area, CoordinateSystem coordsys,
+                            GeoArea.Bounds bounds) {
+    }
+
+    private static final class HotArea {
+        private final Footprint footprint;
+        private final AtomicLong version = new AtomicLong();
+        private final AtomicInteger building = new AtomicInteger();
+        private volatile Candidates candidates;
+        private volatile boolean stale = true;
+        private volatile long lastHit;
+
+        private HotArea(Footprint footprint, long now) {
+            this.footprint = footprint;
+            this.lastHit = now;
+        }
+
+        private boolean touches(Region region) {
+            if (region == null || region.getMarlon() == null || region.getMarlat() == null) {
+                return false;
+            }
+            GeoArea.Bounds bounds = footprint.bounds();
+            return region.getMarlon() >= bounds.minLon() - CHANGE_MARGIN_DEG
+                    && region.getMarlon() <= bounds.maxLon() + CHANGE_MARGIN_DEG
+                    && region.getMarlat() >= bounds.minLat() - CHANGE_MARGIN_DEG
+                    && region.getMarlat() <= bounds.maxLat() + CHANGE_MARGIN_DEG;
+        }
+    }
+
+    /**
+     * 按 id 排序的候选行。inside 标记多边形精筛结果，around 的候选全部为 true。
+     */
+    public static final class Candidates {
+        private static final int NO_YEAR = Integer.MIN_VALUE;
+
+        private final String[] ids;
+        private final int[] years;
+        private final String[] typecodes;
+        private final BitSet inside;
+
+        private Candidates(List<Region> rows, SearchArea area, CoordinateSystem coordsys) {
+            int size = rows.size();
+            this.ids = new String[size];
+            this.years = new int[size];
+            this.typecodes = new String[size];
+            this.inside = new BitSet(size);
+            for (int i = 0; i < size; i++) {
+                Region region = rows.get(i);
+                ids[i] = region.getId();
+                years[i] = region.getTimestamp() == null ? NO_YEAR : region.getTimestamp().getYear();
+                typecodes[i] = region.getTypecode() == null ? null : region.getTypecode().intern();
+                if (area == null) {
+                    inside.set(i);
+                } else {
+                    Double lon = coordsys.lon(region);
+                    Double lat = coordsys.lat(region);
+                    inside.set(i, lon != null && lat != null && area.contains(lon, lat));
+                }
+            }
+        }
+
+        public int size() {
+            return ids.length;
+        }
+
+        /**
+         * 过滤年份（整年边界，[yearStart, yearEnd)）和类型后分页。分页作用于过滤后的候选行，
+         * 与 SQL 路径一致；返回的 ids 只含区域内的行，total 为过滤后区域内的总行数。
+         */
+        public Page page(LocalDateTime yearStart, LocalDateTime yearEnd, Collection<String> typeCodes,
+                         Pageable pageable) {
+            int fromYear = yearStart == null ? NO_YEAR : yearStart.getYear();
+            int toYearExclusive = yearEnd == null ? Integer.MAX_VALUE : yearEnd.getYear();
+            boolean yearFiltered = yearStart != null || yearEnd != null;
+            Set<String> types = typeCodes == null || typeCodes.isEmpty() ? null : new HashSet<>(typeCodes);
+            long offset = pageable.isPaged() ? pageable.getOffset() : 0;
+            long limit = pageable.isPaged() ? pageable.getPageSize() : Long.MAX_VALUE;
+
+            List<String> pageIds = new ArrayList<>();
+            long matched = 0;
+            long total = 0;
+            boolean hasMore = false;
+            for (int i = 0; i < ids.length; i++) {
+                if (yearFiltered && (years[i] == NO_YEAR || years[i] < fromYear || years[i] >= toYearExclusive)) {
+                    continue;
+                }
+                if (types != null && !types.contains(typecodes[i])) {
+                    continue;
+                }
+                boolean in = inside.get(i);
+                if (in) {
+                    total++;
+                }
+                long index = matched++;
+                if (index < offset) {
+                    continue;
+                }
+                if (index - offset < limit) {
+                    if (in) {
+                        pageIds.add(ids[i]);
+                    }
+                } else {
+                    hasMore = true;
+                }
+            }
+            return new Page(pageIds, hasMore, total);
+        }
+    }
+
+    public record Page(List<String> ids, boolean hasMore, long total) {
+    }
+}
@@ -0,0 +1,427 @@
+package com.example.placesearch.service;
+
+import com.example.placesearch.dto.request.DiffRequest;
+import com.example.placesearch.dto.response.DiffResponse;
+import com.example.placesearch.dto.response.PoiResponse;
+import com.example.placesearch.entity.Code;
+import com.example.placesearch.entity.Region;
+import com.example.placesearch.exception.AdmissionRejectedException;
+import com.example.placesearch.exception.SearchTimeoutException;
+import com.example.placesearch.geo.CoordinateSystem;
+import com.example.placesearch.geo.GeoArea;
+import com.example.placesearch.geo.SearchArea;
+import com.example.placesearch.repository.CodeDirectory;
+import com.example.placesearch.repository.RegionColumn;
+import com.example.placesearch.repository.RegionQuery;
+import com.example.placesearch.repository.RegionRepository;
+import com.example.placesearch.util.Deadline;
+import com.example.placesearch.util.LocationUtils;
+import com.example.placesearch.util.PoiNameUtils;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * 同一范围内两个年份的 POI 对比。regions 以 id 为主键，同一 id 不会同时出现在两个年份，
+ * 两年的 POI 按名称+位置对应。两年的数据各自按 id 顺序分页流式读取，内存中只保留起始年份一侧。
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class PlaceDiffService {
+    private static final int STREAM_PAGE_SIZE = 2000;
+    private static final int DEFAULT_LIMIT = 50;
+    private static final int MAX_LIMIT = 1000;
+    // 按名称对应时位置取整到 1e-4 度（约 10 米）
+    private static final double NAME_MATCH_SCALE = 1e4;
+    private static final String UNCATEGORIZED = "未分类";
+    private static final Set<RegionColumn> COLUMNS = EnumSet.of(
+            RegionColumn.ID, RegionColumn.NAME, RegionColumn.TYPECODE, RegionColumn.ADDRESS,
+            RegionColumn.CATEGORY_LARGE, RegionColumn.CATEGORY_MEDIUM, RegionColumn.CATEGORY_SMALL,
+            RegionColumn.MARLON, RegionColumn.MARLAT, RegionColumn.WGS84LON, RegionColumn.WGS84LAT,
+            RegionColumn.TIMESTAMP);
+
+    private final RegionRepository regionRepository;
+    private final CodeDirectory codeDirectory;
+    private final AdmissionControl admissionControl;
+
+    public DiffResponse diff(DiffRequest request, Deadline deadline) {
+        log.info("===== 开始处理年份对比请求 =====");
+        DiffResponse response = new DiffResponse();
+        AdmissionControl.Permit permit = null;
+
+        try {
+            log.info("原始请求参数: {}", request);
+
+            if (request.getFromYear() == null || request.getToYear() == null) {
+                response.setError("60001", "缺少必要参数: from_year或to_year");
+                return response;
+            }
+            if (request.getFromYear().equals(request.getToYear())) {
+                response.setError("60006", "from_year 与 to_year 不能相同");
+                return response;
+            }
+            String match = request.getMatch() == null ? "" : request.getMatch().trim().toLowerCase(Locale.ROOT);
+            if (!match.isEmpty() && !match.equals("name")) {
+                response.setError("60006", "match 仅支持 name");
+                return response;
+            }
+            int limit = request.getLimit() == null ? DEFAULT_LIMIT : request.getLimit();
+            if (limit < 0 || limit > MAX_LIMIT) {
+                response.setError("60006", "limit 需在 0 到 " + MAX_LIMIT + " 之间");
+                return response;
+            }
+
+            final CoordinateSystem coordsys;
+            try {
+                coordsys = CoordinateSystem.parse(request.getCoordsys());
+            } catch (IllegalArgumentException e) {
+                response.setError("60004", e.getMessage());
+                return response;
+            }
+            List<String> typeCodes = PlaceService.parseTypeCodes(request.getTypes());
+
+            // 范围条件：每次读取新的一页都基于同一模板生成查询
+            final Supplier<RegionQuery> template;
+            final SearchArea area;
+            final long cost;
+            if (StringUtils.hasText(request.getLocation()) && request.getRadius() != null) {
+                double[] center;
+                try {
+                    center = parseLocation(request.getLocation());
+                } catch (IllegalArgumentException e) {
+                    response.setError("60002", e.getMessage());
+                    return response;
+                }
+                double radius = request.getRadius();
+                double[] bbox = LocationUtils.boundingBox(center[0], center[1], radius);
+                area = null;
+                template = () -> new RegionQuery()
+                        .around(center[0], center[1], radius)
+                        .boundingBox(bbox[0], bbox[1], bbox[2], bbox[3]);
+                cost = admissionControl.estimateAreaCost(bbox[0], bbox[1], bbox[2], bbox[3], Pageable.unpaged());
+            } else if (StringUtils.hasText(request.getCityName()) || StringUtils.hasText(request.getCityCode())) {
+                String cityname = request.getCityName();
+                if (!StringUtils.hasText(cityname)) {
+                    Optional<Code> code = codeDirectory.findByCitycode(request.getCityCode());
+                    if (code.isEmpty()) {
+                        response.setError("60007", "无效的城市编码: " + request.getCityCode());
+                        return response;
+                    }
+                    cityname = code.get().getCityname();
+                }
+                String city = cityname;
+                area = null;
+                template = () -> {
+                    RegionQuery query = new RegionQuery();
+                    query.setCityname(city);
+                    return query;
+                };
+                cost = admissionControl.estimateCityCost(city, Pageable.unpaged());
+            } else if (StringUtils.hasText(request.getPolygon()) || !SearchArea.isBlank(request.getGeometry())) {
+                try {
+                    area = SearchArea.parse(request.getPolygon(), request.getGeometry(), null);
+                } catch (IllegalArgumentException e) {
+                    response.setError("60002", e.getMessage());
+                    return response;
+                }
+                GeoArea.Bounds bounds = area.bounds();
+                template = () -> {
+                    RegionQuery query = new RegionQuery()
+                            .boundingBox(bounds.minLon(), bounds.maxLon(), bounds.minLat(), bounds.maxLat());
+                    if (area.parts().size() > 1) {
+                        query.setBoundingBoxes(area.parts());
+                    }
+                    return query;
+                };
+                cost = admissionControl.estimateAreaCost(
+                        bounds.minLon(), bounds.maxLon(), bounds.minLat(), bounds.maxLat(), Pageable.unpaged());
+            } else {
+                response.setError("60001", "缺少范围参数: location+radius、cityName/cityCode 或 polygon/geometry");
+                return response;
+            }
+
+            // 两个年份各读一遍
+            permit = admissionControl.admit("diff", request.getClientId(), cost * 2);
+
+            Supplier<RegionQuery> filtered = () -> {
+                RegionQuery query = template.get();
+                query.setCoordinateSystem(coordsys);
+                query.setTypeCodes(typeCodes);
+                return query;
+            };
+            YearStream from = new YearStream(filtered, request.getFromYear(), area, coordsys, deadline);
+            YearStream to = new YearStream(filtered, request.getToYear(), area, coordsys, deadline);
+            DiffCollector collector = new DiffCollector(limit, coordsys);
+            diffByName(from, to, collector);
+            collector.fill(response);
+            response.setFromYear(request.getFromYear());
+            response.setToYear(request.getToYear());
+            log.info("年份对比完成: 新增 {}, 消失 {}, 变化 {}, 未变 {}",
+                    response.getOpened(), response.getClosed(), response.getChanged(), response.getUnchanged());
+        } catch (SearchTimeoutException | QueryTimeoutException e) {
+            log.error("查询超时: {}", deadline, e);
+            response.setError("60005", "查询超时: 超过 " + deadline.timeoutMillis() + " ms");
+        } catch (AdmissionRejectedException e) {
+            response.setError(e.getCode(), e.getMessage());
+        } catch (Exception e) {
+            log.error("服务器发生未知错误", e);
+            response.setError("60003", "服务器错误: " + e.getMessage());
+        } finally {
+            if (permit != null) {
+                permit.close();
+            }
+        }
+
+        log.info("===== 年份对比处理完成 =====");
+        return response;
+    }
+
+    // 同一年份内名称和位置相同的多条 POI 依次对应
+    private static void diffByName(YearStream from, YearStream to, DiffCollector collector) {
+        Map<String, ArrayDeque<Region>> previous = new HashMap<>();
+        for (Region region = from.next(); region != null; region = from.next()) {
+            previous.computeIfAbsent(nameKey(region), key -> new ArrayDeque<>(1)).add(region);
+        }
+        for (Region region = to.next(); region != null; region = to.next()) {
+            ArrayDeque<Region> candidates = previous.get(nameKey(region));
+            Region before = candidates == null ? null : candidates.poll();
+            if (before == null) {
+                collector.opened(region);
+            } else {
+                collector.compare(before, region);
+            }
+        }
+        previous.values().forEach(remaining -> remaining.forEach(collector::closed));
+    }
+
+    private static String nameKey(Region region) {
+        String name = PoiNameUtils.normalizeText(region.getName());
+        if (name.isEmpty() || region.getMarlon() == null || region.getMarlat() == null) {
+            return "id:" + region.getId();
+        }
+        return name + "|" + Math.round(region.getMarlon() * NAME_MATCH_SCALE)
+                + "," + Math.round(region.getMarlat() * NAME_MATCH_SCALE);
+    }
+
+    private static double[] parseLocation(String location) {
+        String[] coords = location.split(",");
+        if (coords.length != 2) {
+            throw new IllegalArgumentException("location格式不正确，应为: 经度,纬度");
+        }
+        try {
+            return new double[]{Double.parseDouble(coords[0].trim()), Double.parseDouble(coords[1].trim())};
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("经纬度格式不正确");
+        }
+    }
+
+    /**
+     * 按 id 键集分页读取一个年份的数据，每次只保留一页；多边形范围在这里做点面判断。
+     */
+    private final class YearStream {
+        private final Supplier<RegionQuery> template;
+        private final LocalDateTime yearStart;
+        private final SearchArea area;
+        private final CoordinateSystem coordsys;
+        private final Deadline deadline;
+        private List<Region> page = List.of();
+        private int index;
+        private String afterId;
+        private boolean exhausted;
+
+        YearStream(Supplier<RegionQuery> template, int year, SearchArea area, CoordinateSystem coordsys,
+                   Deadline deadline) {
+            this.template = template;
+            this.yearStart = LocalDateTime.of(year, 1, 1, 0, 0, 0);
+            this.area = area;
+            this.coordsys = coordsys;
+            this.deadline = deadline;
+        }
+
+        Region next() {
+            while (true) {
+                while (index < page.size()) {
+                    Region region = page.get(index++);
+                    if (area == null || inside(region)) {
+                        return region;
+                    }
+                }
+                if (exhausted) {
+                    return null;
+                }
+                fetch();
+            }
+        }
+
+        private boolean inside(Region region) {
+            Double lon = coordsys.lon(region);
+            Double lat = coordsys.lat(region);
+            return lon != null && lat != null && area.contains(lon, lat);
+        }
+
+        private void fetch() {
+            long remaining = deadline.remainingMillis();
+            if (remaining <= 0) {
+                throw new SearchTimeoutException("截止时间已到，停止读取");
+            }
+            RegionQuery query = template.get();
+            query.setYearStart(yearStart);
+            query.setYearEnd(yearStart.plusYears(1));
+            query.setOrderById(true);
+            query.setAfterId(afterId);
+            query.setPageable(PageRequest.of(0, STREAM_PAGE_SIZE));
+            query.setColumns(COLUMNS);
+            query.setTimeoutMs(remaining);
+            page = regionRepository.search(query);
+            index = 0;
+            exhausted = page.size() < STREAM_PAGE_SIZE;
+            if (!page.isEmpty()) {
+                afterId = page.get(page.size() - 1).getId();
+            }
+        }
+    }
+
+    private static final class DiffCollector {
+        private final int limit;
+        private final CoordinateSystem coordsys;
+        private long opened;
+        private long closed;
+        private long changed;
+        private long unchanged;
+        private final List<PoiResponse> openedPois = new ArrayList<>();
+        private final List<PoiResponse> closedPois = new ArrayList<>();
+        private final List<DiffResponse.ChangedPoi> changedPois = new ArrayList<>();
+        // 大类 -> {新增, 消失}
+        private final Map<String, long[]> categories = new HashMap<>();
+
+        DiffCollector(int limit, CoordinateSystem coordsys) {
+            this.limit = limit;
+            this.coordsys = coordsys;
+        }
+
+        void opened(Region region) {
+            opened++;
+            category(region)[0]++;
+            if (openedPois.size() < limit) {
+                openedPois.add(toPoi(region));
+            }
+        }
+
+        void closed(Region region) {
+            closed++;
+            category(region)[1]++;
+            if (closedPois.size() < limit) {
+                closedPois.add(toPoi(region));
+            }
+        }
+
+        // 名称和位置是对应条件，只比较其余字段
+        void compare(Region before, Region after) {
+            List<String> fields = new ArrayList<>(2);
+            if (!Objects.equals(before.getTypecode(), after.getTypecode())) {
+                fields.add("typecode");
+            }
+            if (!Objects.equals(before.getAddress(), after.getAddress())) {
+                fields.add("address");
+            }
+            if (fields.isEmpty()) {
+                unchanged++;
+                return;
+            }
+            changed++;
+            // 类别变化时旧类别记一次消失、新类别记一次新增
+            String beforeCategory = categoryName(before);
+            String afterCategory = categoryName(after);
+            if (!beforeCategory.equals(afterCategory)) {
+                categories.computeIfAbsent(beforeCategory, key -> new long[2])[1]++;
+                categories.computeIfAbsent(afterCategory, key -> new long[2])[0]++;
+            }
+            if (changedPois.size() < limit) {
+                DiffResponse.ChangedPoi poi = new DiffResponse.ChangedPoi();
+                poi.setBefore(toPoi(before));
+                poi.setAfter(toPoi(after));
+                poi.setFields(fields);
+                changedPois.add(poi);
+            }
+        }
+
+        void fill(DiffResponse response) {
+            response.setOpened(opened);
+            response.setClosed(closed);
+            response.setChanged(changed);
+            response.setUnchanged(unchanged);
+            response.setOpenedPois(openedPois);
+            response.setClosedPois(closedPois);
+            response.setChangedPois(changedPois);
+            List<DiffResponse.CategoryChange> changes = new ArrayList<>(categories.size());
+            categories.forEach((name, counts) -> {
+                DiffResponse.CategoryChange change = new DiffResponse.CategoryChange();
+                change.setCategory(name);
+                change.setOpened(counts[0]);
+                change.setClosed(counts[1]);
+                change.setNet(counts[0] - counts[1]);
+                changes.add(change);
+            });
+            changes.sort(Comparator.comparingLong((DiffResponse.CategoryChange change) -> Math.abs(change.getNet()))
+                    .reversed()
+                    .thenComparing(DiffResponse.CategoryChange::getCategory));
+            response.setCategories(changes);
+        }
+
+        private long[] category(Region region) {
+            return categories.computeIfAbsent(categoryName(region), key -> new long[2]);
+        }
+
+        private static String categoryName(Region region) {
+            return StringUtils.hasText(region.getCategoryLarge()) ? region.getCategoryLarge() : UNCATEGORIZED;
+        }
+
+        private PoiResponse toPoi(Region region) {
+            PoiResponse poi = new PoiResponse();
+            poi.setId(region.getId());
+            poi.setName(region.getName());
+            String typecode = region.getTypecode();
+            if (typecode != null && typecode.length() < 6 && typecode.chars().allMatch(Character::isDigit)) {
+                typecode = String.format("%06d", Integer.parseInt(typecode));
+            }
+            poi.setTypecode(typecode);
+            poi.setType(String.join(";",
+                    Objects.toString(region.getCategoryLarge(), ""),
+                    Objects.toString(region.getCategoryMedium(), ""),
+                    Objects.toString(region.getCategorySmall(), "")));
+            poi.setAddress(region.getAddress());
+            Double lon = coordsys.lon(region);
+            Double lat = coordsys.lat(region);
+            if ((lon == null || lat == null) && coordsys == CoordinateSystem.WGS84
+                    && region.getMarlon() != null && region.getMarlat() != null) {
+                double[] wgs84 = LocationUtils.gcj02ToWgs84(region.getMarlon(), region.getMarlat());
+                lon = wgs84[0];
+                lat = wgs84[1];
+            }
+            poi.setLocation(lon == null || lat == null ? "null,null" : lon + "," + lat);
+            if (region.getTimestamp() != null) {
+                poi.setYear(String.valueOf(region.getTimestamp().getYear()));
+            }
+            return poi;
+        }
+    }
+}
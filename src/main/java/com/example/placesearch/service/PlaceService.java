@@ -1,36 +1,63 @@
 package com.example.placesearch.service;
 
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.example.placesearch.config.KeywordIndexProperties;
+import com.example.placesearch.config.SearchProperties;
+import com.example.placesearch.diagnostics.SlowQueryRecorder;
 import com.example.placesearch.dto.request.AroundSearchRequest;
 import com.example.placesearch.dto.request.CitySearchRequest;
+import com.example.placesearch.dto.request.CorridorSearchRequest;
 import com.example.placesearch.dto.request.PolygonSearchRequest;
+import com.example.placesearch.dto.response.PoiField;
 import com.example.placesearch.dto.response.PoiResponse;
 import com.example.placesearch.dto.response.SearchResponse;
 import com.example.placesearch.entity.Code;
 import com.example.placesearch.entity.Region;
-import com.example.placesearch.repository.CodeRepository;
+import com.example.placesearch.exception.AdmissionRejectedException;
+import com.example.placesearch.exception.SearchTimeoutException;
+import com.example.placesearch.geo.AdminCode;
+import com.example.placesearch.geo.CoordinateSystem;
+import com.example.placesearch.geo.Corridor;
+import com.example.placesearch.geo.GeoArea;
+import com.example.placesearch.geo.SearchArea;
+import com.example.placesearch.index.KeywordIndex;
+import com.example.placesearch.repository.CodeDirectory;
+import com.example.placesearch.repository.RegionColumn;
+import com.example.placesearch.repository.RegionQuery;
 import com.example.placesearch.repository.RegionRepository;
+import com.example.placesearch.util.ConcurrencyUtils;
+import com.example.placesearch.util.Deadline;
 import com.example.placesearch.util.LocationUtils;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.QueryTimeoutException;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.util.StringUtils;
 
-import java.io.IOException;
+import java.time.DateTimeException;
 import java.time.LocalDateTime;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Set;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.LinkedHashSet;
-import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
-import java.util.HashSet;
-import java.util.Set;
-import java.util.regex.Pattern;
+import java.util.OptionalDouble;
+import java.util.OptionalLong;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 @Service
@@ -38,17 +65,26 @@ import java.util.stream.Collectors;
 @Slf4j
 public class PlaceService {
     private final RegionRepository regionRepository;
-    private final CodeRepository codeRepository;
-    private static final ObjectMapper JSON = new ObjectMapper();
+    private final CodeDirectory codeDirectory;
+    private final SearchProperties searchProperties;
+    private final ForkJoinPool searchForkJoinPool;
+    private final PoiDeduplicator poiDeduplicator;
+    private final AdmissionControl admissionControl;
+    private final DensityRollup densityRollup;
+    private final KeywordIndex keywordIndex;
+    private final KeywordIndexProperties keywordIndexProperties;
+    private final BoundaryStore boundaryStore;
+    private final HotAreaCache hotAreaCache;
+    private final SlowQueryRecorder slowQueryRecorder;
     private static final int POLYGON_PAGE_SIZE_CAP = 5000;
-    private static final Pattern PARKING_SUFFIX_PATTERN = Pattern.compile(
-            "(停车场)?(出入口|入口|出口|东门|西门|南门|北门|[A-Za-z]口|\\d+号口)$"
-    );
-    private static final double PARKING_DEDUP_DISTANCE_M = 90.0;
+    // 抽稀容差上限（米），过大的容差会明显改变区域形状
+    private static final double MAX_SIMPLIFY_METERS = 1000;
 
-    public SearchResponse searchAround(AroundSearchRequest request) {
+    public SearchResponse searchAround(AroundSearchRequest request, Deadline deadline) {
         log.info("===== 开始处理搜索请求 =====");
         SearchResponse response = new SearchResponse();
+        AdmissionControl.Permit permit = null;
+        SlowQueryRecorder.Capture capture = slowQueryRecorder.begin("around", request);
 
         try {
             log.info("原始请求参数: {}", request);
@@ -71,7 +107,15 @@ public class PlaceService {
             double radius;
             float centerLon;
             float centerLat;
-            YearRange yearRange = buildYearRange(request.getYear());
+            final YearRange yearRange;
+            try {
+                yearRange = buildYearRange(request.getYear(), request.getYearFrom(), request.getYearTo());
+            } catch (IllegalArgumentException e) {
+                response.setError("10010", e.getMessage());
+                log.error("年份参数无效: year={}, year_from={}, year_to={}",
+                        request.getYear(), request.getYearFrom(), request.getYearTo());
+                return response;
+            }
             try {
                 centerLon = Float.parseFloat(coords[0]);
                 centerLat = Float.parseFloat(coords[1]);
@@ -83,38 +127,106 @@ public class PlaceService {
                 return response;
             }
 
-            log.info("搜索半径: {} 米", radius);
+            final CoordinateSystem coordsys;
+            try {
+                coordsys = CoordinateSystem.parse(request.getCoordsys());
+            } catch (IllegalArgumentException e) {
+                response.setError("10005", e.getMessage());
+                log.error("coordsys 参数无效: {}", request.getCoordsys());
+                return response;
+            }
+
+            final Set<PoiField> fields;
+            try {
+                fields = PoiField.parse(request.getFields());
+            } catch (IllegalArgumentException e) {
+                response.setError("10007", e.getMessage());
+                log.error("fields 参数无效: {}", request.getFields());
+                return response;
+            }
+            response.setFields(fields);
+
+            final CountMode countMode;
+            try {
+                countMode = CountMode.parse(request.getCount());
+            } catch (IllegalArgumentException e) {
+                response.setError("10008", e.getMessage());
+                log.error("count 参数无效: {}", request.getCount());
+                return response;
+            }
+
+            final List<String> keywordTerms;
+            try {
+                keywordTerms = parseKeywords(request.getKeywords());
+            } catch (IllegalArgumentException e) {
+                response.setError("10009", e.getMessage());
+                log.error("keywords 参数无效: {}", request.getKeywords());
+                return response;
+            }
+
+            log.info("搜索半径: {} 米, 坐标系: {}", radius, coordsys);
+            // 中心点与查询列使用同一坐标系，wgs84 直接查预先计算好的 wgs84lon/wgs84lat 列
             final double queryLon = centerLon;
             final double queryLat = centerLat;
 
-//            double[] wgs84Center = LocationUtils.gcj02ToWgs84(centerLon, centerLat);
-//            final float queryLon = (float) wgs84Center[0];
-//            final float queryLat = (float) wgs84Center[1];
-//            log.info("GCJ-02转WGS84后经纬度: lon={}, lat={}", queryLon, queryLat);
-
             // 处理类型参数
             List<String> typeCodesParam = parseTypeCodes(request.getTypes());
-            boolean typeCodesEmpty = (typeCodesParam == null || typeCodesParam.isEmpty());
-            Integer pageSizeParam = request.getPageSize();
-            int pageSize = pageSizeParam == null || pageSizeParam <= 0 ? 25 : pageSizeParam;
-            int pageNum = request.getPageNum() == null || request.getPageNum() <= 0 ? 1 : request.getPageNum();
-            Pageable pageable = pageSizeParam != null && pageSizeParam == -1
-                    ? Pageable.unpaged()
-                    : PageRequest.of(pageNum - 1, pageSize);
+            Pageable pageable = resolvePageable(request.getPageSize(), request.getPageNum());
 
-            // 执行查询
-            log.info("开始执行数据库查询...");
-            List<Region> results = regionRepository.findAround(
-                    queryLon,
-                    queryLat,
-                    radius,
-                    yearRange.start,
-                    yearRange.end,
-                    typeCodesParam,
-                    typeCodesEmpty,
-                    pageable
-            );
-            log.info("数据库查询完成，返回 {} 条结果", results.size());
+            // 先用外接矩形粗筛，球面距离只对矩形内的行计算
+            double[] bbox = LocationUtils.boundingBox(queryLon, queryLat, radius);
+            RegionQuery query = new RegionQuery()
+                    .around(queryLon, queryLat, radius)
+                    .boundingBox(bbox[0], bbox[1], bbox[2], bbox[3]);
+            query.setCoordinateSystem(coordsys);
+            query.setYearStart(yearRange.start);
+            query.setYearEnd(yearRange.end);
+            query.setTypeCodes(typeCodesParam);
+            query.setPageable(pageable);
+            query.setColumns(projection(fields, coordsys, false, Boolean.TRUE.equals(request.getDedupe())));
+            query.setFetchExtraRow(pageable.isPaged());
+
+            // 关键词命中先限定到查询范围内，再按上限判断
+            final KeywordFilter keywords;
+            try {
+                keywords = matchKeywords(keywordTerms, query);
+            } catch (IllegalArgumentException | IllegalStateException e) {
+                response.setError("10009", e.getMessage());
+                log.error("keywords 参数无效: {}", request.getKeywords());
+                return response;
+            }
+            applyKeywords(query, keywords);
+
+            HotAreaCache.Candidates hot = keywords != null ? null : hotAreaCache.lookup(
+                    () -> HotAreaCache.aroundKey(coordsys, queryLon, queryLat, radius),
+                    () -> new HotAreaCache.Footprint(
+                            () -> new RegionQuery()
+                                    .around(queryLon, queryLat, radius)
+                                    .boundingBox(bbox[0], bbox[1], bbox[2], bbox[3]),
+                            null, coordsys, new GeoArea.Bounds(bbox[0], bbox[1], bbox[2], bbox[3]))
+            ).orElse(null);
+
+            List<Region> results;
+            if (hot != null) {
+                permit = admissionControl.admit("around", request.getClientId(), hotCost(hot, pageable));
+                results = searchHotArea(hot, query, pageable, countMode, response, deadline);
+                log.info("热点范围命中，返回 {} 条结果", results.size());
+            } else {
+                permit = admissionControl.admit("around", request.getClientId(), keywordCap(
+                        admissionControl.estimateAreaCost(bbox[0], bbox[1], bbox[2], bbox[3], pageable), keywords));
+                // 热点候选列表按 id 顺序分页，可能变热的查询同样按 id 排序，范围变热前后翻页顺序一致
+                query.setOrderById(keywords == null && hotAreaCache.isEnabled());
+
+                // 执行查询
+                log.info("开始执行数据库查询...");
+                results = trimExtraRow(executeQuery(query, deadline), pageable, response);
+                log.info("数据库查询完成，返回 {} 条结果", results.size());
+                // 圆面积约为外接矩形的 π/4
+                applyCount(response, countMode, false, query, deadline, () -> scale(
+                        densityRollup.estimateCount(bbox[0], bbox[1], bbox[2], bbox[3]), Math.PI / 4));
+                slowQueryRecorder.mark("count");
+            }
+            results = dedupeIfRequested(results, request.getDedupe());
 
             if (results.isEmpty()) {
                 log.warn("未找到匹配的地点");
@@ -123,114 +235,216 @@ public class PlaceService {
             }
 
             // 转换结果
-            List<PoiResponse> pois = results.stream().map(region -> {
-                try {
-                    // 构建响应对象
-                    PoiResponse poi = new PoiResponse();
-                    poi.setId(region.getId());
-                    poi.setName(region.getName());
-
-                    // 处理typecode，补零到6位
-                    String typecode = region.getTypecode();
-                    if (typecode != null && typecode.length() < 6) {
-                        typecode = String.format("%06d", Integer.parseInt(typecode));
-                    }
-                    poi.setTypecode(typecode);
-
-                    poi.setType(String.join(";",
-                            region.getCategoryLarge(),
-                            region.getCategoryMedium(),
-                            region.getCategorySmall()));
-                    poi.setAddress(region.getAddress());
-                    poi.setPname(region.getPname());
-                    poi.setCityname(region.getCityname());
-                    poi.setAdname(region.getAdname());
-                    poi.setAdcode(region.getAdcode());
-                    poi.setLocation(region.getMarlon() + "," + region.getMarlat());
-
-                    // 计算实际距离（欧几里得距离）
-                    Double poiLon = region.getMarlon();
-                    Double poiLat = region.getMarlat();
-                    double distance = LocationUtils.haversineMeters(queryLon, queryLat, poiLon, poiLat);
-                    // 转换为字符串，距离取整（米）
-                    poi.setDistance(String.valueOf(Math.round(distance)));
-
-                    if (region.getTimestamp() != null) {
-                        // 直接使用LocalDateTime的getYear()方法
-                        poi.setYear(String.valueOf(region.getTimestamp().getYear()));
-                    }
-
-                    return poi;
-                } catch (Exception e) {
-                    log.error("结果转换失败", e);
-                    throw new RuntimeException("结果转换异常", e);
-                }
-            }).collect(Collectors.toList());
+            OutputCoordinates output = resolveOutputCoordinates(results, coordsys);
+            List<PoiResponse> pois = new ArrayList<>(results.size());
+            for (int i = 0; i < results.size(); i++) {
+                // 计算实际距离（球面距离），文本格式取整（米）
+                Double distance = output.present[i]
+                        ? LocationUtils.haversineMeters(queryLon, queryLat, output.lons[i], output.lats[i])
+                        : null;
+                pois.add(toPoiResponse(results.get(i), output, i, distance, fields));
+            }
 
             log.info("结果转换完成，共生成 {} 个 POI", pois.size());
             response.setPois(pois);
 
+        } catch (SearchTimeoutException | QueryTimeoutException e) {
+            log.error("查询超时: {}", deadline, e);
+            response.setError("10006", "查询超时: 超过 " + deadline.timeoutMillis() + " ms");
+        } catch (AdmissionRejectedException e) {
+            response.setError(e.getCode(), e.getMessage());
         } catch (Exception e) {
             log.error("服务器发生未知错误", e);
             response.setError("10004", "服务器错误: " + e.getMessage());
+        } finally {
+            if (permit != null) {
+                permit.close();
+            }
+            slowQueryRecorder.finish(capture, response);
         }
 
         log.info("===== 请求处理完成 =====");
         return response;
     }
 
-    public SearchResponse searchByCity(CitySearchRequest request) {
+    public SearchResponse searchByCity(CitySearchRequest request, Deadline deadline) {
         log.info("===== 开始处理城市搜索请求 =====");
         SearchResponse response = new SearchResponse();
+        AdmissionControl.Permit permit = null;
+        SlowQueryRecorder.Capture capture = slowQueryRecorder.begin("city", request);
 
         try {
             log.info("原始请求参数: {}", request);
 
             // 参数验证
-            if (!StringUtils.hasText(request.getCityName()) && !StringUtils.hasText(request.getCityCode())) {
-                response.setError("20001", "缺少必要参数: cityName或cityCode");
-                log.error("参数验证失败: cityName 和 cityCode 为空");
+            if (!StringUtils.hasText(request.getCityName()) && !StringUtils.hasText(request.getCityCode())
+                    && !StringUtils.hasText(request.getAdcode())) {
+                response.setError("20001", "缺少必要参数: cityName、cityCode或adcode");
+                log.error("参数验证失败: cityName、cityCode 和 adcode 为空");
                 return response;
             }
 
-            YearRange yearRange = buildYearRange(request.getYear());
+            final CoordinateSystem coordsys;
+            try {
+                coordsys = CoordinateSystem.parse(request.getCoordsys());
+            } catch (IllegalArgumentException e) {
+                response.setError("20004", e.getMessage());
+                log.error("coordsys 参数无效: {}", request.getCoordsys());
+                return response;
+            }
+
+            final Set<PoiField> fields;
+            try {
+                fields = PoiField.parse(request.getFields());
+            } catch (IllegalArgumentException e) {
+                response.setError("20006", e.getMessage());
+                log.error("fields 参数无效: {}", request.getFields());
+                return response;
+            }
+            response.setFields(fields);
+
+            final CountMode countMode;
+            try {
+                countMode = CountMode.parse(request.getCount());
+            } catch (IllegalArgumentException e) {
+                response.setError("20007", e.getMessage());
+                log.error("count 参数无效: {}", request.getCount());
+                return response;
+            }
+
+            final List<String> keywordTerms;
+            try {
+                keywordTerms = parseKeywords(request.getKeywords());
+            } catch (IllegalArgumentException e) {
+                response.setError("20008", e.getMessage());
+                log.error("keywords 参数无效: {}", request.getKeywords());
+                return response;
+            }
+
+            final YearRange yearRange;
+            try {
+                yearRange = buildYearRange(request.getYear(), request.getYearFrom(), request.getYearTo());
+            } catch (IllegalArgumentException e) {
+                response.setError("20009", e.getMessage());
+                log.error("年份参数无效: year={}, year_from={}, year_to={}",
+                        request.getYear(), request.getYearFrom(), request.getYearTo());
+                return response;
+            }
             List<String> typeCodesParam = parseTypeCodes(request.getTypes());
-            Integer pageSizeParam = request.getPageSize();
-            int pageSize = pageSizeParam == null || pageSizeParam <= 0 ? 25 : pageSizeParam;
-            int pageNum = request.getPageNum() == null || request.getPageNum() <= 0 ? 1 : request.getPageNum();
-            Pageable pageable = pageSizeParam != null && pageSizeParam == -1
-                    ? Pageable.unpaged()
-                    : PageRequest.of(pageNum - 1, pageSize);
+            Pageable pageable = resolvePageable(request.getPageSize(), request.getPageNum());
 
-            String cityname = request.getCityName();
-            if (StringUtils.hasText(cityname)) {
-                log.info("跳过查询code，搜索条件: cityname={}, year={}, types={}", cityname, request.getYear(), typeCodesParam);
-            } else {
-                String citycode = request.getCityCode();
-                log.info("搜索条件: citycode={}, year={}, types={}", citycode, request.getYear(), typeCodesParam);
-
-                // 验证citycode是否存在
-                Optional<Code> codeOpt = codeRepository.findFirstByCitycode(citycode);
-                if (codeOpt.isEmpty()) {
-                    response.setError("20002", "无效的城市编码: " + citycode);
-                    log.error("无效的城市编码: {}", citycode);
+            RegionQuery query = new RegionQuery();
+            String cityname = null;
+            AdminCode adminCode = null;
+            GeoArea boundary = null;
+            if (StringUtils.hasText(request.getAdcode())) {
+                try {
+                    adminCode = AdminCode.parse(request.getAdcode());
+                } catch (IllegalArgumentException e) {
+                    response.setError("20010", e.getMessage());
+                    log.error("adcode 参数无效: {}", request.getAdcode());
                     return response;
                 }
+                // 按 pcode/adcode 索引过滤，不需要解析边界或做点面判断
+                query.adminArea(adminCode);
+                if (Boolean.TRUE.equals(request.getClip())) {
+                    if (!boundaryStore.isEnabled()) {
+                        response.setError("20011", "未开启行政区边界，不支持 clip");
+                        return response;
+                    }
+                    Optional<GeoArea> found = boundaryStore.find(adminCode.code());
+                    if (found.isEmpty()) {
+                        response.setError("20011", "未找到行政区边界: " + adminCode.code());
+                        log.error("未找到行政区边界: {}", adminCode.code());
+                        return response;
+                    }
+                    boundary = found.get();
+                }
+                log.info("搜索条件: adcode={}, level={}, clip={}, types={}",
+                        adminCode.code(), adminCode.level(), boundary != null, typeCodesParam);
+            } else {
+                cityname = request.getCityName();
+                if (StringUtils.hasText(cityname)) {
+                    log.info("跳过查询code，搜索条件: cityname={}, year={}, types={}", cityname, request.getYear(), typeCodesParam);
+                } else {
+                    String citycode = request.getCityCode();
+                    log.info("搜索条件: citycode={}, year={}, types={}", citycode, request.getYear(), typeCodesParam);
 
-                cityname = codeOpt.get().getCityname();
-                log.info("找到城市: citycode={}, cityname={}", citycode, cityname);
+                    // 验证citycode是否存在
+                    Optional<Code> codeOpt = codeDirectory.findByCitycode(citycode);
+                    if (codeOpt.isEmpty()) {
+                        response.setError("20002", "无效的城市编码: " + citycode);
+                        log.error("无效的城市编码: {}", citycode);
+                        return response;
+                    }
+
+                    cityname = codeOpt.get().getCityname();
+                    log.info("找到城市: citycode={}, cityname={}", citycode, cityname);
+                }
+                query.setCityname(cityname);
             }
 
+            query.setYearStart(yearRange.start);
+            query.setYearEnd(yearRange.end);
+            query.setTypeCodes(typeCodesParam);
+            query.setPageable(pageable);
+            query.setColumns(projection(fields, coordsys, boundary != null, Boolean.TRUE.equals(request.getDedupe())));
+            query.setFetchExtraRow(pageable.isPaged());
+
+            // 关键词命中先限定到查询范围内，再按上限判断
+            final KeywordFilter keywords;
+            try {
+                keywords = matchKeywords(keywordTerms, query);
+            } catch (IllegalArgumentException | IllegalStateException e) {
+                response.setError("20008", e.getMessage());
+                log.error("keywords 参数无效: {}", request.getKeywords());
+                return response;
+            }
+            applyKeywords(query, keywords);
+
+            // 行政区检索的代价：有边界时按边界外接矩形估算，否则按所属城市估算（省级使用默认值）
+            String costCity = cityname;
+            if (adminCode != null && adminCode.level() != AdminCode.Level.PROVINCE) {
+                costCity = codeDirectory.findByAdcodePrefix(adminCode.level() == AdminCode.Level.CITY
+                        ? adminCode.cityPrefix() : adminCode.code()).map(Code::getCityname).orElse(null);
+            }
+            GeoArea.Bounds boundaryBounds = boundary == null ? null : boundary.bounds();
+            long cost = boundaryBounds != null
+                    ? admissionControl.estimateAreaCost(boundaryBounds.minLon(), boundaryBounds.maxLon(),
+                            boundaryBounds.minLat(), boundaryBounds.maxLat(), pageable)
+                    : admissionControl.estimateCityCost(costCity, pageable);
+            permit = admissionControl.admit("city", request.getClientId(), keywordCap(cost, keywords));
+
             // 执行查询
-            List<Region> results = regionRepository.findByCityAndFilters(
-                    cityname,
-                    yearRange.start,
-                    yearRange.end,
-                    typeCodesParam,
-                    pageable
-            );
+            List<Region> results = trimExtraRow(executeQuery(query, deadline), pageable, response);
 
             log.info("数据库查询完成，返回 {} 条结果", results.size());
+            // 区县级没有对应的城市统计，只有地级行政区和城市检索使用城市总数作为估算
+            String countCity = adminCode == null ? cityname
+                    : adminCode.level() == AdminCode.Level.CITY ? costCity : null;
+            if (boundary != null && countMode != CountMode.NONE) {
+                // 精确统计交给 MySQL 按边界做点面判断；边界为 GCJ-02 坐标
+                query.setCoordinateSystem(CoordinateSystem.GCJ02);
+                query.setPolygonWkt(boundary.wkt());
+            }
+            applyCount(response, countMode, true, query, deadline, () -> {
+                OptionalLong cityCount = densityRollup.cityCount(countCity);
+                return cityCount.isPresent() ? OptionalDouble.of(cityCount.getAsLong()) : OptionalDouble.empty();
+            });
+            slowQueryRecorder.mark("count");
+            if (boundary != null) {
+                // 分页作用于 adcode 命中的行，has_more 也按这些行判断
+                AtomicBoolean cancelled = new AtomicBoolean(false);
+                results = filterInsidePolygon(results, new SearchArea(boundary, null), CoordinateSystem.GCJ02,
+                        deadline, cancelled);
+                slowQueryRecorder.mark("pip");
+                log.info("行政区边界精筛完成，命中 {} 条结果", results.size());
+                if (cancelled.get()) {
+                    response.setPartial(true);
+                    log.warn("行政区边界精筛超过截止时间 {}，返回部分结果", deadline);
+                }
+            }
+            results = dedupeIfRequested(results, request.getDedupe());
 
             if (results.isEmpty()) {
                 log.warn("未找到匹配的地点");
@@ -238,126 +452,213 @@ public class PlaceService {
                 return response;
             }
 
-            // 转换结果（与searchAround方法保持一致）
-            List<PoiResponse> pois = results.stream().map(region -> {
-                try {
-                    // 构建响应对象
-                    PoiResponse poi = new PoiResponse();
-                    poi.setId(region.getId());
-                    poi.setName(region.getName());
-
-                    // 处理typecode，补零到6位
-                    String typecode = region.getTypecode();
-                    if (typecode != null && typecode.length() < 6) {
-                        typecode = String.format("%06d", Integer.parseInt(typecode));
-                    }
-                    poi.setTypecode(typecode);
-
-                    poi.setType(String.join(";",
-                            region.getCategoryLarge(),
-                            region.getCategoryMedium(),
-                            region.getCategorySmall()));
-                    poi.setAddress(region.getAddress());
-                    poi.setPname(region.getPname());
-                    poi.setCityname(region.getCityname());
-                    poi.setAdname(region.getAdname());
-                    poi.setAdcode(region.getAdcode());
-                    poi.setLocation(region.getMarlon() + "," + region.getMarlat());
-                    poi.setDistance("");  // 城市查询不计算距离
-
-                    if (region.getTimestamp() != null) {
-                        // 直接使用LocalDateTime的getYear()方法
-                        poi.setYear(String.valueOf(region.getTimestamp().getYear()));
-                    }
-
-                    return poi;
-                } catch (Exception e) {
-                    log.error("结果转换失败", e);
-                    throw new RuntimeException("结果转换异常", e);
-                }
-            }).collect(Collectors.toList());
+            // 转换结果（与searchAround方法保持一致），城市查询不计算距离
+            OutputCoordinates output = resolveOutputCoordinates(results, coordsys);
+            List<PoiResponse> pois = new ArrayList<>(results.size());
+            for (int i = 0; i < results.size(); i++) {
+                pois.add(toPoiResponse(results.get(i), output, i, null, fields));
+            }
 
             log.info("结果转换完成，共生成 {} 个 POI", pois.size());
             response.setPois(pois);
 
+        } catch (SearchTimeoutException | QueryTimeoutException e) {
+            log.error("查询超时: {}", deadline, e);
+            response.setError("20005", "查询超时: 超过 " + deadline.timeoutMillis() + " ms");
+        } catch (AdmissionRejectedException e) {
+            response.setError(e.getCode(), e.getMessage());
         } catch (Exception e) {
             log.error("服务器发生未知错误", e);
             response.setError("20003", "服务器错误: " + e.getMessage());
+        } finally {
+            if (permit != null) {
+                permit.close();
+            }
+            slowQueryRecorder.finish(capture, response);
         }
 
         log.info("===== 请求处理完成 =====");
         return response;
     }
 
-    public SearchResponse searchByPolygon(PolygonSearchRequest request) {
+    public SearchResponse searchByPolygon(PolygonSearchRequest request, Deadline deadline) {
         log.info("===== 开始处理多边形搜索请求 =====");
         SearchResponse response = new SearchResponse();
+        AdmissionControl.Permit permit = null;
+        SlowQueryRecorder.Capture capture = slowQueryRecorder.begin("polygon", request);
 
         try {
             log.info("原始请求参数: {}", request);
 
-            if (!StringUtils.hasText(request.getPolygon())) {
-                response.setError("30001", "缺少必要参数: polygon");
-                log.error("参数验证失败: polygon 为空");
+            if (!StringUtils.hasText(request.getPolygon()) && SearchArea.isBlank(request.getGeometry())) {
+                response.setError("30001", "缺少必要参数: polygon或geometry");
+                log.error("参数验证失败: polygon 和 geometry 为空");
+                return response;
+            }
+
+            if (request.getSimplify() != null
+                    && !(request.getSimplify() > 0 && request.getSimplify() <= MAX_SIMPLIFY_METERS)) {
+                response.setError("30010", "simplify 需大于 0 且不超过 " + (int) MAX_SIMPLIFY_METERS + " 米");
+                log.error("simplify 参数无效: {}", request.getSimplify());
                 return response;
             }
 
-            final PolygonBounds polygonBounds;
+            SearchArea parsed;
             try {
-                polygonBounds = buildPolygonBounds(request.getPolygon());
+                parsed = SearchArea.parse(request.getPolygon(), request.getGeometry(), request.getExclude());
             } catch (IllegalArgumentException e) {
                 response.setError("30002", e.getMessage());
-                log.error("polygon 参数无效: {}", request.getPolygon());
+                log.error("polygon/geometry 参数无效: polygon={}, geometry={}, exclude={}",
+                        request.getPolygon(), request.getGeometry(), request.getExclude());
                 return response;
             }
+            final SearchArea area = request.getSimplify() == null ? parsed : parsed.simplify(request.getSimplify());
+            GeoArea.Bounds bounds = area.bounds();
             log.info(
-                    "polygon bounds: lon=[{}, {}], lat=[{}, {}]",
-                    polygonBounds.minLon,
-                    polygonBounds.maxLon,
-                    polygonBounds.minLat,
-                    polygonBounds.maxLat
+                    "polygon bounds: lon=[{}, {}], lat=[{}, {}], parts={}, exclude={}",
+                    bounds.minLon(),
+                    bounds.maxLon(),
+                    bounds.minLat(),
+                    bounds.maxLat(),
+                    area.parts().size(),
+                    area.exclude() != null
             );
 
+            final CoordinateSystem coordsys;
+            try {
+                coordsys = CoordinateSystem.parse(request.getCoordsys());
+            } catch (IllegalArgumentException e) {
+                response.setError("30004", e.getMessage());
+                log.error("coordsys 参数无效: {}", request.getCoordsys());
+                return response;
+            }
+
+            final Set<PoiField> fields;
+            try {
+                fields = PoiField.parse(request.getFields());
+            } catch (IllegalArgumentException e) {
+                response.setError("30006", e.getMessage());
+                log.error("fields 参数无效: {}", request.getFields());
+                return response;
+            }
+            response.setFields(fields);
+
+            final CountMode countMode;
+            try {
+                countMode = CountMode.parse(request.getCount());
+            } catch (IllegalArgumentException e) {
+                response.setError("30007", e.getMessage());
+                log.error("count 参数无效: {}", request.getCount());
+                return response;
+            }
+
+            final List<String> keywordTerms;
+            try {
+                keywordTerms = parseKeywords(request.getKeywords());
+            } catch (IllegalArgumentException e) {
+                response.setError("30008", e.getMessage());
+                log.error("keywords 参数无效: {}", request.getKeywords());
+                return response;
+            }
+
             List<String> typeCodesParam = parseTypeCodes(request.getTypes());
-            boolean typeCodesEmpty = (typeCodesParam == null || typeCodesParam.isEmpty());
-            YearRange yearRange = buildYearRange(request.getYear());
-
-            Integer pageSizeParam = request.getPageSize();
-            int pageSize;
-            if (pageSizeParam != null && pageSizeParam == -1) {
-                pageSize = POLYGON_PAGE_SIZE_CAP;
-            } else if (pageSizeParam == null || pageSizeParam <= 0) {
-                pageSize = 25;
-            } else if (pageSizeParam > POLYGON_PAGE_SIZE_CAP) {
-                pageSize = POLYGON_PAGE_SIZE_CAP;
-            } else {
-                pageSize = pageSizeParam;
-            }
-            int pageNum = request.getPageNum() == null || request.getPageNum() <= 0 ? 1 : request.getPageNum();
-            Pageable pageable = PageRequest.of(pageNum - 1, pageSize);
-            if (pageSizeParam != null && pageSizeParam == -1) {
-                log.info("polygon page_size=-1 detected, capped to {}", pageSize);
-            }
-
-            List<Region> bboxCandidates = regionRepository.findByBoundingBox(
-                    polygonBounds.minLon,
-                    polygonBounds.maxLon,
-                    polygonBounds.minLat,
-                    polygonBounds.maxLat,
-                    yearRange.start,
-                    yearRange.end,
-                    typeCodesParam,
-                    typeCodesEmpty,
-                    pageable
+            final YearRange yearRange;
+            try {
+                yearRange = buildYearRange(request.getYear(), request.getYearFrom(), request.getYearTo());
+            } catch (IllegalArgumentException e) {
+                response.setError("30009", e.getMessage());
+                log.error("年份参数无效: year={}, year_from={}, year_to={}",
+                        request.getYear(), request.getYearFrom(), request.getYearTo());
+                return response;
+            }
+
+            Pageable pageable = resolvePolygonPageable(request.getPageSize(), request.getPageNum());
+            if (request.getPageSize() != null && request.getPageSize() == -1) {
+                log.info("polygon page_size=-1 detected, capped to {}", pageable.getPageSize());
+            }
+
+            RegionQuery query = new RegionQuery().boundingBox(
+                    bounds.minLon(),
+                    bounds.maxLon(),
+                    bounds.minLat(),
+                    bounds.maxLat()
             );
-            log.info("bbox 查询完成，返回 {} 条候选结果", bboxCandidates.size());
+            if (area.parts().size() > 1) {
+                // 多个部分共用一次候选查询，按各自外接矩形 OR 合并
+                query.setBoundingBoxes(area.parts());
+            }
+            query.setCoordinateSystem(coordsys);
+            query.setYearStart(yearRange.start);
+            query.setYearEnd(yearRange.end);
+            query.setTypeCodes(typeCodesParam);
+            query.setPageable(pageable);
+            query.setColumns(projection(fields, coordsys, true, true));
+            query.setFetchExtraRow(true);
 
-            List<Region> insidePolygon = bboxCandidates.stream()
-                    .filter(region -> pointInPolygon(region.getMarlon(), region.getMarlat(), polygonBounds.vertices))
-                    .collect(Collectors.toList());
-            log.info("polygon 精筛完成，命中 {} 条结果", insidePolygon.size());
+            // 关键词命中先限定到查询范围内，再按上限判断
+            final KeywordFilter keywords;
+            try {
+                keywords = matchKeywords(keywordTerms, query);
+            } catch (IllegalArgumentException | IllegalStateException e) {
+                response.setError("30008", e.getMessage());
+                log.error("keywords 参数无效: {}", request.getKeywords());
+                return response;
+            }
+            applyKeywords(query, keywords);
+
+            HotAreaCache.Candidates hot = keywords != null ? null : hotAreaCache.lookup(
+                    () -> HotAreaCache.polygonKey(coordsys, area),
+                    () -> new HotAreaCache.Footprint(() -> {
+                        RegionQuery candidateQuery = new RegionQuery().boundingBox(
+                                bounds.minLon(), bounds.maxLon(), bounds.minLat(), bounds.maxLat());
+                        if (area.parts().size() > 1) {
+                            candidateQuery.setBoundingBoxes(area.parts());
+                        }
+                        return candidateQuery;
+                    }, area, coordsys, bounds)
+            ).orElse(null);
+
+            List<Region> insidePolygon;
+            if (hot != null) {
+                // 候选列表已标记是否在区域内，无需精筛
+                permit = admissionControl.admit("polygon", request.getClientId(), hotCost(hot, pageable));
+                insidePolygon = searchHotArea(hot, query, pageable, countMode, response, deadline);
+                log.info("热点范围命中，返回 {} 条结果", insidePolygon.size());
+            } else {
+                permit = admissionControl.admit("polygon", request.getClientId(), keywordCap(
+                        admissionControl.estimateAreaCost(
+                                bounds.minLon(),
+                                bounds.maxLon(),
+                                bounds.minLat(),
+                                bounds.maxLat(),
+                                pageable
+                        ), keywords));
+                query.setOrderById(keywords == null && hotAreaCache.isEnabled());
+
+                // 分页作用于外接矩形内的候选行，has_more 也按候选行判断
+                List<Region> bboxCandidates = trimExtraRow(executeQuery(query, deadline), pageable, response);
+                log.info("bbox 查询完成，返回 {} 条候选结果", bboxCandidates.size());
+                if (countMode != CountMode.NONE) {
+                    // 精确统计交给 MySQL 做点面判断
+                    query.setPolygonWkt(area.include().wkt());
+                    query.setExcludeWkt(area.exclude() == null ? null : area.exclude().wkt());
+                    applyCount(response, countMode, false, query, deadline, () -> scale(
+                            densityRollup.estimateCount(bounds.minLon(), bounds.maxLon(),
+                                    bounds.minLat(), bounds.maxLat()), area.coverage()));
+                    slowQueryRecorder.mark("count");
+                }
+
+                AtomicBoolean cancelled = new AtomicBoolean(false);
+                insidePolygon = filterInsidePolygon(bboxCandidates, area, coordsys, deadline, cancelled);
+                slowQueryRecorder.mark("pip");
+                log.info("polygon 精筛完成，命中 {} 条结果", insidePolygon.size());
+                if (cancelled.get()) {
+                    response.setPartial(true);
+                    log.warn("polygon 精筛超过截止时间 {}，返回部分结果", deadline);
+                }
+            }
 
-            List<Region> dedupedResults = dedupePolygonRegions(insidePolygon);
+            List<Region> dedupedResults = poiDeduplicator.dedupe(insidePolygon);
             int removed = Math.max(0, insidePolygon.size() - dedupedResults.size());
             if (removed > 0) {
                 log.info("多边形去重完成: 原始 {} -> 去重后 {} (移除 {})", insidePolygon.size(), dedupedResults.size(), removed);
@@ -368,200 +669,471 @@ public class PlaceService {
                 return response;
             }
 
-            List<PoiResponse> pois = dedupedResults.stream().map(region -> {
-                try {
-                    PoiResponse poi = new PoiResponse();
-                    poi.setId(region.getId());
-                    poi.setName(region.getName());
-
-                    String typecode = region.getTypecode();
-                    if (typecode != null && typecode.length() < 6) {
-                        typecode = String.format("%06d", Integer.parseInt(typecode));
-                    }
-                    poi.setTypecode(typecode);
-                    poi.setType(String.join(";",
-                            region.getCategoryLarge(),
-                            region.getCategoryMedium(),
-                            region.getCategorySmall()));
-                    poi.setAddress(region.getAddress());
-                    poi.setPname(region.getPname());
-                    poi.setCityname(region.getCityname());
-                    poi.setAdname(region.getAdname());
-                    poi.setAdcode(region.getAdcode());
-                    poi.setLocation(region.getMarlon() + "," + region.getMarlat());
-                    // polygon 查询没有单一中心点，不返回距离。
-                    poi.setDistance("");
-
-                    if (region.getTimestamp() != null) {
-                        poi.setYear(String.valueOf(region.getTimestamp().getYear()));
-                    }
-
-                    return poi;
-                } catch (Exception e) {
-                    log.error("结果转换失败", e);
-                    throw new RuntimeException("结果转换异常", e);
-                }
-            }).collect(Collectors.toList());
+            // polygon 查询没有单一中心点，不返回距离。
+            OutputCoordinates output = resolveOutputCoordinates(dedupedResults, coordsys);
+            List<PoiResponse> pois = new ArrayList<>(dedupedResults.size());
+            for (int i = 0; i < dedupedResults.size(); i++) {
+                pois.add(toPoiResponse(dedupedResults.get(i), output, i, null, fields));
+            }
 
             response.setPois(pois);
+        } catch (SearchTimeoutException | QueryTimeoutException e) {
+            log.error("查询超时: {}", deadline, e);
+            response.setError("30005", "查询超时: 超过 " + deadline.timeoutMillis() + " ms");
+        } catch (AdmissionRejectedException e) {
+            response.setError(e.getCode(), e.getMessage());
         } catch (Exception e) {
             log.error("服务器发生未知错误", e);
             response.setError("30003", "服务器错误: " + e.getMessage());
+        } finally {
+            if (permit != null) {
+                permit.close();
+            }
+            slowQueryRecorder.finish(capture, response);
         }
 
         log.info("===== 多边形搜索处理完成 =====");
         return response;
     }
 
-    private PolygonBounds buildPolygonBounds(String polygonRaw) {
-        String raw = polygonRaw == null ? "" : polygonRaw.trim();
-        if (!StringUtils.hasText(raw)) {
-            throw new IllegalArgumentException("polygon不能为空");
-        }
+    /**
+     * 走廊检索：沿线覆盖矩形一次取回候选，按点到折线距离精筛，结果按沿线里程排序后在内存中分页。
+     */
+    public SearchResponse searchCorridor(CorridorSearchRequest request, Deadline deadline) {
+        log.info("===== 开始处理走廊搜索请求 =====");
+        SearchResponse response = new SearchResponse();
+        AdmissionControl.Permit permit = null;
+        SlowQueryRecorder.Capture capture = slowQueryRecorder.begin("corridor", request);
 
-        List<double[]> points;
-        if (raw.startsWith("[")) {
-            points = parsePolygonJsonArray(raw);
-        } else {
-            points = parsePolygonSemicolon(raw);
+        try {
+            log.info("原始请求参数: {}", request);
+
+            if (!StringUtils.hasText(request.getPolyline()) || request.getBuffer() == null) {
+                response.setError("50001", "缺少必要参数: polyline或buffer");
+                log.error("参数验证失败: polyline 或 buffer 为空");
+                return response;
+            }
+
+            final Corridor corridor;
+            try {
+                corridor = new Corridor(Corridor.parsePolyline(request.getPolyline()), request.getBuffer());
+            } catch (IllegalArgumentException e) {
+                response.setError("50002", e.getMessage());
+                log.error("polyline/buffer 参数无效: buffer={}", request.getBuffer());
+                return response;
+            }
+
+            final CoordinateSystem coordsys;
+            try {
+                coordsys = CoordinateSystem.parse(request.getCoordsys());
+            } catch (IllegalArgumentException e) {
+                response.setError("50004", e.getMessage());
+                log.error("coordsys 参数无效: {}", request.getCoordsys());
+                return response;
+            }
+
+            final Set<PoiField> fields;
+            try {
+                fields = PoiField.parse(request.getFields());
+            } catch (IllegalArgumentException e) {
+                response.setError("50006", e.getMessage());
+                log.error("fields 参数无效: {}", request.getFields());
+                return response;
+            }
+            response.setFields(fields);
+
+            List<String> typeCodesParam = parseTypeCodes(request.getTypes());
+            final YearRange yearRange;
+            try {
+                yearRange = buildYearRange(request.getYear(), request.getYearFrom(), request.getYearTo());
+            } catch (IllegalArgumentException e) {
+                response.setError("50007", e.getMessage());
+                log.error("年份参数无效: year={}, year_from={}, year_to={}",
+                        request.getYear(), request.getYearFrom(), request.getYearTo());
+                return response;
+            }
+            Pageable pageable = resolvePageable(request.getPageSize(), request.getPageNum());
+            boolean dedupe = Boolean.TRUE.equals(request.getDedupe());
+
+            GeoArea.Bounds bounds = corridor.bounds();
+            List<GeoArea.Bounds> parts = corridor.parts();
+            log.info("corridor bounds: lon=[{}, {}], lat=[{}, {}], buffer={} 米, 覆盖矩形 {} 个",
+                    bounds.minLon(), bounds.maxLon(), bounds.minLat(), bounds.maxLat(),
+                    corridor.buffer(), parts.size());
+
+            long cost = 0;
+            for (GeoArea.Bounds box : parts) {
+                cost += admissionControl.estimateAreaCost(
+                        box.minLon(), box.maxLon(), box.minLat(), box.maxLat(), Pageable.unpaged());
+            }
+            permit = admissionControl.admit("corridor", request.getClientId(),
+                    Math.min(cost, POLYGON_PAGE_SIZE_CAP));
+
+            // 结果按沿线里程排序。按沿线顺序逐个矩形取候选：里程不超过 partEndMeters(k) 的命中都在前 k+1 个矩形内，
+            // 这部分命中已足够组成本页（多一条用于判断 hasMore）时不再读取后面的矩形。
+            // 单个矩形的候选超过上限时直接报错，不在任意截断的候选上排序
+            long needed = pageable.isPaged() ? pageable.getOffset() + pageable.getPageSize() + 1 : Long.MAX_VALUE;
+            Map<String, CorridorHit> found = new HashMap<>();
+            List<CorridorHit> hits = new ArrayList<>();
+            AtomicBoolean cancelled = new AtomicBoolean(false);
+            int candidateCount = 0;
+            int scannedParts = 0;
+            while (scannedParts < parts.size()) {
+                GeoArea.Bounds part = parts.get(scannedParts);
+                RegionQuery query = new RegionQuery().boundingBox(
+                        part.minLon(), part.maxLon(), part.minLat(), part.maxLat());
+                query.setCoordinateSystem(coordsys);
+                query.setYearStart(yearRange.start);
+                query.setYearEnd(yearRange.end);
+                query.setTypeCodes(typeCodesParam);
+                query.setPageable(PageRequest.of(0, POLYGON_PAGE_SIZE_CAP));
+                query.setFetchExtraRow(true);
+                query.setColumns(projection(fields, coordsys, true, dedupe));
+
+                List<Region> candidates = executeQuery(query, deadline);
+                if (candidates.size() > POLYGON_PAGE_SIZE_CAP) {
+                    response.setError("50008", "走廊第 " + (scannedParts + 1) + " 段候选超过 " + POLYGON_PAGE_SIZE_CAP
+                            + " 条，请缩小 buffer 或增加类型/年份条件");
+                    log.warn("走廊第 {} 段候选超过 {} 条", scannedParts + 1, POLYGON_PAGE_SIZE_CAP);
+                    return response;
+                }
+                candidateCount += candidates.size();
+                // 相邻矩形有重叠，同一行只保留一次
+                for (CorridorHit hit : locateAlongCorridor(candidates, corridor, coordsys, deadline, cancelled)) {
+                    found.putIfAbsent(hit.region().getId(), hit);
+                }
+                hits = orderHits(found.values(), dedupe);
+                double settledMeters = corridor.partEndMeters(scannedParts);
+                scannedParts++;
+                if (cancelled.get() || countSettled(hits, settledMeters) >= needed) {
+                    break;
+                }
+            }
+            slowQueryRecorder.mark("corridor");
+            if (cancelled.get()) {
+                response.setPartial(true);
+                log.warn("走廊精筛超过截止时间 {}，返回部分结果", deadline);
+            }
+            log.info("走廊精筛完成: 读取 {}/{} 个矩形, {} 条候选, 命中 {} 条结果",
+                    scannedParts, parts.size(), candidateCount, hits.size());
+
+            int from = pageable.isPaged() ? (int) Math.min(hits.size(), pageable.getOffset()) : 0;
+            int to = pageable.isPaged() ? (int) Math.min(hits.size(), (long) from + pageable.getPageSize()) : hits.size();
+            response.setHasMore(to < hits.size());
+            List<CorridorHit> page = hits.subList(from, to);
+            if (page.isEmpty()) {
+                response.setPois(Collections.emptyList());
+                return response;
+            }
+
+            List<Region> regions = page.stream().map(CorridorHit::region).toList();
+            OutputCoordinates output = resolveOutputCoordinates(regions, coordsys);
+            List<PoiResponse> pois = new ArrayList<>(page.size());
+            for (int i = 0; i < page.size(); i++) {
+                Corridor.Match match = page.get(i).match();
+                PoiResponse poi = toPoiResponse(regions.get(i), output, i, match.offsetMeters(), fields);
+                if (selected(fields, PoiField.ROUTE_DISTANCE)) {
+                    poi.setRouteDistance(String.valueOf(Math.round(match.routeMeters())));
+                    poi.setRouteDistanceMeters(Math.round(match.routeMeters() * 10) / 10.0);
+                }
+                pois.add(poi);
+            }
+            response.setPois(pois);
+        } catch (SearchTimeoutException | QueryTimeoutException e) {
+            log.error("查询超时: {}", deadline, e);
+            response.setError("50005", "查询超时: 超过 " + deadline.timeoutMillis() + " ms");
+        } catch (AdmissionRejectedException e) {
+            response.setError(e.getCode(), e.getMessage());
+        } catch (Exception e) {
+            log.error("服务器发生未知错误", e);
+            response.setError("50003", "服务器错误: " + e.getMessage());
+        } finally {
+            if (permit != null) {
+                permit.close();
+            }
+            slowQueryRecorder.finish(capture, response);
         }
 
-        if (points.size() < 3) {
-            throw new IllegalArgumentException("polygon点数不足，至少需要3个点");
+        log.info("===== 走廊搜索处理完成 =====");
+        return response;
+    }
+
+    private record CorridorHit(Region region, Corridor.Match match) { }
+
+    // 按沿线里程（相同时按偏移）排序；需要去重时在排序后去重，里程靠前的记录优先保留
+    private List<CorridorHit> orderHits(Collection<CorridorHit> found, boolean dedupe) {
+        List<CorridorHit> hits = new ArrayList<>(found);
+        hits.sort(Comparator.comparingDouble((CorridorHit hit) -> hit.match().routeMeters())
+                .thenComparingDouble(hit -> hit.match().offsetMeters()));
+        if (!dedupe || hits.isEmpty()) {
+            return hits;
         }
+        Set<Region> kept = Collections.newSetFromMap(new IdentityHashMap<>());
+        kept.addAll(dedupeIfRequested(hits.stream().map(CorridorHit::region).toList(), true));
+        return hits.stream().filter(hit -> kept.contains(hit.region())).collect(Collectors.toList());
+    }
 
-        if (!samePoint(points.get(0), points.get(points.size() - 1))) {
-            points.add(new double[]{points.get(0)[0], points.get(0)[1]});
+    // 已按里程排序的命中中，里程不超过 settledMeters 的条数
+    private static int countSettled(List<CorridorHit> hits, double settledMeters) {
+        int count = 0;
+        while (count < hits.size() && hits.get(count).match().routeMeters() <= settledMeters) {
+            count++;
         }
+        return count;
+    }
 
-        double minLon = Double.POSITIVE_INFINITY;
-        double minLat = Double.POSITIVE_INFINITY;
-        double maxLon = Double.NEGATIVE_INFINITY;
-        double maxLat = Double.NEGATIVE_INFINITY;
-        for (double[] p : points) {
-            if (p == null || p.length < 2) {
-                continue;
+    /**
+     * 与多边形精筛一致：截止时间到达后剩余候选直接丢弃并通过 cancelled 通知调用方。
+     */
+    private List<CorridorHit> locateAlongCorridor(List<Region> candidates, Corridor corridor,
+                                                  CoordinateSystem coordsys, Deadline deadline,
+                                                  AtomicBoolean cancelled) {
+        Function<Region, CorridorHit> locate = region -> {
+            if (cancelled.get() || deadline.isExpired()) {
+                cancelled.set(true);
+                return null;
             }
-            minLon = Math.min(minLon, p[0]);
-            maxLon = Math.max(maxLon, p[0]);
-            minLat = Math.min(minLat, p[1]);
-            maxLat = Math.max(maxLat, p[1]);
-        }
-        if (!Double.isFinite(minLon) || !Double.isFinite(minLat) || !Double.isFinite(maxLon) || !Double.isFinite(maxLat)) {
-            throw new IllegalArgumentException("polygon包含非法坐标");
+            Double lon = coordsys.lon(region);
+            Double lat = coordsys.lat(region);
+            if (lon == null || lat == null) {
+                return null;
+            }
+            Corridor.Match match = corridor.locate(lon, lat);
+            return match == null ? null : new CorridorHit(region, match);
+        };
+        if (candidates.size() < searchProperties.getParallelThreshold()) {
+            return candidates.stream()
+                    .map(locate)
+                    .filter(Objects::nonNull)
+                    .collect(Collectors.toList());
         }
-
-        String ring = points.stream()
-                .map(p -> String.format(Locale.US, "%.8f %.8f", p[0], p[1]))
-                .collect(Collectors.joining(","));
-        return new PolygonBounds("POLYGON((" + ring + "))", minLon, maxLon, minLat, maxLat, points);
+        return ConcurrencyUtils.invoke(searchForkJoinPool, () -> candidates.parallelStream()
+                .map(locate)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList()));
     }
 
-    private record PolygonBounds(
-            String wkt,
-            double minLon,
-            double maxLon,
-            double minLat,
-            double maxLat,
-            List<double[]> vertices
-    ) { }
+    /**
+     * fields 为 null 时输出全部字段，否则只填充选中的字段，未选中的字段在序列化时省略。
+     */
+    private PoiResponse toPoiResponse(Region region, OutputCoordinates output, int index, Double distance,
+                                      Set<PoiField> fields) {
+        try {
+            // 构建响应对象
+            PoiResponse poi = new PoiResponse();
+            if (selected(fields, PoiField.ID)) {
+                poi.setId(region.getId());
+            }
+            if (selected(fields, PoiField.NAME)) {
+                poi.setName(region.getName());
+            }
 
-    private YearRange buildYearRange(Integer year) {
-        if (year == null) {
-            return new YearRange(null, null);
+            // 处理typecode，补零到6位
+            if (selected(fields, PoiField.TYPECODE)) {
+                String typecode = region.getTypecode();
+                if (typecode != null && typecode.length() < 6) {
+                    typecode = String.format("%06d", Integer.parseInt(typecode));
+                }
+                poi.setTypecode(typecode);
+            }
+
+            if (selected(fields, PoiField.TYPE)) {
+                poi.setType(String.join(";",
+                        region.getCategoryLarge(),
+                        region.getCategoryMedium(),
+                        region.getCategorySmall()));
+            }
+            if (selected(fields, PoiField.ADDRESS)) {
+                poi.setAddress(region.getAddress());
+            }
+            if (selected(fields, PoiField.PNAME)) {
+                poi.setPname(region.getPname());
+            }
+            if (selected(fields, PoiField.CITYNAME)) {
+                poi.setCityname(region.getCityname());
+            }
+            if (selected(fields, PoiField.ADNAME)) {
+                poi.setAdname(region.getAdname());
+            }
+            if (selected(fields, PoiField.ADCODE)) {
+                poi.setAdcode(region.getAdcode());
+            }
+            if (selected(fields, PoiField.LOCATION)) {
+                poi.setLocation(output.format(index));
+                // 数值形式供列式/二进制格式使用
+                if (output.present[index]) {
+                    poi.setLon(output.lons[index]);
+                    poi.setLat(output.lats[index]);
+                }
+            }
+            if (selected(fields, PoiField.DISTANCE)) {
+                // 文本格式取整（米），数值形式保留一位小数
+                poi.setDistance(distance == null ? "" : String.valueOf(Math.round(distance)));
+                if (distance != null) {
+                    poi.setDistanceMeters(Math.round(distance * 10) / 10.0);
+                }
+            }
+
+            if (selected(fields, PoiField.YEAR) && region.getTimestamp() != null) {
+                // 直接使用LocalDateTime的getYear()方法
+                poi.setYear(String.valueOf(region.getTimestamp().getYear()));
+            }
+
+            return poi;
+        } catch (Exception e) {
+            log.error("结果转换失败", e);
+            throw new RuntimeException("结果转换异常", e);
         }
-        LocalDateTime start = LocalDateTime.of(year, 1, 1, 0, 0, 0);
-        LocalDateTime end = start.plusYears(1);
-        return new YearRange(start, end);
     }
 
-    private record YearRange(
-            LocalDateTime start,
-            LocalDateTime end
-    ) { }
+    private static boolean selected(Set<PoiField> fields, PoiField field) {
+        return fields == null || fields.contains(field);
+    }
 
-    private boolean pointInPolygon(Double lon, Double lat, List<double[]> polygon) {
-        if (lon == null || lat == null || polygon == null || polygon.size() < 3) {
-            return false;
+    /**
+     * 只查询输出字段和后续处理需要的列；fields 为 null 时返回 null，即查询整行。
+     * 坐标用于距离/多边形精筛，去重需要名称、typecode 和 GCJ02 坐标；wgs84 缺失时回退 GCJ02 换算。
+     */
+    private static Set<RegionColumn> projection(Set<PoiField> fields, CoordinateSystem coordsys,
+                                                boolean filterByCoordinates, boolean dedupe) {
+        if (fields == null) {
+            return null;
         }
-        int size = polygon.size();
-        if (size >= 2 && samePoint(polygon.get(0), polygon.get(size - 1))) {
-            size -= 1;
+        EnumSet<RegionColumn> columns = EnumSet.of(RegionColumn.ID);
+        for (PoiField field : fields) {
+            columns.addAll(field.columns());
         }
-        if (size < 3) {
-            return false;
+        if (filterByCoordinates || fields.contains(PoiField.LOCATION) || fields.contains(PoiField.DISTANCE)) {
+            columns.add(RegionColumn.MARLON);
+            columns.add(RegionColumn.MARLAT);
+            if (coordsys == CoordinateSystem.WGS84) {
+                columns.add(RegionColumn.WGS84LON);
+                columns.add(RegionColumn.WGS84LAT);
+            }
         }
+        if (dedupe) {
+            columns.addAll(EnumSet.of(RegionColumn.NAME, RegionColumn.TYPECODE, RegionColumn.MARLON, RegionColumn.MARLAT));
+        }
+        return columns;
+    }
 
-        boolean inside = false;
-        final double x = lon;
-        final double y = lat;
-        for (int i = 0, j = size - 1; i < size; j = i++) {
-            double[] pi = polygon.get(i);
-            double[] pj = polygon.get(j);
-            if (pi == null || pj == null || pi.length < 2 || pj.length < 2) {
-                continue;
-            }
-            double xi = pi[0];
-            double yi = pi[1];
-            double xj = pj[0];
-            double yj = pj[1];
-            boolean intersects = ((yi > y) != (yj > y))
-                    && (x < (xj - xi) * (y - yi) / ((yj - yi) + 1e-15) + xi);
-            if (intersects) {
-                inside = !inside;
+    /**
+     * 取出结果在目标坐标系下的坐标。wgs84 优先使用预先计算的列，缺失的行汇总后做一次批量转换。
+     */
+    private OutputCoordinates resolveOutputCoordinates(List<Region> regions, CoordinateSystem coordsys) {
+        int size = regions.size();
+        double[] lons = new double[size];
+        double[] lats = new double[size];
+        boolean[] present = new boolean[size];
+        int[] missing = new int[size];
+        int missingCount = 0;
+        for (int i = 0; i < size; i++) {
+            Region region = regions.get(i);
+            Double lon = coordsys.lon(region);
+            Double lat = coordsys.lat(region);
+            if (lon != null && lat != null) {
+                lons[i] = lon;
+                lats[i] = lat;
+                present[i] = true;
+            } else if (coordsys == CoordinateSystem.WGS84 && region.getMarlon() != null && region.getMarlat() != null) {
+                lons[i] = region.getMarlon();
+                lats[i] = region.getMarlat();
+                present[i] = true;
+                missing[missingCount++] = i;
+            } else {
+                lons[i] = Double.NaN;
+                lats[i] = Double.NaN;
             }
         }
-        return inside;
-    }
 
-    private List<double[]> parsePolygonSemicolon(String polygonRaw) {
-        List<double[]> points = new ArrayList<>();
-        String[] pairs = polygonRaw.split(";");
-        for (String pair : pairs) {
-            String item = pair == null ? "" : pair.trim();
-            if (item.isEmpty()) {
-                continue;
+        if (missingCount > 0) {
+            double[] batchLons = new double[missingCount];
+            double[] batchLats = new double[missingCount];
+            for (int k = 0; k < missingCount; k++) {
+                batchLons[k] = lons[missing[k]];
+                batchLats[k] = lats[missing[k]];
             }
-            String[] coords = item.split(",");
-            if (coords.length != 2) {
-                throw new IllegalArgumentException("polygon格式不正确，应为: lng,lat;lng,lat;...");
+            LocationUtils.gcj02ToWgs84(batchLons, batchLats, missingCount);
+            for (int k = 0; k < missingCount; k++) {
+                lons[missing[k]] = batchLons[k];
+                lats[missing[k]] = batchLats[k];
             }
-            try {
-                double lng = Double.parseDouble(coords[0].trim());
-                double lat = Double.parseDouble(coords[1].trim());
-                points.add(new double[]{lng, lat});
-            } catch (NumberFormatException e) {
-                throw new IllegalArgumentException("polygon包含非法坐标");
+            log.info("{} 条结果缺少 wgs84 坐标，已批量转换", missingCount);
+        }
+        return new OutputCoordinates(lons, lats, present);
+    }
+
+    private record OutputCoordinates(
+            double[] lons,
+            double[] lats,
+            boolean[] present
+    ) {
+        // 与原先 Double 拼接的格式保持一致，缺失坐标输出 "null,null"
+        String format(int index) {
+            if (!present[index]) {
+                return "null,null";
             }
+            return lons[index] + "," + lats[index];
         }
-        return points;
     }
 
-    private List<double[]> parsePolygonJsonArray(String polygonRaw) {
-        try {
-            JsonNode root = JSON.readTree(polygonRaw);
-            if (!root.isArray()) {
-                throw new IllegalArgumentException("polygon JSON 必须是数组");
-            }
-            List<double[]> points = new ArrayList<>();
-            for (JsonNode item : root) {
-                if (!item.isArray() || item.size() < 2) {
-                    throw new IllegalArgumentException("polygon JSON 元素必须是 [lng,lat]");
-                }
-                double lng = item.get(0).asDouble(Double.NaN);
-                double lat = item.get(1).asDouble(Double.NaN);
-                if (!Double.isFinite(lng) || !Double.isFinite(lat)) {
-                    throw new IllegalArgumentException("polygon JSON 包含非法坐标");
-                }
-                points.add(new double[]{lng, lat});
+    /**
+     * year 为单个年份；year_from/year_to 为闭区间，可只给其中一端。
+     */
+    static YearRange buildYearRange(Integer year, Integer yearFrom, Integer yearTo) {
+        if (year != null) {
+            if (yearFrom != null || yearTo != null) {
+                throw new IllegalArgumentException("year 不能与 year_from/year_to 同时使用");
             }
-            return points;
-        } catch (IOException ex) {
-            throw new IllegalArgumentException("polygon格式不正确，应为 lng,lat;... 或 [[lng,lat],...]");
+            yearFrom = year;
+            yearTo = year;
+        }
+        if (yearFrom != null && yearTo != null && yearFrom > yearTo) {
+            throw new IllegalArgumentException("year_from 不能大于 year_to");
+        }
+        try {
+            LocalDateTime start = yearFrom == null ? null : LocalDateTime.of(yearFrom, 1, 1, 0, 0, 0);
+            LocalDateTime end = yearTo == null ? null : LocalDateTime.of(yearTo, 1, 1, 0, 0, 0).plusYears(1);
+            return new YearRange(start, end);
+        } catch (DateTimeException e) {
+            throw new IllegalArgumentException("年份超出范围");
         }
     }
 
-    private List<String> parseTypeCodes(String rawTypes) {
+    record YearRange(
+            LocalDateTime start,
+            LocalDateTime end
+    ) { }
+
+    /**
+     * page_size 为 -1 时不分页，为空或非正数时取 25；page_num 为空或非正数时取第 1 页。
+     */
+    static Pageable resolvePageable(Integer pageSize, Integer pageNum) {
+        if (pageSize != null && pageSize == -1) {
+            return Pageable.unpaged();
+        }
+        int size = pageSize == null || pageSize <= 0 ? 25 : pageSize;
+        int page = pageNum == null || pageNum <= 0 ? 1 : pageNum;
+        return PageRequest.of(page - 1, size);
+    }
+
+    /**
+     * 多边形检索总是分页：page_size 为 -1 或超过上限时取上限，为空或非正数时取 25。
+     */
+    static Pageable resolvePolygonPageable(Integer pageSize, Integer pageNum) {
+        int size;
+        if (pageSize != null && pageSize == -1) {
+            size = POLYGON_PAGE_SIZE_CAP;
+        } else if (pageSize == null || pageSize <= 0) {
+            size = 25;
+        } else {
+            size = Math.min(pageSize, POLYGON_PAGE_SIZE_CAP);
+        }
+        int page = pageNum == null || pageNum <= 0 ? 1 : pageNum;
+        return PageRequest.of(page - 1, size);
+    }
+
+    static List<String> parseTypeCodes(String rawTypes) {
         if (!StringUtils.hasText(rawTypes)) {
             return null;
         }
@@ -576,7 +1148,7 @@ public class PlaceService {
         return parsed.isEmpty() ? null : new ArrayList<>(parsed);
     }
 
-    private List<String> expandTypeCodeAliases(String code) {
+    private static List<String> expandTypeCodeAliases(String code) {
         if (!StringUtils.hasText(code)) {
             return Collections.emptyList();
         }
@@ -593,132 +1165,200 @@ public class PlaceService {
         return Collections.emptyList();
     }
 
-    private List<Region> dedupePolygonRegions(List<Region> regions) {
-        if (regions == null || regions.isEmpty()) {
-            return Collections.emptyList();
+    private List<Region> dedupeIfRequested(List<Region> results, Boolean dedupe) {
+        if (!Boolean.TRUE.equals(dedupe) || results.isEmpty()) {
+            return results;
         }
-
-        Set<String> exactSeen = new HashSet<>();
-        List<Region> exactDeduped = new ArrayList<>();
-        for (Region region : regions) {
-            String key = buildRegionExactKey(region);
-            if (exactSeen.contains(key)) {
-                continue;
-            }
-            exactSeen.add(key);
-            exactDeduped.add(region);
+        List<Region> deduped = poiDeduplicator.dedupe(results);
+        if (deduped.size() < results.size()) {
+            log.info("去重完成: 原始 {} -> 去重后 {}", results.size(), deduped.size());
         }
+        return deduped;
+    }
 
-        List<Region> kept = new ArrayList<>();
-        List<ParkingAnchor> parkingAnchors = new ArrayList<>();
-        for (Region region : exactDeduped) {
-            if (!isParkingLike(region)) {
-                kept.add(region);
-                continue;
+    /**
+     * 截止时间到达后不再做点面判断，剩余候选直接丢弃并通过 cancelled 通知调用方。
+     */
+    private List<Region> filterInsidePolygon(List<Region> candidates, SearchArea area,
+                                             CoordinateSystem coordsys, Deadline deadline,
+                                             AtomicBoolean cancelled) {
+        Predicate<Region> inside = region -> {
+            if (cancelled.get() || deadline.isExpired()) {
+                cancelled.set(true);
+                return false;
             }
+            Double lon = coordsys.lon(region);
+            Double lat = coordsys.lat(region);
+            return lon != null && lat != null && area.contains(lon, lat);
+        };
+        if (candidates.size() < searchProperties.getParallelThreshold()) {
+            return candidates.stream()
+                    .filter(inside)
+                    .collect(Collectors.toList());
+        }
+        // ArrayList 的 parallelStream 按连续区间切分候选集，结果保持原有顺序
+        return ConcurrencyUtils.invoke(searchForkJoinPool, () -> candidates.parallelStream()
+                .filter(inside)
+                .collect(Collectors.toList()));
+    }
 
-            Double lon = region.getMarlon();
-            Double lat = region.getMarlat();
-            if (lon == null || lat == null) {
-                kept.add(region);
-                continue;
-            }
+    /**
+     * keywords 为空时返回 null；否则拆分为关键词，格式无效时抛出 IllegalArgumentException。
+     */
+    private static List<String> parseKeywords(String raw) {
+        return StringUtils.hasText(raw) ? KeywordIndex.parseTerms(raw) : null;
+    }
 
-            String canonical = canonicalParkingName(region.getName());
-            if (!StringUtils.hasText(canonical)) {
-                kept.add(region);
-                continue;
-            }
+    /**
+     * 没有关键词时返回 null；否则在关键词索引中取命中且落在 query 范围内的 id（query 须已设置范围、城市/行政区
+     * 和类型条件），索引未就绪或命中过多时抛出异常。
+     */
+    private KeywordFilter matchKeywords(List<String> terms, RegionQuery query) {
+        if (terms == null) {
+            return null;
+        }
+        List<String> ids = keywordIndex.match(terms, query, keywordIndexProperties.getMaxMatches());
+        log.info("关键词 {} 在查询范围内命中 {} 条", terms, ids.size());
+        return new KeywordFilter(terms, ids);
+    }
 
-            boolean duplicated = false;
-            for (ParkingAnchor anchor : parkingAnchors) {
-                if (!canonical.equals(anchor.canonicalName)) {
-                    continue;
-                }
-                if (haversineMeters(lon, lat, anchor.lon, anchor.lat) <= PARKING_DEDUP_DISTANCE_M) {
-                    duplicated = true;
-                    break;
-                }
-            }
-            if (duplicated) {
-                continue;
-            }
+    private record KeywordFilter(
+            List<String> terms,
+            List<String> ids
+    ) { }
 
-            kept.add(region);
-            parkingAnchors.add(new ParkingAnchor(canonical, lon, lat));
+    private static void applyKeywords(RegionQuery query, KeywordFilter keywords) {
+        if (keywords != null) {
+            query.setIds(keywords.ids());
+            query.setKeywordTerms(keywords.terms());
         }
-
-        return kept;
     }
 
-    private boolean samePoint(double[] a, double[] b) {
-        final double eps = 1e-9;
-        return Math.abs(a[0] - b[0]) <= eps && Math.abs(a[1] - b[1]) <= eps;
+    // 有关键词时最多读取命中的行
+    private static long keywordCap(long cost, KeywordFilter keywords) {
+        return keywords == null ? cost : Math.min(cost, keywords.ids().size());
     }
 
-    private String buildRegionExactKey(Region region) {
-        String id = region.getId();
-        if (StringUtils.hasText(id)) {
-            return "id:" + id.trim();
-        }
-        String name = normalizeText(region.getName());
-        Double lon = region.getMarlon();
-        Double lat = region.getMarlat();
-        String typecode = normalizeText(region.getTypecode());
-        if (lon != null && lat != null) {
-            return String.format(
-                    Locale.US,
-                    "name_loc:%s|%.6f,%.6f|%s",
-                    name,
-                    lon,
-                    lat,
-                    typecode
-            );
+    /**
+     * 热点范围：在内存候选列表上过滤年份/类型并分页，只按 id 取回本页的行；
+     * 命中总数由候选列表直接得出，总是精确值。
+     */
+    private List<Region> searchHotArea(HotAreaCache.Candidates hot, RegionQuery query, Pageable pageable,
+                                       CountMode countMode, SearchResponse response, Deadline deadline) {
+        HotAreaCache.Page page = hot.page(query.getYearStart(), query.getYearEnd(), query.getTypeCodes(), pageable);
+        response.setHasMore(page.hasMore());
+        if (countMode != CountMode.NONE) {
+            response.setCount(page.total());
+            response.setCountEstimated(false);
+        }
+        if (page.ids().isEmpty()) {
+            return new ArrayList<>();
         }
-        return "name_only:" + name + "|" + typecode;
+        RegionQuery byId = new RegionQuery();
+        byId.setCoordinateSystem(query.getCoordinateSystem());
+        byId.setColumns(query.getColumns());
+        byId.setIds(page.ids());
+        Map<String, Region> rows = new HashMap<>();
+        for (Region region : executeQuery(byId, deadline)) {
+            rows.put(region.getId(), region);
+        }
+        // 按候选列表中的顺序返回，期间被删除的行直接跳过
+        List<Region> results = new ArrayList<>(page.ids().size());
+        for (String id : page.ids()) {
+            Region region = rows.get(id);
+            if (region != null) {
+                results.add(region);
+            }
+        }
+        return results;
     }
 
-    private boolean isParkingLike(Region region) {
-        String typecode = normalizeText(region.getTypecode());
-        if (typecode.startsWith("1509")) {
-            return true;
-        }
-        String name = region.getName();
-        return StringUtils.hasText(name) && name.contains("停车");
+    private static long hotCost(HotAreaCache.Candidates hot, Pageable pageable) {
+        return pageable.isPaged() ? Math.min(hot.size(), pageable.getPageSize()) : hot.size();
     }
 
-    private String canonicalParkingName(String rawName) {
-        String name = normalizeText(rawName);
-        if (!StringUtils.hasText(name)) {
-            return name;
+    /**
+     * 查询多取了一行时去掉该行并设置 has_more，不分页时 has_more 为 false。
+     */
+    private static List<Region> trimExtraRow(List<Region> results, Pageable pageable, SearchResponse response) {
+        if (pageable.isUnpaged() || results.size() <= pageable.getPageSize()) {
+            response.setHasMore(false);
+            return results;
         }
-        name = PARKING_SUFFIX_PATTERN.matcher(name).replaceAll("");
-        name = name.replace("停车场出入口", "停车场")
-                .replace("停车场入口", "停车场")
-                .replace("停车场出口", "停车场");
-        return name;
+        response.setHasMore(true);
+        return new ArrayList<>(results.subList(0, pageable.getPageSize()));
     }
 
-    private String normalizeText(String value) {
-        if (!StringUtils.hasText(value)) {
-            return "";
+    /**
+     * 按 count 参数填充命中总数（去重前）。exact 总是执行 COUNT；估算使用网格密度汇总。
+     * COUNT 超时不影响本页结果，退回估算值。auto 时 exactForAuto 为 true 的查询精确统计，
+     * 其中城市无类型/年份过滤时直接取城市汇总：汇总由变更日志增量维护，可能滞后，按估算值返回。
+     * 其余 auto 查询估算。
+     */
+    private void applyCount(SearchResponse response, CountMode mode, boolean exactForAuto, RegionQuery query,
+                            Deadline deadline, Supplier<OptionalDouble> estimate) {
+        if (mode == CountMode.NONE) {
+            return;
+        }
+        // 密度汇总不含关键词维度，有关键词时命中集合很小，总是精确统计
+        boolean keywordFiltered = query.getIds() != null;
+        if (mode == CountMode.EXACT || keywordFiltered || (mode == CountMode.AUTO && exactForAuto)) {
+            if (mode == CountMode.AUTO && query.getCityname() != null && query.getTypeCodes() == null
+                    && query.getYearStart() == null && query.getYearEnd() == null
+                    && !keywordFiltered) {
+                OptionalLong cityCount = densityRollup.cityCount(query.getCityname());
+                if (cityCount.isPresent()) {
+                    response.setCount(cityCount.getAsLong());
+                    response.setCountEstimated(true);
+                    return;
+                }
+            }
+            try {
+                long remaining = deadline.remainingMillis();
+                if (remaining <= 0) {
+                    throw new SearchTimeoutException("截止时间已到，未执行统计");
+                }
+                query.setTimeoutMs(remaining);
+                response.setCount(regionRepository.count(query));
+                response.setCountEstimated(false);
+                return;
+            } catch (SearchTimeoutException | QueryTimeoutException e) {
+                log.warn("总数统计超过截止时间 {}，改用估算值", deadline);
+            }
+        }
+        OptionalDouble estimated = estimate.get();
+        if (estimated.isPresent()) {
+            response.setCount(Math.round(estimated.getAsDouble()));
+            response.setCountEstimated(true);
         }
-        return value.replaceAll("\\s+", "").trim();
     }
 
-    private double haversineMeters(double lon1, double lat1, double lon2, double lat2) {
-        return LocationUtils.haversineMeters(lon1, lat1, lon2, lat2);
+    private static OptionalDouble scale(OptionalDouble value, double factor) {
+        return value.isPresent() ? OptionalDouble.of(value.getAsDouble() * factor) : value;
     }
 
-    private static final class ParkingAnchor {
-        private final String canonicalName;
-        private final double lon;
-        private final double lat;
+    /**
+     * 用剩余时间作为 JDBC 查询超时执行检索。
+     */
+    private List<Region> executeQuery(RegionQuery query, Deadline deadline) {
+        long remaining = deadline.remainingMillis();
+        if (remaining <= 0) {
+            throw new SearchTimeoutException("截止时间已到，未执行查询");
+        }
+        query.setTimeoutMs(remaining);
+        slowQueryRecorder.mark("prepare");
+        List<Region> results = regionRepository.search(query);
+        slowQueryRecorder.mark("query");
+        return results;
+    }
 
-        private ParkingAnchor(String canonicalName, double lon, double lat) {
-            this.canonicalName = canonicalName;
-            this.lon = lon;
-            this.lat = lat;
+    /**
+     * 请求的 timeout_ms，为空或非正数时取默认值，超过上限时截断。
+     */
+    public long resolveTimeoutMs(Long requestedTimeoutMs) {
+        if (requestedTimeoutMs == null || requestedTimeoutMs <= 0) {
+            return searchProperties.getDefaultTimeoutMs();
         }
+        return Math.min(requestedTimeoutMs, searchProperties.getMaxTimeoutMs());
     }
 }
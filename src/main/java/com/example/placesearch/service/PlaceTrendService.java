@@ -0,0 +1,216 @@
+package com.example.placesearch.service;
+
+import com.example.placesearch.dto.request.TrendRequest;
+import com.example.placesearch.dto.response.TrendResponse;
+import com.example.placesearch.entity.Code;
+import com.example.placesearch.exception.AdmissionRejectedException;
+import com.example.placesearch.geo.CircleArea;
+import com.example.placesearch.geo.CoordinateSystem;
+import com.example.placesearch.geo.GeoArea;
+import com.example.placesearch.geo.SearchArea;
+import com.example.placesearch.repository.CodeDirectory;
+import com.example.placesearch.repository.RegionQuery;
+import com.example.placesearch.repository.RegionRepository;
+import com.example.placesearch.repository.YearTypeCount;
+import com.example.placesearch.util.Deadline;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+
+/**
+ * 范围内逐年按大类统计 POI 数量。location/polygon 范围在趋势统计已加载时直接汇总网格，
+ * 城市范围、wgs84 坐标、exact=true 或统计未加载时按条件一次分组计数。
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class PlaceTrendService {
+    private static final String UNCATEGORIZED = "未分类";
+    private static final String SOURCE_ROLLUP = "rollup";
+    private static final String SOURCE_SCAN = "scan";
+
+    private final RegionRepository regionRepository;
+    private final CodeDirectory codeDirectory;
+    private final AdmissionControl admissionControl;
+    private final TrendRollup trendRollup;
+
+    public TrendResponse trend(TrendRequest request, Deadline deadline) {
+        log.info("===== 开始处理趋势统计请求 =====");
+        TrendResponse response = new TrendResponse();
+        AdmissionControl.Permit permit = null;
+
+        try {
+            log.info("原始请求参数: {}", request);
+
+            final PlaceService.YearRange yearRange;
+            try {
+                yearRange = PlaceService.buildYearRange(null, request.getYearFrom(), request.getYearTo());
+            } catch (IllegalArgumentException e) {
+                response.setError("70006", e.getMessage());
+                return response;
+            }
+            final CoordinateSystem coordsys;
+            try {
+                coordsys = CoordinateSystem.parse(request.getCoordsys());
+            } catch (IllegalArgumentException e) {
+                response.setError("70004", e.getMessage());
+                return response;
+            }
+            List<String> typeCodes = PlaceService.parseTypeCodes(request.getTypes());
+
+            RegionQuery query;
+            SearchArea area = null;
+            long cost;
+            if (StringUtils.hasText(request.getLocation()) && request.getRadius() != null) {
+                double[] center;
+                try {
+                    center = parseLocation(request.getLocation());
+                    area = new SearchArea(new CircleArea(center[0], center[1], request.getRadius()), null);
+                } catch (IllegalArgumentException e) {
+                    response.setError("70002", e.getMessage());
+                    return response;
+                }
+                GeoArea.Bounds bounds = area.bounds();
+                query = new RegionQuery()
+                        .around(center[0], center[1], request.getRadius())
+                        .boundingBox(bounds.minLon(), bounds.maxLon(), bounds.minLat(), bounds.maxLat());
+                cost = admissionControl.estimateAreaCost(
+                        bounds.minLon(), bounds.maxLon(), bounds.minLat(), bounds.maxLat(), Pageable.unpaged());
+            } else if (StringUtils.hasText(request.getCityName()) || StringUtils.hasText(request.getCityCode())) {
+                String cityname = request.getCityName();
+                if (!StringUtils.hasText(cityname)) {
+                    Optional<Code> code = codeDirectory.findByCitycode(request.getCityCode());
+                    if (code.isEmpty()) {
+                        response.setError("70007", "无效的城市编码: " + request.getCityCode());
+                        return response;
+                    }
+                    cityname = code.get().getCityname();
+                }
+                query = new RegionQuery();
+                query.setCityname(cityname);
+                cost = admissionControl.estimateCityCost(cityname, Pageable.unpaged());
+            } else if (StringUtils.hasText(request.getPolygon()) || !SearchArea.isBlank(request.getGeometry())) {
+                try {
+                    area = SearchArea.parse(request.getPolygon(), request.getGeometry(), null);
+                } catch (IllegalArgumentException e) {
+                    response.setError("70002", e.getMessage());
+                    return response;
+                }
+                GeoArea.Bounds bounds = area.bounds();
+                query = new RegionQuery()
+                        .boundingBox(bounds.minLon(), bounds.maxLon(), bounds.minLat(), bounds.maxLat());
+                if (area.parts().size() > 1) {
+                    query.setBoundingBoxes(area.parts());
+                }
+                // 分组计数由 MySQL 做点面判断
+                query.setPolygonWkt(area.include().wkt());
+                cost = admissionControl.estimateAreaCost(
+                        bounds.minLon(), bounds.maxLon(), bounds.minLat(), bounds.maxLat(), Pageable.unpaged());
+            } else {
+                response.setError("70001", "缺少范围参数: location+radius、cityName/cityCode 或 polygon/geometry");
+                return response;
+            }
+
+            List<YearTypeCount> counts = null;
+            if (area != null && coordsys == CoordinateSystem.GCJ02 && !Boolean.TRUE.equals(request.getExact())) {
+                Optional<TrendRollup.Result> rolled = trendRollup.aggregate(
+                        area, request.getYearFrom(), request.getYearTo(), typeCodes);
+                if (rolled.isPresent()) {
+                    counts = rolled.get().counts();
+                    response.setSource(SOURCE_ROLLUP);
+                    response.setEstimated(rolled.get().estimated());
+                }
+            }
+            if (counts == null) {
+                permit = admissionControl.admit("trend", request.getClientId(), cost);
+                query.setCoordinateSystem(coordsys);
+                query.setTypeCodes(typeCodes);
+                query.setYearStart(yearRange.start());
+                query.setYearEnd(yearRange.end());
+                long remaining = deadline.remainingMillis();
+                if (remaining <= 0) {
+                    response.setError("70005", "查询超时: 超过 " + deadline.timeoutMillis() + " ms");
+                    return response;
+                }
+                query.setTimeoutMs(remaining);
+                counts = regionRepository.countByYearAndType(query);
+                response.setSource(SOURCE_SCAN);
+                response.setEstimated(false);
+            }
+
+            fill(response, counts);
+            response.setYearFrom(request.getYearFrom());
+            response.setYearTo(request.getYearTo());
+            log.info("趋势统计完成: 来源 {}, {} 个年份, 共 {} 条", response.getSource(),
+                    response.getYears().size(), response.getTotal());
+        } catch (QueryTimeoutException e) {
+            log.error("查询超时: {}", deadline, e);
+            response.setError("70005", "查询超时: 超过 " + deadline.timeoutMillis() + " ms");
+        } catch (AdmissionRejectedException e) {
+            response.setError(e.getCode(), e.getMessage());
+        } catch (Exception e) {
+            log.error("服务器发生未知错误", e);
+            response.setError("70003", "服务器错误: " + e.getMessage());
+        } finally {
+            if (permit != null) {
+                permit.close();
+            }
+        }
+
+        log.info("===== 趋势统计处理完成 =====");
+        return response;
+    }
+
+    // 同一年份内各类型编码按大类合并
+    private static void fill(TrendResponse response, List<YearTypeCount> counts) {
+        Map<Integer, Map<String, Long>> byYear = new TreeMap<>();
+        for (YearTypeCount count : counts) {
+            String category = StringUtils.hasText(count.category()) ? count.category() : UNCATEGORIZED;
+            byYear.computeIfAbsent(count.year(), year -> new HashMap<>()).merge(category, count.count(), Long::sum);
+        }
+        List<TrendResponse.YearCount> years = new ArrayList<>(byYear.size());
+        long total = 0;
+        for (Map.Entry<Integer, Map<String, Long>> entry : byYear.entrySet()) {
+            TrendResponse.YearCount year = new TrendResponse.YearCount();
+            year.setYear(entry.getKey());
+            List<TrendResponse.CategoryCount> categories = new ArrayList<>(entry.getValue().size());
+            entry.getValue().forEach((name, count) -> {
+                TrendResponse.CategoryCount category = new TrendResponse.CategoryCount();
+                category.setCategory(name);
+                category.setCount(count);
+                categories.add(category);
+            });
+            categories.sort(Comparator.comparingLong(TrendResponse.CategoryCount::getCount).reversed()
+                    .thenComparing(TrendResponse.CategoryCount::getCategory));
+            year.setCategories(categories);
+            year.setTotal(categories.stream().mapToLong(TrendResponse.CategoryCount::getCount).sum());
+            total += year.getTotal();
+            years.add(year);
+        }
+        response.setYears(years);
+        response.setTotal(total);
+    }
+
+    private static double[] parseLocation(String location) {
+        String[] coords = location.split(",");
+        if (coords.length != 2) {
+            throw new IllegalArgumentException("location格式不正确，应为: 经度,纬度");
+        }
+        try {
+            return new double[]{Double.parseDouble(coords[0].trim()), Double.parseDouble(coords[1].trim())};
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("经纬度格式不正确");
+        }
+    }
+}
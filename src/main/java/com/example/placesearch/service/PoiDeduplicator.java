@@ -0,0 +1,173 @@
+package com.example.placesearch.service;
+
+import com.example.placesearch.config.SearchProperties;
+import com.example.placesearch.entity.Region;
+import com.example.placesearch.util.ConcurrencyUtils;
+import com.example.placesearch.util.LocalDistance;
+import com.example.placesearch.util.LocationUtils;
+import com.example.placesearch.util.PoiNameUtils;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+
+@Component
+@RequiredArgsConstructor
+public class PoiDeduplicator {
+    private static final double PARKING_DEDUP_DISTANCE_M = 90.0;
+    private static final double PARKING_DEDUP_DISTANCE_SQ = LocalDistance.squared(PARKING_DEDUP_DISTANCE_M);
+
+    private final SearchProperties searchProperties;
+    private final ForkJoinPool searchForkJoinPool;
+
+    /**
+     * 先按 id（或名称+坐标）精确去重，再合并同名停车场在 90 米内的多个出入口。
+     * 结果保持输入顺序，重复项保留第一次出现的记录。
+     */
+    public List<Region> dedupe(List<Region> regions) {
+        if (regions == null || regions.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        Set<String> exactSeen = new HashSet<>();
+        List<Region> exactDeduped = new ArrayList<>();
+        for (Region region : regions) {
+            if (exactSeen.add(buildRegionExactKey(region))) {
+                exactDeduped.add(region);
+            }
+        }
+
+        // 停车场去重只在规范化名称相同的记录之间发生，按名称分区后各分区互不影响，可以并行处理。
+        // 不按空间格分区：保留谁取决于输入顺序，锚点链会跨格传递，空间分区之间需要按顺序协调；
+        // 空间网格只在名称分区内部用来缩小比较范围（见 dedupeParkingPartition）
+        Map<String, List<Region>> parkingPartitions = new LinkedHashMap<>();
+        for (Region region : exactDeduped) {
+            String canonical = region.getParkingDedupName();
+            if (canonical == null || region.getMarlon() == null || region.getMarlat() == null) {
+                continue;
+            }
+            parkingPartitions.computeIfAbsent(canonical, key -> new ArrayList<>()).add(region);
+        }
+        if (parkingPartitions.isEmpty()) {
+            return exactDeduped;
+        }
+
+        List<List<Region>> droppedByPartition;
+        if (exactDeduped.size() < searchProperties.getParallelThreshold()) {
+            droppedByPartition = parkingPartitions.values().stream()
+                    .map(this::dedupeParkingPartition)
+                    .collect(Collectors.toList());
+        } else {
+            droppedByPartition = ConcurrencyUtils.invoke(searchForkJoinPool, () -> parkingPartitions.values()
+                    .parallelStream()
+                    .map(this::dedupeParkingPartition)
+                    .collect(Collectors.toList()));
+        }
+
+        Set<Region> dropped = Collections.newSetFromMap(new IdentityHashMap<>());
+        droppedByPartition.forEach(dropped::addAll);
+        if (dropped.isEmpty()) {
+            return exactDeduped;
+        }
+
+        List<Region> kept = new ArrayList<>(exactDeduped.size() - dropped.size());
+        for (Region region : exactDeduped) {
+            if (!dropped.contains(region)) {
+                kept.add(region);
+            }
+        }
+        return kept;
+    }
+
+    /**
+     * 在同一规范化名称的停车场中，按原始顺序保留第一个，丢弃其后 90 米内的重复记录。
+     * 已保留的锚点按 90 米网格分桶，每条记录只与所在格及相邻 8 格中的锚点比较。
+     */
+    private List<Region> dedupeParkingPartition(List<Region> partition) {
+        if (partition.size() == 1) {
+            return Collections.emptyList();
+        }
+
+        // 经度方向的格宽按分区内最高纬度计算，保证任意位置的格宽都不小于 90 米
+        double maxAbsLat = 0;
+        for (Region region : partition) {
+            maxAbsLat = Math.max(maxAbsLat, Math.abs(region.getMarlat()));
+        }
+        double cellLat = PARKING_DEDUP_DISTANCE_M / LocationUtils.METERS_PER_DEGREE_LAT;
+        double cellLon = cellLat / Math.max(Math.cos(Math.toRadians(maxAbsLat)), 0.01);
+
+        List<Region> dropped = new ArrayList<>();
+        Map<Long, List<LocalDistance>> anchorsByCell = new HashMap<>();
+        for (Region region : partition) {
+            double lon = region.getMarlon();
+            double lat = region.getMarlat();
+            long cellX = (long) Math.floor(lon / cellLon);
+            long cellY = (long) Math.floor(lat / cellLat);
+
+            if (hasAnchorNearby(anchorsByCell, cellX, cellY, lon, lat)) {
+                dropped.add(region);
+                continue;
+            }
+            anchorsByCell.computeIfAbsent(cellKey(cellX, cellY), key -> new ArrayList<>(1))
+                    .add(LocalDistance.at(lon, lat));
+        }
+        return dropped;
+    }
+
+    // 锚点保存了自身纬度的经度米数，90 米内用平面近似比较距离平方即可
+    private boolean hasAnchorNearby(Map<Long, List<LocalDistance>> anchorsByCell, long cellX, long cellY,
+                                    double lon, double lat) {
+        for (long dx = -1; dx <= 1; dx++) {
+            for (long dy = -1; dy <= 1; dy++) {
+                List<LocalDistance> anchors = anchorsByCell.get(cellKey(cellX + dx, cellY + dy));
+                if (anchors == null) {
+                    continue;
+                }
+                for (LocalDistance anchor : anchors) {
+                    if (anchor.isWithin(lon, lat, PARKING_DEDUP_DISTANCE_SQ)) {
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    private static long cellKey(long cellX, long cellY) {
+        return (cellX << 32) ^ (cellY & 0xffffffffL);
+    }
+
+    private String buildRegionExactKey(Region region) {
+        String id = region.getId();
+        if (StringUtils.hasText(id)) {
+            return "id:" + id.trim();
+        }
+        String name = PoiNameUtils.normalizeText(region.getName());
+        Double lon = region.getMarlon();
+        Double lat = region.getMarlat();
+        String typecode = PoiNameUtils.normalizeText(region.getTypecode());
+        if (lon != null && lat != null) {
+            return String.format(
+                    Locale.US,
+                    "name_loc:%s|%.6f,%.6f|%s",
+                    name,
+                    lon,
+                    lat,
+                    typecode
+            );
+        }
+        return "name_only:" + name + "|" + typecode;
+    }
+}
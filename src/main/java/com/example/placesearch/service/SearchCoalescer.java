@@ -0,0 +1,151 @@
+package com.example.placesearch.service;
+
+import com.example.placesearch.config.SearchProperties;
+import com.example.placesearch.dto.response.PoiField;
+import com.example.placesearch.dto.response.SearchResponse;
+import com.example.placesearch.geo.CoordinateSystem;
+import com.example.placesearch.index.KeywordIndex;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * 合并同时进行的相同检索：解析后参数（不含 clientId）相同的并发请求只执行一次，共享同一个结果。
+ * 只合并正在执行的请求，执行结束后立即移除，不做结果缓存。跟随的请求不再经过准入控制。
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class SearchCoalescer {
+    private static final String CLIENT_ID = "clientId";
+    private static final List<String> FLAGS = List.of("dedupe", "clip");
+
+    private final SearchProperties properties;
+    private final ObjectMapper objectMapper;
+
+    private final Map<String, CompletableFuture<SearchResponse>> inFlight = new ConcurrentHashMap<>();
+
+    /**
+     * search 只在没有相同请求进行中时调用。返回的 future 每个调用方各自一份，
+     * 调用方在其上设置超时等操作不会影响其他请求。budgetMs 为解析后的超时预算，跟随的请求共用发起请求的截止时间。
+     */
+    public CompletableFuture<SearchResponse> execute(String endpoint, Object request, long budgetMs,
+                                                     Supplier<CompletableFuture<SearchResponse>> search) {
+        if (!properties.isCoalesceRequests()) {
+            return search.get();
+        }
+        String key = key(endpoint, request, budgetMs);
+        CompletableFuture<SearchResponse> shared = new CompletableFuture<>();
+        CompletableFuture<SearchResponse> existing = inFlight.putIfAbsent(key, shared);
+        if (existing != null) {
+            log.debug("合并相同的 {} 检索", endpoint);
+            return existing.copy();
+        }
+        CompletableFuture<SearchResponse> execution;
+        try {
+            execution = search.get();
+        } catch (RuntimeException e) {
+            // 提交失败（如线程池已满）时，已跟随的请求得到同样的异常
+            inFlight.remove(key, shared);
+            shared.completeExceptionally(e);
+            throw e;
+        }
+        execution.whenComplete((response, error) -> {
+            inFlight.remove(key, shared);
+            if (error != null) {
+                shared.completeExceptionally(error);
+            } else {
+                shared.complete(response);
+            }
+        });
+        return shared.copy();
+    }
+
+    /**
+     * 请求 DTO 按字段声明顺序序列化，检索会解析的参数替换为解析后的值：缺省与显式传入默认值、大小写、
+     * 类型编码的顺序和分隔符不影响键。无法解析的参数保留原文，这类请求会直接返回参数错误。
+     */
+    String key(String endpoint, Object request, long budgetMs) {
+        ObjectNode node = objectMapper.valueToTree(request);
+        node.remove(CLIENT_ID);
+        node.put("timeoutMs", budgetMs);
+        Integer pageSize = intValue(node.remove("pageSize"));
+        Integer pageNum = intValue(node.remove("pageNum"));
+        Pageable pageable = "polygon".equals(endpoint)
+                ? PlaceService.resolvePolygonPageable(pageSize, pageNum)
+                : PlaceService.resolvePageable(pageSize, pageNum);
+        node.put("page", pageable.isPaged() ? pageable.getPageNumber() + "/" + pageable.getPageSize() : "unpaged");
+        normalize(node, "types", raw -> {
+            List<String> codes = PlaceService.parseTypeCodes(raw);
+            return codes == null ? null : String.join(",", new TreeSet<>(codes));
+        });
+        normalize(node, "coordsys", raw -> CoordinateSystem.parse(raw).name());
+        normalize(node, "count", raw -> CountMode.parse(raw).name());
+        normalize(node, "fields", raw -> {
+            Set<PoiField> fields = PoiField.parse(raw);
+            return fields == null ? null : fields.toString();
+        });
+        normalize(node, "keywords", raw -> StringUtils.hasText(raw)
+                ? String.join(" ", KeywordIndex.parseTerms(raw)) : null);
+        // 中心点与检索一致按 float 解析，半径取到 0.1 米
+        normalize(node, "location", raw -> {
+            if (raw == null) {
+                return null;
+            }
+            String[] coords = raw.split(",");
+            if (coords.length != 2) {
+                throw new IllegalArgumentException(raw);
+            }
+            return Float.parseFloat(coords[0]) + "," + Float.parseFloat(coords[1]);
+        });
+        JsonNode radius = node.get("radius");
+        if (radius != null && radius.isNumber()) {
+            node.put("radius", Math.round(radius.doubleValue() * 10) / 10.0);
+        }
+        // 未传与 false 相同
+        for (String flag : FLAGS) {
+            if (node.has(flag)) {
+                node.put(flag, node.get(flag).asBoolean(false));
+            }
+        }
+        return endpoint + ":" + node;
+    }
+
+    private static Integer intValue(JsonNode value) {
+        return value == null || !value.isNumber() ? null : value.intValue();
+    }
+
+    // 请求没有该字段时跳过，值为 null 时按缺省解析；解析结果为 null 时移除，解析失败时保留原文
+    private static void normalize(ObjectNode node, String field, Function<String, String> parse) {
+        if (!node.has(field)) {
+            return;
+        }
+        JsonNode value = node.get(field);
+        String raw = value.isNull() ? null : value.asText();
+        String parsed;
+        try {
+            parsed = parse.apply(raw);
+        } catch (IllegalArgumentException e) {
+            return;
+        }
+        if (parsed == null) {
+            node.remove(field);
+        } else {
+            node.put(field, parsed);
+        }
+    }
+}
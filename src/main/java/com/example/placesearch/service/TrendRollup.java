@@ -0,0 +1,297 @@
+package com.example.placesearch.service;
+
+import com.example.placesearch.config.RollupProperties;
+import com.example.placesearch.entity.Region;
+import com.example.placesearch.geo.GeoArea;
+import com.example.placesearch.geo.SearchArea;
+import com.example.placesearch.ingest.RegionChange;
+import com.example.placesearch.ingest.RegionChangeEvent;
+import com.example.placesearch.repository.ShardFanOut;
+import com.example.placesearch.repository.YearTypeCount;
+import com.example.placesearch.warmup.WarmStartParticipant;
+import com.example.placesearch.warmup.WarmStartSnapshot;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 按 (类型编码, 年份, 网格) 汇总的 POI 数量，多年趋势只需遍历范围内的网格，不必逐年扫描 regions。
+ * 网格按 GCJ-02 坐标划分；与范围边界部分相交的网格按采样点覆盖比例计入，此时结果为估算值。
+ * 预热与增量更新方式同 {@link DensityRollup}。
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class TrendRollup implements WarmStartParticipant {
+    // 部分相交网格每个方向的采样点数
+    private static final int SAMPLES_PER_AXIS = 4;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final RollupProperties properties;
+    private final ShardFanOut shardFanOut;
+
+    private volatile Snapshot snapshot;
+
+    @Override
+    public String snapshotSection() {
+        return properties.isTrendEnabled() ? "trend-rollup.v1" : null;
+    }
+
+    @Override
+    public boolean isSnapshotReady() {
+        return properties.isTrendEnabled() && snapshot != null;
+    }
+
+    @Override
+    public void writeSnapshot(DataOutputStream out) throws IOException {
+        Snapshot current = snapshot;
+        out.writeDouble(current.cellSize);
+        Map<String, String> categories = new HashMap<>(current.categories);
+        out.writeInt(categories.size());
+        for (Map.Entry<String, String> entry : categories.entrySet()) {
+            WarmStartSnapshot.writeString(out, entry.getKey());
+            WarmStartSnapshot.writeString(out, entry.getValue());
+        }
+        // 先复制再写，避免与增量更新并发时条数和内容不一致
+        Map<Long, Map<TypeYear, Long>> cells = new HashMap<>(current.cells.size() * 2);
+        current.cells.forEach((key, counts) -> cells.put(key, new HashMap<>(counts)));
+        out.writeInt(cells.size());
+        for (Map.Entry<Long, Map<TypeYear, Long>> cell : cells.entrySet()) {
+            out.writeLong(cell.getKey());
+            out.writeInt(cell.getValue().size());
+            for (Map.Entry<TypeYear, Long> entry : cell.getValue().entrySet()) {
+                WarmStartSnapshot.writeString(out, entry.getKey().typecode());
+                out.writeInt(entry.getKey().year());
+                out.writeLong(entry.getValue());
+            }
+        }
+    }
+
+    @Override
+    public void readSnapshot(ByteBuffer in) {
+        if (!properties.isTrendEnabled()) {
+            return;
+        }
+        double cellSize = in.getDouble();
+        if (cellSize != properties.getTrendCellSizeDeg()) {
+            throw new IllegalStateException("趋势网格边长已从 " + cellSize + " 改为 " + properties.getTrendCellSizeDeg());
+        }
+        int categoryCount = in.getInt();
+        Map<String, String> categories = new ConcurrentHashMap<>(categoryCount * 2);
+        for (int i = 0; i < categoryCount; i++) {
+            String typecode = WarmStartSnapshot.readString(in);
+            String category = WarmStartSnapshot.readString(in);
+            if (typecode != null && category != null) {
+                categories.put(typecode, category);
+            }
+        }
+        int cellCount = in.getInt();
+        Map<Long, Map<TypeYear, Long>> cells = new ConcurrentHashMap<>(cellCount * 2);
+        for (int i = 0; i < cellCount; i++) {
+            long key = in.getLong();
+            int entries = in.getInt();
+            Map<TypeYear, Long> counts = new ConcurrentHashMap<>(entries * 2);
+            for (int j = 0; j < entries; j++) {
+                String typecode = WarmStartSnapshot.readString(in);
+                counts.put(new TypeYear(typecode, in.getInt()), in.getLong());
+            }
+            cells.put(key, counts);
+        }
+        this.snapshot = new Snapshot(cellSize, cells, categories);
+        log.info("趋势统计从快照恢复: {} 个网格, {} 个类型编码", cellCount, categoryCount);
+    }
+
+    @Override
+    public void loadFull() {
+        if (properties.isTrendEnabled()) {
+            reload();
+        }
+    }
+
+    /**
+     * 逐个分片（未分片时为副本）聚合后合并，分片边界上的网格在多个分片中都有计数。
+     */
+    public void reload() {
+        long start = System.currentTimeMillis();
+        double cellSize = properties.getTrendCellSizeDeg();
+        Map<Long, Map<TypeYear, Long>> cells = new ConcurrentHashMap<>();
+        Map<String, String> categories = new ConcurrentHashMap<>();
+        shardFanOut.scanEach(shard -> loadShard(cellSize, cells, categories));
+        this.snapshot = new Snapshot(cellSize, cells, categories);
+        log.info("趋势统计加载完成: {} 个网格, {} 个类型编码, 耗时 {} ms",
+                cells.size(), categories.size(), System.currentTimeMillis() - start);
+    }
+
+    private void loadShard(double cellSize, Map<Long, Map<TypeYear, Long>> cells, Map<String, String> categories) {
+        jdbcTemplate.query(
+                "SELECT FLOOR(marlon / ?) AS cx, FLOOR(marlat / ?) AS cy, typecode, YEAR(`timestamp`) AS y, "
+                        + "MAX(`大类`), COUNT(*) FROM regions "
+                        + "WHERE marlon IS NOT NULL AND marlat IS NOT NULL AND `timestamp` IS NOT NULL "
+                        + "GROUP BY cx, cy, typecode, y",
+                rs -> {
+                    String typecode = rs.getString(3);
+                    cells.computeIfAbsent(cellKey(rs.getLong(1), rs.getLong(2)), key -> new ConcurrentHashMap<>())
+                            .merge(new TypeYear(typecode, rs.getInt(4)), rs.getLong(6), Long::sum);
+                    String category = rs.getString(5);
+                    if (typecode != null && category != null) {
+                        categories.putIfAbsent(typecode, category);
+                    }
+                },
+                cellSize,
+                cellSize
+        );
+    }
+
+    @EventListener
+    public void onRegionChange(RegionChangeEvent event) {
+        Snapshot current = snapshot;
+        if (current == null) {
+            return;
+        }
+        for (RegionChange change : event.getChanges()) {
+            if (change.before() != null) {
+                current.add(change.before(), -1);
+            }
+            if (change.after() != null) {
+                current.add(change.after(), 1);
+            }
+        }
+    }
+
+    public boolean isLoaded() {
+        return snapshot != null;
+    }
+
+    /**
+     * 汇总范围内各年份、类型编码的 POI 数量（GCJ-02 坐标），未加载时返回空。
+     * yearFrom/yearTo 为闭区间，可为空；typeCodes 为空时不过滤类型。
+     */
+    public Optional<Result> aggregate(SearchArea area, Integer yearFrom, Integer yearTo,
+                                      Collection<String> typeCodes) {
+        Snapshot current = snapshot;
+        if (current == null) {
+            return Optional.empty();
+        }
+        Set<String> types = typeCodes == null || typeCodes.isEmpty() ? null : new HashSet<>(typeCodes);
+        double size = current.cellSize;
+        GeoArea.Bounds bounds = area.bounds();
+        long minX = (long) Math.floor(bounds.minLon() / size);
+        long maxX = (long) Math.floor(bounds.maxLon() / size);
+        long minY = (long) Math.floor(bounds.minLat() / size);
+        long maxY = (long) Math.floor(bounds.maxLat() / size);
+
+        Map<TypeYear, double[]> totals = new HashMap<>();
+        boolean[] estimated = {false};
+        double cellsInBounds = (double) (maxX - minX + 1) * (maxY - minY + 1);
+        if (cellsInBounds <= current.cells.size()) {
+            for (long x = minX; x <= maxX; x++) {
+                for (long y = minY; y <= maxY; y++) {
+                    Map<TypeYear, Long> counts = current.cells.get(cellKey(x, y));
+                    if (counts != null) {
+                        addCell(counts, coverage(area, x, y, size), yearFrom, yearTo, types, totals, estimated);
+                    }
+                }
+            }
+        } else {
+            // 范围远大于已有网格时直接遍历网格，避免枚举大量空网格
+            current.cells.forEach((key, counts) -> {
+                long x = key >> 32;
+                long y = (int) (long) key;
+                if (x >= minX && x <= maxX && y >= minY && y <= maxY) {
+                    addCell(counts, coverage(area, x, y, size), yearFrom, yearTo, types, totals, estimated);
+                }
+            });
+        }
+
+        List<YearTypeCount> rows = new ArrayList<>(totals.size());
+        totals.forEach((key, total) -> {
+            long count = Math.round(total[0]);
+            if (count > 0) {
+                rows.add(new YearTypeCount(key.year(), key.typecode(),
+                        key.typecode() == null ? null : current.categories.get(key.typecode()), count));
+            }
+        });
+        return Optional.of(new Result(rows, estimated[0]));
+    }
+
+    private static void addCell(Map<TypeYear, Long> counts, double coverage, Integer yearFrom, Integer yearTo,
+                                Set<String> types, Map<TypeYear, double[]> totals, boolean[] estimated) {
+        if (coverage <= 0) {
+            return;
+        }
+        if (coverage < 1) {
+            estimated[0] = true;
+        }
+        counts.forEach((key, count) -> {
+            if ((yearFrom == null || key.year() >= yearFrom) && (yearTo == null || key.year() <= yearTo)
+                    && (types == null || types.contains(key.typecode()))) {
+                totals.computeIfAbsent(key, k -> new double[1])[0] += count * coverage;
+            }
+        });
+    }
+
+    // 网格内均匀取样，落在范围内的比例
+    private static double coverage(SearchArea area, long x, long y, double size) {
+        int inside = 0;
+        double step = size / SAMPLES_PER_AXIS;
+        for (int i = 0; i < SAMPLES_PER_AXIS; i++) {
+            double lon = x * size + (i + 0.5) * step;
+            for (int j = 0; j < SAMPLES_PER_AXIS; j++) {
+                if (area.contains(lon, y * size + (j + 0.5) * step)) {
+                    inside++;
+                }
+            }
+        }
+        return (double) inside / (SAMPLES_PER_AXIS * SAMPLES_PER_AXIS);
+    }
+
+    private static long cellKey(long cellX, long cellY) {
+        return (cellX << 32) ^ (cellY & 0xffffffffL);
+    }
+
+    public record Result(List<YearTypeCount> counts, boolean estimated) { }
+
+    private record TypeYear(String typecode, int year) { }
+
+    private record Snapshot(
+            double cellSize,
+            Map<Long, Map<TypeYear, Long>> cells,
+            Map<String, String> categories
+    ) {
+        void add(Region region, long delta) {
+            if (region.getMarlon() == null || region.getMarlat() == null || region.getTimestamp() == null) {
+                return;
+            }
+            long key = cellKey((long) Math.floor(region.getMarlon() / cellSize),
+                    (long) Math.floor(region.getMarlat() / cellSize));
+            TypeYear typeYear = new TypeYear(region.getTypecode(), region.getTimestamp().getYear());
+            if (delta > 0) {
+                cells.computeIfAbsent(key, k -> new ConcurrentHashMap<>()).merge(typeYear, delta, Long::sum);
+            } else {
+                // 减量只作用于已有的计数，快照之外的行被删除时不会留下负数
+                Map<TypeYear, Long> cell = cells.get(key);
+                if (cell != null) {
+                    cell.computeIfPresent(typeYear, (k, count) -> count + delta > 0 ? count + delta : null);
+                }
+            }
+            if (region.getTypecode() != null && region.getCategoryLarge() != null) {
+                categories.putIfAbsent(region.getTypecode(), region.getCategoryLarge());
+            }
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package com.example.placesearch.service;
+
+import com.example.placesearch.config.BackfillProperties;
+import com.example.placesearch.config.DataSourceRouting;
+import com.example.placesearch.repository.ShardRouter;
+import com.example.placesearch.util.LocationUtils;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 回填 regions 中缺失的 WGS84 坐标。按 id 键集分页读取，批量转换后用 JDBC batch 写回，
+ * 多个批次并行处理；在途批次数受线程数限制，内存占用恒定。分片时逐个分片回填，读写都在该分片上执行。
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class Wgs84BackfillJob implements ApplicationRunner {
+    private static final String SELECT_MISSING_SQL = "SELECT id, marlon, marlat FROM regions "
+            + "WHERE id > ? AND wgs84lon IS NULL AND marlon IS NOT NULL AND marlat IS NOT NULL "
+            + "ORDER BY id LIMIT ?";
+    private static final String UPDATE_SQL = "UPDATE regions SET wgs84lon = ?, wgs84lat = ? WHERE id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final BackfillProperties properties;
+    private final ShardRouter shardRouter;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        Thread worker = new Thread(this::backfill, "wgs84-backfill");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    public long backfill() {
+        int batchSize = Math.max(100, properties.getBatchSize());
+        int threads = Math.max(1, properties.getThreads());
+        log.info("===== 开始回填 wgs84 坐标: batchSize={}, threads={} =====", batchSize, threads);
+        long startNanos = System.nanoTime();
+
+        AtomicLong updated = new AtomicLong();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        // 未分片时 shard 为 null，走主库
+        List<String> shards = shardRouter.isEnabled() ? shardRouter.shardNames() : Collections.singletonList(null);
+        try {
+            for (String shard : shards) {
+                backfillShard(shard, batchSize, threads, executor, updated);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("wgs84 回填被中断，已更新 {} 行", updated.get());
+        } catch (Exception e) {
+            log.error("wgs84 回填失败，已更新 {} 行", updated.get(), e);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        long elapsedMs = Math.max(1, (System.nanoTime() - startNanos) / 1_000_000);
+        log.info("===== wgs84 回填完成: 更新 {} 行, 耗时 {} ms, {} 行/秒 =====",
+                updated.get(), elapsedMs, updated.get() * 1000 / elapsedMs);
+        return updated.get();
+    }
+
+    private void backfillShard(String shard, int batchSize, int threads, ExecutorService executor,
+                               AtomicLong updated) throws Exception {
+        if (shard != null) {
+            log.info("回填分片 {}", shard);
+        }
+        Semaphore inFlight = new Semaphore(threads);
+        List<Future<?>> futures = new ArrayList<>();
+        String lastId = "";
+        while (true) {
+            String afterId = lastId;
+            Batch batch = DataSourceRouting.withShard(shard, () -> readBatch(afterId, batchSize));
+            if (batch.size == 0) {
+                break;
+            }
+            lastId = batch.ids[batch.size - 1];
+            inFlight.acquire();
+            futures.add(executor.submit(() -> {
+                try {
+                    updated.addAndGet(DataSourceRouting.withShard(shard, () -> convertAndWrite(batch)));
+                } finally {
+                    inFlight.release();
+                }
+            }));
+            if (batch.size < batchSize) {
+                break;
+            }
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+    }
+
+    private Batch readBatch(String afterId, int limit) {
+        Batch batch = new Batch(limit);
+        jdbcTemplate.query(SELECT_MISSING_SQL, rs -> {
+            int i = batch.size++;
+            batch.ids[i] = rs.getString(1);
+            batch.lons[i] = rs.getDouble(2);
+            batch.lats[i] = rs.getDouble(3);
+        }, afterId, limit);
+        return batch;
+    }
+
+    private int convertAndWrite(Batch batch) {
+        LocationUtils.gcj02ToWgs84(batch.lons, batch.lats, batch.size);
+        List<Object[]> args = new ArrayList<>(batch.size);
+        for (int i = 0; i < batch.size; i++) {
+            args.add(new Object[]{batch.lons[i], batch.lats[i], batch.ids[i]});
+        }
+        jdbcTemplate.batchUpdate(UPDATE_SQL, args);
+        return batch.size;
+    }
+
+    private static final class Batch {
+        private final String[] ids;
+        private final double[] lons;
+        private final double[] lats;
+        private int size;
+
+        private Batch(int capacity) {
+            this.ids = new String[capacity];
+            this.lons = new double[capacity];
+            this.lats = new double[capacity];
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.placesearch.util;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+public class ConcurrencyUtils {
+
+    /**
+     * 在指定的 ForkJoinPool 中执行任务并等待结果，任务内的 parallelStream 也会使用该线程池。
+     */
+    public static <T> T invoke(ForkJoinPool pool, Callable<T> task) {
+        try {
+            return pool.submit(task).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("并行处理被中断", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException("并行处理失败", cause);
+        }
+    }
+
+    /**
+     * 在 executor 中执行 task。截止时间由调用方在提交前创建，排队时间也计入预算；超过 timeoutMs 仍未完成时
+     * 以 onTimeout 结束，同时取消截止时间并中断执行线程，尚未开始的任务不再执行。
+     * 线程池拒绝时直接抛出 RejectedExecutionException。
+     */
+    public static <T> CompletableFuture<T> supplyAsync(Executor executor, Deadline deadline, long timeoutMs,
+                                                       T onTimeout, Function<Deadline, T> task) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        FutureTask<Void> runner = new FutureTask<>(() -> {
+            try {
+                result.complete(task.apply(deadline));
+            } catch (Throwable e) {
+                result.completeExceptionally(e);
+            }
+        }, null);
+        executor.execute(runner);
+        result.completeOnTimeout(onTimeout, timeoutMs, TimeUnit.MILLISECONDS)
+                .thenAccept(value -> {
+                    if (value == onTimeout) {
+                        deadline.cancel();
+                        runner.cancel(true);
+                    }
+                });
+        return result;
+    }
+}
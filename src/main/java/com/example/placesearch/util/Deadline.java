@@ -0,0 +1,44 @@
+package com.example.placesearch.util;
+
+/**
+ * 单个请求的截止时间。数据库查询用剩余时间作为 JDBC 超时，进程内的筛选循环定期检查是否已过期。
+ * 调用方放弃等待后可以 {@link #cancel()}，之后视为已过期。
+ */
+public final class Deadline {
+    private final long timeoutMillis;
+    private final long deadlineNanos;
+    private volatile boolean cancelled;
+
+    private Deadline(long timeoutMillis) {
+        this.timeoutMillis = timeoutMillis;
+        this.deadlineNanos = System.nanoTime() + timeoutMillis * 1_000_000L;
+    }
+
+    public static Deadline afterMillis(long timeoutMillis) {
+        return new Deadline(Math.max(1, timeoutMillis));
+    }
+
+    public long timeoutMillis() {
+        return timeoutMillis;
+    }
+
+    public long remainingMillis() {
+        if (cancelled) {
+            return 0;
+        }
+        return Math.max(0, (deadlineNanos - System.nanoTime()) / 1_000_000L);
+    }
+
+    public boolean isExpired() {
+        return cancelled || System.nanoTime() - deadlineNanos >= 0;
+    }
+
+    public void cancel() {
+        cancelled = true;
+    }
+
+    @Override
+    public String toString() {
+        return "Deadline{timeout=" + timeoutMillis + "ms, remaining=" + remainingMillis() + "ms}";
+    }
+}
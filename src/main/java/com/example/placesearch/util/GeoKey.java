@@ -0,0 +1,145 @@
+package com.example.placesearch.util;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * regions 的地理聚簇键：GCJ-02 经纬度各量化为 31 位整数后按位交错（Z-order / Morton），
+ * 相邻的点键值大多相近，按 (geo_key, id) 聚簇后一个矩形范围只落在少数几段连续的主键区间上。
+ * 与 db/regions_geo_key.sql 中的 regions_geo_key() 计算结果一致。
+ */
+public final class GeoKey {
+    public static final int BITS = 31;
+    // 没有坐标的行统一放在末尾
+    public static final long MISSING = Long.MAX_VALUE;
+
+    private static final long CELLS = 1L << BITS;
+
+    private GeoKey() {
+    }
+
+    public static long of(Double lon, Double lat) {
+        if (lon == null || lat == null) {
+            return MISSING;
+        }
+        return interleave(quantizeLon(lon), quantizeLat(lat));
+    }
+
+    /**
+     * 覆盖矩形的键区间（闭区间，按起点排序、相邻区间已合并），最多约 maxRanges 段。
+     * 区间是矩形的超集，查询仍需保留原有的坐标条件。
+     */
+    public static List<long[]> cover(double minLon, double maxLon, double minLat, double maxLat, int maxRanges) {
+        List<long[]> ranges = new ArrayList<>();
+        if (minLon > maxLon || minLat > maxLat) {
+            return ranges;
+        }
+        long x0 = quantizeLon(minLon);
+        long x1 = quantizeLon(maxLon);
+        long y0 = quantizeLat(minLat);
+        long y1 = quantizeLat(maxLat);
+
+        // 逐层细分与矩形部分相交的格子，完全在矩形内的格子直接输出；
+        // 细分后区间数会超过上限时停止，未细分的格子整格输出
+        int limit = Math.max(1, maxRanges);
+        List<long[]> frontier = new ArrayList<>();
+        frontier.add(new long[]{0, 0});
+        int level = 0;
+        while (!frontier.isEmpty() && level < BITS) {
+            int shift = BITS - level - 1;
+            List<long[]> contained = new ArrayList<>();
+            List<long[]> partial = new ArrayList<>();
+            for (long[] cell : frontier) {
+                for (int child = 0; child < 4; child++) {
+                    long cx = (cell[0] << 1) | (child & 1);
+                    long cy = (cell[1] << 1) | (child >> 1);
+                    long cellX0 = cx << shift;
+                    long cellX1 = ((cx + 1) << shift) - 1;
+                    long cellY0 = cy << shift;
+                    long cellY1 = ((cy + 1) << shift) - 1;
+                    if (cellX1 < x0 || cellX0 > x1 || cellY1 < y0 || cellY0 > y1) {
+                        continue;
+                    }
+                    if (cellX0 >= x0 && cellX1 <= x1 && cellY0 >= y0 && cellY1 <= y1) {
+                        contained.add(range(cx, cy, level + 1));
+                    } else {
+                        partial.add(new long[]{cx, cy});
+                    }
+                }
+            }
+            // 相邻区间合并后才是 SQL 中的区间数
+            List<long[]> candidate = new ArrayList<>(ranges.size() + contained.size() + partial.size());
+            for (long[] range : ranges) {
+                candidate.add(range.clone());
+            }
+            for (long[] range : contained) {
+                candidate.add(range.clone());
+            }
+            for (long[] cell : partial) {
+                candidate.add(range(cell[0], cell[1], level + 1));
+            }
+            if (merge(candidate).size() > limit) {
+                break;
+            }
+            ranges.addAll(contained);
+            frontier = partial;
+            level++;
+        }
+        for (long[] cell : frontier) {
+            ranges.add(range(cell[0], cell[1], level));
+        }
+        return merge(ranges);
+    }
+
+    static long quantizeLon(double lon) {
+        return quantize((lon + 180) / 360 * CELLS);
+    }
+
+    static long quantizeLat(double lat) {
+        return quantize((lat + 90) / 180 * CELLS);
+    }
+
+    private static long quantize(double scaled) {
+        return Math.max(0, Math.min(CELLS - 1, (long) Math.floor(scaled)));
+    }
+
+    // 第 level 层格子 (x, y) 对应的键区间
+    private static long[] range(long x, long y, int level) {
+        int shift = 2 * (BITS - level);
+        long prefix = interleave(x, y);
+        return new long[]{prefix << shift, ((prefix + 1) << shift) - 1};
+    }
+
+    // x 占偶数位，y 占奇数位
+    static long interleave(long x, long y) {
+        return spread(x) | (spread(y) << 1);
+    }
+
+    private static long spread(long v) {
+        v &= 0xFFFFFFFFL;
+        v = (v | (v << 16)) & 0x0000FFFF0000FFFFL;
+        v = (v | (v << 8)) & 0x00FF00FF00FF00FFL;
+        v = (v | (v << 4)) & 0x0F0F0F0F0F0F0F0FL;
+        v = (v | (v << 2)) & 0x3333333333333333L;
+        v = (v | (v << 1)) & 0x5555555555555555L;
+        return v;
+    }
+
+    /**
+     * 按起点排序并合并重叠或相邻的区间，会修改传入的区间。
+     */
+    public static List<long[]> merge(List<long[]> ranges) {
+        ranges.sort(Comparator.comparingLong(range -> range[0]));
+        List<long[]> merged = new ArrayList<>(ranges.size());
+        for (long[] range : ranges) {
+            long[] last = merged.isEmpty() ? null : merged.get(merged.size() - 1);
+            if (last != null && range[0] <= last[1] + 1) {
+                last[1] = Math.max(last[1], range[1]);
+            } else {
+                merged.add(range);
+            }
+        }
+        return merged;
+    }
+}
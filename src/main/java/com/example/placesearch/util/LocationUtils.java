@@ -4,6 +4,7 @@ public class LocationUtils {
     private static final int DEFAULT_MAX_ITER = 10;
     private static final double DEFAULT_THRESHOLD = 1e-6;
     private static final double EARTH_RADIUS_M = 6371000.0;
+    public static final double METERS_PER_DEGREE_LAT = EARTH_RADIUS_M * Math.PI / 180.0;
 
     public static double[] gcj02ToWgs84(double lng, double lat) {
         return gcj02ToWgs84(lng, lat, DEFAULT_MAX_ITER, DEFAULT_THRESHOLD);
@@ -30,6 +31,40 @@ public class LocationUtils {
         return new double[]{guessLng, guessLat};
     }
 
+    /**
+     * 批量 GCJ-02 转 WGS84，结果原地写回 lngs/lats 的前 count 个元素。
+     * 按列数组逐点处理并复用偏移量缓冲区，整批转换不产生中间对象。
+     */
+    public static void gcj02ToWgs84(double[] lngs, double[] lats, int count) {
+        double[] offset = new double[2];
+        for (int k = 0; k < count; k++) {
+            double lng = lngs[k];
+            double lat = lats[k];
+            if (!Double.isFinite(lng) || !Double.isFinite(lat) || outOfChina(lng, lat)) {
+                continue;
+            }
+            double guessLng = lng;
+            double guessLat = lat;
+            for (int i = 0; i < DEFAULT_MAX_ITER; i++) {
+                if (outOfChina(guessLng, guessLat)) {
+                    offset[0] = 0;
+                    offset[1] = 0;
+                } else {
+                    gcjOffset(guessLng, guessLat, offset);
+                }
+                double dLng = guessLng + offset[0] - lng;
+                double dLat = guessLat + offset[1] - lat;
+                if (Math.abs(dLng) < DEFAULT_THRESHOLD && Math.abs(dLat) < DEFAULT_THRESHOLD) {
+                    break;
+                }
+                guessLng -= dLng;
+                guessLat -= dLat;
+            }
+            lngs[k] = guessLng;
+            lats[k] = guessLat;
+        }
+    }
+
     public static double haversineMeters(double lng1, double lat1, double lng2, double lat2) {
         double phi1 = Math.toRadians(lat1);
         double phi2 = Math.toRadians(lat2);
@@ -43,22 +78,43 @@ public class LocationUtils {
         return EARTH_RADIUS_M * c;
     }
 
+    public static double metersPerDegreeLon(double lat) {
+        return METERS_PER_DEGREE_LAT * Math.cos(Math.toRadians(lat));
+    }
+
+    /**
+     * 包含以 (lng, lat) 为圆心、radiusMeters 为半径的圆的经纬度矩形 {minLng, maxLng, minLat, maxLat}，
+     * 用作距离计算前的粗筛条件。
+     */
+    public static double[] boundingBox(double lng, double lat, double radiusMeters) {
+        double dLat = radiusMeters / METERS_PER_DEGREE_LAT;
+        double maxAbsLat = Math.min(89.0, Math.abs(lat) + dLat);
+        double dLng = radiusMeters / metersPerDegreeLon(maxAbsLat);
+        return new double[]{lng - dLng, lng + dLng, lat - dLat, lat + dLat};
+    }
+
     private static double[] wgs84ToGcj02(double lng, double lat) {
         if (outOfChina(lng, lat)) {
             return new double[]{lng, lat};
         }
 
+        double[] offset = new double[2];
+        gcjOffset(lng, lat, offset);
+        double mgLat = lat + offset[1];
+        double mgLng = lng + offset[0];
+        return new double[]{mgLng, mgLat};
+    }
+
+    // WGS84 -> GCJ-02 的偏移量，写入 out[0]=dLng, out[1]=dLat
+    private static void gcjOffset(double lng, double lat, double[] out) {
         double dLat = transformLat(lng - 105.0, lat - 35.0);
         double dLng = transformLng(lng - 105.0, lat - 35.0);
         double radLat = lat / 180.0 * Math.PI;
         double magic = Math.sin(radLat);
         magic = 1 - 0.00669342162296594323 * magic * magic;
         double sqrtMagic = Math.sqrt(magic);
-        dLat = (dLat * 180.0) / ((6378245.0 * (1 - 0.00669342162296594323)) / (magic * sqrtMagic) * Math.PI);
-        dLng = (dLng * 180.0) / (6378245.0 / sqrtMagic * Math.cos(radLat) * Math.PI);
-        double mgLat = lat + dLat;
-        double mgLng = lng + dLng;
-        return new double[]{mgLng, mgLat};
+        out[1] = (dLat * 180.0) / ((6378245.0 * (1 - 0.00669342162296594323)) / (magic * sqrtMagic) * Math.PI);
+        out[0] = (dLng * 180.0) / (6378245.0 / sqrtMagic * Math.cos(radLat) * Math.PI);
     }
 
     private static double transformLat(double lng, double lat) {
@@ -0,0 +1,82 @@
+package com.example.placesearch.util;
+
+import org.springframework.util.StringUtils;
+
+import java.util.regex.Pattern;
+
+public class PoiNameUtils {
+    private static final Pattern PARKING_SUFFIX_PATTERN = Pattern.compile(
+            "(停车场)?(出入口|入口|出口|东门|西门|南门|北门|[A-Za-z]口|\\d+号口)$"
+    );
+
+    /**
+     * 停车场类 POI 的去重名称：去掉空白和出入口后缀。非停车场或名称为空时返回 null。
+     */
+    public static String parkingDedupName(String typecode, String name) {
+        if (!isParkingLike(typecode, name)) {
+            return null;
+        }
+        String canonical = canonicalParkingName(name);
+        return canonical.isEmpty() ? null : canonical;
+    }
+
+    public static boolean isParkingLike(String typecode, String name) {
+        if (normalizeText(typecode).startsWith("1509")) {
+            return true;
+        }
+        return name != null && name.contains("停车");
+    }
+
+    public static String canonicalParkingName(String rawName) {
+        String name = normalizeText(rawName);
+        if (name.isEmpty()) {
+            return name;
+        }
+        // 后缀正则只在名称以“口/门”结尾时才可能命中，先做廉价判断
+        char last = name.charAt(name.length() - 1);
+        if (last == '口' || last == '门') {
+            name = PARKING_SUFFIX_PATTERN.matcher(name).replaceAll("");
+        }
+        if (name.contains("停车场出") || name.contains("停车场入")) {
+            name = name.replace("停车场出入口", "停车场")
+                    .replace("停车场入口", "停车场")
+                    .replace("停车场出口", "停车场");
+        }
+        return name;
+    }
+
+    /**
+     * 与原先 value.replaceAll("\\s+", "").trim() 等价：去掉 \s 匹配的 ASCII 空白，再 trim 首尾控制字符。
+     * 全角空格（U+3000）等非 ASCII 空白保留在名称中间，不参与去除。空白串或 null 视为空串。
+     */
+    public static String normalizeText(String value) {
+        if (!StringUtils.hasText(value)) {
+            return "";
+        }
+        int length = value.length();
+        int firstSpace = -1;
+        for (int i = 0; i < length; i++) {
+            if (isRegexSpace(value.charAt(i))) {
+                firstSpace = i;
+                break;
+            }
+        }
+        if (firstSpace < 0) {
+            return value.trim();
+        }
+        StringBuilder sb = new StringBuilder(length);
+        sb.append(value, 0, firstSpace);
+        for (int i = firstSpace + 1; i < length; i++) {
+            char c = value.charAt(i);
+            if (!isRegexSpace(c)) {
+                sb.append(c);
+            }
+        }
+        return sb.toString().trim();
+    }
+
+    // 正则 \s 的默认字符集：[ \t\n\x0B\f\r]
+    private static boolean isRegexSpace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.placesearch.warmup;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * 预热完成前报告 OUT_OF_SERVICE；已加入 readiness 分组（见 application.yml），
+ * 负载均衡在预热完成后才会转发流量。加载失败的结构列在 failed 中，重试成功后才就绪。
+ */
+@Component("warmStart")
+@RequiredArgsConstructor
+public class WarmStartHealthIndicator implements HealthIndicator {
+    private final WarmStartService warmStartService;
+
+    @Override
+    public Health health() {
+        if (!warmStartService.isWarm()) {
+            List<String> failed = warmStartService.failedParticipants();
+            if (!failed.isEmpty()) {
+                return Health.outOfService()
+                        .withDetail("reason", "load failed")
+                        .withDetail("failed", failed)
+                        .build();
+            }
+            return Health.outOfService().withDetail("reason", "warming up").build();
+        }
+        return Health.up()
+                .withDetail("source", warmStartService.source())
+                .withDetail("warmUpMs", warmStartService.warmUpMs())
+                .build();
+    }
+}
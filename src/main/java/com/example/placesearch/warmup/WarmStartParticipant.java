@@ -0,0 +1,39 @@
+package com.example.placesearch.warmup;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * 需要在启动时预热的内存结构。快照中有对应段时从快照恢复，否则从数据库全量加载；
+ * 之后的增量都由 {@link com.example.placesearch.ingest.RegionChangeEvent} 补齐。
+ * 不写快照的结构（例如来自本地文件的数据）只需实现 {@link #loadFull()}。
+ */
+public interface WarmStartParticipant {
+
+    /**
+     * 快照中的段名，修改数据格式时应同时修改段名，旧快照会被忽略。
+     * 返回 null 表示不参与快照（或功能未启用），每次启动都全量加载。
+     */
+    default String snapshotSection() {
+        return null;
+    }
+
+    /**
+     * 是否有可写入快照的数据（功能未启用或尚未加载时返回 false）。
+     */
+    default boolean isSnapshotReady() {
+        return false;
+    }
+
+    default void writeSnapshot(DataOutputStream out) throws IOException {
+    }
+
+    /**
+     * 从快照段恢复，数据与当前配置不匹配时抛出 IllegalStateException，改为全量加载。
+     */
+    default void readSnapshot(ByteBuffer in) {
+    }
+
+    void loadFull();
+}
@@ -0,0 +1,235 @@
+package com.example.placesearch.warmup;
+
+import com.example.placesearch.config.SnapshotProperties;
+import com.example.placesearch.ingest.RegionChangeFeed;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 启动预热：有快照时 mmap 读取并恢复各内存结构，再从快照的变更日志版本开始回放增量；
+ * 没有快照（或 regions 已被整表替换）时从数据库全量加载。所有结构共用一个变更日志版本，
+ * 快照缺少任一启用结构的段时整体改为全量加载，避免全量加载的结构再回放一遍快照之后的变更。
+ * 全部加载成功前 readiness 探针不就绪，失败的结构定期重试。
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class WarmStartService {
+    private static final String REGIONS_CREATE_TIME_SQL = "SELECT COALESCE(UNIX_TIMESTAMP(CREATE_TIME), 0) "
+            + "FROM information_schema.TABLES WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'regions'";
+
+    private final List<WarmStartParticipant> participants;
+    private final RegionChangeFeed changeFeed;
+    private final SnapshotProperties properties;
+    private final JdbcTemplate jdbcTemplate;
+
+    private volatile boolean warm;
+    private volatile String source;
+    private volatile long warmUpMs;
+    // 加载失败、等待重试的结构
+    private volatile List<WarmStartParticipant> failed = List.of();
+
+    public boolean isWarm() {
+        return warm;
+    }
+
+    public String source() {
+        return source;
+    }
+
+    public long warmUpMs() {
+        return warmUpMs;
+    }
+
+    public List<String> failedParticipants() {
+        return failed.stream().map(WarmStartService::nameOf).toList();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUpInBackground() {
+        Thread loader = new Thread(this::warmUp, "warm-start");
+        loader.setDaemon(true);
+        loader.start();
+    }
+
+    public synchronized void warmUp() {
+        long start = System.currentTimeMillis();
+        WarmStartSnapshot snapshot = properties.isEnabled() ? readSnapshot() : null;
+        boolean restored = snapshot != null && restoreAll(snapshot);
+        if (restored) {
+            changeFeed.startFrom(snapshot.changelogVersion());
+            source = "snapshot";
+        } else {
+            // 先记下当前版本再加载，加载期间写入的变更随后回放
+            initializeFeed();
+            source = "database";
+        }
+        List<WarmStartParticipant> failures = new ArrayList<>();
+        for (WarmStartParticipant participant : participants) {
+            // 已从快照恢复的结构不再加载；其余（不参与快照或整体改为全量时的全部结构）从数据库加载
+            if (restored && participant.snapshotSection() != null) {
+                continue;
+            }
+            if (!load(participant)) {
+                failures.add(participant);
+            }
+        }
+        catchUp();
+        warmUpMs = System.currentTimeMillis() - start;
+        failed = List.copyOf(failures);
+        warm = failures.isEmpty();
+        if (warm) {
+            log.info("预热完成: 来源 {}, 耗时 {} ms", source, warmUpMs);
+        } else {
+            log.warn("预热未完成: 来源 {}, 耗时 {} ms, 加载失败 {}", source, warmUpMs, failedParticipants());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${place.snapshot.retry-interval-ms:30000}",
+            initialDelayString = "${place.snapshot.retry-interval-ms:30000}")
+    public synchronized void retryFailed() {
+        if (failed.isEmpty()) {
+            return;
+        }
+        List<WarmStartParticipant> failures = new ArrayList<>();
+        for (WarmStartParticipant participant : failed) {
+            if (!load(participant)) {
+                failures.add(participant);
+            }
+        }
+        failed = List.copyOf(failures);
+        if (failures.isEmpty()) {
+            warm = true;
+            log.info("预热完成: 失败的结构已重新加载");
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${place.snapshot.interval-ms:600000}",
+            initialDelayString = "${place.snapshot.interval-ms:600000}")
+    public void writePeriodically() {
+        if (properties.isEnabled() && warm) {
+            writeSnapshot();
+        }
+    }
+
+    @PreDestroy
+    public void writeOnShutdown() {
+        if (properties.isEnabled() && warm) {
+            writeSnapshot();
+        }
+    }
+
+    public void writeSnapshot() {
+        List<WarmStartParticipant> ready = participants.stream().filter(WarmStartParticipant::isSnapshotReady).toList();
+        Path path = Path.of(properties.getPath());
+        long createTime = regionsCreateTime();
+        try {
+            // 持有变更流的锁，保证写入的版本号与内存状态一致
+            changeFeed.atCurrentVersion(version -> {
+                WarmStartSnapshot.write(path, version, createTime, ready);
+                log.info("预热快照已写入 {}: 版本 {}, {} 段", path, version, ready.size());
+            });
+        } catch (IOException | RuntimeException e) {
+            log.warn("写入预热快照失败: {}", e.getMessage());
+        }
+    }
+
+    private WarmStartSnapshot readSnapshot() {
+        Path path = Path.of(properties.getPath());
+        if (!Files.isRegularFile(path)) {
+            log.info("预热快照 {} 不存在，从数据库加载", path);
+            return null;
+        }
+        try {
+            WarmStartSnapshot snapshot = WarmStartSnapshot.read(path);
+            long createTime = regionsCreateTime();
+            // regions 被整表替换（全量导入）后变更日志无法描述差异，快照作废
+            if (createTime > 0 && snapshot.regionsCreateTime() > 0 && createTime != snapshot.regionsCreateTime()) {
+                log.info("regions 已重建，忽略预热快照 {}", path);
+                return null;
+            }
+            return snapshot;
+        } catch (IOException | RuntimeException e) {
+            log.warn("读取预热快照 {} 失败，从数据库加载: {}", path, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * 从快照恢复所有参与快照的结构。任一结构缺段或段无法使用时返回 false，由调用方整体改为全量加载。
+     */
+    private boolean restoreAll(WarmStartSnapshot snapshot) {
+        for (WarmStartParticipant participant : participants) {
+            String name = participant.snapshotSection();
+            if (name == null) {
+                continue;
+            }
+            ByteBuffer section = snapshot.section(name);
+            if (section == null) {
+                log.info("预热快照缺少段 {}，改为全量加载", name);
+                return false;
+            }
+            try {
+                participant.readSnapshot(section);
+            } catch (RuntimeException e) {
+                log.warn("快照段 {} 无法使用，改为全量加载: {}", name, e.getMessage());
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean load(WarmStartParticipant participant) {
+        try {
+            participant.loadFull();
+            return true;
+        } catch (RuntimeException e) {
+            log.error("{} 加载失败", nameOf(participant), e);
+            return false;
+        }
+    }
+
+    private static String nameOf(WarmStartParticipant participant) {
+        return participant.getClass().getSimpleName();
+    }
+
+    private void initializeFeed() {
+        try {
+            changeFeed.ensureInitialized();
+        } catch (DataAccessException e) {
+            log.warn("region_changelog 不可用，增量同步未启用（建表脚本见 db/region_changelog.sql）: {}",
+                    e.getMessage());
+        }
+    }
+
+    private void catchUp() {
+        try {
+            changeFeed.poll();
+        } catch (DataAccessException e) {
+            log.warn("回放变更日志失败: {}", e.getMessage());
+        }
+    }
+
+    private long regionsCreateTime() {
+        try {
+            Long createTime = jdbcTemplate.queryForObject(REGIONS_CREATE_TIME_SQL, Long.class);
+            return createTime == null ? 0 : createTime;
+        } catch (DataAccessException e) {
+            return 0;
+        }
+    }
+}
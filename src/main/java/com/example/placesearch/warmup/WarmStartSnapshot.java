@@ -0,0 +1,175 @@
+package com.example.placesearch.warmup;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 预热快照文件格式（大端序）：
+ * magic, formatVersion, changelogVersion, regionsCreateTime, writtenAt, sectionCount,
+ * 然后每段为 name, length(long), payload。写入时各段直接流式写入文件，写完后回填段长度；
+ * 读取时每段单独 mmap，不额外复制，文件总大小不受单个映射 2 GB 的限制（单段仍不能超过 2 GB）。
+ */
+public final class WarmStartSnapshot {
+    private static final int MAGIC = 0x504C5353;
+    private static final int FORMAT_VERSION = 2;
+    private static final int HEADER_BYTES = 4 + 4 + 8 + 8 + 8 + 4;
+
+    private final long changelogVersion;
+    private final long regionsCreateTime;
+    private final long writtenAt;
+    private final Map<String, ByteBuffer> sections;
+
+    private WarmStartSnapshot(long changelogVersion, long regionsCreateTime, long writtenAt,
+                              Map<String, ByteBuffer> sections) {
+        this.changelogVersion = changelogVersion;
+        this.regionsCreateTime = regionsCreateTime;
+        this.writtenAt = writtenAt;
+        this.sections = sections;
+    }
+
+    public long changelogVersion() {
+        return changelogVersion;
+    }
+
+    public long regionsCreateTime() {
+        return regionsCreateTime;
+    }
+
+    public long writtenAt() {
+        return writtenAt;
+    }
+
+    /**
+     * 返回段内容的只读副本（独立的读位置），没有该段时返回 null。
+     */
+    public ByteBuffer section(String name) {
+        ByteBuffer section = sections.get(name);
+        return section == null ? null : section.asReadOnlyBuffer();
+    }
+
+    public static WarmStartSnapshot read(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < HEADER_BYTES) {
+                throw new IOException("不是预热快照文件: " + path);
+            }
+            ByteBuffer header = readAt(channel, 0, HEADER_BYTES);
+            if (header.getInt() != MAGIC) {
+                throw new IOException("不是预热快照文件: " + path);
+            }
+            int formatVersion = header.getInt();
+            if (formatVersion != FORMAT_VERSION) {
+                throw new IOException("快照格式版本不匹配: " + formatVersion);
+            }
+            long changelogVersion = header.getLong();
+            long regionsCreateTime = header.getLong();
+            long writtenAt = header.getLong();
+            int count = header.getInt();
+            Map<String, ByteBuffer> sections = new HashMap<>(count * 2);
+            long position = HEADER_BYTES;
+            for (int i = 0; i < count; i++) {
+                int nameLength = readAt(channel, position, Integer.BYTES).getInt();
+                position += Integer.BYTES;
+                if (nameLength < 0 || nameLength > size - position) {
+                    throw new IOException("快照段名长度无效: " + nameLength);
+                }
+                String name = StandardCharsets.UTF_8.decode(readAt(channel, position, nameLength)).toString();
+                position += nameLength;
+                long length = readAt(channel, position, Long.BYTES).getLong();
+                position += Long.BYTES;
+                if (length < 0 || length > Integer.MAX_VALUE || length > size - position) {
+                    throw new IOException("快照段 " + name + " 长度无效: " + length);
+                }
+                // 映射在通道关闭后仍然有效
+                sections.put(name, channel.map(FileChannel.MapMode.READ_ONLY, position, length));
+                position += length;
+            }
+            return new WarmStartSnapshot(changelogVersion, regionsCreateTime, writtenAt, sections);
+        }
+    }
+
+    private static ByteBuffer readAt(FileChannel channel, long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new EOFException("快照文件不完整");
+            }
+        }
+        return buffer.flip();
+    }
+
+    /**
+     * 先写临时文件再原子替换，进程中途退出不会留下半个快照。各段直接写入文件，不在内存中缓冲整段。
+     */
+    public static void write(Path path, long changelogVersion, long regionsCreateTime,
+                             List<WarmStartParticipant> participants) throws IOException {
+        Path parent = path.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel), 1 << 16));
+            out.writeInt(MAGIC);
+            out.writeInt(FORMAT_VERSION);
+            out.writeLong(changelogVersion);
+            out.writeLong(regionsCreateTime);
+            out.writeLong(System.currentTimeMillis());
+            out.writeInt(participants.size());
+            for (WarmStartParticipant participant : participants) {
+                writeString(out, participant.snapshotSection());
+                // 先写长度占位，段写完后按位置回填
+                out.flush();
+                long lengthAt = channel.position();
+                out.writeLong(0);
+                participant.writeSnapshot(out);
+                out.flush();
+                long length = channel.position() - lengthAt - Long.BYTES;
+                if (length > Integer.MAX_VALUE) {
+                    throw new IOException("快照段 " + participant.snapshotSection() + " 超过 2 GB: " + length);
+                }
+                ByteBuffer lengthBytes = ByteBuffer.allocate(Long.BYTES).putLong(0, length);
+                while (lengthBytes.hasRemaining()) {
+                    channel.write(lengthBytes, lengthAt + lengthBytes.position());
+                }
+            }
+            out.flush();
+        }
+        Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    // null 写为长度 -1
+    public static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    public static String readString(ByteBuffer in) {
+        int length = in.getInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
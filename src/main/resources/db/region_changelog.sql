@@ -0,0 +1,15 @@
+-- regions 的变更日志：每次 upsert 追加一行（op 为 INSERT 或 UPDATE），version 单调递增。
+-- old_* 记录变更前的行（新插入时为 NULL），内存中的统计据此先减后加，无需全量重载。
+CREATE TABLE IF NOT EXISTS region_changelog (
+    version       BIGINT       NOT NULL AUTO_INCREMENT,
+    region_id     VARCHAR(255) NOT NULL,
+    op            VARCHAR(16)  NOT NULL,
+    old_marlon    DOUBLE       NULL,
+    old_marlat    DOUBLE       NULL,
+    old_cityname  VARCHAR(100) NULL,
+    old_typecode  VARCHAR(50)  NULL,
+    old_timestamp DATETIME     NULL,
+    changed_at    DATETIME     NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (version),
+    KEY idx_region_changelog_region (region_id)
+) ENGINE = InnoDB DEFAULT CHARSET = utf8mb4;
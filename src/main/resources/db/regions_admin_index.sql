@@ -0,0 +1,4 @@
+-- 行政区检索（/place/city 的 adcode 参数）使用的索引：省级按 pcode 等值，地级按 adcode 前缀范围扫描，区县级按 adcode 等值。
+-- 已有库执行一次即可；新建库由 JPA 按 Region 上的 @Index 创建。
+CREATE INDEX idx_regions_pcode ON regions (pcode);
+CREATE INDEX idx_regions_adcode ON regions (adcode);
@@ -0,0 +1,39 @@
+-- regions 按地理位置聚簇：主键改为 (geo_key, id)，id 保留唯一索引。
+-- geo_key 为 GCJ-02 经纬度各量化为 31 位后按位交错的 Z-order 值（与 util/GeoKey 一致），没有坐标的行为 BIGINT 最大值。
+-- 相邻的 POI 落在相邻的主键页上，矩形范围查询按 geo_key 区间连续读取，而不是按 id 散落在整张表中。
+-- 加列后增量写入和 BulkLoader 即自动计算 geo_key；执行完成后开启 place.geo-key.enabled（PLACE_GEO_KEY_ENABLED=true），查询附加区间条件。
+-- 也可以只执行第 1、2、4 步后用 BulkLoader 全量重新导入：影子表按正式表结构创建，导入时自动写入 geo_key。
+
+-- 1. 与 GeoKey.of 相同的计算，只用于一次性回填
+DELIMITER //
+CREATE FUNCTION regions_geo_key(lon DOUBLE, lat DOUBLE) RETURNS BIGINT DETERMINISTIC NO SQL
+BEGIN
+    DECLARE x BIGINT;
+    DECLARE y BIGINT;
+    DECLARE k BIGINT DEFAULT 0;
+    DECLARE i INT DEFAULT 0;
+    IF lon IS NULL OR lat IS NULL THEN
+        RETURN 9223372036854775807;
+    END IF;
+    SET x = LEAST(GREATEST(FLOOR((lon + 180) / 360 * 2147483648), 0), 2147483647);
+    SET y = LEAST(GREATEST(FLOOR((lat + 90) / 180 * 2147483648), 0), 2147483647);
+    WHILE i < 31 DO
+        SET k = k | (((x >> i) & 1) << (2 * i)) | (((y >> i) & 1) << (2 * i + 1));
+        SET i = i + 1;
+    END WHILE;
+    RETURN k;
+END //
+DELIMITER ;
+
+-- 2. 新增列，并先建好 id 唯一索引（按 id 的更新、删除和去重都依赖它）
+ALTER TABLE regions
+    ADD COLUMN geo_key BIGINT NOT NULL DEFAULT 9223372036854775807,
+    ADD UNIQUE INDEX uk_regions_id (id);
+
+-- 3. 回填
+UPDATE regions SET geo_key = regions_geo_key(marlon, marlat);
+
+-- 4. 更换聚簇主键，InnoDB 按 geo_key 顺序重建整张表
+ALTER TABLE regions DROP PRIMARY KEY, ADD PRIMARY KEY (geo_key, id);
+
+DROP FUNCTION regions_geo_key;
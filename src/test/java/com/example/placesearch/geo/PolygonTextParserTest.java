@@ -0,0 +1,84 @@
+package com.example.placesearch.geo;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Locale;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class PolygonTextParserTest {
+
+    // 快速路径的结果必须与 Double.parseDouble 逐位一致
+    @Test
+    void decimalsMatchDoubleParseDouble() {
+        Random random = new Random(42);
+        for (int i = 0; i < 200_000; i++) {
+            String lng = randomDecimal(random);
+            String lat = randomDecimal(random);
+            double[][] parsed = PolygonTextParser.parseSemicolon(lng + "," + lat);
+            assertBitsEqual(Double.parseDouble(lng), parsed[0][0], lng);
+            assertBitsEqual(Double.parseDouble(lat), parsed[1][0], lat);
+        }
+    }
+
+    @Test
+    void uncommonFormsFallBackToDoubleParseDouble() {
+        String[] samples = {
+                "1e2", "-1.5E-3", "+116.5", "116.", ".5", "-0", "-0.0", "0.1000000000000000055511151231257827",
+                "12345678901234567890.5", "1.00000000000000000000000001", "9007199254740993"
+        };
+        for (String sample : samples) {
+            double[][] parsed = PolygonTextParser.parseSemicolon(sample + ", " + sample);
+            assertBitsEqual(Double.parseDouble(sample), parsed[0][0], sample);
+            assertBitsEqual(Double.parseDouble(sample), parsed[1][0], sample);
+        }
+    }
+
+    @Test
+    void semicolonTextIgnoresBlankItemsAndWhitespace() {
+        double[][] parsed = PolygonTextParser.parseSemicolon(" 116.1 , 39.1 ;; 116.2,39.2;\n116.3,39.3 ; ");
+        assertArrayEquals(new double[]{116.1, 116.2, 116.3}, parsed[0]);
+        assertArrayEquals(new double[]{39.1, 39.2, 39.3}, parsed[1]);
+    }
+
+    @Test
+    void malformedSemicolonTextIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> PolygonTextParser.parseSemicolon("116.1;39.1"));
+        assertThrows(IllegalArgumentException.class, () -> PolygonTextParser.parseSemicolon("116.1,39.1,0"));
+        assertThrows(IllegalArgumentException.class, () -> PolygonTextParser.parseSemicolon("116.1,abc"));
+        assertThrows(IllegalArgumentException.class, () -> PolygonTextParser.parseSemicolon("-,39.1"));
+    }
+
+    @Test
+    void jsonArrayMatchesSemicolonText() {
+        double[][] parsed = PolygonTextParser.parseJsonArray("[[116.1, 39.1], [116.2,39.2,15.0] ,[1e-3,-2.5E1]]");
+        assertArrayEquals(new double[]{116.1, 116.2, 1e-3}, parsed[0]);
+        assertArrayEquals(new double[]{39.1, 39.2, -25}, parsed[1]);
+        assertEquals(0, PolygonTextParser.parseJsonArray(" [ ] ")[0].length);
+    }
+
+    @Test
+    void unsupportedJsonFallsBackToJackson() {
+        assertNull(PolygonTextParser.parseJsonArray("[[\"116.1\", 39.1]]"));
+        assertNull(PolygonTextParser.parseJsonArray("[[null, 39.1]]"));
+        assertThrows(IllegalArgumentException.class, () -> PolygonTextParser.parseJsonArray("[116.1, 39.1]"));
+        assertThrows(IllegalArgumentException.class, () -> PolygonTextParser.parseJsonArray("[[116.1, 39.1]] x"));
+    }
+
+    private static String randomDecimal(Random random) {
+        return switch (random.nextInt(4)) {
+            case 0 -> String.format(Locale.ROOT, "%.6f", random.nextDouble() * 360 - 180);
+            case 1 -> String.format(Locale.ROOT, "%." + random.nextInt(18) + "f", random.nextDouble() * 180 - 90);
+            case 2 -> Double.toString(random.nextDouble() * 360 - 180);
+            default -> Long.toString(random.nextLong() % 1_000_000_000_000L) + "." + random.nextInt(1000);
+        };
+    }
+
+    private static void assertBitsEqual(double expected, double actual, String text) {
+        assertEquals(Double.doubleToRawLongBits(expected), Double.doubleToRawLongBits(actual), text);
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.placesearch.index;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class DocIdTableTest {
+
+    // 小键空间上反复增删，探测链频繁相互交叠，后移删除出错时后续查找会提前遇到空位
+    @Test
+    void randomOperationsMatchHashMap() {
+        Random random = new Random(7);
+        DocIdTable table = new DocIdTable(0);
+        Map<String, Integer> expected = new HashMap<>();
+        for (int i = 0; i < 500_000; i++) {
+            String id = "poi" + random.nextInt(5_000);
+            switch (random.nextInt(3)) {
+                case 0 -> {
+                    table.put(id, i);
+                    expected.put(id, i);
+                }
+                case 1 -> {
+                    Integer removed = expected.remove(id);
+                    assertEquals(removed == null ? -1 : removed, table.remove(id), id);
+                }
+                default -> assertEquals(expected.getOrDefault(id, -1).intValue(), table.get(id), id);
+            }
+            assertEquals(expected.size(), table.size());
+        }
+        for (Map.Entry<String, Integer> entry : expected.entrySet()) {
+            assertEquals(entry.getValue().intValue(), table.get(entry.getKey()));
+        }
+    }
+
+    // 删除链头之后，链上其余的键仍然都能找到
+    @Test
+    void removeKeepsRestOfProbeChainReachable() {
+        DocIdTable table = new DocIdTable(16);
+        for (int i = 0; i < 20; i++) {
+            table.put("k" + i, i);
+        }
+        for (int removed = 0; removed < 20; removed += 2) {
+            assertEquals(removed, table.remove("k" + removed));
+            assertEquals(-1, table.get("k" + removed));
+            assertEquals(-1, table.remove("k" + removed));
+            for (int i = 0; i < 20; i++) {
+                int expected = i % 2 == 0 && i <= removed ? -1 : i;
+                assertEquals(expected, table.get("k" + i), "k" + i);
+            }
+        }
+        assertEquals(10, table.size());
+    }
+
+    @Test
+    void putOverwritesExistingDoc() {
+        DocIdTable table = new DocIdTable(4);
+        table.put("a", 1);
+        table.put("a", 2);
+        assertEquals(1, table.size());
+        assertEquals(2, table.get("a"));
+    }
+}
@@ -0,0 +1,93 @@
+package com.example.placesearch.index;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class PostingListTest {
+
+    @Test
+    void addIgnoresRepeatsAndRejectsDecreasingDocs() {
+        PostingList list = new PostingList();
+        list.add(3);
+        list.add(3);
+        list.add(200);
+        list.add(70_000);
+        assertArrayEquals(new int[]{3, 200, 70_000}, list.toArray());
+        assertThrows(IllegalArgumentException.class, () -> list.add(5));
+    }
+
+    @Test
+    void intersectMatchesReference() {
+        Random random = new Random(11);
+        for (int round = 0; round < 200; round++) {
+            int[] docs = randomSorted(random, random.nextInt(2_000), 1 + random.nextInt(100_000));
+            int[] other = randomSorted(random, random.nextInt(2_000), 1 + random.nextInt(100_000));
+            PostingList list = of(docs);
+            int[] expected = Arrays.stream(other).filter(doc -> Arrays.binarySearch(docs, doc) >= 0).toArray();
+            assertArrayEquals(expected, list.intersect(other));
+        }
+        assertArrayEquals(new int[0], of(new int[]{1, 2, 3}).intersect(new int[0]));
+    }
+
+    @Test
+    void remapDropsDeletedDocsAndKeepsOrder() {
+        Random random = new Random(13);
+        for (int round = 0; round < 200; round++) {
+            int docCount = 1 + random.nextInt(5_000);
+            int[] docs = randomSorted(random, random.nextInt(docCount), docCount);
+            // 与 KeywordIndex 压缩相同：存活文档按原顺序重新编号
+            int[] mapping = new int[docCount];
+            int live = 0;
+            for (int doc = 0; doc < docCount; doc++) {
+                mapping[doc] = random.nextInt(4) == 0 ? -1 : live++;
+            }
+            int[] expected = Arrays.stream(docs).map(doc -> mapping[doc]).filter(doc -> doc >= 0).toArray();
+            PostingList remapped = of(docs).remap(mapping);
+            if (expected.length == 0) {
+                assertNull(remapped);
+            } else {
+                assertArrayEquals(expected, remapped.toArray());
+                assertEquals(expected.length, remapped.size());
+                // 重新编号后仍可以继续追加
+                remapped.add(live);
+                assertEquals(live, remapped.toArray()[expected.length]);
+            }
+        }
+    }
+
+    @Test
+    void snapshotRoundTrip() throws IOException {
+        int[] docs = randomSorted(new Random(17), 1_000, 1_000_000);
+        PostingList list = of(docs);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        list.write(new DataOutputStream(bytes));
+        PostingList restored = PostingList.read(ByteBuffer.wrap(bytes.toByteArray()));
+        assertArrayEquals(docs, restored.toArray());
+        restored.add(1_000_000);
+        assertEquals(docs.length + 1, restored.size());
+    }
+
+    private static PostingList of(int[] docs) {
+        PostingList list = new PostingList();
+        for (int doc : docs) {
+            list.add(doc);
+        }
+        return list;
+    }
+
+    private static int[] randomSorted(Random random, int count, int bound) {
+        return IntStream.generate(() -> random.nextInt(bound)).limit(count).sorted().distinct().toArray();
+    }
+}
@@ -0,0 +1,94 @@
+package com.example.placesearch.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GeoKeyTest {
+
+    // 矩形内（含边界）任意一点的键都必须落在 cover 的某个区间里
+    @Test
+    void coverContainsEveryPointOfRectangle() {
+        Random random = new Random(19);
+        for (int round = 0; round < 2_000; round++) {
+            double span = Math.pow(10, -5 + random.nextDouble() * 6);
+            double minLon = 73 + random.nextDouble() * 60;
+            double minLat = 18 + random.nextDouble() * 35;
+            double maxLon = minLon + span * random.nextDouble();
+            double maxLat = minLat + span * random.nextDouble();
+            int maxRanges = 1 + random.nextInt(64);
+            List<long[]> ranges = GeoKey.cover(minLon, maxLon, minLat, maxLat, maxRanges);
+
+            assertTrue(!ranges.isEmpty() && ranges.size() <= maxRanges, "区间数 " + ranges.size());
+            for (int i = 0; i < ranges.size(); i++) {
+                assertTrue(ranges.get(i)[0] <= ranges.get(i)[1]);
+                if (i > 0) {
+                    // 已排序且相邻区间已合并
+                    assertTrue(ranges.get(i)[0] > ranges.get(i - 1)[1] + 1);
+                }
+            }
+            assertCovered(ranges, minLon, minLat);
+            assertCovered(ranges, minLon, maxLat);
+            assertCovered(ranges, maxLon, minLat);
+            assertCovered(ranges, maxLon, maxLat);
+            for (int i = 0; i < 50; i++) {
+                assertCovered(ranges, minLon + (maxLon - minLon) * random.nextDouble(),
+                        minLat + (maxLat - minLat) * random.nextDouble());
+            }
+        }
+    }
+
+    // 区间数足够时细分到底，覆盖范围应与矩形量化后的格子完全一致
+    @Test
+    void coverIsExactWhenRangesSuffice() {
+        double minLon = 116.39;
+        double minLat = 39.9;
+        double maxLon = minLon + 3e-7;
+        double maxLat = minLat + 3e-7;
+        List<long[]> ranges = GeoKey.cover(minLon, maxLon, minLat, maxLat, 1_000);
+        long x0 = GeoKey.quantizeLon(minLon);
+        long x1 = GeoKey.quantizeLon(maxLon);
+        long y0 = GeoKey.quantizeLat(minLat);
+        long y1 = GeoKey.quantizeLat(maxLat);
+        long covered = 0;
+        for (long[] range : ranges) {
+            covered += range[1] - range[0] + 1;
+        }
+        assertEquals((x1 - x0 + 1) * (y1 - y0 + 1), covered);
+        for (long x = x0; x <= x1; x++) {
+            for (long y = y0; y <= y1; y++) {
+                assertTrue(contains(ranges, GeoKey.interleave(x, y)));
+            }
+        }
+    }
+
+    @Test
+    void emptyRectangleHasNoRanges() {
+        assertTrue(GeoKey.cover(117, 116, 39, 40, 8).isEmpty());
+        assertTrue(GeoKey.cover(116, 117, 40, 39, 8).isEmpty());
+    }
+
+    @Test
+    void missingCoordinatesSortLast() {
+        assertEquals(GeoKey.MISSING, GeoKey.of(null, 39.9));
+        assertEquals(GeoKey.MISSING, GeoKey.of(116.4, null));
+        assertTrue(GeoKey.of(180.0, 90.0) < GeoKey.MISSING);
+    }
+
+    private static void assertCovered(List<long[]> ranges, double lon, double lat) {
+        assertTrue(contains(ranges, GeoKey.of(lon, lat)), lon + "," + lat);
+    }
+
+    private static boolean contains(List<long[]> ranges, long key) {
+        for (long[] range : ranges) {
+            if (key >= range[0] && key <= range[1]) {
+                return true;
+            }
+        }
+        return false;
+    }
+}